@@ -0,0 +1,53 @@
+#!/usr/bin/env bash
+# Compares request handling of POST /loan/decision on the servlet stack with platform threads, the servlet stack
+# with virtual threads and the reactive stack on Netty.
+# Starts a stub credit registry with a fixed latency, then runs the application in every mode with the HTTP
+# credit info provider and no credit modifier cache, so every request waits for the registry.
+#
+# Usage: scripts/load-test.sh   (env: CONNECTIONS="1000 10000", DURATION=30, REGISTRY_LATENCY_MS=50)
+# 10k connections need a high open file limit on both ends, for example ulimit -n 65536.
+set -euo pipefail
+cd "$(dirname "$0")/.."
+
+CONNECTIONS=${CONNECTIONS:-"1000 10000"}
+DURATION=${DURATION:-30}
+REGISTRY_LATENCY_MS=${REGISTRY_LATENCY_MS:-50}
+REGISTRY_PORT=8090
+APP_PORT=8080
+
+./gradlew -q bootJar loadtestClasses
+LOADTEST_CLASSPATH=build/classes/java/loadtest
+
+java -cp "$LOADTEST_CLASSPATH" ee.taltech.inbankbackend.loadtest.DecisionLoadTest registry "$REGISTRY_PORT" "$REGISTRY_LATENCY_MS" &
+REGISTRY_PID=$!
+trap 'kill $REGISTRY_PID 2>/dev/null || true' EXIT
+
+for MODE in platform-threads virtual-threads reactive; do
+  VIRTUAL_THREADS=false
+  PROFILES=default
+  case "$MODE" in
+    virtual-threads) VIRTUAL_THREADS=true ;;
+    reactive) PROFILES=reactive ;;
+  esac
+  java -jar build/libs/inbank-backend-1.0.jar \
+    --spring.profiles.active="$PROFILES" \
+    --server.port="$APP_PORT" \
+    --server.tomcat.max-connections=20000 \
+    --server.tomcat.accept-count=10000 \
+    --spring.threads.virtual.enabled="$VIRTUAL_THREADS" \
+    --decision-engine.credit-info.provider=http \
+    --decision-engine.credit-info.url="http://localhost:$REGISTRY_PORT/credit-modifier/" \
+    --decision-engine.credit-info.timeout-ms=5000 \
+    --decision-engine.credit-info.cache.ttl-seconds=0 > "build/load-test-app-$MODE.log" 2>&1 &
+  APP_PID=$!
+  until curl -s -o /dev/null "http://localhost:$APP_PORT/"; do sleep 1; done
+
+  for CONNECTION_COUNT in $CONNECTIONS; do
+    echo -n "mode=$MODE "
+    java -cp "$LOADTEST_CLASSPATH" ee.taltech.inbankbackend.loadtest.DecisionLoadTest \
+      load "http://localhost:$APP_PORT" "$CONNECTION_COUNT" "$DURATION"
+  done
+
+  kill "$APP_PID"
+  wait "$APP_PID" 2>/dev/null || true
+done
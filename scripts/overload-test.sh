@@ -0,0 +1,47 @@
+#!/usr/bin/env bash
+# Shows the effect of admission control under overload. Runs POST /loan/decision at rising numbers of connections
+# with admission control off and on, and prints the p99 latency of the admitted requests and the number of rejected ones.
+# With admission control on, the p99 of admitted requests should stay flat while the excess is rejected with 503.
+# The per-client rate is raised out of the way, as all load comes from one address; this measures the concurrency limit.
+#
+# Usage: scripts/overload-test.sh   (env: CONNECTIONS="50 500 2000", DURATION=30, REGISTRY_LATENCY_MS=20)
+set -euo pipefail
+cd "$(dirname "$0")/.."
+
+CONNECTIONS=${CONNECTIONS:-"50 500 2000"}
+DURATION=${DURATION:-30}
+REGISTRY_LATENCY_MS=${REGISTRY_LATENCY_MS:-20}
+REGISTRY_PORT=8090
+APP_PORT=8080
+
+./gradlew -q bootJar loadtestClasses
+LOADTEST_CLASSPATH=build/classes/java/loadtest
+
+java -cp "$LOADTEST_CLASSPATH" ee.taltech.inbankbackend.loadtest.DecisionLoadTest registry "$REGISTRY_PORT" "$REGISTRY_LATENCY_MS" &
+REGISTRY_PID=$!
+trap 'kill $REGISTRY_PID 2>/dev/null || true' EXIT
+
+for ADMISSION in false true; do
+  java -jar build/libs/inbank-backend-1.0.jar \
+    --server.port="$APP_PORT" \
+    --server.tomcat.max-connections=20000 \
+    --server.tomcat.accept-count=10000 \
+    --decision-engine.admission.enabled="$ADMISSION" \
+    --decision-engine.admission.client-rate=1000000 \
+    --decision-engine.admission.client-burst=1000000 \
+    --decision-engine.credit-info.provider=http \
+    --decision-engine.credit-info.url="http://localhost:$REGISTRY_PORT/credit-modifier/" \
+    --decision-engine.credit-info.timeout-ms=5000 \
+    --decision-engine.credit-info.cache.ttl-seconds=0 > "build/overload-test-app-admission-$ADMISSION.log" 2>&1 &
+  APP_PID=$!
+  until curl -s -o /dev/null "http://localhost:$APP_PORT/"; do sleep 1; done
+
+  for CONNECTION_COUNT in $CONNECTIONS; do
+    echo -n "admission=$ADMISSION "
+    java -cp "$LOADTEST_CLASSPATH" ee.taltech.inbankbackend.loadtest.DecisionLoadTest \
+      load "http://localhost:$APP_PORT" "$CONNECTION_COUNT" "$DURATION"
+  done
+
+  kill "$APP_PID"
+  wait "$APP_PID" 2>/dev/null || true
+done
@@ -0,0 +1,72 @@
+#!/usr/bin/env bash
+# Compares the startup of the application variants for autoscaling: the boot jar on the JVM, the JVM with an AppCDS
+# archive, the JVM with an AppCDS archive and Spring AOT, and the GraalVM native image if native-image is available.
+# Every run measures the time from launching the process to the first successful POST /loan/decision response,
+# and the resident set size after the application has been idle for a while.
+#
+# The AppCDS archives are written by a training run that stops right after the application context is refreshed.
+#
+# Usage: scripts/startup-benchmark.sh   (env: VARIANTS="jvm cds cds-aot native", RUNS=5, IDLE_SECONDS=10)
+# Linux only, the RSS is read from /proc.
+set -euo pipefail
+cd "$(dirname "$0")/.."
+
+VARIANTS=${VARIANTS:-"jvm cds cds-aot native"}
+RUNS=${RUNS:-5}
+IDLE_SECONDS=${IDLE_SECONDS:-10}
+APP_PORT=8080
+MAIN_CLASS=ee.taltech.inbankbackend.InbankBackendApplication
+CDS_CLASSPATH="build/cds/lib/*"
+REQUEST='{"personalCode":"50307172740","loanAmount":4000,"loanPeriod":12}'
+
+./gradlew -q bootJar cdsLayout
+if [[ " $VARIANTS " == *" native "* ]]; then
+  if command -v native-image > /dev/null; then
+    ./gradlew -q nativeCompile
+  else
+    echo "native-image not found, skipping the native variant" >&2
+    VARIANTS=${VARIANTS//native/}
+  fi
+fi
+
+command_of() {
+  case "$1" in
+    jvm) echo "java -jar build/libs/inbank-backend-1.0.jar" ;;
+    cds) echo "java -XX:SharedArchiveFile=build/cds/app.jsa -cp $CDS_CLASSPATH $MAIN_CLASS" ;;
+    cds-aot) echo "java -XX:SharedArchiveFile=build/cds/app-aot.jsa -Dspring.aot.enabled=true -cp $CDS_CLASSPATH $MAIN_CLASS" ;;
+    native) echo "build/native/nativeCompile/inbank-backend" ;;
+  esac
+}
+
+# Training runs, the classes loaded until the context is refreshed are archived at exit
+java -XX:ArchiveClassesAtExit=build/cds/app.jsa -Dspring.context.exit=onRefresh \
+  -cp "$CDS_CLASSPATH" "$MAIN_CLASS" --server.port=0 > build/startup-benchmark-training.log 2>&1
+java -XX:ArchiveClassesAtExit=build/cds/app-aot.jsa -Dspring.context.exit=onRefresh -Dspring.aot.enabled=true \
+  -cp "$CDS_CLASSPATH" "$MAIN_CLASS" --server.port=0 > build/startup-benchmark-training-aot.log 2>&1
+
+for VARIANT in $VARIANTS; do
+  for RUN in $(seq 1 "$RUNS"); do
+    START=$(date +%s%N)
+    # Word splitting of the command is intended, the classpath wildcard is expanded by java
+    set -f
+    $(command_of "$VARIANT") --server.port="$APP_PORT" > "build/startup-benchmark-$VARIANT.log" 2>&1 &
+    APP_PID=$!
+    set +f
+    until [ "$(curl -s -o /dev/null -w '%{http_code}' -H 'Content-Type: application/json' -d "$REQUEST" \
+        "http://localhost:$APP_PORT/loan/decision")" = 200 ]; do
+      if ! kill -0 "$APP_PID" 2>/dev/null; then
+        echo "$VARIANT exited, see build/startup-benchmark-$VARIANT.log" >&2
+        exit 1
+      fi
+      sleep 0.01
+    done
+    FIRST_DECISION_MS=$(( ($(date +%s%N) - START) / 1000000 ))
+
+    sleep "$IDLE_SECONDS"
+    IDLE_RSS_KB=$(awk '/^VmRSS:/ { print $2 }' "/proc/$APP_PID/status")
+    echo "variant=$VARIANT run=$RUN first_decision_ms=$FIRST_DECISION_MS idle_rss_mb=$(( IDLE_RSS_KB / 1024 ))"
+
+    kill "$APP_PID"
+    wait "$APP_PID" 2>/dev/null || true
+  done
+done
@@ -0,0 +1,118 @@
+package ee.taltech.inbankbackend.binary;
+
+import ee.taltech.inbankbackend.InbankBackendApplication;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the JSON endpoint with the binary protocol on the same running application. The JSON client sends one
+ * request per round trip, as HTTP/1.1 clients do. The binary client is measured with one request per round trip
+ * and with a pipeline of requests per write. Clients only read the response bytes, so the difference is the cost
+ * of the transport and the encoding on the server.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DecisionTransportBenchmark {
+
+    private static final int PIPELINE_DEPTH = 256;
+    private static final String PERSONAL_CODE = "50307172740";
+
+    private ConfigurableApplicationContext context;
+    private int httpPort;
+    private int binaryPort;
+
+    @Setup(Level.Trial)
+    public void startApplication() {
+        context = SpringApplication.run(InbankBackendApplication.class,
+                "--server.port=0", "--decision-engine.binary.enabled=true", "--decision-engine.binary.port=0",
+                "--logging.level.root=WARN");
+        httpPort = ((WebServerApplicationContext) context).getWebServer().getPort();
+        binaryPort = context.getBean(BinaryDecisionServer.class).getPort();
+    }
+
+    @TearDown(Level.Trial)
+    public void stopApplication() {
+        context.close();
+    }
+
+    @State(Scope.Thread)
+    public static class Client {
+
+        private HttpClient httpClient;
+        private HttpRequest httpRequest;
+        private SocketChannel channel;
+        private final ByteBuffer request = ByteBuffer.allocateDirect(BinaryDecisionProtocol.REQUEST_FRAME_LENGTH);
+        private final ByteBuffer response = ByteBuffer.allocateDirect(BinaryDecisionProtocol.RESPONSE_FRAME_LENGTH);
+        private final ByteBuffer pipelinedRequests = ByteBuffer.allocateDirect(PIPELINE_DEPTH * BinaryDecisionProtocol.REQUEST_FRAME_LENGTH);
+        private final ByteBuffer pipelinedResponses = ByteBuffer.allocateDirect(PIPELINE_DEPTH * BinaryDecisionProtocol.RESPONSE_FRAME_LENGTH);
+
+        @Setup(Level.Trial)
+        public void connect(DecisionTransportBenchmark benchmark) throws IOException {
+            httpClient = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+            httpRequest = HttpRequest.newBuilder(URI.create("http://localhost:" + benchmark.httpPort + "/loan/decision"))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(
+                            "{\"personalCode\":\"" + PERSONAL_CODE + "\",\"loanAmount\":4000,\"loanPeriod\":12}"))
+                    .build();
+
+            channel = SocketChannel.open(new InetSocketAddress("localhost", benchmark.binaryPort));
+            BinaryDecisionProtocol.writeRequest(request, 0, PERSONAL_CODE, 4000, 12);
+            request.flip();
+            for (int i = 0; i < PIPELINE_DEPTH; i++) {
+                BinaryDecisionProtocol.writeRequest(pipelinedRequests, i, PERSONAL_CODE, 4000, 12);
+            }
+            pipelinedRequests.flip();
+        }
+
+        @TearDown(Level.Trial)
+        public void disconnect() throws IOException {
+            channel.close();
+        }
+
+        private ByteBuffer exchange(ByteBuffer requests, ByteBuffer responses) throws IOException {
+            requests.rewind();
+            while (requests.hasRemaining()) {
+                channel.write(requests);
+            }
+            responses.clear();
+            while (responses.hasRemaining()) {
+                if (channel.read(responses) < 0) {
+                    throw new IOException("Connection closed");
+                }
+            }
+            return responses.flip();
+        }
+    }
+
+    @Benchmark
+    public byte[] json(Client client) throws IOException, InterruptedException {
+        return client.httpClient.send(client.httpRequest, HttpResponse.BodyHandlers.ofByteArray()).body();
+    }
+
+    @Benchmark
+    public ByteBuffer binary(Client client) throws IOException {
+        return client.exchange(client.request, client.response);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PIPELINE_DEPTH)
+    public ByteBuffer binaryPipelined(Client client) throws IOException {
+        return client.exchange(client.pipelinedRequests, client.pipelinedResponses);
+    }
+}
@@ -0,0 +1,45 @@
+package ee.taltech.inbankbackend.endpoint;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures JSON (de)serialization of the decision endpoint with an ObjectMapper configured like the application's.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JsonSerializationBenchmark {
+
+    private ObjectMapper objectMapper;
+    private byte[] requestJson;
+    private DecisionResponse response;
+
+    @Setup
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        requestJson = "{\"personalCode\":\"50307172740\",\"loanAmount\":4000,\"loanPeriod\":12}"
+                .getBytes(StandardCharsets.UTF_8);
+        response = new DecisionResponse();
+        response.setLoanAmount(4000);
+        response.setLoanPeriod(40);
+    }
+
+    @Benchmark
+    public DecisionRequest readDecisionRequest() throws IOException {
+        return objectMapper.readValue(requestJson, DecisionRequest.class);
+    }
+
+    @Benchmark
+    public byte[] writeDecisionResponse() throws IOException {
+        return objectMapper.writeValueAsBytes(response);
+    }
+}
@@ -0,0 +1,64 @@
+package ee.taltech.inbankbackend.service;
+
+import io.micrometer.prometheus.PrometheusConfig;
+import io.micrometer.prometheus.PrometheusMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures DecisionEngine.calculateApprovedLoan for every credit segment. With the default parameters
+ * the requested amount is reachable in the requested period for some combinations (the offer is returned
+ * for the requested period) and not for others (a longer period is looked up). With metrics, every decision is
+ * recorded to a Prometheus registry, which shows the per-request cost of the instrumentation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DecisionEngineBenchmark {
+
+    private static final Map<String, String> PERSONAL_CODES = Map.of(
+            "DEBT", "37605030299",
+            "SEGMENT_1", "50307172740",
+            "SEGMENT_2", "38411266610",
+            "SEGMENT_3", "35006069515");
+
+    @Param({"DEBT", "SEGMENT_1", "SEGMENT_2", "SEGMENT_3"})
+    public String segment;
+
+    @Param({"2000", "10000"})
+    public long loanAmount;
+
+    @Param({"12", "48"})
+    public int loanPeriod;
+
+    @Param({"true", "false"})
+    public boolean memo;
+
+    @Param({"true", "false"})
+    public boolean metrics;
+
+    private DecisionEngine decisionEngine;
+    private String personalCode;
+
+    @Setup
+    public void setUp() {
+        LoanLimitSolver loanLimitSolver = new LoanLimitSolver();
+        decisionEngine = DecisionEngine.builder(loanLimitSolver, new OfferTableProvider(loanLimitSolver))
+                .creditInfoProvider(new CreditInfoService())
+                .decisionMemo(new DecisionMemo(memo ? DecisionMemo.DEFAULT_SIZE : 0))
+                .decisionMetrics(metrics
+                        ? new DecisionMetrics(new PrometheusMeterRegistry(PrometheusConfig.DEFAULT)) : DecisionMetrics.disabled())
+                .build();
+        personalCode = PERSONAL_CODES.get(segment);
+    }
+
+    @Benchmark
+    public DecisionOutcome calculateApprovedLoan() {
+        return decisionEngine.calculateApprovedLoan(personalCode, loanAmount, loanPeriod);
+    }
+}
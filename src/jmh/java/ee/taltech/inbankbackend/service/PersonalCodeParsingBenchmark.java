@@ -0,0 +1,52 @@
+package ee.taltech.inbankbackend.service;
+
+import com.github.vladislavgoltjajev.personalcode.locale.estonia.EstonianPersonalCodeValidator;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares parsing a personal ID code once with ParsedPersonalCode against the previous approach:
+ * the external validator followed by substring + Integer.parseInt for the age check and the credit segment.
+ * Run with the gc profiler to compare the allocation per operation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PersonalCodeParsingBenchmark {
+
+    private static final EstonianPersonalCodeValidator validator = new EstonianPersonalCodeValidator();
+
+    private final String[] personalCodes = {"50307172740", "38411266610", "35006069515", "37605030299"};
+    private int index;
+
+    private String nextPersonalCode() {
+        index = (index + 1) & 3;
+        return personalCodes[index];
+    }
+
+    @Benchmark
+    public void substringParsing(Blackhole blackhole) {
+        String personalCode = nextPersonalCode();
+        blackhole.consume(validator.isValid(personalCode));
+        blackhole.consume(Integer.parseInt(personalCode.substring(0, 1)));
+        blackhole.consume(Integer.parseInt(personalCode.substring(1, 3)));
+        blackhole.consume(Integer.parseInt(personalCode.substring(3, 5)));
+        blackhole.consume(Integer.parseInt(personalCode.substring(5, 7)));
+        blackhole.consume(Integer.parseInt(personalCode.substring(personalCode.length() - 4)));
+    }
+
+    @Benchmark
+    public void singlePassParsing(Blackhole blackhole) {
+        ParsedPersonalCode personalCode = ParsedPersonalCode.parse(nextPersonalCode());
+        blackhole.consume(personalCode.isValid());
+        blackhole.consume(personalCode.getBirthYear());
+        blackhole.consume(personalCode.getBirthMonth());
+        blackhole.consume(personalCode.getBirthDay());
+        blackhole.consume(personalCode.getSegmentDigits());
+    }
+}
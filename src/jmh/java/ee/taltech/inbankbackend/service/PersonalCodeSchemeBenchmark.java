@@ -0,0 +1,55 @@
+package ee.taltech.inbankbackend.service;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures parsing of the personal ID codes of every supported country, looking the scheme up by country
+ * and, for comparison, by the shape of the code. Run with the gc profiler to check that parsing allocates
+ * nothing but the parsed code.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PersonalCodeSchemeBenchmark {
+
+    @Param({"EE", "LT", "LV"})
+    public String country;
+
+    private String[] personalCodes;
+    private int index;
+
+    @Setup
+    public void setUp() {
+        personalCodes = switch (country) {
+            case "LV" -> new String[]{"170703-22744", "170703-22007", "17070322744", "010140-12278"};
+            default -> new String[]{"50307172740", "38411266610", "35006069515", "37605030299"};
+        };
+    }
+
+    private String nextPersonalCode() {
+        index = (index + 1) & 3;
+        return personalCodes[index];
+    }
+
+    @Benchmark
+    public void parseByCountry(Blackhole blackhole) {
+        ParsedPersonalCode personalCode = PersonalCodeSchemes.parse(country, nextPersonalCode());
+        blackhole.consume(personalCode.isValid());
+        blackhole.consume(personalCode.getBirthDate());
+        blackhole.consume(personalCode.getSegmentDigits());
+    }
+
+    @Benchmark
+    public void parseByShape(Blackhole blackhole) {
+        ParsedPersonalCode personalCode = PersonalCodeSchemes.parse(null, nextPersonalCode());
+        blackhole.consume(personalCode.isValid());
+        blackhole.consume(personalCode.getBirthDate());
+        blackhole.consume(personalCode.getSegmentDigits());
+    }
+}
@@ -0,0 +1,41 @@
+package ee.taltech.inbankbackend.service;
+
+import ee.taltech.inbankbackend.config.ScoringPolicy;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Clock;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures input validation and the credit modifier lookup, including parsing of the personal ID code.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ValidationServiceBenchmark {
+
+    @Param({"50307172740", "12345678901", "62302155730"})
+    public String personalCode;
+
+    @Param({"4000"})
+    public long loanAmount;
+
+    @Param({"24"})
+    public int loanPeriod;
+
+    private final EligibilityCalendar calendar = new EligibilityCalendar(Clock.systemDefaultZone());
+
+    @Benchmark
+    public DecisionOutcome verifyInputs() {
+        return ValidationService.verifyInputs(ParsedPersonalCode.parse(personalCode), loanAmount, loanPeriod, ScoringPolicy.DEFAULTS,
+                calendar);
+    }
+
+    @Benchmark
+    public int getCreditModifier() {
+        return CreditInfoService.getCreditModifier(ParsedPersonalCode.parse(personalCode));
+    }
+}
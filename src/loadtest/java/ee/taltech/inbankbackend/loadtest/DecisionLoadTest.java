@@ -0,0 +1,163 @@
+package ee.taltech.inbankbackend.loadtest;
+
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Load generator for POST /loan/decision and a stub credit registry with a fixed latency.
+ * <p>
+ * In load mode, every connection is a virtual thread that sends requests one after another for the given duration.
+ * Latencies of the requests admitted after the warm-up are recorded, and throughput, p50, p99 and maximum latency are printed.
+ * Requests shed by admission control (429 or 503) are counted as rejected, other failures as errors.
+ * <p>
+ * Usage:
+ * <pre>
+ * DecisionLoadTest load &lt;baseUrl&gt; &lt;connections&gt; &lt;durationSeconds&gt; [warmUpSeconds]
+ * DecisionLoadTest registry &lt;port&gt; &lt;latencyMillis&gt;
+ * </pre>
+ */
+public class DecisionLoadTest {
+
+    private static final String[] PERSONAL_CODES = {"50307172740", "38411266610", "35006069515"};
+    private static final int[] LOAN_AMOUNTS = {2000, 4000, 6000, 10000};
+    private static final int[] LOAN_PERIODS = {12, 24, 36, 48};
+
+    public static void main(String[] args) throws Exception {
+        if (args.length >= 4 && args[0].equals("load")) {
+            int warmUpSeconds = args.length > 4 ? Integer.parseInt(args[4]) : 5;
+            load(args[1], Integer.parseInt(args[2]), Integer.parseInt(args[3]), warmUpSeconds);
+        } else if (args.length == 3 && args[0].equals("registry")) {
+            registry(Integer.parseInt(args[1]), Integer.parseInt(args[2]));
+        } else {
+            System.err.println("Usage: DecisionLoadTest load <baseUrl> <connections> <durationSeconds> [warmUpSeconds]");
+            System.err.println("       DecisionLoadTest registry <port> <latencyMillis>");
+            System.exit(2);
+        }
+    }
+
+    private static void load(String baseUrl, int connections, int durationSeconds, int warmUpSeconds) throws InterruptedException {
+        HttpClient httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+        URI uri = URI.create(baseUrl + "/loan/decision");
+        long warmUpEnd = System.nanoTime() + Duration.ofSeconds(warmUpSeconds).toNanos();
+        long end = warmUpEnd + Duration.ofSeconds(durationSeconds).toNanos();
+
+        AtomicLong errors = new AtomicLong();
+        AtomicLong rejected = new AtomicLong();
+        List<long[]> latencies = new ArrayList<>(connections);
+        int[] latencyCounts = new int[connections];
+        CountDownLatch done = new CountDownLatch(connections);
+        for (int connection = 0; connection < connections; connection++) {
+            long[] connectionLatencies = new long[1024];
+            latencies.add(connectionLatencies);
+            int index = connection;
+            Thread.ofVirtual().start(() -> {
+                try {
+                    long[] recorded = connectionLatencies;
+                    int count = 0;
+                    for (int request = index; System.nanoTime() < end; request++) {
+                        long start = System.nanoTime();
+                        int status = send(httpClient, uri, request);
+                        long finish = System.nanoTime();
+                        if (status == 429 || status == 503) {
+                            rejected.incrementAndGet();
+                        } else if (status != 200) {
+                            errors.incrementAndGet();
+                        } else if (start >= warmUpEnd) {
+                            if (count == recorded.length) {
+                                recorded = Arrays.copyOf(recorded, count * 2);
+                            }
+                            recorded[count++] = finish - start;
+                        }
+                    }
+                    latencies.set(index, recorded);
+                    latencyCounts[index] = count;
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+        done.await();
+
+        int total = Arrays.stream(latencyCounts).sum();
+        long[] all = new long[total];
+        int offset = 0;
+        for (int connection = 0; connection < connections; connection++) {
+            System.arraycopy(latencies.get(connection), 0, all, offset, latencyCounts[connection]);
+            offset += latencyCounts[connection];
+        }
+        Arrays.sort(all);
+        System.out.printf("connections=%d requests=%d rejected=%d errors=%d throughput=%.0f req/s p50=%.2f ms p99=%.2f ms max=%.2f ms%n",
+                connections, total, rejected.get(), errors.get(), (double) total / durationSeconds,
+                percentileMillis(all, 0.50), percentileMillis(all, 0.99), percentileMillis(all, 1.0));
+    }
+
+    /**
+     * @return Status code of the response, or -1 if the request failed
+     */
+    private static int send(HttpClient httpClient, URI uri, int request) {
+        String body = "{\"personalCode\":\"" + PERSONAL_CODES[request % PERSONAL_CODES.length]
+                + "\",\"loanAmount\":" + LOAN_AMOUNTS[request % LOAN_AMOUNTS.length]
+                + ",\"loanPeriod\":" + LOAN_PERIODS[(request / LOAN_AMOUNTS.length) % LOAN_PERIODS.length] + "}";
+        HttpRequest httpRequest = HttpRequest.newBuilder(uri)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+        try {
+            return httpClient.send(httpRequest, HttpResponse.BodyHandlers.discarding()).statusCode();
+        } catch (IOException e) {
+            return -1;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return -1;
+        }
+    }
+
+    private static double percentileMillis(long[] sortedLatencies, double percentile) {
+        if (sortedLatencies.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(percentile * sortedLatencies.length) - 1;
+        return sortedLatencies[Math.max(0, index)] / 1_000_000.0;
+    }
+
+    /**
+     * Starts a credit registry that answers every lookup with credit modifier 1000 after the given latency.
+     */
+    private static void registry(int port, int latencyMillis) throws IOException {
+        byte[] response = "{\"creditModifier\":1000}".getBytes(StandardCharsets.UTF_8);
+        HttpServer server = HttpServer.create(new InetSocketAddress(port), 10_000);
+        server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        server.createContext("/credit-modifier/", exchange -> {
+            try {
+                Thread.sleep(latencyMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, response.length);
+            try (OutputStream body = exchange.getResponseBody()) {
+                body.write(response);
+            }
+        });
+        server.start();
+        System.out.printf("Stub credit registry listening on port %d with %d ms latency%n", port, latencyMillis);
+    }
+}
@@ -0,0 +1,100 @@
+package ee.taltech.inbankbackend.admission;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Limit of concurrently processed requests that adapts to their latency with additive increase and multiplicative
+ * decrease (AIMD). Requests over the limit are rejected instead of queued, so admitted requests keep their latency
+ * while excess load is shed.
+ * <p>
+ * Every request that completes within the latency threshold while at least half of the limit is in use raises the
+ * limit by one. A request slower than the threshold lowers the limit by the backoff ratio. The limit is lowered at
+ * most once per threshold interval, because the requests that were admitted together all complete slowly together.
+ */
+public final class AdaptiveConcurrencyLimiter {
+
+    private final int minimumLimit;
+    private final int maximumLimit;
+    private final long latencyThresholdNanos;
+    private final double backoffRatio;
+    private final LongSupplier nanoTime;
+    private final AtomicInteger limit;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicLong lastDecrease;
+
+    /**
+     * @param initialLimit          Limit before any request completed
+     * @param minimumLimit          Lowest limit
+     * @param maximumLimit          Highest limit
+     * @param latencyThresholdNanos Latency above which a request counts as a sign of overload
+     * @param backoffRatio          Factor the limit is multiplied with on overload, between 0 and 1
+     */
+    public AdaptiveConcurrencyLimiter(int initialLimit, int minimumLimit, int maximumLimit, long latencyThresholdNanos,
+                                      double backoffRatio) {
+        this(initialLimit, minimumLimit, maximumLimit, latencyThresholdNanos, backoffRatio, System::nanoTime);
+    }
+
+    AdaptiveConcurrencyLimiter(int initialLimit, int minimumLimit, int maximumLimit, long latencyThresholdNanos,
+                               double backoffRatio, LongSupplier nanoTime) {
+        if (minimumLimit < 1 || maximumLimit < minimumLimit || latencyThresholdNanos <= 0
+                || !(backoffRatio > 0 && backoffRatio < 1)) {
+            throw new IllegalArgumentException("Invalid concurrency limits");
+        }
+        this.minimumLimit = minimumLimit;
+        this.maximumLimit = maximumLimit;
+        this.latencyThresholdNanos = latencyThresholdNanos;
+        this.backoffRatio = backoffRatio;
+        this.nanoTime = nanoTime;
+        this.limit = new AtomicInteger(Math.max(minimumLimit, Math.min(maximumLimit, initialLimit)));
+        this.lastDecrease = new AtomicLong(nanoTime.getAsLong() - latencyThresholdNanos);
+    }
+
+    /**
+     * @return True if the request is admitted, it must then be completed with {@link #release(long)}
+     */
+    public boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= limit.get()) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Completes an admitted request and adapts the limit to its latency.
+     *
+     * @param latencyNanos Time from admission to completion of the request
+     */
+    public void release(long latencyNanos) {
+        int inFlightBefore = inFlight.getAndDecrement();
+        if (latencyNanos > latencyThresholdNanos) {
+            long now = nanoTime.getAsLong();
+            long last = lastDecrease.get();
+            if (now - last >= latencyThresholdNanos && lastDecrease.compareAndSet(last, now)) {
+                limit.updateAndGet(current -> Math.max(minimumLimit, (int) (current * backoffRatio)));
+            }
+        } else if (inFlightBefore * 2 >= limit.get()) {
+            limit.updateAndGet(current -> Math.min(maximumLimit, current + 1));
+        }
+    }
+
+    /**
+     * @return Current limit
+     */
+    public int getLimit() {
+        return limit.get();
+    }
+
+    /**
+     * @return Requests admitted and not yet completed
+     */
+    public int getInFlight() {
+        return inFlight.get();
+    }
+}
@@ -0,0 +1,76 @@
+package ee.taltech.inbankbackend.admission;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.LongSupplier;
+
+/**
+ * Token buckets of API clients, kept in a fixed array of slots indexed by the hash of the client key.
+ * <p>
+ * Every bucket is a single long, the time at which it would be full again (the generic cell rate algorithm).
+ * A request is admitted if taking its token leaves that time at most one burst ahead of now, and the bucket is updated
+ * with a compare-and-set, so admission never locks. Slots are spaced a cache line apart, so clients admitted on
+ * different cores do not contend on the same line. The number of slots is fixed, so unknown or spoofed client keys
+ * cannot grow memory; clients whose keys share a slot share its bucket.
+ */
+public final class ClientRateLimiter {
+
+    // Longs per slot, so that every bucket has a 64-byte cache line of its own.
+    private static final int SLOT_SPACING = 8;
+
+    private final AtomicLongArray buckets;
+    private final int slotMask;
+    private final long emissionIntervalNanos;
+    private final long burstNanos;
+    private final LongSupplier nanoTime;
+    private final long origin;
+
+    /**
+     * @param requestsPerSecond Sustained rate of a client
+     * @param burst             Requests a client may send at once after being idle
+     * @param slots             Number of buckets, rounded up to a power of two
+     */
+    public ClientRateLimiter(double requestsPerSecond, int burst, int slots) {
+        this(requestsPerSecond, burst, slots, System::nanoTime);
+    }
+
+    ClientRateLimiter(double requestsPerSecond, int burst, int slots, LongSupplier nanoTime) {
+        if (!(requestsPerSecond > 0) || burst < 1 || slots < 1) {
+            throw new IllegalArgumentException("Rate, burst and slots must be positive");
+        }
+        int slotCount = Integer.highestOneBit(Math.max(1, slots - 1)) << 1;
+        this.buckets = new AtomicLongArray(slotCount * SLOT_SPACING);
+        this.slotMask = slotCount - 1;
+        this.emissionIntervalNanos = Math.max(1, (long) (1_000_000_000L / requestsPerSecond));
+        this.burstNanos = emissionIntervalNanos * burst;
+        this.nanoTime = nanoTime;
+        // Buckets start at 0, which has to be in the past for every bucket to start full.
+        this.origin = nanoTime.getAsLong() - burstNanos;
+    }
+
+    /**
+     * Takes a token from the bucket of the client.
+     *
+     * @param clientKey Key identifying the client
+     * @return 0 if the request is admitted, otherwise the nanoseconds until the client has a token again
+     */
+    public long tryAcquire(String clientKey) {
+        int index = slot(clientKey) * SLOT_SPACING;
+        while (true) {
+            long now = nanoTime.getAsLong() - origin;
+            long fullAt = buckets.get(index);
+            long next = Math.max(fullAt, now) + emissionIntervalNanos;
+            long ahead = next - now;
+            if (ahead > burstNanos) {
+                return ahead - burstNanos;
+            }
+            if (buckets.compareAndSet(index, fullAt, next)) {
+                return 0;
+            }
+        }
+    }
+
+    private int slot(String clientKey) {
+        int hash = clientKey.hashCode();
+        return (hash ^ (hash >>> 16)) & slotMask;
+    }
+}
@@ -0,0 +1,98 @@
+package ee.taltech.inbankbackend.audit;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Reads the audit journal written by {@link AuditJournalWriter}, segment by segment in sequence order.
+ * Records with a wrong checksum are skipped and counted; as records have a fixed size, the following records
+ * are still found. Lost records, which stand in for decisions that could not be written, are skipped and counted too.
+ */
+public final class AuditJournalReader {
+
+    private static final String SEGMENT_PREFIX = "decisions-";
+    private static final String SEGMENT_SUFFIX = ".journal";
+
+    private AuditJournalReader() {
+    }
+
+    /**
+     * Passes every valid record of the journal to the consumer, in sequence order.
+     *
+     * @param directory Journal directory
+     * @param consumer  Consumer of the records
+     * @return Numbers of valid, lost and corrupted records
+     */
+    public static Result read(Path directory, Consumer<AuditRecord> consumer) throws IOException {
+        CRC32C crc = new CRC32C();
+        long records = 0;
+        long lost = 0;
+        long corrupted = 0;
+        for (Path segmentFile : segments(directory)) {
+            ByteBuffer segment;
+            try (FileChannel channel = FileChannel.open(segmentFile, StandardOpenOption.READ)) {
+                segment = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            }
+            for (int index = 0; index + AuditRecord.LENGTH <= segment.limit() && AuditRecord.isWritten(segment, index);
+                 index += AuditRecord.LENGTH) {
+                if (!AuditRecord.isValid(segment, index, crc)) {
+                    corrupted++;
+                } else if (AuditRecord.isLost(segment, index)) {
+                    lost++;
+                } else {
+                    consumer.accept(AuditRecord.read(segment, index));
+                    records++;
+                }
+            }
+        }
+        return new Result(records, lost, corrupted);
+    }
+
+    /**
+     * @return Segment files of the journal in sequence order, empty if the directory does not exist
+     */
+    static List<Path> segments(Path directory) throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> {
+                        String name = file.getFileName().toString();
+                        return name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX);
+                    })
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    /**
+     * @return File name of the segment starting with the given sequence number. Numbers are zero-padded, so names sort in order.
+     */
+    static String segmentName(long firstSequence) {
+        return String.format("%s%020d%s", SEGMENT_PREFIX, firstSequence, SEGMENT_SUFFIX);
+    }
+
+    /**
+     * @return Sequence number of the first record of the segment
+     */
+    static long firstSequence(Path segment) {
+        String name = segment.getFileName().toString();
+        return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    /**
+     * @param records   Valid records read
+     * @param lost      Lost records skipped
+     * @param corrupted Records skipped because of a wrong checksum
+     */
+    public record Result(long records, long lost, long corrupted) {
+    }
+}
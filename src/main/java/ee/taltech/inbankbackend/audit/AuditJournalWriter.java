@@ -0,0 +1,114 @@
+package ee.taltech.inbankbackend.audit;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.zip.CRC32C;
+
+/**
+ * Appends audit records to a journal of memory-mapped segment files in a directory. Segments have a fixed size and
+ * are named after the sequence number of their first record, so they sort in journal order. Records are copied into
+ * the mapped segment and sealed with their checksum, the operating system writes them to the file in the background.
+ * When a segment has no room for another record, it is forced to the disk and the next segment is started.
+ * <p>
+ * Opening the journal continues the last segment after its last written record, so sequence numbers stay consecutive
+ * across restarts. Segments are zero-filled when they are created, and the first zero marker ends the written part.
+ * <p>
+ * Not thread-safe, the journal is written by a single thread.
+ */
+final class AuditJournalWriter implements Closeable {
+
+    private final Path directory;
+    private final int segmentSize;
+    private final CRC32C crc = new CRC32C();
+    private MappedByteBuffer segment;
+    private long nextSequence;
+
+    /**
+     * @param directory   Journal directory, created if missing
+     * @param segmentSize Segment size in bytes, rounded down to whole records
+     */
+    AuditJournalWriter(Path directory, int segmentSize) throws IOException {
+        if (segmentSize < AuditRecord.LENGTH) {
+            throw new IllegalArgumentException("Segment size must fit at least one record");
+        }
+        this.directory = Files.createDirectories(directory);
+        this.segmentSize = segmentSize - segmentSize % AuditRecord.LENGTH;
+
+        List<Path> segments = AuditJournalReader.segments(directory);
+        if (segments.isEmpty()) {
+            openSegment(0);
+        } else {
+            Path last = segments.get(segments.size() - 1);
+            segment = map(last, Math.max(this.segmentSize, Files.size(last)));
+            nextSequence = AuditJournalReader.firstSequence(last);
+            while (segment.remaining() >= AuditRecord.LENGTH && AuditRecord.isWritten(segment, segment.position())) {
+                // A torn record left by a crash is skipped, the reader reports it as corrupted.
+                if (AuditRecord.isValid(segment, segment.position(), crc)) {
+                    nextSequence = AuditRecord.sequence(segment, segment.position()) + 1;
+                }
+                segment.position(segment.position() + AuditRecord.LENGTH);
+            }
+        }
+    }
+
+    /**
+     * @return Sequence number the next record must have
+     */
+    long nextSequence() {
+        return nextSequence;
+    }
+
+    /**
+     * Drains records from the ring into the journal, rotating segments as they fill up.
+     *
+     * @return Number of records written
+     */
+    int writeFrom(AuditRingBuffer ring) throws IOException {
+        int written = 0;
+        int count;
+        do {
+            if (segment.remaining() < AuditRecord.LENGTH) {
+                segment.force();
+                openSegment(nextSequence);
+            }
+            int start = segment.position();
+            count = ring.drainTo(segment);
+            for (int i = 0; i < count; i++) {
+                AuditRecord.seal(segment, start + i * AuditRecord.LENGTH, crc);
+            }
+            nextSequence += count;
+            written += count;
+        } while (count > 0 && segment.remaining() < AuditRecord.LENGTH);
+        return written;
+    }
+
+    /**
+     * Writes the records of the current segment to the disk.
+     */
+    void force() {
+        segment.force();
+    }
+
+    private void openSegment(long firstSequence) throws IOException {
+        segment = map(directory.resolve(AuditJournalReader.segmentName(firstSequence)), segmentSize);
+        nextSequence = firstSequence;
+    }
+
+    private static MappedByteBuffer map(Path file, long size) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            // The mapping stays valid after the channel is closed, it is released when the buffer is collected.
+            return channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        }
+    }
+
+    @Override
+    public void close() {
+        segment.force();
+    }
+}
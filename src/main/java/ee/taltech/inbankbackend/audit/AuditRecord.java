@@ -0,0 +1,219 @@
+package ee.taltech.inbankbackend.audit;
+
+import ee.taltech.inbankbackend.service.Decision;
+import ee.taltech.inbankbackend.service.DecisionOutcome;
+import ee.taltech.inbankbackend.service.InvalidField;
+import ee.taltech.inbankbackend.service.RejectionReason;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.CRC32C;
+
+/**
+ * Decision record of the audit journal. Records have a fixed layout, all numbers are big-endian:
+ * <pre>
+ *   0 int      CRC32C of bytes 4 to 71
+ *   4 byte     marker, always 0x5A; a zero marks the end of the written part of a segment
+ *   5 byte     status: 0 approved, 1 invalid input, 2 rejected, 3 lost
+ *   6 byte     detail: invalid field (1 personal code, 2 loan amount, 3 loan period)
+ *              or rejection reason (1 no valid loan, 2 customer age), otherwise 0
+ *   7 byte     offer table segment of the credit modifier, -1 if none
+ *   8 long     sequence number, consecutive over all segments
+ *  16 long     timestamp, milliseconds since the epoch
+ *  24 long     scoring policy version
+ *  32 long     requested loan amount, Long.MIN_VALUE if it was missing
+ *  40 int      requested loan period
+ *  44 int      credit modifier, -1 if the decision ended before the lookup
+ *  48 int      approved loan amount, 0 unless approved
+ *  52 int      approved loan period, 0 unless approved
+ *  56 byte     personal ID code length, at most 13
+ *  57 byte[13] personal ID code, ASCII, padded with zeros
+ *  70 byte[2]  country of the ID code, ASCII, zeros if none was requested
+ * </pre>
+ * Personal ID codes longer than 13 characters are truncated and characters outside ASCII are replaced with '?'.
+ * Such codes are invalid either way. A missing code is written with length 0.
+ * <p>
+ * The country is the one whose scheme the code was parsed with, so codes with the same digits from Estonia and
+ * Lithuania are told apart. If the code was invalid, it is the requested country, and a requested country that is
+ * not two characters long, which no scheme has, is written as "??". Deciding the record again with its country
+ * then parses the code the same way as the original decision.
+ * <p>
+ * A lost record only has its sequence number, the rest is zeros. It takes the place of a decision that could not be
+ * written, so the sequence numbers of the journal stay consecutive.
+ *
+ * @param sequence            Sequence number of the record
+ * @param timestampMillis     Time of the decision
+ * @param policyVersion       Version of the scoring policy the decision was made with
+ * @param country             Country of the ID code, or null if none was requested and the code was invalid
+ * @param personalCode        ID code of the customer
+ * @param loanRequestedAmount Requested loan amount, null if it was missing
+ * @param loanRequestedPeriod Requested loan period
+ * @param segmentIndex        Offer table segment of the credit modifier, or -1
+ * @param creditModifier      Credit modifier of the customer, or -1 if it was not looked up
+ * @param outcome             Outcome of the decision
+ */
+public record AuditRecord(long sequence, long timestampMillis, long policyVersion, String country, String personalCode,
+                          Long loanRequestedAmount, int loanRequestedPeriod, int segmentIndex, int creditModifier,
+                          DecisionOutcome outcome) {
+
+    public static final int LENGTH = 72;
+    static final byte MARKER = 0x5A;
+    static final int MAXIMUM_PERSONAL_CODE_LENGTH = 13;
+    private static final int COUNTRY_LENGTH = 2;
+    private static final int COUNTRY_OFFSET = 70;
+
+    private static final int MARKER_OFFSET = 4;
+    private static final long MISSING_AMOUNT = Long.MIN_VALUE;
+
+    private static final byte STATUS_APPROVED = 0;
+    private static final byte STATUS_INVALID = 1;
+    private static final byte STATUS_REJECTED = 2;
+    private static final byte STATUS_LOST = 3;
+
+    /**
+     * Writes a record without its checksum at the given index of the buffer, see {@link #seal(ByteBuffer, int, CRC32C)}.
+     * Only absolute puts are used, so threads may write different records of the same buffer at the same time.
+     */
+    static void write(ByteBuffer buffer, int index, long sequence, long timestampMillis, long policyVersion, String country,
+                      String personalCode, Long loanRequestedAmount, int loanRequestedPeriod, int segmentIndex, int creditModifier,
+                      DecisionOutcome outcome) {
+        byte status;
+        int detail = 0;
+        int loanAmount = 0;
+        int loanPeriod = 0;
+        if (outcome instanceof DecisionOutcome.Approved approved) {
+            Decision decision = approved.decision();
+            status = STATUS_APPROVED;
+            loanAmount = decision.getLoanAmount();
+            loanPeriod = decision.getLoanPeriod();
+        } else if (outcome instanceof DecisionOutcome.Rejected rejected) {
+            status = STATUS_REJECTED;
+            detail = switch (rejected.reason()) {
+                case NO_VALID_LOAN -> 1;
+                case CUSTOMER_AGE -> 2;
+            };
+        } else {
+            status = STATUS_INVALID;
+            detail = switch (((DecisionOutcome.Invalid) outcome).field()) {
+                case PERSONAL_CODE -> 1;
+                case LOAN_AMOUNT -> 2;
+                case LOAN_PERIOD -> 3;
+            };
+        }
+
+        int codeLength = personalCode != null ? Math.min(personalCode.length(), MAXIMUM_PERSONAL_CODE_LENGTH) : 0;
+        buffer.putInt(index, 0)
+                .put(index + MARKER_OFFSET, MARKER)
+                .put(index + 5, status)
+                .put(index + 6, (byte) detail)
+                .put(index + 7, (byte) segmentIndex)
+                .putLong(index + 8, sequence)
+                .putLong(index + 16, timestampMillis)
+                .putLong(index + 24, policyVersion)
+                .putLong(index + 32, loanRequestedAmount != null ? loanRequestedAmount : MISSING_AMOUNT)
+                .putInt(index + 40, loanRequestedPeriod)
+                .putInt(index + 44, creditModifier)
+                .putInt(index + 48, loanAmount)
+                .putInt(index + 52, loanPeriod)
+                .put(index + 56, (byte) codeLength);
+        for (int i = 0; i < MAXIMUM_PERSONAL_CODE_LENGTH; i++) {
+            char c = i < codeLength ? personalCode.charAt(i) : 0;
+            buffer.put(index + 57 + i, (byte) (c < 0x80 ? c : '?'));
+        }
+        String recordedCountry = country == null || country.length() == COUNTRY_LENGTH ? country : "??";
+        for (int i = 0; i < COUNTRY_LENGTH; i++) {
+            char c = recordedCountry != null ? recordedCountry.charAt(i) : 0;
+            buffer.put(index + COUNTRY_OFFSET + i, (byte) (c < 0x80 ? c : '?'));
+        }
+    }
+
+    /**
+     * Overwrites the record at the given index, partly written or not, with a lost record of the given sequence number.
+     */
+    static void writeLost(ByteBuffer buffer, int index, long sequence) {
+        for (int offset = 0; offset < LENGTH; offset += Long.BYTES) {
+            buffer.putLong(index + offset, 0);
+        }
+        buffer.put(index + MARKER_OFFSET, MARKER)
+                .put(index + 5, STATUS_LOST)
+                .putLong(index + 8, sequence);
+    }
+
+    /**
+     * @return True if the record at the given index is a lost record, see {@link #writeLost(ByteBuffer, int, long)}
+     */
+    static boolean isLost(ByteBuffer buffer, int index) {
+        return buffer.get(index + 5) == STATUS_LOST;
+    }
+
+    /**
+     * Sets the checksum of the record at the given index.
+     */
+    static void seal(ByteBuffer buffer, int index, CRC32C crc) {
+        buffer.putInt(index, checksum(buffer, index, crc));
+    }
+
+    /**
+     * @return True if there is a record at the given index, valid or not. Unwritten space is zeros.
+     */
+    static boolean isWritten(ByteBuffer buffer, int index) {
+        return buffer.get(index + MARKER_OFFSET) != 0;
+    }
+
+    /**
+     * @return True if the record at the given index has the marker and a matching checksum
+     */
+    static boolean isValid(ByteBuffer buffer, int index, CRC32C crc) {
+        return buffer.get(index + MARKER_OFFSET) == MARKER && buffer.getInt(index) == checksum(buffer, index, crc);
+    }
+
+    private static int checksum(ByteBuffer buffer, int index, CRC32C crc) {
+        crc.reset();
+        crc.update(buffer.slice(index + MARKER_OFFSET, LENGTH - MARKER_OFFSET));
+        return (int) crc.getValue();
+    }
+
+    /**
+     * @return Sequence number of the record at the given index
+     */
+    static long sequence(ByteBuffer buffer, int index) {
+        return buffer.getLong(index + 8);
+    }
+
+    /**
+     * Replaces the sequence number of the record at the given index, before it is sealed.
+     */
+    static void setSequence(ByteBuffer buffer, int index, long sequence) {
+        buffer.putLong(index + 8, sequence);
+    }
+
+    /**
+     * Decodes the record at the given index, its checksum should be checked with {@link #isValid} first
+     * and lost records skipped with {@link #isLost}.
+     */
+    static AuditRecord read(ByteBuffer buffer, int index) {
+        byte status = buffer.get(index + 5);
+        int detail = buffer.get(index + 6);
+        DecisionOutcome outcome = switch (status) {
+            case STATUS_APPROVED -> new DecisionOutcome.Approved(
+                    new Decision(buffer.getInt(index + 48), buffer.getInt(index + 52), null));
+            case STATUS_REJECTED -> DecisionOutcome.Rejected.of(detail == 1 ? RejectionReason.NO_VALID_LOAN : RejectionReason.CUSTOMER_AGE);
+            case STATUS_INVALID -> DecisionOutcome.Invalid.of(switch (detail) {
+                case 1 -> InvalidField.PERSONAL_CODE;
+                case 2 -> InvalidField.LOAN_AMOUNT;
+                default -> InvalidField.LOAN_PERIOD;
+            });
+            default -> throw new IllegalStateException("Unknown audit record status " + status);
+        };
+        long loanRequestedAmount = buffer.getLong(index + 32);
+        byte[] code = new byte[Math.min(buffer.get(index + 56), MAXIMUM_PERSONAL_CODE_LENGTH)];
+        buffer.get(index + 57, code);
+        byte[] country = new byte[COUNTRY_LENGTH];
+        buffer.get(index + COUNTRY_OFFSET, country);
+        return new AuditRecord(buffer.getLong(index + 8), buffer.getLong(index + 16), buffer.getLong(index + 24),
+                country[0] != 0 ? new String(country, StandardCharsets.US_ASCII) : null,
+                new String(code, StandardCharsets.US_ASCII),
+                loanRequestedAmount != MISSING_AMOUNT ? loanRequestedAmount : null,
+                buffer.getInt(index + 40), buffer.get(index + 7), buffer.getInt(index + 44), outcome);
+    }
+}
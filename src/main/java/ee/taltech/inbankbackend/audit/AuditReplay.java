@@ -0,0 +1,125 @@
+package ee.taltech.inbankbackend.audit;
+
+import ee.taltech.inbankbackend.config.ScoringPolicy;
+import ee.taltech.inbankbackend.service.CreditInfoProvider;
+import ee.taltech.inbankbackend.service.CreditInfoService;
+import ee.taltech.inbankbackend.service.Decision;
+import ee.taltech.inbankbackend.service.DecisionEngine;
+import ee.taltech.inbankbackend.service.DecisionMemo;
+import ee.taltech.inbankbackend.service.DecisionOutcome;
+import ee.taltech.inbankbackend.service.LoanLimitSolver;
+import ee.taltech.inbankbackend.service.OfferTableProvider;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Replays the audit journal through the decision engine under a scoring policy, to check which decisions
+ * a policy change would alter. Every record is decided again with its recorded country, inputs and credit modifier,
+ * so the credit registry is not called and the result only depends on the policy. Records that ended before
+ * the credit modifier lookup use the mock modifier of their personal ID code if the policy now accepts their inputs.
+ * The customer age is checked against the current date, so age rejections near a birthday can change as well.
+ * <p>
+ * Usage: AuditReplay journal-directory [policy.properties] [maximum changes to print]
+ */
+public final class AuditReplay {
+
+    private static final int DEFAULT_PRINTED_CHANGES = 20;
+
+    private final OfferTableProvider offerTableProvider;
+    private final DecisionEngine decisionEngine;
+    private final CreditInfoService mockCreditInfo;
+    private int recordedCreditModifier;
+
+    /**
+     * @param policy Scoring policy the journal is replayed under
+     */
+    public AuditReplay(ScoringPolicy policy) {
+        LoanLimitSolver loanLimitSolver = new LoanLimitSolver();
+        this.offerTableProvider = new OfferTableProvider(loanLimitSolver);
+        offerTableProvider.publish(policy);
+        this.mockCreditInfo = new CreditInfoService(offerTableProvider);
+        CreditInfoProvider recordedCreditInfo = (personalCode, parsedPersonalCode) -> recordedCreditModifier >= 0
+                ? CompletableFuture.completedFuture(recordedCreditModifier)
+                : mockCreditInfo.getCreditModifier(personalCode, parsedPersonalCode);
+        this.decisionEngine = DecisionEngine.builder(loanLimitSolver, offerTableProvider)
+                .creditInfoProvider(recordedCreditInfo)
+                .decisionMemo(new DecisionMemo(DecisionMemo.DEFAULT_SIZE))
+                .build();
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("Usage: AuditReplay <journal-directory> [policy.properties] [maximum changes to print]");
+            System.exit(2);
+        }
+        ScoringPolicy policy = args.length > 1 ? ScoringPolicy.load(Path.of(args[1])) : ScoringPolicy.DEFAULTS;
+        int printedChanges = args.length > 2 ? Integer.parseInt(args[2]) : DEFAULT_PRINTED_CHANGES;
+
+        Result result = new AuditReplay(policy).replay(Path.of(args[0]), System.out, printedChanges);
+        System.out.printf("Replayed %d decisions under policy version %d: %d unchanged, %d changed, %d corrupted records skipped%n",
+                result.replayed(), policy.getVersion(), result.replayed() - result.changed(), result.changed(), result.corrupted());
+        if (result.changed() > 0 || result.corrupted() > 0) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Decides every record of the journal again and prints the changed decisions.
+     *
+     * @param directory      Journal directory
+     * @param out            Stream the changed decisions are printed to
+     * @param printedChanges Maximum number of changed decisions to print
+     * @return Numbers of replayed, changed and corrupted records
+     */
+    public Result replay(Path directory, PrintStream out, int printedChanges) throws IOException {
+        long[] changed = new long[1];
+        AuditJournalReader.Result read = AuditJournalReader.read(directory, record -> {
+            DecisionOutcome replayed = decide(record);
+            if (!sameOutcome(record.outcome(), replayed)) {
+                if (changed[0]++ < printedChanges) {
+                    out.printf("#%d %s country=%s amount=%s period=%d policy=%d: %s -> %s%n", record.sequence(),
+                            record.personalCode(), record.country(), record.loanRequestedAmount(), record.loanRequestedPeriod(), record.policyVersion(),
+                            describe(record.outcome()), describe(replayed));
+                }
+            }
+        });
+        return new Result(read.records(), changed[0], read.corrupted());
+    }
+
+    private DecisionOutcome decide(AuditRecord record) {
+        recordedCreditModifier = record.creditModifier();
+        return decisionEngine.calculateApprovedLoan(record.country(), record.personalCode(), record.loanRequestedAmount(),
+                record.loanRequestedPeriod());
+    }
+
+    static boolean sameOutcome(DecisionOutcome recorded, DecisionOutcome replayed) {
+        if (recorded instanceof DecisionOutcome.Approved approved && replayed instanceof DecisionOutcome.Approved replayedApproval) {
+            Decision decision = approved.decision();
+            Decision replayedDecision = replayedApproval.decision();
+            return decision.getLoanAmount().equals(replayedDecision.getLoanAmount())
+                    && decision.getLoanPeriod().equals(replayedDecision.getLoanPeriod());
+        }
+        return recorded.equals(replayed);
+    }
+
+    private static String describe(DecisionOutcome outcome) {
+        if (outcome instanceof DecisionOutcome.Approved approved) {
+            return "approved " + approved.decision().getLoanAmount() + " for " + approved.decision().getLoanPeriod() + " months";
+        }
+        if (outcome instanceof DecisionOutcome.Rejected rejected) {
+            return "rejected " + rejected.reason();
+        }
+        return "invalid " + ((DecisionOutcome.Invalid) outcome).field();
+    }
+
+    /**
+     * @param replayed  Records decided again
+     * @param changed   Records with a different outcome than recorded
+     * @param corrupted Records skipped because of a wrong checksum
+     */
+    public record Result(long replayed, long changed, long corrupted) {
+    }
+}
@@ -0,0 +1,197 @@
+package ee.taltech.inbankbackend.audit;
+
+import ee.taltech.inbankbackend.service.DecisionOutcome;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bounded ring of audit records with many producers and a single consumer, without locks, and an unbounded
+ * overflow queue for the records that do not fit.
+ * <p>
+ * A producer claims the next slot with a compare-and-set of the tail, writes its record into the slot
+ * and publishes the slot by storing its claim number in it. A claimed slot is always published: if the
+ * record cannot be written, a lost record takes its place, see {@link AuditRecord#writeLost}, as the consumer could
+ * not get past an unpublished slot. The consumer copies published records in claim order and frees their slots by
+ * advancing the head. Records are written in place into one preallocated buffer, so appending does not allocate.
+ * <p>
+ * Producers never wait and records are not dropped for lack of room. If the consumer has fallen a whole ring behind,
+ * the record is encoded into a buffer of its own and put on the overflow queue, which the consumer drains after the
+ * ring. A disk that cannot keep up then costs memory rather than audit records or blocked event loop and client
+ * threads. The consumer numbers records in the order it drains them, so sequence numbers stay consecutive.
+ * <p>
+ * Records are only dropped once the ring is closed, because the journal is shut down or failed. Closing waits for the
+ * appends in progress, so every record is either accepted before the close or refused.
+ */
+final class AuditRingBuffer {
+
+    private final ByteBuffer slots;
+    private final AtomicLongArray published;
+    private final int capacity;
+    private final int mask;
+    private final AtomicLong tail = new AtomicLong();
+    private final ConcurrentLinkedQueue<ByteBuffer> overflow = new ConcurrentLinkedQueue<>();
+    private final AtomicLong overflowed = new AtomicLong();
+    private final AtomicInteger appending = new AtomicInteger();
+    private volatile long head;
+    private volatile long overflowDrained;
+    private volatile boolean closed;
+    private long nextSequence;
+
+    /**
+     * @param capacity        Number of records, rounded up to a power of two
+     * @param initialSequence Sequence number of the first record
+     */
+    AuditRingBuffer(int capacity, long initialSequence) {
+        this.capacity = Integer.highestOneBit(Math.max(1, capacity - 1)) << 1;
+        this.mask = this.capacity - 1;
+        this.slots = ByteBuffer.allocate(this.capacity * AuditRecord.LENGTH);
+        this.published = new AtomicLongArray(this.capacity);
+        for (int i = 0; i < this.capacity; i++) {
+            published.set(i, -1);
+        }
+        this.nextSequence = initialSequence;
+    }
+
+    /**
+     * Appends a decision record, to the overflow queue if the ring is full.
+     *
+     * @return False if the ring is closed and the record was dropped
+     * @throws RuntimeException if the record cannot be written, a lost record is appended in its place
+     */
+    boolean append(long timestampMillis, long policyVersion, String country, String personalCode,
+                   Long loanRequestedAmount, int loanRequestedPeriod, int segmentIndex, int creditModifier,
+                   DecisionOutcome outcome) {
+        appending.incrementAndGet();
+        try {
+            long claim;
+            do {
+                if (closed) {
+                    return false;
+                }
+                claim = tail.get();
+                // The head only moves forward, so a slot that is free now stays free until it is claimed.
+                if (claim - head >= capacity) {
+                    ByteBuffer record = ByteBuffer.allocate(AuditRecord.LENGTH);
+                    try {
+                        write(record, 0, claim, timestampMillis, policyVersion, country, personalCode,
+                                loanRequestedAmount, loanRequestedPeriod, segmentIndex, creditModifier, outcome);
+                    } finally {
+                        overflow.add(record);
+                        overflowed.incrementAndGet();
+                    }
+                    return true;
+                }
+            } while (!tail.compareAndSet(claim, claim + 1));
+            int slot = (int) (claim & mask);
+            try {
+                write(slots, slot * AuditRecord.LENGTH, claim, timestampMillis, policyVersion, country, personalCode,
+                        loanRequestedAmount, loanRequestedPeriod, segmentIndex, creditModifier, outcome);
+            } finally {
+                published.set(slot, claim);
+            }
+            return true;
+        } finally {
+            appending.decrementAndGet();
+        }
+    }
+
+    private static void write(ByteBuffer buffer, int index, long claim, long timestampMillis, long policyVersion,
+                              String country, String personalCode, Long loanRequestedAmount, int loanRequestedPeriod,
+                              int segmentIndex, int creditModifier, DecisionOutcome outcome) {
+        boolean written = false;
+        try {
+            AuditRecord.write(buffer, index, claim, timestampMillis, policyVersion, country, personalCode,
+                    loanRequestedAmount, loanRequestedPeriod, segmentIndex, creditModifier, outcome);
+            written = true;
+        } finally {
+            if (!written) {
+                AuditRecord.writeLost(buffer, index, claim);
+            }
+        }
+    }
+
+    /**
+     * Copies consecutive published records and then overflowed records to the target for as long as it has room for
+     * whole records, numbers them and frees their slots. Must only be called by the consumer thread.
+     *
+     * @return Number of records copied
+     */
+    int drainTo(ByteBuffer target) {
+        long next = head;
+        int count = 0;
+        while (target.remaining() >= AuditRecord.LENGTH) {
+            int slot = (int) (next & mask);
+            if (published.get(slot) != next) {
+                break;
+            }
+            copy(slots, slot * AuditRecord.LENGTH, target);
+            next++;
+            count++;
+        }
+        head = next;
+        ByteBuffer record;
+        while (target.remaining() >= AuditRecord.LENGTH && (record = overflow.poll()) != null) {
+            copy(record, 0, target);
+            overflowDrained++;
+            count++;
+        }
+        return count;
+    }
+
+    private void copy(ByteBuffer source, int index, ByteBuffer target) {
+        int position = target.position();
+        target.put(position, source, index, AuditRecord.LENGTH).position(position + AuditRecord.LENGTH);
+        AuditRecord.setSequence(target, position, nextSequence++);
+    }
+
+    /**
+     * @return True if all appended records have been drained
+     */
+    boolean isEmpty() {
+        return head == tail.get() && overflow.isEmpty();
+    }
+
+    /**
+     * Stops accepting records and waits for the appends in progress.
+     */
+    void close() {
+        closed = true;
+        while (appending.get() > 0) {
+            Thread.onSpinWait();
+        }
+    }
+
+    /**
+     * Forgets the records that were appended but not drained. Must only be called by the consumer thread,
+     * after the ring was closed.
+     *
+     * @return Number of records forgotten
+     */
+    long discard() {
+        long discarded = tail.get() - head;
+        head = tail.get();
+        while (overflow.poll() != null) {
+            overflowDrained++;
+            discarded++;
+        }
+        return discarded;
+    }
+
+    /**
+     * @return Number of records put on the overflow queue because the ring was full
+     */
+    long getOverflowed() {
+        return overflowed.get();
+    }
+
+    /**
+     * @return Number of records on the overflow queue
+     */
+    long getOverflowQueued() {
+        return Math.max(0, overflowed.get() - overflowDrained);
+    }
+}
@@ -0,0 +1,33 @@
+package ee.taltech.inbankbackend.audit;
+
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+/**
+ * Health of the decision audit trail, reported as decisionAudit by /actuator/health. The audit trail must hold every
+ * decision, so it is down from the first decision that was not audited, until the application is restarted, and while
+ * the journal cannot be written. Records waiting on the overflow queue are not lost and keep it up.
+ */
+@Component
+public class DecisionAuditHealthIndicator implements HealthIndicator {
+
+    private final DecisionAuditLog decisionAuditLog;
+
+    public DecisionAuditHealthIndicator(DecisionAuditLog decisionAuditLog) {
+        this.decisionAuditLog = decisionAuditLog;
+    }
+
+    @Override
+    public Health health() {
+        if (!decisionAuditLog.isEnabled()) {
+            return Health.up().withDetail("enabled", false).build();
+        }
+        long dropped = decisionAuditLog.getDropped();
+        Health.Builder health = dropped == 0 && !decisionAuditLog.isFailed() ? Health.up() : Health.down();
+        return health.withDetail("failed", decisionAuditLog.isFailed())
+                .withDetail("dropped", dropped)
+                .withDetail("overflowQueued", decisionAuditLog.getOverflowQueued())
+                .build();
+    }
+}
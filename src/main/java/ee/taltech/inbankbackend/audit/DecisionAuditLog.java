@@ -0,0 +1,181 @@
+package ee.taltech.inbankbackend.audit;
+
+import ee.taltech.inbankbackend.service.DecisionJournal;
+import ee.taltech.inbankbackend.service.DecisionOutcome;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Audit trail of every decision, kept in the journal directory in decision-engine.audit.directory.
+ * Without a directory nothing is kept.
+ * <p>
+ * Deciding threads only put records on a lock-free ring, see {@link AuditRingBuffer}. A single writer thread
+ * drains the ring in batches into the memory-mapped journal, see {@link AuditJournalWriter}, and forces the written
+ * records to the disk at the force interval. Records are in the journal a moment after the decision was returned, and
+ * records not yet forced are lost if the machine, not only the application, fails.
+ * Appending never waits: if the writer has fallen a whole ring behind, the record goes to the ring's overflow queue
+ * and is written after the ring, counted in the audit.records.overflowed metric. Records are only dropped if the
+ * journal cannot be written, in which case the failure is logged and the records not yet written and all later ones
+ * are dropped, or if a record cannot be written, which does not fail the decision. Dropped records are counted in the
+ * audit.records.dropped metric, and {@link DecisionAuditHealthIndicator} reports the audit trail down from the first.
+ */
+@Component
+public class DecisionAuditLog implements DecisionJournal {
+
+    private static final Logger log = LoggerFactory.getLogger(DecisionAuditLog.class);
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final long CLOSE_TIMEOUT_MILLIS = 5000;
+
+    private final AuditRingBuffer ring;
+    private final AuditJournalWriter writer;
+    private final long forceIntervalNanos;
+    private final Thread writerThread;
+    private final AtomicLong dropped = new AtomicLong();
+    private volatile boolean running = true;
+    private volatile boolean failed;
+
+    @Autowired
+    public DecisionAuditLog(MeterRegistry meterRegistry,
+                            @Value("${decision-engine.audit.directory:}") String directory,
+                            @Value("${decision-engine.audit.segment-size-mb:64}") int segmentSizeMegabytes,
+                            @Value("${decision-engine.audit.ring-size:65536}") int ringSize,
+                            @Value("${decision-engine.audit.force-interval-ms:1000}") long forceIntervalMillis) throws IOException {
+        this(directory.isBlank() ? null : Path.of(directory), segmentSizeMegabytes * 1024 * 1024, ringSize, forceIntervalMillis);
+        FunctionCounter.builder("audit.records.dropped", dropped, AtomicLong::get).register(meterRegistry);
+        FunctionCounter.builder("audit.records.overflowed", this, DecisionAuditLog::getOverflowed).register(meterRegistry);
+    }
+
+    /**
+     * @param directory   Journal directory, or null to keep no audit trail
+     * @param segmentSize Size of a journal segment in bytes
+     */
+    DecisionAuditLog(Path directory, int segmentSize, int ringSize, long forceIntervalMillis) throws IOException {
+        if (directory == null) {
+            this.ring = null;
+            this.writer = null;
+            this.forceIntervalNanos = 0;
+            this.writerThread = null;
+            return;
+        }
+        this.writer = new AuditJournalWriter(directory, segmentSize);
+        this.ring = new AuditRingBuffer(ringSize, writer.nextSequence());
+        this.forceIntervalNanos = TimeUnit.MILLISECONDS.toNanos(forceIntervalMillis);
+        this.writerThread = new Thread(this::write, "decision-audit-writer");
+        writerThread.setDaemon(true);
+        writerThread.start();
+        log.info("Appending decisions to audit journal {} from sequence {}", directory.toAbsolutePath(), writer.nextSequence());
+    }
+
+    @Override
+    public void append(String country, String personalCode, Long loanRequestedAmount, int loanRequestedPeriod, int segmentIndex,
+                       int creditModifier, long policyVersion, DecisionOutcome outcome) {
+        if (ring == null) {
+            return;
+        }
+        try {
+            if (!ring.append(System.currentTimeMillis(), policyVersion, country, personalCode, loanRequestedAmount,
+                    loanRequestedPeriod, segmentIndex, creditModifier, outcome)) {
+                dropped.incrementAndGet();
+            }
+        } catch (RuntimeException e) {
+            dropped.incrementAndGet();
+            log.warn("Cannot audit a decision, a lost record takes its place", e);
+        }
+    }
+
+    private void write() {
+        long lastForce = System.nanoTime();
+        boolean unforced = false;
+        try {
+            while (running || !ring.isEmpty()) {
+                int written = writer.writeFrom(ring);
+                unforced |= written > 0;
+                long now = System.nanoTime();
+                if (unforced && now - lastForce >= forceIntervalNanos) {
+                    writer.force();
+                    lastForce = now;
+                    unforced = false;
+                }
+                if (written == 0) {
+                    LockSupport.parkNanos(IDLE_PARK_NANOS);
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            failed = true;
+            ring.close();
+            long discarded = ring.discard();
+            dropped.addAndGet(discarded);
+            log.error("Cannot write the decision audit journal, {} unwritten and all further decisions are not audited",
+                    discarded, e);
+        }
+    }
+
+    /**
+     * @return False if no directory is configured and no audit trail is kept
+     */
+    public boolean isEnabled() {
+        return ring != null;
+    }
+
+    /**
+     * @return True if the journal could not be written and decisions are no longer audited
+     */
+    public boolean isFailed() {
+        return failed;
+    }
+
+    /**
+     * @return Decisions that could not be audited because the journal was closed or failed,
+     * or the record could not be written
+     */
+    public long getDropped() {
+        return dropped.get();
+    }
+
+    /**
+     * @return Decisions that did not fit the ring and went to its overflow queue
+     */
+    public long getOverflowed() {
+        return ring != null ? ring.getOverflowed() : 0;
+    }
+
+    /**
+     * @return Decisions on the overflow queue, waiting to be written
+     */
+    public long getOverflowQueued() {
+        return ring != null ? ring.getOverflowQueued() : 0;
+    }
+
+    /**
+     * Stops accepting records, then writes the remaining ones and forces the journal to the disk.
+     * Decisions appended after the ring was closed are counted as dropped.
+     */
+    @PreDestroy
+    public void close() throws InterruptedException {
+        if (writerThread == null) {
+            return;
+        }
+        ring.close();
+        running = false;
+        writerThread.join(CLOSE_TIMEOUT_MILLIS);
+        if (writerThread.isAlive()) {
+            log.warn("The decision audit journal is still being written after {} ms, closing it anyway", CLOSE_TIMEOUT_MILLIS);
+        }
+        writer.close();
+        if (dropped.get() > 0) {
+            log.warn("{} decisions were not audited", dropped.get());
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package ee.taltech.inbankbackend.batch;
+
+import ee.taltech.inbankbackend.InbankBackendApplication;
+import ee.taltech.inbankbackend.service.DecisionEngine;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.nio.file.Path;
+
+/**
+ * Offline batch scorer for large applicant dumps. Starts the application context without the web tier
+ * and scores a CSV file with the same decision engine as the REST API.
+ * <p>
+ * Usage: BatchScoringApplication input.csv output.csv [workers]
+ */
+public class BatchScoringApplication {
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 2) {
+            System.err.println("Usage: BatchScoringApplication <input.csv> <output.csv> [workers]");
+            System.exit(2);
+        }
+        Path input = Path.of(args[0]);
+        Path output = Path.of(args[1]);
+        int workers = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(InbankBackendApplication.class)
+                .web(WebApplicationType.NONE)
+                .run()) {
+            CsvBatchScorer scorer = new CsvBatchScorer(context.getBean(DecisionEngine.class), workers);
+            CsvBatchScorer.Result result = scorer.score(input, output);
+            System.out.printf("Scored %d rows in %.3f s with %d workers (%.0f rows/sec)%n",
+                    result.rows(), result.elapsedNanos() / 1_000_000_000d, workers, result.rowsPerSecond());
+        }
+    }
+}
@@ -0,0 +1,314 @@
+package ee.taltech.inbankbackend.batch;
+
+import ee.taltech.inbankbackend.service.Decision;
+import ee.taltech.inbankbackend.service.DecisionEngine;
+import ee.taltech.inbankbackend.service.DecisionOutcome;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Scores a CSV file of loan applications (personalCode,loanAmount,loanPeriod) with the decision engine.
+ * The input is memory-mapped and split into line-aligned chunks that are scored in parallel. Chunk results
+ * are written in input order, so the output does not depend on the number of workers. Every output line is
+ * the input line followed by the approved loan amount, approved loan period and error message.
+ * <p>
+ * Chunks are a few megabytes, and the number of chunks scored or waiting to be written at a time is bounded by a
+ * quarter of the maximum heap, as the output of a chunk is held in memory until it is written.
+ */
+public class CsvBatchScorer {
+
+    static final int DEFAULT_CHUNK_SIZE = 4 * 1024 * 1024;
+    /**
+     * Heap a chunk may take per byte of input: its output, which is up to three times as long as the input
+     * if every row gets an error message, and the copy made while the output buffer grows.
+     */
+    static final int CHUNK_HEAP_PER_INPUT_BYTE = 5;
+    static final String MALFORMED_ROW_MESSAGE = "Invalid decision request!";
+    static final String UNEXPECTED_ERROR_MESSAGE = "An unexpected error occurred";
+    private static final byte[] OUTPUT_HEADER_SUFFIX = ",approvedLoanAmount,approvedLoanPeriod,errorMessage\n"
+            .getBytes(StandardCharsets.US_ASCII);
+
+    private final DecisionEngine decisionEngine;
+    private final int workers;
+    private final int chunkSize;
+    private final int maximumInFlight;
+
+    public CsvBatchScorer(DecisionEngine decisionEngine, int workers) {
+        this(decisionEngine, workers, DEFAULT_CHUNK_SIZE);
+    }
+
+    CsvBatchScorer(DecisionEngine decisionEngine, int workers, int chunkSize) {
+        this.decisionEngine = decisionEngine;
+        this.workers = workers;
+        this.chunkSize = chunkSize;
+        this.maximumInFlight = maximumInFlight(workers, chunkSize, Runtime.getRuntime().maxMemory());
+    }
+
+    /**
+     * @return Number of chunks that may be in flight: two per worker, so workers do not wait for the writer,
+     * but no more than fit in a quarter of the maximum heap, and at least one
+     */
+    static int maximumInFlight(int workers, int chunkSize, long maxMemory) {
+        long fitInHeap = maxMemory / 4 / ((long) chunkSize * CHUNK_HEAP_PER_INPUT_BYTE);
+        return (int) Math.max(1, Math.min(workers * 2L, fitInHeap));
+    }
+
+    /**
+     * Result of a scoring run.
+     *
+     * @param rows          Number of scored rows
+     * @param elapsedNanos  Time spent scoring and writing
+     */
+    public record Result(long rows, long elapsedNanos) {
+        public double rowsPerSecond() {
+            return elapsedNanos == 0 ? 0 : rows * 1_000_000_000d / elapsedNanos;
+        }
+    }
+
+    /**
+     * Scores every row of the input file and writes the results to the output file.
+     *
+     * @param input  CSV file with personalCode,loanAmount,loanPeriod rows and an optional header line
+     * @param output File the scored rows are written to, replaced if it exists
+     * @return Number of rows scored and the time it took
+     */
+    public Result score(Path input, Path output) throws IOException, InterruptedException {
+        long started = System.nanoTime();
+        ExecutorService executor = Executors.newFixedThreadPool(workers);
+
+        try (FileChannel in = FileChannel.open(input, StandardOpenOption.READ);
+             FileChannel out = FileChannel.open(output, StandardOpenOption.WRITE, StandardOpenOption.CREATE,
+                     StandardOpenOption.TRUNCATE_EXISTING)) {
+            long dataStart = writeHeader(in, out);
+            List<long[]> chunks = splitIntoChunks(in, dataStart);
+
+            // Keep a bounded window of chunks in flight and write them strictly in input order.
+            Deque<Future<ChunkOutput>> inFlight = new ArrayDeque<>();
+            int nextChunk = 0;
+            long rows = 0;
+            while (nextChunk < chunks.size() || !inFlight.isEmpty()) {
+                while (nextChunk < chunks.size() && inFlight.size() < maximumInFlight) {
+                    long[] chunk = chunks.get(nextChunk++);
+                    inFlight.add(executor.submit(() -> scoreChunk(in, chunk[0], chunk[1])));
+                }
+                ChunkOutput chunkOutput = inFlight.poll().get();
+                chunkOutput.writeTo(out);
+                rows += chunkOutput.rows;
+            }
+            return new Result(rows, System.nanoTime() - started);
+        } catch (ExecutionException e) {
+            throw new IOException("Scoring failed", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Copies the header line to the output if the file has one.
+     *
+     * @return Position of the first data row
+     */
+    private static long writeHeader(FileChannel in, FileChannel out) throws IOException {
+        ByteBuffer first = ByteBuffer.allocate(1);
+        if (in.read(first, 0) <= 0 || Character.isDigit(first.get(0))) {
+            return 0;
+        }
+        long headerEnd = nextLineStart(in, 0);
+        ChunkOutput header = new ChunkOutput(256);
+        MappedByteBuffer buffer = in.map(FileChannel.MapMode.READ_ONLY, 0, headerEnd);
+        int length = (int) headerEnd;
+        while (length > 0 && (buffer.get(length - 1) == '\n' || buffer.get(length - 1) == '\r')) {
+            length--;
+        }
+        header.write(buffer, 0, length);
+        header.write(OUTPUT_HEADER_SUFFIX);
+        header.writeTo(out);
+        return headerEnd;
+    }
+
+    private List<long[]> splitIntoChunks(FileChannel in, long dataStart) throws IOException {
+        List<long[]> chunks = new ArrayList<>();
+        long size = in.size();
+        long start = dataStart;
+        while (start < size) {
+            long end = start + chunkSize >= size ? size : nextLineStart(in, start + chunkSize);
+            chunks.add(new long[] {start, end});
+            start = end;
+        }
+        return chunks;
+    }
+
+    /**
+     * @return Position right after the first line break at or after the given position, or the file size
+     */
+    private static long nextLineStart(FileChannel in, long position) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(8192);
+        long size = in.size();
+        while (position < size) {
+            buffer.clear();
+            int read = in.read(buffer, position);
+            for (int i = 0; i < read; i++) {
+                if (buffer.get(i) == '\n') {
+                    return position + i + 1;
+                }
+            }
+            position += read;
+        }
+        return size;
+    }
+
+    private ChunkOutput scoreChunk(FileChannel in, long start, long end) throws IOException {
+        MappedByteBuffer buffer = in.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+        int limit = buffer.limit();
+        ChunkOutput output = new ChunkOutput(limit + limit / 2 + 64);
+
+        int lineStart = 0;
+        for (int i = 0; i <= limit; i++) {
+            if (i == limit || buffer.get(i) == '\n') {
+                int lineEnd = i > lineStart && buffer.get(i - 1) == '\r' ? i - 1 : i;
+                if (lineEnd > lineStart) {
+                    scoreLine(buffer, lineStart, lineEnd, output);
+                    output.rows++;
+                }
+                lineStart = i + 1;
+            }
+        }
+        return output;
+    }
+
+    private void scoreLine(MappedByteBuffer buffer, int start, int end, ChunkOutput output) {
+        output.write(buffer, start, end - start);
+
+        int firstComma = indexOf(buffer, ',', start, end);
+        int secondComma = firstComma < 0 ? -1 : indexOf(buffer, ',', firstComma + 1, end);
+        long loanAmount = secondComma < 0 ? -1 : parseNumber(buffer, firstComma + 1, secondComma);
+        long loanPeriod = secondComma < 0 ? -1 : parseNumber(buffer, secondComma + 1, end);
+        if (loanAmount < 0 || loanPeriod < 0 || loanPeriod > Integer.MAX_VALUE) {
+            output.writeError(MALFORMED_ROW_MESSAGE);
+            return;
+        }
+
+        byte[] personalCode = new byte[firstComma - start];
+        buffer.get(start, personalCode);
+
+        DecisionOutcome outcome;
+        try {
+            outcome = decisionEngine.calculateApprovedLoan(new String(personalCode, StandardCharsets.US_ASCII),
+                    loanAmount, (int) loanPeriod);
+        } catch (RuntimeException e) {
+            output.writeError(UNEXPECTED_ERROR_MESSAGE);
+            return;
+        }
+
+        if (outcome instanceof DecisionOutcome.Approved approved) {
+            Decision decision = approved.decision();
+            output.write(',');
+            output.writeNumber(decision.getLoanAmount());
+            output.write(',');
+            output.writeNumber(decision.getLoanPeriod());
+            output.write(',');
+            output.write('\n');
+        } else if (outcome instanceof DecisionOutcome.Rejected rejected) {
+            output.writeError(rejected.reason().getMessage());
+        } else {
+            output.writeError(((DecisionOutcome.Invalid) outcome).field().getMessage());
+        }
+    }
+
+    private static int indexOf(MappedByteBuffer buffer, char c, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (buffer.get(i) == c) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @return Parsed non-negative number, or -1 if the field is empty or not a number
+     */
+    private static long parseNumber(MappedByteBuffer buffer, int from, int to) {
+        if (from >= to || to - from > 18) {
+            return -1;
+        }
+        long value = 0;
+        for (int i = from; i < to; i++) {
+            int digit = buffer.get(i) - '0';
+            if (digit < 0 || digit > 9) {
+                return -1;
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
+    /**
+     * Growable output buffer of one chunk.
+     */
+    private static final class ChunkOutput {
+        private byte[] bytes;
+        private int length;
+        private long rows;
+
+        ChunkOutput(int capacity) {
+            bytes = new byte[Math.max(16, capacity)];
+        }
+
+        void write(int b) {
+            ensureCapacity(1);
+            bytes[length++] = (byte) b;
+        }
+
+        void write(byte[] source) {
+            ensureCapacity(source.length);
+            System.arraycopy(source, 0, bytes, length, source.length);
+            length += source.length;
+        }
+
+        void write(MappedByteBuffer source, int offset, int count) {
+            ensureCapacity(count);
+            source.get(offset, bytes, length, count);
+            length += count;
+        }
+
+        void writeNumber(int value) {
+            write(Integer.toString(value).getBytes(StandardCharsets.US_ASCII));
+        }
+
+        void writeError(String message) {
+            write(',');
+            write(',');
+            write(',');
+            write(message.getBytes(StandardCharsets.US_ASCII));
+            write('\n');
+        }
+
+        void writeTo(FileChannel channel) throws IOException {
+            ByteBuffer buffer = ByteBuffer.wrap(bytes, 0, length);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+
+        private void ensureCapacity(int extra) {
+            if (length + extra > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, length + extra));
+            }
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package ee.taltech.inbankbackend.binary;
+
+import ee.taltech.inbankbackend.service.Decision;
+import ee.taltech.inbankbackend.service.DecisionOutcome;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Fixed-layout frames of the binary decision protocol. All numbers are big-endian.
+ * <pre>
+ * Request, 36 bytes:
+ *   int     frame length, always 32 (bytes after this field)
+ *   int     request id, echoed in the response
+ *   byte    personal ID code length, at most 15
+ *   byte[15] personal ID code, ASCII, padded with zeros
+ *   byte[2] ISO 3166-1 alpha-2 code of the country that issued the ID code, ASCII,
+ *           or zeros to tell it from the shape of the code as the JSON API does
+ *   short   reserved, 0
+ *   int     requested loan amount
+ *   int     requested loan period
+ *
+ * Response, 20 bytes:
+ *   int     frame length, always 16
+ *   int     request id of the request
+ *   byte    status: 0 approved, 1 invalid input, 2 rejected, 3 error
+ *   byte    detail: invalid field (1 personal code, 2 loan amount, 3 loan period)
+ *                   or rejection reason (1 no valid loan, 2 customer age), otherwise 0
+ *   short   reserved, 0
+ *   int     approved loan amount, 0 unless approved
+ *   int     approved loan period, 0 unless approved
+ * </pre>
+ * A connection may send any number of requests without waiting for responses. Responses are written
+ * as soon as their decisions are made, so they are matched to requests by request id.
+ */
+public final class BinaryDecisionProtocol {
+
+    public static final int REQUEST_BODY_LENGTH = 32;
+    public static final int REQUEST_FRAME_LENGTH = 4 + REQUEST_BODY_LENGTH;
+    public static final int RESPONSE_BODY_LENGTH = 16;
+    public static final int RESPONSE_FRAME_LENGTH = 4 + RESPONSE_BODY_LENGTH;
+    public static final int MAXIMUM_PERSONAL_CODE_LENGTH = 15;
+    public static final int COUNTRY_LENGTH = 2;
+
+    public static final byte STATUS_APPROVED = 0;
+    public static final byte STATUS_INVALID = 1;
+    public static final byte STATUS_REJECTED = 2;
+    public static final byte STATUS_ERROR = 3;
+
+    private BinaryDecisionProtocol() {
+    }
+
+    /**
+     * Writes a request frame without a country, which is told from the shape of the personal ID code.
+     */
+    public static void writeRequest(ByteBuffer buffer, int requestId, String personalCode, int loanAmount, int loanPeriod) {
+        writeRequest(buffer, requestId, null, personalCode, loanAmount, loanPeriod);
+    }
+
+    /**
+     * Writes a request frame. Personal ID codes longer than the frame allows are sent as an empty code,
+     * which the decision engine rejects as invalid, and so are countries that are not two characters long.
+     *
+     * @param country ISO 3166-1 alpha-2 code of the country that issued the ID code, or null
+     */
+    public static void writeRequest(ByteBuffer buffer, int requestId, String country, String personalCode, int loanAmount,
+                                    int loanPeriod) {
+        byte[] code = personalCode.getBytes(StandardCharsets.US_ASCII);
+        int codeLength = code.length <= MAXIMUM_PERSONAL_CODE_LENGTH ? code.length : 0;
+        if (country != null && country.length() != COUNTRY_LENGTH) {
+            codeLength = 0;
+        }
+        buffer.putInt(REQUEST_BODY_LENGTH)
+                .putInt(requestId)
+                .put((byte) codeLength)
+                .put(code, 0, codeLength);
+        for (int i = codeLength; i < MAXIMUM_PERSONAL_CODE_LENGTH; i++) {
+            buffer.put((byte) 0);
+        }
+        for (int i = 0; i < COUNTRY_LENGTH; i++) {
+            buffer.put(country != null ? (byte) country.charAt(i) : 0);
+        }
+        buffer.putShort((short) 0).putInt(loanAmount).putInt(loanPeriod);
+    }
+
+    /**
+     * Reads the country of a request frame, positioned after the personal ID code.
+     *
+     * @return ISO 3166-1 alpha-2 code of the country, or null if the request has none
+     */
+    static String readCountry(ByteBuffer buffer) {
+        byte first = buffer.get();
+        byte second = buffer.get();
+        if (first == 0) {
+            return null;
+        }
+        return new String(new byte[]{first, second}, StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * Writes the response frame of a decision outcome.
+     */
+    public static void writeResponse(ByteBuffer buffer, int requestId, DecisionOutcome outcome) {
+        if (outcome instanceof DecisionOutcome.Approved approved) {
+            Decision decision = approved.decision();
+            writeResponse(buffer, requestId, STATUS_APPROVED, 0, decision.getLoanAmount(), decision.getLoanPeriod());
+        } else if (outcome instanceof DecisionOutcome.Rejected rejected) {
+            int detail = switch (rejected.reason()) {
+                case NO_VALID_LOAN -> 1;
+                case CUSTOMER_AGE -> 2;
+            };
+            writeResponse(buffer, requestId, STATUS_REJECTED, detail, 0, 0);
+        } else if (outcome instanceof DecisionOutcome.Invalid invalid) {
+            int detail = switch (invalid.field()) {
+                case PERSONAL_CODE -> 1;
+                case LOAN_AMOUNT -> 2;
+                case LOAN_PERIOD -> 3;
+            };
+            writeResponse(buffer, requestId, STATUS_INVALID, detail, 0, 0);
+        }
+    }
+
+    /**
+     * Writes the response frame of a decision that failed unexpectedly.
+     */
+    public static void writeError(ByteBuffer buffer, int requestId) {
+        writeResponse(buffer, requestId, STATUS_ERROR, 0, 0, 0);
+    }
+
+    private static void writeResponse(ByteBuffer buffer, int requestId, byte status, int detail, int loanAmount, int loanPeriod) {
+        buffer.putInt(RESPONSE_BODY_LENGTH)
+                .putInt(requestId)
+                .put(status)
+                .put((byte) detail)
+                .putShort((short) 0)
+                .putInt(loanAmount)
+                .putInt(loanPeriod);
+    }
+
+    /**
+     * Reads a response frame.
+     *
+     * @throws IllegalStateException If the frame length is not the response frame length
+     */
+    public static Response readResponse(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length != RESPONSE_BODY_LENGTH) {
+            throw new IllegalStateException("Invalid response frame length " + length);
+        }
+        int requestId = buffer.getInt();
+        byte status = buffer.get();
+        byte detail = buffer.get();
+        buffer.getShort();
+        return new Response(requestId, status, detail, buffer.getInt(), buffer.getInt());
+    }
+
+    /**
+     * Decoded response frame.
+     */
+    public record Response(int requestId, byte status, byte detail, int loanAmount, int loanPeriod) {
+    }
+}
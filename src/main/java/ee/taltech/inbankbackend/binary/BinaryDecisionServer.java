@@ -0,0 +1,355 @@
+package ee.taltech.inbankbackend.binary;
+
+import ee.taltech.inbankbackend.service.DecisionEngine;
+import ee.taltech.inbankbackend.service.DecisionOutcome;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * TCP server of the binary decision protocol, see {@link BinaryDecisionProtocol}, for high-volume internal callers.
+ * It decides requests with the same DecisionEngine as the REST API, without HTTP and JSON.
+ * <p>
+ * An acceptor thread hands connections to a fixed number of event loops. Each loop owns a selector and the
+ * connections assigned to it, and reads, decides and writes without blocking. Every connection has a read and
+ * a write buffer taken from a pool of direct buffers, so data is copied between the socket and the buffers only once.
+ * Clients may pipeline requests: every complete frame in the read buffer is decided before the buffered responses
+ * are written with a single write. Decisions whose credit modifier is already known complete immediately and are
+ * written by the loop itself. Decisions waiting for the credit registry complete on another thread, which queues
+ * the response and wakes the loop up. A connection stops reading while it has the maximum number of decisions in
+ * flight or while its responses are not being read by the client.
+ * <p>
+ * A frame with an invalid length closes the connection, as the following frames cannot be found reliably.
+ */
+@Component
+@ConditionalOnProperty(name = "decision-engine.binary.enabled", havingValue = "true")
+public class BinaryDecisionServer {
+
+    private static final int BUFFER_SIZE = 16 * 1024;
+    private static final int MAXIMUM_IDLE_BUFFERS = 1024;
+
+    private final DecisionEngine decisionEngine;
+    private final int maximumInFlight;
+    private final DirectBufferPool bufferPool = new DirectBufferPool(BUFFER_SIZE, MAXIMUM_IDLE_BUFFERS);
+    private final ServerSocketChannel serverChannel;
+    private final EventLoop[] eventLoops;
+    private volatile boolean running = true;
+
+    /**
+     * @param port            Port to listen on, 0 picks a free port
+     * @param ioThreads       Number of event loops, 0 uses the number of available processors
+     * @param maximumInFlight Decisions a connection may wait for at a time before it stops reading requests
+     */
+    @Autowired
+    public BinaryDecisionServer(DecisionEngine decisionEngine,
+                                @Value("${decision-engine.binary.port:9090}") int port,
+                                @Value("${decision-engine.binary.io-threads:0}") int ioThreads,
+                                @Value("${decision-engine.binary.max-in-flight:1024}") int maximumInFlight) throws IOException {
+        this.decisionEngine = decisionEngine;
+        this.maximumInFlight = Math.max(1, maximumInFlight);
+        this.serverChannel = ServerSocketChannel.open().bind(new InetSocketAddress(port));
+
+        int loopCount = ioThreads > 0 ? ioThreads : Runtime.getRuntime().availableProcessors();
+        this.eventLoops = new EventLoop[loopCount];
+        for (int i = 0; i < loopCount; i++) {
+            eventLoops[i] = new EventLoop(Selector.open());
+            Thread thread = new Thread(eventLoops[i], "binary-decision-loop-" + i);
+            thread.setDaemon(true);
+            thread.start();
+        }
+        Thread acceptor = new Thread(this::accept, "binary-decision-acceptor");
+        acceptor.setDaemon(true);
+        acceptor.start();
+    }
+
+    /**
+     * @return Port the server listens on
+     */
+    public int getPort() {
+        return serverChannel.socket().getLocalPort();
+    }
+
+    private void accept() {
+        int next = 0;
+        while (running) {
+            try {
+                SocketChannel channel = serverChannel.accept();
+                channel.configureBlocking(false);
+                channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+                eventLoops[next].register(channel);
+                next = (next + 1) % eventLoops.length;
+            } catch (ClosedChannelException e) {
+                return;
+            } catch (IOException e) {
+                // The connection failed while it was accepted, the server keeps accepting others.
+            }
+        }
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        running = false;
+        serverChannel.close();
+        for (EventLoop eventLoop : eventLoops) {
+            eventLoop.selector.wakeup();
+        }
+    }
+
+    private final class EventLoop implements Runnable {
+
+        private final Selector selector;
+        private final ConcurrentLinkedQueue<SocketChannel> accepted = new ConcurrentLinkedQueue<>();
+        private final ConcurrentLinkedQueue<Connection> completed = new ConcurrentLinkedQueue<>();
+        private final byte[] personalCode = new byte[BinaryDecisionProtocol.MAXIMUM_PERSONAL_CODE_LENGTH];
+
+        private EventLoop(Selector selector) {
+            this.selector = selector;
+        }
+
+        void register(SocketChannel channel) {
+            accepted.add(channel);
+            selector.wakeup();
+        }
+
+        @Override
+        public void run() {
+            try {
+                while (running) {
+                    selector.select();
+                    registerAccepted();
+                    processCompleted();
+                    for (SelectionKey key : selector.selectedKeys()) {
+                        Connection connection = (Connection) key.attachment();
+                        try {
+                            if (key.isValid() && key.isReadable()) {
+                                connection.read();
+                            }
+                            connection.process();
+                        } catch (IOException e) {
+                            connection.close();
+                        }
+                    }
+                    selector.selectedKeys().clear();
+                }
+            } catch (IOException e) {
+                // The selector failed, its connections are closed below.
+            } finally {
+                for (SelectionKey key : selector.keys()) {
+                    ((Connection) key.attachment()).close();
+                }
+                SocketChannel channel;
+                while ((channel = accepted.poll()) != null) {
+                    closeQuietly(channel);
+                }
+                closeQuietly(selector);
+            }
+        }
+
+        private void registerAccepted() {
+            SocketChannel channel;
+            while ((channel = accepted.poll()) != null) {
+                Connection connection = new Connection(this, channel);
+                try {
+                    connection.key = channel.register(selector, SelectionKey.OP_READ, connection);
+                } catch (IOException e) {
+                    connection.close();
+                }
+            }
+        }
+
+        private void processCompleted() {
+            Connection connection;
+            while ((connection = completed.poll()) != null) {
+                // Cleared before the queue is drained, so a decision completing meanwhile signals again.
+                connection.signalled.set(false);
+                try {
+                    connection.process();
+                } catch (IOException e) {
+                    connection.close();
+                }
+            }
+        }
+    }
+
+    private final class Connection {
+
+        private final EventLoop eventLoop;
+        private final SocketChannel channel;
+        private final ByteBuffer readBuffer = bufferPool.acquire();
+        private final ByteBuffer writeBuffer = bufferPool.acquire();
+        private final ConcurrentLinkedQueue<CompletedDecision> completed = new ConcurrentLinkedQueue<>();
+        private final AtomicBoolean signalled = new AtomicBoolean();
+        private SelectionKey key;
+        private int inFlight;
+        private boolean inputClosed;
+        private boolean closed;
+
+        private Connection(EventLoop eventLoop, SocketChannel channel) {
+            this.eventLoop = eventLoop;
+            this.channel = channel;
+        }
+
+        void read() throws IOException {
+            if (channel.read(readBuffer) < 0) {
+                inputClosed = true;
+            }
+        }
+
+        /**
+         * Writes completed responses, decides buffered requests and flushes, for as long as any of them makes progress.
+         */
+        void process() throws IOException {
+            if (closed) {
+                return;
+            }
+            int progress;
+            do {
+                progress = writeCompleted() + decideBuffered();
+                progress += flush();
+            } while (progress > 0);
+
+            if (inputClosed && inFlight == 0 && writeBuffer.position() == 0) {
+                close();
+                return;
+            }
+            int interestOps = 0;
+            if (!inputClosed && readBuffer.hasRemaining() && inFlight < maximumInFlight) {
+                interestOps |= SelectionKey.OP_READ;
+            }
+            if (writeBuffer.position() > 0) {
+                interestOps |= SelectionKey.OP_WRITE;
+            }
+            key.interestOps(interestOps);
+        }
+
+        private int writeCompleted() {
+            int written = 0;
+            CompletedDecision decision;
+            while (writeBuffer.remaining() >= BinaryDecisionProtocol.RESPONSE_FRAME_LENGTH && (decision = completed.poll()) != null) {
+                if (decision.outcome() != null) {
+                    BinaryDecisionProtocol.writeResponse(writeBuffer, decision.requestId(), decision.outcome());
+                } else {
+                    BinaryDecisionProtocol.writeError(writeBuffer, decision.requestId());
+                }
+                inFlight--;
+                written++;
+            }
+            return written;
+        }
+
+        private int decideBuffered() throws IOException {
+            int decided = 0;
+            readBuffer.flip();
+            try {
+                while (readBuffer.remaining() >= 4
+                        && writeBuffer.remaining() >= BinaryDecisionProtocol.RESPONSE_FRAME_LENGTH
+                        && inFlight < maximumInFlight) {
+                    int length = readBuffer.getInt(readBuffer.position());
+                    if (length != BinaryDecisionProtocol.REQUEST_BODY_LENGTH) {
+                        throw new IOException("Invalid request frame length " + length);
+                    }
+                    if (readBuffer.remaining() < BinaryDecisionProtocol.REQUEST_FRAME_LENGTH) {
+                        break;
+                    }
+                    readBuffer.position(readBuffer.position() + 4);
+                    int requestId = readBuffer.getInt();
+                    String personalCode = readPersonalCode();
+                    String country = BinaryDecisionProtocol.readCountry(readBuffer);
+                    readBuffer.getShort();
+                    decide(requestId, country, personalCode, readBuffer.getInt(), readBuffer.getInt());
+                    decided++;
+                }
+            } finally {
+                readBuffer.compact();
+            }
+            return decided;
+        }
+
+        private String readPersonalCode() {
+            int length = readBuffer.get() & 0xFF;
+            byte[] code = eventLoop.personalCode;
+            readBuffer.get(code);
+            return length <= code.length ? new String(code, 0, length, StandardCharsets.US_ASCII) : "";
+        }
+
+        private void decide(int requestId, String country, String personalCode, int loanAmount, int loanPeriod) {
+            CompletableFuture<DecisionOutcome> future;
+            try {
+                future = decisionEngine.calculateApprovedLoanAsync(country, personalCode, (long) loanAmount, loanPeriod);
+            } catch (RuntimeException e) {
+                future = CompletableFuture.failedFuture(e);
+            }
+
+            if (future.isDone()) {
+                if (future.isCompletedExceptionally()) {
+                    BinaryDecisionProtocol.writeError(writeBuffer, requestId);
+                } else {
+                    BinaryDecisionProtocol.writeResponse(writeBuffer, requestId, future.join());
+                }
+                return;
+            }
+            inFlight++;
+            future.whenComplete((outcome, failure) -> {
+                completed.add(new CompletedDecision(requestId, failure == null ? outcome : null));
+                if (signalled.compareAndSet(false, true)) {
+                    eventLoop.completed.add(this);
+                    eventLoop.selector.wakeup();
+                }
+            });
+        }
+
+        private int flush() throws IOException {
+            if (writeBuffer.position() == 0) {
+                return 0;
+            }
+            writeBuffer.flip();
+            int written = channel.write(writeBuffer);
+            writeBuffer.compact();
+            return written;
+        }
+
+        void close() {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            if (key != null) {
+                key.cancel();
+            }
+            closeQuietly(channel);
+            bufferPool.release(readBuffer);
+            bufferPool.release(writeBuffer);
+        }
+    }
+
+    private static void closeQuietly(Closeable closeable) {
+        try {
+            closeable.close();
+        } catch (IOException e) {
+            // Nothing left to release.
+        }
+    }
+
+    /**
+     * Decision that completed on another thread, the outcome is null if the decision failed.
+     */
+    private record CompletedDecision(int requestId, DecisionOutcome outcome) {
+    }
+}
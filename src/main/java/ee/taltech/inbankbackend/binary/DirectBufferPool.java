@@ -0,0 +1,46 @@
+package ee.taltech.inbankbackend.binary;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pool of equally sized direct buffers. Allocating direct memory is slow and it is only freed by the garbage
+ * collector, so connection buffers are returned to the pool and reused by later connections.
+ * At most a fixed number of idle buffers is kept, buffers released beyond that are left to the garbage collector.
+ */
+final class DirectBufferPool {
+
+    private final int bufferSize;
+    private final int maximumIdle;
+    private final ConcurrentLinkedQueue<ByteBuffer> idle = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger idleCount = new AtomicInteger();
+
+    DirectBufferPool(int bufferSize, int maximumIdle) {
+        this.bufferSize = bufferSize;
+        this.maximumIdle = maximumIdle;
+    }
+
+    /**
+     * @return Cleared buffer from the pool, or a newly allocated one if the pool is empty
+     */
+    ByteBuffer acquire() {
+        ByteBuffer buffer = idle.poll();
+        if (buffer == null) {
+            return ByteBuffer.allocateDirect(bufferSize);
+        }
+        idleCount.decrementAndGet();
+        return buffer;
+    }
+
+    /**
+     * Returns a buffer to the pool. The buffer must not be used after it was released.
+     */
+    void release(ByteBuffer buffer) {
+        if (idleCount.incrementAndGet() <= maximumIdle) {
+            idle.add(buffer.clear());
+        } else {
+            idleCount.decrementAndGet();
+        }
+    }
+}
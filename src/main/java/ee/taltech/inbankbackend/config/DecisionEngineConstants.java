@@ -2,12 +2,16 @@ package ee.taltech.inbankbackend.config;
 
 /**
  * Holds all necessary constants for the decision engine.
+ * Loan amount and period bounds, segment credit modifiers and the average lifespan are the defaults
+ * of the {@link ScoringPolicy} and can be replaced at runtime with a policy file.
  */
 public class DecisionEngineConstants {
     public static final Integer MINIMUM_LOAN_AMOUNT = 2000;
     public static final Integer MAXIMUM_LOAN_AMOUNT = 10000;
     public static final Integer MAXIMUM_LOAN_PERIOD = 48;
     public static final Integer MINIMUM_LOAN_PERIOD = 12;
+    public static final Integer LOAN_AMOUNT_STEP = 100;
+    public static final Double MINIMUM_CREDIT_SCORE = 0.1;
 
     public static final Integer DEBT = 0;
     public static final Integer SEGMENT_1_CREDIT_MODIFIER = 100;
@@ -0,0 +1,207 @@
+package ee.taltech.inbankbackend.config;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Properties;
+
+/**
+ * Immutable snapshot of the scoring parameters: loan amount and period bounds, the average lifespan used
+ * in the age check and the credit modifier of every segment. The built-in defaults are the values of
+ * {@link DecisionEngineConstants}, a versioned policy file replaces them at runtime:
+ * <pre>
+ * version=2
+ * loan-amount.minimum=2000
+ * loan-amount.maximum=10000
+ * loan-period.minimum=12
+ * loan-period.maximum=48
+ * average-lifespan=81
+ * segment.credit-modifiers=0,100,300,1000
+ * </pre>
+ * Every key except the version is optional and falls back to the default. The loan amount step and
+ * the minimum credit score are rules of the engine and stay constants.
+ */
+public final class ScoringPolicy {
+
+    /**
+     * Amounts are multiples of the loan amount step and periods are packed into 8 bits of a decision memo key.
+     */
+    private static final int MAXIMUM_SUPPORTED_LOAN_AMOUNT = 1_000_000;
+    private static final int MAXIMUM_SUPPORTED_LOAN_PERIOD = 255;
+
+    public static final ScoringPolicy DEFAULTS = new ScoringPolicy(0,
+            DecisionEngineConstants.MINIMUM_LOAN_AMOUNT,
+            DecisionEngineConstants.MAXIMUM_LOAN_AMOUNT,
+            DecisionEngineConstants.MINIMUM_LOAN_PERIOD,
+            DecisionEngineConstants.MAXIMUM_LOAN_PERIOD,
+            DecisionEngineConstants.CURRENT_AVERAGE_LIFESPAN_IN_EUROPE,
+            DecisionEngineConstants.DEBT,
+            DecisionEngineConstants.SEGMENT_1_CREDIT_MODIFIER,
+            DecisionEngineConstants.SEGMENT_2_CREDIT_MODIFIER,
+            DecisionEngineConstants.SEGMENT_3_CREDIT_MODIFIER);
+
+    private final long version;
+    private final int minimumLoanAmount;
+    private final int maximumLoanAmount;
+    private final int minimumLoanPeriod;
+    private final int maximumLoanPeriod;
+    private final int averageLifespan;
+    private final int[] segmentCreditModifiers;
+
+    /**
+     * @throws IllegalArgumentException If the bounds are empty, off the loan amount grid or too large,
+     *                                  or a credit modifier is negative
+     */
+    public ScoringPolicy(long version, int minimumLoanAmount, int maximumLoanAmount, int minimumLoanPeriod,
+                         int maximumLoanPeriod, int averageLifespan, int... segmentCreditModifiers) {
+        int step = DecisionEngineConstants.LOAN_AMOUNT_STEP;
+        if (minimumLoanAmount <= 0 || minimumLoanAmount > maximumLoanAmount || maximumLoanAmount > MAXIMUM_SUPPORTED_LOAN_AMOUNT
+                || minimumLoanAmount % step != 0 || maximumLoanAmount % step != 0) {
+            throw new IllegalArgumentException("Loan amounts must be multiples of " + step + " with 0 < minimum <= maximum <= "
+                    + MAXIMUM_SUPPORTED_LOAN_AMOUNT + ": " + minimumLoanAmount + ".." + maximumLoanAmount);
+        }
+        if (minimumLoanPeriod <= 0 || minimumLoanPeriod > maximumLoanPeriod || maximumLoanPeriod > MAXIMUM_SUPPORTED_LOAN_PERIOD) {
+            throw new IllegalArgumentException("Loan periods must satisfy 0 < minimum <= maximum <= "
+                    + MAXIMUM_SUPPORTED_LOAN_PERIOD + ": " + minimumLoanPeriod + ".." + maximumLoanPeriod);
+        }
+        if (averageLifespan <= 0) {
+            throw new IllegalArgumentException("Average lifespan must be positive: " + averageLifespan);
+        }
+        if (segmentCreditModifiers.length == 0 || Arrays.stream(segmentCreditModifiers).anyMatch(modifier -> modifier < 0)) {
+            throw new IllegalArgumentException("Segment credit modifiers must be non-empty and non-negative: "
+                    + Arrays.toString(segmentCreditModifiers));
+        }
+        this.version = version;
+        this.minimumLoanAmount = minimumLoanAmount;
+        this.maximumLoanAmount = maximumLoanAmount;
+        this.minimumLoanPeriod = minimumLoanPeriod;
+        this.maximumLoanPeriod = maximumLoanPeriod;
+        this.averageLifespan = averageLifespan;
+        this.segmentCreditModifiers = segmentCreditModifiers.clone();
+    }
+
+    /**
+     * Reads a policy file in the properties format shown in the class documentation.
+     *
+     * @param file Policy file
+     * @return Policy of the file
+     * @throws IOException              If the file cannot be read
+     * @throws IllegalArgumentException If the version is missing or a value is not a valid number or out of range
+     */
+    public static ScoringPolicy load(Path file) throws IOException {
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            properties.load(reader);
+        }
+        return of(properties);
+    }
+
+    /**
+     * @param properties Policy properties, see the class documentation
+     * @return Policy of the properties
+     * @throws IllegalArgumentException If the version is missing or a value is not a valid number or out of range
+     */
+    public static ScoringPolicy of(Properties properties) {
+        String version = properties.getProperty("version");
+        if (version == null) {
+            throw new IllegalArgumentException("Scoring policy has no version");
+        }
+        String modifiers = properties.getProperty("segment.credit-modifiers");
+        int[] segmentCreditModifiers = modifiers == null
+                ? DEFAULTS.segmentCreditModifiers
+                : Arrays.stream(modifiers.split(",")).map(String::trim).mapToInt(Integer::parseInt).toArray();
+
+        return new ScoringPolicy(Long.parseLong(version.trim()),
+                intProperty(properties, "loan-amount.minimum", DEFAULTS.minimumLoanAmount),
+                intProperty(properties, "loan-amount.maximum", DEFAULTS.maximumLoanAmount),
+                intProperty(properties, "loan-period.minimum", DEFAULTS.minimumLoanPeriod),
+                intProperty(properties, "loan-period.maximum", DEFAULTS.maximumLoanPeriod),
+                intProperty(properties, "average-lifespan", DEFAULTS.averageLifespan),
+                segmentCreditModifiers);
+    }
+
+    private static int intProperty(Properties properties, String key, int defaultValue) {
+        String value = properties.getProperty(key);
+        return value == null ? defaultValue : Integer.parseInt(value.trim());
+    }
+
+    /**
+     * @return Copy of this policy with other segment credit modifiers and the same version
+     */
+    public ScoringPolicy withSegmentCreditModifiers(int... segmentCreditModifiers) {
+        return new ScoringPolicy(version, minimumLoanAmount, maximumLoanAmount, minimumLoanPeriod, maximumLoanPeriod,
+                averageLifespan, segmentCreditModifiers);
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public int getMinimumLoanAmount() {
+        return minimumLoanAmount;
+    }
+
+    public int getMaximumLoanAmount() {
+        return maximumLoanAmount;
+    }
+
+    public int getMinimumLoanPeriod() {
+        return minimumLoanPeriod;
+    }
+
+    public int getMaximumLoanPeriod() {
+        return maximumLoanPeriod;
+    }
+
+    public int getAverageLifespan() {
+        return averageLifespan;
+    }
+
+    public int getSegmentCount() {
+        return segmentCreditModifiers.length;
+    }
+
+    /**
+     * @param segment Segment index, 0 is the debt segment
+     * @return Credit modifier of the segment
+     */
+    public int getSegmentCreditModifier(int segment) {
+        return segmentCreditModifiers[segment];
+    }
+
+    /**
+     * @return Copy of the credit modifiers of all segments
+     */
+    public int[] getSegmentCreditModifiers() {
+        return segmentCreditModifiers.clone();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof ScoringPolicy other
+                && version == other.version
+                && minimumLoanAmount == other.minimumLoanAmount
+                && maximumLoanAmount == other.maximumLoanAmount
+                && minimumLoanPeriod == other.minimumLoanPeriod
+                && maximumLoanPeriod == other.maximumLoanPeriod
+                && averageLifespan == other.averageLifespan
+                && Arrays.equals(segmentCreditModifiers, other.segmentCreditModifiers);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Long.hashCode(version) + Arrays.hashCode(segmentCreditModifiers);
+    }
+
+    @Override
+    public String toString() {
+        return "ScoringPolicy{version=" + version
+                + ", loanAmount=" + minimumLoanAmount + ".." + maximumLoanAmount
+                + ", loanPeriod=" + minimumLoanPeriod + ".." + maximumLoanPeriod
+                + ", averageLifespan=" + averageLifespan
+                + ", segmentCreditModifiers=" + Arrays.toString(segmentCreditModifiers) + "}";
+    }
+}
@@ -0,0 +1,157 @@
+package ee.taltech.inbankbackend.endpoint;
+
+import ee.taltech.inbankbackend.admission.AdaptiveConcurrencyLimiter;
+import ee.taltech.inbankbackend.admission.ClientRateLimiter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Admission control of the /loan endpoints. Every request first takes a token from the bucket of its client, then
+ * a slot of the adaptive concurrency limit. Requests failing either check are answered right away, without queuing:
+ * <ul>
+ *     <li>429 Too Many Requests, with Retry-After set to when the client has a token again</li>
+ *     <li>503 Service Unavailable, with Retry-After of one second</li>
+ * </ul>
+ * Clients are identified by the authenticated user, or by the remote address if the request is not authenticated,
+ * never by anything the client sends, so a client cannot get fresh buckets by inventing new identities. Behind a
+ * proxy, the remote address is the client's only if forwarded headers are trusted, see server.forward-headers-strategy.
+ * The number of buckets is fixed, see {@link ClientRateLimiter}.
+ * A request holds its slot until its response is complete, including asynchronous processing.
+ * <p>
+ * Metrics: admission.rejections counter tagged by reason (rate_limited, overloaded),
+ * admission.concurrency.limit and admission.in.flight gauges.
+ */
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@ConditionalOnProperty(name = "decision-engine.admission.enabled", havingValue = "true")
+public class AdmissionControlFilter extends OncePerRequestFilter {
+
+    private static final String OVERLOADED_RETRY_AFTER_SECONDS = "1";
+
+    private final ClientRateLimiter clientRateLimiter;
+    private final AdaptiveConcurrencyLimiter concurrencyLimiter;
+    private final Counter rateLimited;
+    private final Counter overloaded;
+
+    @Autowired
+    public AdmissionControlFilter(MeterRegistry meterRegistry,
+                                  @Value("${decision-engine.admission.client-rate:100}") double clientRate,
+                                  @Value("${decision-engine.admission.client-burst:200}") int clientBurst,
+                                  @Value("${decision-engine.admission.client-slots:8192}") int clientSlots,
+                                  @Value("${decision-engine.admission.initial-limit:100}") int initialLimit,
+                                  @Value("${decision-engine.admission.min-limit:10}") int minimumLimit,
+                                  @Value("${decision-engine.admission.max-limit:1000}") int maximumLimit,
+                                  @Value("${decision-engine.admission.latency-threshold-ms:100}") long latencyThresholdMillis,
+                                  @Value("${decision-engine.admission.backoff-ratio:0.9}") double backoffRatio) {
+        this(meterRegistry, new ClientRateLimiter(clientRate, clientBurst, clientSlots),
+                new AdaptiveConcurrencyLimiter(initialLimit, minimumLimit, maximumLimit,
+                        TimeUnit.MILLISECONDS.toNanos(latencyThresholdMillis), backoffRatio));
+    }
+
+    AdmissionControlFilter(MeterRegistry meterRegistry, ClientRateLimiter clientRateLimiter,
+                           AdaptiveConcurrencyLimiter concurrencyLimiter) {
+        this.clientRateLimiter = clientRateLimiter;
+        this.concurrencyLimiter = concurrencyLimiter;
+        this.rateLimited = Counter.builder("admission.rejections").tag("reason", "rate_limited").register(meterRegistry);
+        this.overloaded = Counter.builder("admission.rejections").tag("reason", "overloaded").register(meterRegistry);
+        Gauge.builder("admission.concurrency.limit", concurrencyLimiter, AdaptiveConcurrencyLimiter::getLimit)
+                .register(meterRegistry);
+        Gauge.builder("admission.in.flight", concurrencyLimiter, AdaptiveConcurrencyLimiter::getInFlight)
+                .register(meterRegistry);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !request.getRequestURI().startsWith(request.getContextPath() + "/loan/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        long retryAfterNanos = clientRateLimiter.tryAcquire(ClientKeys.of(request));
+        if (retryAfterNanos > 0) {
+            rateLimited.increment();
+            long retryAfterSeconds = Math.max(1, (retryAfterNanos + 999_999_999L) / 1_000_000_000L);
+            reject(response, ErrorResponses.rateLimited(), Long.toString(retryAfterSeconds));
+            return;
+        }
+        if (!concurrencyLimiter.tryAcquire()) {
+            overloaded.increment();
+            reject(response, ErrorResponses.overloaded(), OVERLOADED_RETRY_AFTER_SECONDS);
+            return;
+        }
+
+        long start = System.nanoTime();
+        boolean asyncStarted = false;
+        try {
+            filterChain.doFilter(request, response);
+            asyncStarted = request.isAsyncStarted();
+        } finally {
+            if (asyncStarted) {
+                request.getAsyncContext().addListener(new ReleaseOnCompletion(start));
+            } else {
+                concurrencyLimiter.release(System.nanoTime() - start);
+            }
+        }
+    }
+
+    private static void reject(HttpServletResponse response, ResponseEntity<byte[]> errorResponse, String retryAfterSeconds)
+            throws IOException {
+        byte[] body = errorResponse.getBody();
+        response.setStatus(errorResponse.getStatusCode().value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, retryAfterSeconds);
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
+    }
+
+    /**
+     * Releases the slot of an asynchronously processed request when its response is complete.
+     * Timeouts and errors are followed by completion, so only completion releases.
+     */
+    private final class ReleaseOnCompletion implements AsyncListener {
+
+        private final long start;
+
+        private ReleaseOnCompletion(long start) {
+            this.start = start;
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            concurrencyLimiter.release(System.nanoTime() - start);
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            event.getAsyncContext().addListener(this);
+        }
+    }
+}
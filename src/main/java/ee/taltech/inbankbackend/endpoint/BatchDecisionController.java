@@ -0,0 +1,100 @@
+package ee.taltech.inbankbackend.endpoint;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import ee.taltech.inbankbackend.service.DecisionEngine;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+@RestController
+@RequestMapping("/loan")
+@CrossOrigin
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class BatchDecisionController {
+
+    private final DecisionEngine decisionEngine;
+    private final ObjectMapper objectMapper;
+    private final int maxBatchSize;
+    private final ForkJoinPool decisionPool;
+
+    public BatchDecisionController(DecisionEngine decisionEngine, ObjectMapper objectMapper,
+                                   @Value("${decision-engine.batch.max-size:10000}") int maxBatchSize,
+                                   @Value("${decision-engine.batch.parallelism:0}") int parallelism) {
+        this.decisionEngine = decisionEngine;
+        this.objectMapper = objectMapper;
+        this.maxBatchSize = maxBatchSize;
+        this.decisionPool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * A REST endpoint that handles batches of loan decision requests.
+     * The request body is a JSON array of decision requests. The requests are read one by one, so a batch over
+     * the configured maximum size is rejected without reading the rest of it. The requests are decided in parallel
+     * on a bounded pool and every request gets its own status, so one invalid request does not fail the batch.
+     *
+     * @param body JSON array of decision requests
+     * @return A ResponseEntity with a BatchDecisionResult for every request, in the order of the requests
+     */
+    @PostMapping(value = "/decisions", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<?> requestDecisions(InputStream body) throws IOException, InterruptedException {
+        List<DecisionRequest> requests = new ArrayList<>();
+
+        try (JsonParser parser = objectMapper.getFactory().createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                return ErrorResponses.malformedRequest();
+            }
+            while (parser.nextToken() == JsonToken.START_OBJECT) {
+                if (requests.size() == maxBatchSize) {
+                    return ErrorResponses.batchTooLarge();
+                }
+                requests.add(objectMapper.readValue(parser, DecisionRequest.class));
+            }
+            if (parser.currentToken() != JsonToken.END_ARRAY) {
+                return ErrorResponses.malformedRequest();
+            }
+        } catch (JsonProcessingException e) {
+            return ErrorResponses.malformedRequest();
+        }
+
+        return ResponseEntity.ok(decide(requests));
+    }
+
+    private BatchDecisionResult[] decide(List<DecisionRequest> requests) throws InterruptedException {
+        BatchDecisionResult[] results = new BatchDecisionResult[requests.size()];
+        try {
+            decisionPool.submit(() -> IntStream.range(0, results.length).parallel()
+                    .forEach(i -> results[i] = decide(requests.get(i)))).get();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Batch decision failed", e.getCause());
+        }
+        return results;
+    }
+
+    private BatchDecisionResult decide(DecisionRequest request) {
+        try {
+            return BatchDecisionResult.of(decisionEngine.calculateApprovedLoan(
+                    request.getCountry(), request.getPersonalCode(), request.getLoanAmount(), request.getLoanPeriod()));
+        } catch (RuntimeException e) {
+            return BatchDecisionResult.UNEXPECTED_ERROR;
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        decisionPool.shutdown();
+    }
+}
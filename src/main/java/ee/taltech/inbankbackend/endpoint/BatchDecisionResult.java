@@ -0,0 +1,48 @@
+package ee.taltech.inbankbackend.endpoint;
+
+import ee.taltech.inbankbackend.service.Decision;
+import ee.taltech.inbankbackend.service.DecisionOutcome;
+import ee.taltech.inbankbackend.service.InvalidField;
+import ee.taltech.inbankbackend.service.RejectionReason;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Holds the result of one request in a batch, with the HTTP status the request would have had on its own.
+ */
+@Getter
+@AllArgsConstructor
+public class BatchDecisionResult {
+    private static final BatchDecisionResult[] INVALID = new BatchDecisionResult[InvalidField.values().length];
+    private static final BatchDecisionResult[] REJECTED = new BatchDecisionResult[RejectionReason.values().length];
+    static final BatchDecisionResult UNEXPECTED_ERROR =
+            new BatchDecisionResult(500, null, null, ErrorResponses.UNEXPECTED_ERROR_MESSAGE);
+
+    static {
+        for (InvalidField field : InvalidField.values()) {
+            INVALID[field.ordinal()] = new BatchDecisionResult(400, null, null, field.getMessage());
+        }
+        for (RejectionReason reason : RejectionReason.values()) {
+            REJECTED[reason.ordinal()] = new BatchDecisionResult(200, null, null, reason.getMessage());
+        }
+    }
+
+    private final int status;
+    private final Integer loanAmount;
+    private final Integer loanPeriod;
+    private final String errorMessage;
+
+    /**
+     * Maps the decision outcome to a batch result. Rejections and invalid inputs use shared instances.
+     */
+    static BatchDecisionResult of(DecisionOutcome outcome) {
+        if (outcome instanceof DecisionOutcome.Approved approved) {
+            Decision decision = approved.decision();
+            return new BatchDecisionResult(200, decision.getLoanAmount(), decision.getLoanPeriod(), decision.getErrorMessage());
+        }
+        if (outcome instanceof DecisionOutcome.Rejected rejected) {
+            return REJECTED[rejected.reason().ordinal()];
+        }
+        return INVALID[((DecisionOutcome.Invalid) outcome).field().ordinal()];
+    }
+}
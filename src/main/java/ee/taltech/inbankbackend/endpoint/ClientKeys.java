@@ -0,0 +1,34 @@
+package ee.taltech.inbankbackend.endpoint;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+import java.net.InetSocketAddress;
+import java.security.Principal;
+
+/**
+ * Identifies the client of a request for state kept per client, such as its rate limit and its idempotency keys.
+ * A client is the authenticated user, or else the remote address, never a header the client could change at will.
+ * Users and addresses are prefixed differently, so a user name never shares the state of the same address.
+ */
+final class ClientKeys {
+
+    private ClientKeys() {
+    }
+
+    static String of(HttpServletRequest request) {
+        return of(request.getUserPrincipal(), request.getRemoteAddr());
+    }
+
+    /**
+     * @param remoteAddress Remote address of a reactive request, null if it is not known
+     */
+    static String of(Principal principal, InetSocketAddress remoteAddress) {
+        String address = remoteAddress == null ? null
+                : remoteAddress.isUnresolved() ? remoteAddress.getHostString() : remoteAddress.getAddress().getHostAddress();
+        return of(principal, address);
+    }
+
+    static String of(Principal principal, String remoteAddress) {
+        return principal != null ? "user:" + principal.getName() : "address:" + remoteAddress;
+    }
+}
@@ -0,0 +1,48 @@
+package ee.taltech.inbankbackend.endpoint;
+
+import ee.taltech.inbankbackend.service.CreditModifierCache;
+import ee.taltech.inbankbackend.service.CreditModifierCacheStats;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.boot.actuate.endpoint.web.annotation.WebEndpoint;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+/**
+ * Administration of the credit modifier cache at /actuator/creditmodifiers. These operations are meant for operators,
+ * so they are served with the other actuator endpoints on the management port and not on the port of the customer API.
+ * ID codes are sent in the request body rather than the URL, which ends up in access logs.
+ */
+@Component
+@WebEndpoint(id = "creditmodifiers")
+public class CreditModifierCacheEndpoint {
+
+    private final CreditModifierCache creditModifierCache;
+
+    public CreditModifierCacheEndpoint(CreditModifierCache creditModifierCache) {
+        this.creditModifierCache = creditModifierCache;
+    }
+
+    /**
+     * Removes the cached credit modifier of a customer, for example after their credit registry data changed.
+     *
+     * @param personalCode ID code of the customer
+     * @param country      Country that issued the ID code, optional for Estonian and hyphenated Latvian codes
+     * @return 204 if the code was cached, 404 otherwise
+     */
+    @WriteOperation
+    public WebEndpointResponse<Void> invalidate(String personalCode, @Nullable String country) {
+        return new WebEndpointResponse<>(creditModifierCache.invalidate(country, personalCode)
+                ? WebEndpointResponse.STATUS_NO_CONTENT
+                : WebEndpointResponse.STATUS_NOT_FOUND);
+    }
+
+    /**
+     * @return Hit, miss and eviction counters and the current size of the cache
+     */
+    @ReadOperation
+    public CreditModifierCacheStats stats() {
+        return creditModifierCache.stats();
+    }
+}
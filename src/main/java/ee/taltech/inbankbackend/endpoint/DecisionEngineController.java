@@ -1,23 +1,29 @@
 package ee.taltech.inbankbackend.endpoint;
 
-import ee.taltech.inbankbackend.exceptions.InvalidLoanAmountException;
-import ee.taltech.inbankbackend.exceptions.InvalidLoanPeriodException;
-import ee.taltech.inbankbackend.exceptions.InvalidPersonalCodeException;
-import ee.taltech.inbankbackend.exceptions.NoValidLoanException;
 import ee.taltech.inbankbackend.service.Decision;
 import ee.taltech.inbankbackend.service.DecisionEngine;
+import ee.taltech.inbankbackend.service.DecisionOutcome;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.concurrent.CompletableFuture;
+
 @RestController
 @RequestMapping("/loan")
 @CrossOrigin
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class DecisionEngineController {
 
+    static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+
     private final DecisionEngine decisionEngine;
+    private final IdempotencyStore idempotencyStore;
 
-    public DecisionEngineController(DecisionEngine decisionEngine) {
+    public DecisionEngineController(DecisionEngine decisionEngine, IdempotencyStore idempotencyStore) {
         this.decisionEngine = decisionEngine;
+        this.idempotencyStore = idempotencyStore;
     }
 
     /**
@@ -25,21 +31,61 @@ public class DecisionEngineController {
      * The endpoint accepts POST requests with a request body containing the customer's personal ID code,
      * requested loan amount, and loan period.<br><br>
      * <p>
-     * Exception handling is now done through controller advice.
+     * Rejections and invalid inputs are mapped from the decision outcome directly,
+     * unexpected errors are handled through controller advice.
+     * The request thread is released while the credit modifier is looked up.
+     * Requests with an Idempotency-Key header are decided once per key, see {@link IdempotencyStore}.
      *
-     * @param request The request body containing the customer's personal ID code, requested loan amount, and loan period
-     * @return A ResponseEntity with a DecisionResponse body containing the approved loan amount and period, and an error message (if any)
+     * @param request        The request body containing the customer's personal ID code, requested loan amount, and loan period
+     * @param idempotencyKey Optional Idempotency-Key header
+     * @param httpRequest    The HTTP request, identifies the client the idempotency key belongs to
+     * @return A future of a ResponseEntity with a DecisionResponse body (or its preallocated JSON for errors) containing the approved loan amount and period, and an error message (if any)
      */
     @PostMapping("/decision")
-    public ResponseEntity<DecisionResponse> requestDecision(@RequestBody DecisionRequest request)
-            throws InvalidLoanPeriodException, NoValidLoanException, InvalidPersonalCodeException, InvalidLoanAmountException {
-        DecisionResponse response = new DecisionResponse();
+    public CompletableFuture<ResponseEntity<?>> requestDecision(
+            @RequestBody DecisionRequest request,
+            @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey,
+            HttpServletRequest httpRequest) {
+        if (idempotencyKey == null || idempotencyKey.isEmpty()) {
+            return decide(decisionEngine, request);
+        }
+        return decide(decisionEngine, idempotencyStore, request, ClientKeys.of(httpRequest), idempotencyKey);
+    }
+
+    /**
+     * Decides the request once per idempotency key of the client.
+     * A key sent again with a different request gets a 422 Unprocessable Entity response.
+     */
+    static CompletableFuture<ResponseEntity<?>> decide(DecisionEngine decisionEngine, IdempotencyStore idempotencyStore,
+                                                       DecisionRequest request, String client, String idempotencyKey) {
+        CompletableFuture<ResponseEntity<?>> response =
+                idempotencyStore.execute(client, idempotencyKey, request, () -> decide(decisionEngine, request));
+        return response != null ? response : CompletableFuture.completedFuture(ErrorResponses.idempotencyKeyReused());
+    }
 
-        Decision decision = decisionEngine.calculateApprovedLoan(request.getPersonalCode(), request.getLoanAmount(), request.getLoanPeriod());
-        response.setLoanAmount(decision.getLoanAmount());
-        response.setLoanPeriod(decision.getLoanPeriod());
-        response.setErrorMessage(decision.getErrorMessage());
+    static CompletableFuture<ResponseEntity<?>> decide(DecisionEngine decisionEngine, DecisionRequest request) {
+        CompletableFuture<DecisionOutcome> outcome = request.getCountry() == null
+                ? decisionEngine.calculateApprovedLoanAsync(request.getPersonalCode(), request.getLoanAmount(), request.getLoanPeriod())
+                : decisionEngine.calculateApprovedLoanAsync(request.getCountry(), request.getPersonalCode(),
+                request.getLoanAmount(), request.getLoanPeriod());
+        return outcome.thenApply(DecisionEngineController::toResponseEntity);
+    }
 
-        return ResponseEntity.ok(response);
+    /**
+     * Maps the decision outcome to a response. Rejections and invalid inputs use the preallocated error responses.
+     */
+    static ResponseEntity<?> toResponseEntity(DecisionOutcome outcome) {
+        if (outcome instanceof DecisionOutcome.Approved approved) {
+            Decision decision = approved.decision();
+            DecisionResponse response = new DecisionResponse();
+            response.setLoanAmount(decision.getLoanAmount());
+            response.setLoanPeriod(decision.getLoanPeriod());
+            response.setErrorMessage(decision.getErrorMessage());
+            return ResponseEntity.ok(response);
+        }
+        if (outcome instanceof DecisionOutcome.Rejected rejected) {
+            return ErrorResponses.rejected(rejected.reason());
+        }
+        return ErrorResponses.invalid(((DecisionOutcome.Invalid) outcome).field());
     }
 }
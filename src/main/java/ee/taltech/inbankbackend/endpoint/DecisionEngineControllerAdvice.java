@@ -1,56 +1,49 @@
 package ee.taltech.inbankbackend.endpoint;
 
 import ee.taltech.inbankbackend.exceptions.*;
+import ee.taltech.inbankbackend.service.InvalidField;
+import ee.taltech.inbankbackend.service.RejectionReason;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 
+/**
+ * Turns exceptions into error responses. Decision outcomes are mapped by the controller itself,
+ * the decision exceptions are only thrown by legacy callers of DecisionOutcome.orElseThrow().
+ * All handlers return preallocated responses, so nothing is shared or mutated between requests.
+ */
 @ControllerAdvice
 public class DecisionEngineControllerAdvice {
 
-    private final DecisionResponse response;
-
-    public DecisionEngineControllerAdvice() {
-        this.response = new DecisionResponse();
-        response.setLoanAmount(null);
-        response.setLoanPeriod(null);
-    }
-
     @ExceptionHandler(value = { InvalidLoanAmountException.class })
-    public ResponseEntity<DecisionResponse> handleInvalidLoanAmountException(InvalidLoanAmountException ex) {
-        response.setErrorMessage(ex.getMessage());
-        return ResponseEntity.badRequest().body(response);
+    public ResponseEntity<byte[]> handleInvalidLoanAmountException(InvalidLoanAmountException ex) {
+        return ErrorResponses.invalid(InvalidField.LOAN_AMOUNT);
     }
 
     @ExceptionHandler(value = { InvalidLoanPeriodException.class })
-    public ResponseEntity<DecisionResponse> handleInvalidLoanPeriodException(InvalidLoanPeriodException ex) {
-        response.setErrorMessage(ex.getMessage());
-        return ResponseEntity.badRequest().body(response);
+    public ResponseEntity<byte[]> handleInvalidLoanPeriodException(InvalidLoanPeriodException ex) {
+        return ErrorResponses.invalid(InvalidField.LOAN_PERIOD);
     }
 
     @ExceptionHandler(value = { InvalidPersonalCodeException.class })
-    public ResponseEntity<DecisionResponse> handleInvalidPersonalCodeException(InvalidPersonalCodeException ex) {
-        response.setErrorMessage(ex.getMessage());
-        return ResponseEntity.badRequest().body(response);
+    public ResponseEntity<byte[]> handleInvalidPersonalCodeException(InvalidPersonalCodeException ex) {
+        return ErrorResponses.invalid(InvalidField.PERSONAL_CODE);
     }
 
     @ExceptionHandler(value = { NoValidLoanException.class })
-    public ResponseEntity<DecisionResponse> handleNoValidLoanException(NoValidLoanException ex) {
-        response.setErrorMessage(ex.getMessage());
-        return ResponseEntity.ok().body(response);
+    public ResponseEntity<byte[]> handleNoValidLoanException(NoValidLoanException ex) {
+        return ErrorResponses.rejected(RejectionReason.NO_VALID_LOAN);
     }
 
     @ExceptionHandler(value = { InvalidCustomerAgeException.class })
-    public ResponseEntity<DecisionResponse> InvalidCustomerAgeException(InvalidCustomerAgeException ex) {
-        response.setErrorMessage(ex.getMessage());
-        return ResponseEntity.ok().body(response);
+    public ResponseEntity<byte[]> InvalidCustomerAgeException(InvalidCustomerAgeException ex) {
+        return ErrorResponses.rejected(RejectionReason.CUSTOMER_AGE);
     }
 
 
     @ExceptionHandler(value = { Exception.class })
-    public ResponseEntity<DecisionResponse> handleOtherExceptions(Exception ex) {
-        response.setErrorMessage("An unexpected error occurred");
-        return ResponseEntity.internalServerError().body(response);
+    public ResponseEntity<byte[]> handleOtherExceptions(Exception ex) {
+        return ErrorResponses.unexpectedError();
     }
 
 }
@@ -0,0 +1,24 @@
+package ee.taltech.inbankbackend.endpoint;
+
+import ee.taltech.inbankbackend.service.CreditModifierCacheStats;
+import ee.taltech.inbankbackend.service.DecisionMemoStats;
+import ee.taltech.inbankbackend.service.OfferMatrix;
+import org.springframework.aot.hint.BindingReflectionHintsRegistrar;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+
+/**
+ * Reflection hints for the native image. Request and response bodies are (de)serialized by Jackson through
+ * reflection, and several of them are not visible to the AOT processing from the controller signatures:
+ * the decision endpoints return ResponseEntity&lt;?&gt;, the batch and stream endpoints read the request body
+ * themselves and the error responses are serialized in a static initializer.
+ */
+public class DecisionEngineRuntimeHints implements RuntimeHintsRegistrar {
+
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+        new BindingReflectionHintsRegistrar().registerReflectionHints(hints.reflection(),
+                DecisionRequest.class, DecisionResponse.class, BatchDecisionResult.class, OfferMatrix.class,
+                CreditModifierCacheStats.class, DecisionMemoStats.class);
+    }
+}
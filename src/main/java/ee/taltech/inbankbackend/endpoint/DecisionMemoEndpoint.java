@@ -0,0 +1,30 @@
+package ee.taltech.inbankbackend.endpoint;
+
+import ee.taltech.inbankbackend.service.DecisionMemo;
+import ee.taltech.inbankbackend.service.DecisionMemoStats;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+/**
+ * Statistics of the decision memo at /actuator/decisionmemo. This endpoint is meant for operators,
+ * so it is served with the other actuator endpoints on the management port.
+ */
+@Component
+@Endpoint(id = "decisionmemo")
+public class DecisionMemoEndpoint {
+
+    private final DecisionMemo decisionMemo;
+
+    public DecisionMemoEndpoint(DecisionMemo decisionMemo) {
+        this.decisionMemo = decisionMemo;
+    }
+
+    /**
+     * @return Hit and miss counters, hit rate and number of slots of the memo
+     */
+    @ReadOperation
+    public DecisionMemoStats stats() {
+        return decisionMemo.stats();
+    }
+}
@@ -1,15 +1,28 @@
 package ee.taltech.inbankbackend.endpoint;
 
-import lombok.AllArgsConstructor;
+import com.fasterxml.jackson.annotation.JsonCreator;
 import lombok.Getter;
 
 /**
- * Holds the request data of the REST endpoint
+ * Holds the request data of the REST endpoint.
+ * The country that issued the personal ID code is optional, without it the country is told from the shape of the code.
  */
 @Getter
-@AllArgsConstructor
 public class DecisionRequest {
     private String personalCode;
     private Long loanAmount;
     private int loanPeriod;
+    private String country;
+
+    public DecisionRequest(String personalCode, Long loanAmount, int loanPeriod) {
+        this(personalCode, loanAmount, loanPeriod, null);
+    }
+
+    @JsonCreator
+    public DecisionRequest(String personalCode, Long loanAmount, int loanPeriod, String country) {
+        this.personalCode = personalCode;
+        this.loanAmount = loanAmount;
+        this.loanPeriod = loanPeriod;
+        this.country = country;
+    }
 }
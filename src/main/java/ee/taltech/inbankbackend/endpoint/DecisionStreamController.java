@@ -0,0 +1,137 @@
+package ee.taltech.inbankbackend.endpoint;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import ee.taltech.inbankbackend.service.Decision;
+import ee.taltech.inbankbackend.service.DecisionEngine;
+import ee.taltech.inbankbackend.service.DecisionOutcome;
+import ee.taltech.inbankbackend.service.InvalidField;
+import ee.taltech.inbankbackend.service.RejectionReason;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+@RestController
+@RequestMapping("/loan")
+@CrossOrigin
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class DecisionStreamController {
+
+    private final DecisionEngine decisionEngine;
+    private final ObjectMapper objectMapper;
+    private final ObjectReader requestReader;
+    private final ObjectWriter responseWriter;
+    private final int flushInterval;
+
+    private final SerializedString[] invalidLines = new SerializedString[InvalidField.values().length];
+    private final SerializedString[] rejectedLines = new SerializedString[RejectionReason.values().length];
+    private final SerializedString unexpectedErrorLine = errorLine(ErrorResponses.unexpectedError());
+    private final SerializedString malformedRequestLine = errorLine(ErrorResponses.malformedRequest());
+
+    public DecisionStreamController(DecisionEngine decisionEngine, ObjectMapper objectMapper,
+                                    @Value("${decision-engine.stream.flush-interval:256}") int flushInterval) {
+        this.decisionEngine = decisionEngine;
+        this.objectMapper = objectMapper;
+        this.requestReader = objectMapper.readerFor(DecisionRequest.class);
+        this.responseWriter = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        this.flushInterval = Math.max(1, flushInterval);
+
+        for (InvalidField field : InvalidField.values()) {
+            invalidLines[field.ordinal()] = errorLine(ErrorResponses.invalid(field));
+        }
+        for (RejectionReason reason : RejectionReason.values()) {
+            rejectedLines[reason.ordinal()] = errorLine(ErrorResponses.rejected(reason));
+        }
+    }
+
+    /**
+     * A streaming endpoint for very large numbers of loan decision requests.
+     * The request body contains one decision request per line (NDJSON). Requests are read one at a time and
+     * the response line of each request is written before the next one is read, so memory use does not depend
+     * on the size of the input. Writing blocks while the client is not reading, which stops reading the input
+     * until the client catches up. Responses are flushed every decision-engine.stream.flush-interval lines.
+     * <p>
+     * Every response line has the same body as /loan/decision would return for the request. If a line cannot
+     * be parsed, an error line is written and the stream ends, as the rest of the input cannot be read reliably.
+     *
+     * @param body     NDJSON decision requests
+     * @param response Response the NDJSON decision responses are written to
+     */
+    @PostMapping(value = "/decisions/stream", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public void streamDecisions(InputStream body, HttpServletResponse response) throws IOException {
+        response.setStatus(HttpServletResponse.SC_OK);
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+
+        try (JsonParser parser = objectMapper.getFactory().createParser(body);
+             JsonGenerator generator = objectMapper.getFactory().createGenerator(response.getOutputStream())) {
+            generator.setRootValueSeparator(null);
+            MappingIterator<DecisionRequest> requests = requestReader.readValues(parser);
+
+            int linesSinceFlush = 0;
+            while (true) {
+                DecisionRequest request;
+                try {
+                    if (!requests.hasNextValue()) {
+                        break;
+                    }
+                    request = requests.nextValue();
+                } catch (JsonProcessingException e) {
+                    generator.writeRaw(malformedRequestLine);
+                    break;
+                }
+
+                writeLine(generator, decide(request));
+                if (++linesSinceFlush == flushInterval) {
+                    generator.flush();
+                    linesSinceFlush = 0;
+                }
+            }
+        }
+    }
+
+    private DecisionOutcome decide(DecisionRequest request) {
+        try {
+            return decisionEngine.calculateApprovedLoan(request.getCountry(), request.getPersonalCode(), request.getLoanAmount(),
+                    request.getLoanPeriod());
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
+    private void writeLine(JsonGenerator generator, DecisionOutcome outcome) throws IOException {
+        if (outcome instanceof DecisionOutcome.Approved approved) {
+            Decision decision = approved.decision();
+            DecisionResponse response = new DecisionResponse();
+            response.setLoanAmount(decision.getLoanAmount());
+            response.setLoanPeriod(decision.getLoanPeriod());
+            response.setErrorMessage(decision.getErrorMessage());
+            responseWriter.writeValue(generator, response);
+            generator.writeRaw('\n');
+        } else if (outcome instanceof DecisionOutcome.Rejected rejected) {
+            generator.writeRaw(rejectedLines[rejected.reason().ordinal()]);
+        } else if (outcome instanceof DecisionOutcome.Invalid invalid) {
+            generator.writeRaw(invalidLines[invalid.field().ordinal()]);
+        } else {
+            generator.writeRaw(unexpectedErrorLine);
+        }
+    }
+
+    private static SerializedString errorLine(ResponseEntity<byte[]> errorResponse) {
+        return new SerializedString(new String(errorResponse.getBody(), StandardCharsets.UTF_8) + "\n");
+    }
+}
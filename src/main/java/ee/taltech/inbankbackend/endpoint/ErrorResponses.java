@@ -0,0 +1,121 @@
+package ee.taltech.inbankbackend.endpoint;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import ee.taltech.inbankbackend.service.InvalidField;
+import ee.taltech.inbankbackend.service.RejectionReason;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+
+import java.util.EnumMap;
+
+/**
+ * Preallocated error responses. Error messages are fixed, so every error kind is serialized once
+ * and the same immutable response is written for every request that ends with that error.
+ */
+final class ErrorResponses {
+
+    static final String UNEXPECTED_ERROR_MESSAGE = "An unexpected error occurred";
+    static final String MALFORMED_REQUEST_MESSAGE = "Invalid decision request!";
+    static final String BATCH_TOO_LARGE_MESSAGE = "Too many decision requests!";
+    static final String RATE_LIMITED_MESSAGE = "Too many requests, try again later!";
+    static final String OVERLOADED_MESSAGE = "Service is overloaded, try again later!";
+    static final String IDEMPOTENCY_KEY_REUSED_MESSAGE = "Idempotency key was used for a different request!";
+
+    private static final EnumMap<InvalidField, ResponseEntity<byte[]>> INVALID = new EnumMap<>(InvalidField.class);
+    private static final EnumMap<RejectionReason, ResponseEntity<byte[]>> REJECTED = new EnumMap<>(RejectionReason.class);
+    private static final ResponseEntity<byte[]> UNEXPECTED_ERROR;
+    private static final ResponseEntity<byte[]> MALFORMED_REQUEST;
+    private static final ResponseEntity<byte[]> BATCH_TOO_LARGE;
+    private static final ResponseEntity<byte[]> RATE_LIMITED;
+    private static final ResponseEntity<byte[]> OVERLOADED;
+    private static final ResponseEntity<byte[]> IDEMPOTENCY_KEY_REUSED;
+
+    static {
+        ObjectMapper objectMapper = new ObjectMapper();
+        for (InvalidField field : InvalidField.values()) {
+            INVALID.put(field, errorResponse(objectMapper, HttpStatus.BAD_REQUEST, field.getMessage()));
+        }
+        for (RejectionReason reason : RejectionReason.values()) {
+            REJECTED.put(reason, errorResponse(objectMapper, HttpStatus.OK, reason.getMessage()));
+        }
+        UNEXPECTED_ERROR = errorResponse(objectMapper, HttpStatus.INTERNAL_SERVER_ERROR, UNEXPECTED_ERROR_MESSAGE);
+        MALFORMED_REQUEST = errorResponse(objectMapper, HttpStatus.BAD_REQUEST, MALFORMED_REQUEST_MESSAGE);
+        BATCH_TOO_LARGE = errorResponse(objectMapper, HttpStatus.PAYLOAD_TOO_LARGE, BATCH_TOO_LARGE_MESSAGE);
+        RATE_LIMITED = errorResponse(objectMapper, HttpStatus.TOO_MANY_REQUESTS, RATE_LIMITED_MESSAGE);
+        OVERLOADED = errorResponse(objectMapper, HttpStatus.SERVICE_UNAVAILABLE, OVERLOADED_MESSAGE);
+        IDEMPOTENCY_KEY_REUSED = errorResponse(objectMapper, HttpStatus.UNPROCESSABLE_ENTITY, IDEMPOTENCY_KEY_REUSED_MESSAGE);
+    }
+
+    private ErrorResponses() {
+    }
+
+    /**
+     * @return 400 Bad Request response for the invalid field
+     */
+    static ResponseEntity<byte[]> invalid(InvalidField field) {
+        return INVALID.get(field);
+    }
+
+    /**
+     * @return 200 OK response with the error message of the rejection reason
+     */
+    static ResponseEntity<byte[]> rejected(RejectionReason reason) {
+        return REJECTED.get(reason);
+    }
+
+    /**
+     * @return 500 Internal Server Error response
+     */
+    static ResponseEntity<byte[]> unexpectedError() {
+        return UNEXPECTED_ERROR;
+    }
+
+    /**
+     * @return 400 Bad Request response for a request body that cannot be parsed
+     */
+    static ResponseEntity<byte[]> malformedRequest() {
+        return MALFORMED_REQUEST;
+    }
+
+    /**
+     * @return 413 Payload Too Large response for a batch over the configured maximum size
+     */
+    static ResponseEntity<byte[]> batchTooLarge() {
+        return BATCH_TOO_LARGE;
+    }
+
+    /**
+     * @return 429 Too Many Requests response for a client over its request rate
+     */
+    static ResponseEntity<byte[]> rateLimited() {
+        return RATE_LIMITED;
+    }
+
+    /**
+     * @return 503 Service Unavailable response for a request shed over the concurrency limit
+     */
+    static ResponseEntity<byte[]> overloaded() {
+        return OVERLOADED;
+    }
+
+    /**
+     * @return 422 Unprocessable Entity response for an idempotency key sent again with a different request
+     */
+    static ResponseEntity<byte[]> idempotencyKeyReused() {
+        return IDEMPOTENCY_KEY_REUSED;
+    }
+
+    private static ResponseEntity<byte[]> errorResponse(ObjectMapper objectMapper, HttpStatus status, String errorMessage) {
+        DecisionResponse response = new DecisionResponse();
+        response.setErrorMessage(errorMessage);
+        try {
+            return ResponseEntity.status(status)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(objectMapper.writeValueAsBytes(response));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize error response", e);
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package ee.taltech.inbankbackend.endpoint;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Responses of decision requests sent with an Idempotency-Key header, kept for a fixed time.
+ * <p>
+ * Keys are scoped by the client that sent them, see {@link ClientKeys}, so a client can neither replay the response
+ * of another client's request nor have its key refused because another client picked the same one.
+ * <p>
+ * The first request with a key is decided and its response is kept under the key. Duplicates of a request still
+ * being decided wait for the same response instead of deciding again, and later duplicates get the kept response.
+ * A key sent again with a different request is a client error and is refused. Failed decisions are not kept,
+ * so a retry decides again.
+ * <p>
+ * Keys are spread over stripes, each a small map guarded by its own lock, so requests with different keys rarely
+ * wait for each other. Every stripe keeps its entries in insertion order, which is also expiry order as all entries
+ * live equally long, so expired entries are removed from the head of the stripe whenever it is used. A stripe that is
+ * still full drops its oldest entry. A time to live of 0 disables the store.
+ * <p>
+ * Metrics: idempotency.requests counter tagged by result (first, collapsed, replayed, conflict).
+ */
+@Component
+public class IdempotencyStore {
+
+    private static final int STRIPES = 64;
+
+    private final long timeToLiveNanos;
+    private final int maximumStripeSize;
+    private final LongSupplier nanoTime;
+    private final Stripe[] stripes = new Stripe[STRIPES];
+    private final Counter first;
+    private final Counter collapsed;
+    private final Counter replayed;
+    private final Counter conflict;
+
+    @Autowired
+    public IdempotencyStore(MeterRegistry meterRegistry,
+                            @Value("${decision-engine.idempotency.ttl-seconds:600}") long timeToLiveSeconds,
+                            @Value("${decision-engine.idempotency.max-size:100000}") int maximumSize) {
+        this(meterRegistry, TimeUnit.SECONDS.toNanos(timeToLiveSeconds), maximumSize, System::nanoTime);
+    }
+
+    IdempotencyStore(MeterRegistry meterRegistry, long timeToLiveNanos, int maximumSize, LongSupplier nanoTime) {
+        this.timeToLiveNanos = timeToLiveNanos;
+        this.maximumStripeSize = Math.max(1, (maximumSize + STRIPES - 1) / STRIPES);
+        this.nanoTime = nanoTime;
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Stripe();
+        }
+        this.first = requests(meterRegistry, "first");
+        this.collapsed = requests(meterRegistry, "collapsed");
+        this.replayed = requests(meterRegistry, "replayed");
+        this.conflict = requests(meterRegistry, "conflict");
+    }
+
+    private static Counter requests(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("idempotency.requests").tag("result", result).register(meterRegistry);
+    }
+
+    /**
+     * Decides the request once per idempotency key of the client.
+     *
+     * @param client         Client that sent the request, see {@link ClientKeys}
+     * @param idempotencyKey Idempotency-Key header of the request
+     * @param request        Decision request
+     * @param decision       Decides the request, called only for the first request with the key
+     * @return Future of the response of the first request with the key, or null if the key was used for a different request
+     */
+    public CompletableFuture<ResponseEntity<?>> execute(String client, String idempotencyKey, DecisionRequest request,
+                                                        Supplier<CompletableFuture<ResponseEntity<?>>> decision) {
+        if (timeToLiveNanos <= 0) {
+            return decision.get();
+        }
+
+        long now = nanoTime.getAsLong();
+        Key key = new Key(client, idempotencyKey);
+        Stripe stripe = stripes[stripe(key)];
+        Entry entry;
+        synchronized (stripe) {
+            stripe.removeExpired(now);
+            Entry existing = stripe.entries.get(key);
+            if (existing != null) {
+                if (!existing.isFor(request)) {
+                    conflict.increment();
+                    return null;
+                }
+                (existing.response.isDone() ? replayed : collapsed).increment();
+                return existing.response;
+            }
+            entry = new Entry(request.getPersonalCode(), request.getLoanAmount(), request.getLoanPeriod(),
+                    request.getCountry(), now + timeToLiveNanos, new CompletableFuture<>());
+            stripe.entries.put(key, entry);
+            stripe.removeEldestOver(maximumStripeSize);
+        }
+
+        first.increment();
+        CompletableFuture<ResponseEntity<?>> response;
+        try {
+            response = decision.get();
+        } catch (RuntimeException e) {
+            response = CompletableFuture.failedFuture(e);
+        }
+        response.whenComplete((result, failure) -> {
+            if (failure != null) {
+                synchronized (stripe) {
+                    stripe.entries.remove(key, entry);
+                }
+                entry.response.completeExceptionally(failure);
+            } else {
+                entry.response.complete(result);
+            }
+        });
+        return entry.response;
+    }
+
+    private static int stripe(Key key) {
+        int hash = key.hashCode();
+        return (hash ^ (hash >>> 16)) & (STRIPES - 1);
+    }
+
+    private static final class Stripe {
+
+        private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>();
+
+        void removeExpired(long now) {
+            Iterator<Entry> iterator = entries.values().iterator();
+            while (iterator.hasNext() && iterator.next().isExpired(now)) {
+                iterator.remove();
+            }
+        }
+
+        void removeEldestOver(int maximumSize) {
+            Iterator<Entry> iterator = entries.values().iterator();
+            while (entries.size() > maximumSize && iterator.hasNext()) {
+                iterator.next();
+                iterator.remove();
+            }
+        }
+    }
+
+    private record Key(String client, String idempotencyKey) {
+    }
+
+    private record Entry(String personalCode, Long loanAmount, int loanPeriod, String country, long expiresAtNanos,
+                         CompletableFuture<ResponseEntity<?>> response) {
+
+        boolean isFor(DecisionRequest request) {
+            return Objects.equals(personalCode, request.getPersonalCode())
+                    && Objects.equals(loanAmount, request.getLoanAmount())
+                    && loanPeriod == request.getLoanPeriod()
+                    && Objects.equals(country, request.getCountry());
+        }
+
+        boolean isExpired(long now) {
+            return now - expiresAtNanos >= 0;
+        }
+    }
+}
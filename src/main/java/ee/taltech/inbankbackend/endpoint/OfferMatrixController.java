@@ -0,0 +1,100 @@
+package ee.taltech.inbankbackend.endpoint;
+
+import ee.taltech.inbankbackend.service.DecisionEngine;
+import ee.taltech.inbankbackend.service.OfferMatrix;
+import ee.taltech.inbankbackend.service.OfferMatrixOutcome;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.concurrent.CompletableFuture;
+
+@RestController
+@RequestMapping("/loan")
+@CrossOrigin
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class OfferMatrixController {
+
+    static final String PERSONAL_CODE_HEADER = "Personal-Code";
+    static final String COUNTRY_HEADER = "Personal-Code-Country";
+
+    private final DecisionEngine decisionEngine;
+
+    public OfferMatrixController(DecisionEngine decisionEngine) {
+        this.decisionEngine = decisionEngine;
+    }
+
+    /**
+     * A REST endpoint that returns all offers of a customer: the highest approvable loan amount of every loan period
+     * and the shortest approving loan period of every loan amount, see {@link OfferMatrix}.<br><br>
+     * <p>
+     * The response has an ETag of the matrix contents. Clients revalidate it with If-None-Match and get
+     * 304 Not Modified for as long as neither the scoring policy nor the customer's credit modifier changes.
+     * Invalid personal ID codes and customers without any valid loan get the same error responses as /loan/decision.
+     * <p>
+     * The ID code is sent in a header rather than in the URL, which ends up in access logs and browser histories,
+     * and the response varies by it.
+     *
+     * @param personalCode Personal ID code of the customer, a missing code is invalid
+     * @param country      Country that issued the ID code, optional as in /loan/decision
+     * @return A future of a ResponseEntity with the offer matrix, or an error response
+     */
+    @GetMapping("/offers")
+    public CompletableFuture<ResponseEntity<?>> offerMatrix(
+            @RequestHeader(name = PERSONAL_CODE_HEADER, required = false) String personalCode,
+            @RequestHeader(name = COUNTRY_HEADER, required = false) String country) {
+        CompletableFuture<OfferMatrixOutcome> outcome = country == null
+                ? decisionEngine.calculateOfferMatrixAsync(personalCode)
+                : decisionEngine.calculateOfferMatrixAsync(country, personalCode);
+        return outcome.thenApply(OfferMatrixController::toResponseEntity);
+    }
+
+    static ResponseEntity<?> toResponseEntity(OfferMatrixOutcome outcome) {
+        if (outcome instanceof OfferMatrixOutcome.Offered offered) {
+            OfferMatrix matrix = offered.matrix();
+            // Spring answers GET requests with a matching If-None-Match with 304 when the entity has an ETag.
+            return ResponseEntity.ok()
+                    .eTag(eTag(matrix))
+                    .cacheControl(CacheControl.noCache().cachePrivate())
+                    .varyBy(PERSONAL_CODE_HEADER, COUNTRY_HEADER)
+                    .body(matrix);
+        }
+        return DecisionEngineController.toResponseEntity(((OfferMatrixOutcome.NotOffered) outcome).outcome());
+    }
+
+    /**
+     * The ETag is a SHA-256 digest of the contents rather than the policy version alone, as the offers also depend on
+     * the credit modifier of the customer, which changes without a new policy. A hash code would let different
+     * matrices of the same customer collide and answer a changed matrix with 304.
+     */
+    static String eTag(OfferMatrix matrix) {
+        ByteBuffer contents = ByteBuffer.allocate(Long.BYTES + 5 * Integer.BYTES
+                + (matrix.highestLoanAmounts().length + matrix.shortestLoanPeriods().length) * Integer.BYTES);
+        contents.putLong(matrix.policyVersion())
+                .putInt(matrix.minimumLoanPeriod())
+                .putInt(matrix.minimumLoanAmount())
+                .putInt(matrix.loanAmountStep())
+                .putInt(matrix.highestLoanAmounts().length);
+        for (int loanAmount : matrix.highestLoanAmounts()) {
+            contents.putInt(loanAmount);
+        }
+        contents.putInt(matrix.shortestLoanPeriods().length);
+        for (int loanPeriod : matrix.shortestLoanPeriods()) {
+            contents.putInt(loanPeriod);
+        }
+        return "\"" + HexFormat.of().formatHex(sha256().digest(contents.array())) + "\"";
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is available on every Java platform", e);
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package ee.taltech.inbankbackend.endpoint;
+
+import ee.taltech.inbankbackend.service.DecisionEngine;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+/**
+ * Reactive variant of {@link DecisionEngineController} with the same /loan/decision contract,
+ * active when the application runs as a reactive (WebFlux) web application, see application-reactive.properties.
+ * Unexpected errors are handled by the same controller advice as in the servlet stack.
+ */
+@RestController
+@RequestMapping("/loan")
+@CrossOrigin
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveDecisionEngineController {
+
+    private final DecisionEngine decisionEngine;
+    private final IdempotencyStore idempotencyStore;
+
+    public ReactiveDecisionEngineController(DecisionEngine decisionEngine, IdempotencyStore idempotencyStore) {
+        this.decisionEngine = decisionEngine;
+        this.idempotencyStore = idempotencyStore;
+    }
+
+    /**
+     * A reactive REST endpoint that handles requests for loan decisions. The decision is completed
+     * when the credit modifier lookup completes, without blocking an event loop thread.
+     *
+     * Requests with an Idempotency-Key header are decided once per key, see {@link IdempotencyStore}.
+     *
+     * @param request        The request body containing the customer's personal ID code, requested loan amount, and loan period
+     * @param idempotencyKey Optional Idempotency-Key header
+     * @param exchange       The HTTP exchange, identifies the client the idempotency key belongs to
+     * @return A Mono of a ResponseEntity with a DecisionResponse body (or its preallocated JSON for errors)
+     */
+    @PostMapping("/decision")
+    public Mono<ResponseEntity<?>> requestDecision(
+            @RequestBody DecisionRequest request,
+            @RequestHeader(value = DecisionEngineController.IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey,
+            ServerWebExchange exchange) {
+        if (idempotencyKey == null || idempotencyKey.isEmpty()) {
+            return Mono.fromFuture(() -> DecisionEngineController.decide(decisionEngine, request));
+        }
+        return exchange.getPrincipal()
+                .map(principal -> ClientKeys.of(principal, exchange.getRequest().getRemoteAddress()))
+                .defaultIfEmpty(ClientKeys.of(null, exchange.getRequest().getRemoteAddress()))
+                .flatMap(client -> Mono.fromFuture(() ->
+                        DecisionEngineController.decide(decisionEngine, idempotencyStore, request, client, idempotencyKey)));
+    }
+}
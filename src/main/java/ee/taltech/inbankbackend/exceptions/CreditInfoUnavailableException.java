@@ -0,0 +1,28 @@
+package ee.taltech.inbankbackend.exceptions;
+
+/**
+ * Thrown when the credit registry does not return a credit modifier and no fallback is configured.
+ */
+public class CreditInfoUnavailableException extends RuntimeException {
+    private final String message;
+    private final Throwable cause;
+
+    public CreditInfoUnavailableException(String message) {
+        this(message, null);
+    }
+
+    public CreditInfoUnavailableException(String message, Throwable cause) {
+        this.message = message;
+        this.cause = cause;
+    }
+
+    @Override
+    public Throwable getCause() {
+        return cause;
+    }
+
+    @Override
+    public String getMessage() {
+        return message;
+    }
+}
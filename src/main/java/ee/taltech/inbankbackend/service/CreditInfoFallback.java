@@ -0,0 +1,32 @@
+package ee.taltech.inbankbackend.service;
+
+import ee.taltech.inbankbackend.exceptions.CreditInfoUnavailableException;
+
+/**
+ * What to do when the credit registry fails or does not answer in time.
+ */
+public enum CreditInfoFallback {
+
+    /**
+     * Treat the customer as having debt, so no loan is offered.
+     */
+    DEBT,
+
+    /**
+     * Use the mock credit modifier derived from the personal ID code, with the default segment credit modifiers.
+     */
+    MOCK,
+
+    /**
+     * Fail the decision with a CreditInfoUnavailableException.
+     */
+    FAIL;
+
+    int creditModifier(ParsedPersonalCode parsedPersonalCode, Throwable failure) {
+        return switch (this) {
+            case DEBT -> 0;
+            case MOCK -> CreditInfoService.getCreditModifier(parsedPersonalCode);
+            case FAIL -> throw new CreditInfoUnavailableException("Credit registry unavailable", failure);
+        };
+    }
+}
@@ -0,0 +1,39 @@
+package ee.taltech.inbankbackend.service;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Source of customer credit modifiers. Implementations may call a remote credit registry,
+ * so the modifier is returned as a future and callers should not block on it in request threads.
+ */
+public interface CreditInfoProvider {
+
+    /**
+     * ID codes are only unique within a country, so a customer is identified by the code together with the country of
+     * its scheme. The code is normalized, see {@link PersonalCodeScheme#normalize(String)}.
+     *
+     * @param personalCode       ID code of the customer, already validated and normalized
+     * @param parsedPersonalCode The same ID code, parsed
+     * @return Future completed with the credit modifier of the customer. 0 means the customer has debt.
+     */
+    CompletableFuture<Integer> getCreditModifier(String personalCode, ParsedPersonalCode parsedPersonalCode);
+
+    /**
+     * Looks up the credit modifier without applying a fallback, so the future fails if the lookup fails.
+     * Caches use this to avoid keeping fallback values. Defaults to getCreditModifier.
+     */
+    default CompletableFuture<Integer> lookupCreditModifier(String personalCode, ParsedPersonalCode parsedPersonalCode) {
+        return getCreditModifier(personalCode, parsedPersonalCode);
+    }
+
+    /**
+     * @param parsedPersonalCode ID code of the customer, parsed
+     * @param failure            Failure of lookupCreditModifier
+     * @return Credit modifier to use instead. By default the failure is rethrown.
+     */
+    default int fallbackCreditModifier(ParsedPersonalCode parsedPersonalCode, Throwable failure) {
+        throw failure instanceof CompletionException completionException
+                ? completionException : new CompletionException(failure);
+    }
+}
@@ -1,17 +1,38 @@
 package ee.taltech.inbankbackend.service;
 
-import ee.taltech.inbankbackend.config.DecisionEngineConstants;
+import ee.taltech.inbankbackend.config.ScoringPolicy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Service;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
 /**
  *
  * A service class that provides a method for calculating credit score of an offer.
  * customer's credit modifier is determined by the last four digits of their ID code.
+ * This mock is the default credit info provider, see decision-engine.credit-info.provider.
  */
 
 @Service
-public class CreditInfoService {
+@ConditionalOnProperty(name = "decision-engine.credit-info.provider", havingValue = "mock", matchIfMissing = true)
+public class CreditInfoService implements CreditInfoProvider {
+
+    private final Supplier<ScoringPolicy> scoringPolicy;
+
+    public CreditInfoService() {
+        this(() -> ScoringPolicy.DEFAULTS);
+    }
 
+    @Autowired
+    public CreditInfoService(OfferTableProvider offerTableProvider) {
+        this(() -> offerTableProvider.current().getPolicy());
+    }
+
+    CreditInfoService(Supplier<ScoringPolicy> scoringPolicy) {
+        this.scoringPolicy = scoringPolicy;
+    }
 
     /**
      *
@@ -27,27 +48,35 @@ public class CreditInfoService {
     }
 
     /**
-     * Calculates the credit modifier of the customer to according to the last four digits of their ID code.
+     * Calculates the credit modifier of the customer to according to the last four digits of their ID code
+     * and the default segment credit modifiers.
      * Debt - 0000...2499
      * Segment 1 - 2500...4999
      * Segment 2 - 5000...7499
      * Segment 3 - 7500...9999
      *
-     * @param personalCode ID code of the customer that made the request.
+     * @param personalCode ID code of the customer that made the request, parsed.
      * @return Segment to which the customer belongs.
      */
-    protected static int getCreditModifier(String personalCode) {
-        int segment = Integer.parseInt(personalCode.substring(personalCode.length() - 4));
-
-        if (segment < 2500) {
-            return DecisionEngineConstants.DEBT;
-        } else if (segment < 5000) {
-            return DecisionEngineConstants.SEGMENT_1_CREDIT_MODIFIER;
-        } else if (segment < 7500) {
-            return DecisionEngineConstants.SEGMENT_2_CREDIT_MODIFIER;
-        }
-
-        return DecisionEngineConstants.SEGMENT_3_CREDIT_MODIFIER;
+    protected static int getCreditModifier(ParsedPersonalCode personalCode) {
+        return getCreditModifier(personalCode, ScoringPolicy.DEFAULTS);
     }
 
+    /**
+     * Calculates the credit modifier of the customer with the segments of the policy. The last four digits
+     * of the ID code are split into equally sized ranges, one per segment, the first one being the debt segment.
+     *
+     * @param personalCode ID code of the customer that made the request, parsed.
+     * @param policy       Scoring policy with the segment credit modifiers
+     * @return Credit modifier of the segment to which the customer belongs.
+     */
+    protected static int getCreditModifier(ParsedPersonalCode personalCode, ScoringPolicy policy) {
+        int segment = personalCode.getSegmentDigits() * policy.getSegmentCount() / 10000;
+        return policy.getSegmentCreditModifier(segment);
+    }
+
+    @Override
+    public CompletableFuture<Integer> getCreditModifier(String personalCode, ParsedPersonalCode parsedPersonalCode) {
+        return CompletableFuture.completedFuture(getCreditModifier(parsedPersonalCode, scoringPolicy.get()));
+    }
 }
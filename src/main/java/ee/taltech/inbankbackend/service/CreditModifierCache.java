@@ -0,0 +1,264 @@
+package ee.taltech.inbankbackend.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Caches credit modifiers per customer in front of the credit info provider. Customers are keyed by the country of
+ * their ID code scheme and the normalized code, as the same digits can belong to customers of different countries
+ * and a code can be written in more than one way.
+ * <p>
+ * Entries expire after a fixed time and the number of entries is bounded. Concurrent misses for the same code
+ * share a single load. Failed loads are not cached: waiting lookups get the provider's fallback value
+ * and the next lookup loads again. A time to live of 0 disables the cache.
+ * <p>
+ * Codes are spread over stripes, each a map in access order guarded by its own lock, so lookups of different codes
+ * rarely wait for each other. A stripe that grows over its share of the maximum size drops its least recently used
+ * entries in one batch, down to nine tenths of its share, so a full cache does not evict on every miss. Loads still
+ * in flight are never evicted and never expire, so a code is not loaded twice at the same time; a stripe can hold
+ * more entries than its share while they load. Expired entries are replaced when they are looked up and are removed
+ * by a background sweep.
+ */
+@Component
+public class CreditModifierCache {
+
+    private static final int MAXIMUM_STRIPES = 64;
+    private static final int MINIMUM_STRIPE_SIZE = 1024;
+
+    private final CreditInfoProvider creditInfoProvider;
+    private final long timeToLiveNanos;
+    private final long sweepIntervalNanos;
+    private final LongSupplier nanoTime;
+    private final Stripe[] stripes;
+    private final int maximumStripeSize;
+    private final int stripeLowWaterMark;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private ScheduledExecutorService sweeper;
+
+    @Autowired
+    public CreditModifierCache(CreditInfoProvider creditInfoProvider,
+                               @Value("${decision-engine.credit-info.cache.ttl-seconds:300}") long timeToLiveSeconds,
+                               @Value("${decision-engine.credit-info.cache.max-size:100000}") int maximumSize,
+                               @Value("${decision-engine.credit-info.cache.sweep-interval-seconds:60}") long sweepIntervalSeconds) {
+        this(creditInfoProvider, TimeUnit.SECONDS.toNanos(timeToLiveSeconds), maximumSize,
+                TimeUnit.SECONDS.toNanos(sweepIntervalSeconds), System::nanoTime);
+    }
+
+    CreditModifierCache(CreditInfoProvider creditInfoProvider, long timeToLiveNanos, int maximumSize,
+                        long sweepIntervalNanos, LongSupplier nanoTime) {
+        this.creditInfoProvider = creditInfoProvider;
+        this.timeToLiveNanos = timeToLiveNanos;
+        this.sweepIntervalNanos = sweepIntervalNanos;
+        this.nanoTime = nanoTime;
+        int stripeCount = Integer.highestOneBit(Math.max(1, Math.min(MAXIMUM_STRIPES, maximumSize / MINIMUM_STRIPE_SIZE)));
+        this.stripes = new Stripe[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new Stripe();
+        }
+        this.maximumStripeSize = Math.max(1, maximumSize / stripeCount);
+        this.stripeLowWaterMark = maximumStripeSize - Math.max(1, maximumStripeSize / 10);
+    }
+
+    /**
+     * @param personalCode       ID code of the customer, already validated and normalized
+     * @param parsedPersonalCode The same ID code, parsed
+     * @return Future completed with the cached or loaded credit modifier of the customer
+     */
+    public CompletableFuture<Integer> getCreditModifier(String personalCode, ParsedPersonalCode parsedPersonalCode) {
+        if (timeToLiveNanos <= 0) {
+            return creditInfoProvider.getCreditModifier(personalCode, parsedPersonalCode);
+        }
+
+        Key key = new Key(parsedPersonalCode.getScheme().getCountry(), personalCode);
+        long now = nanoTime.getAsLong();
+        Stripe stripe = stripe(key);
+        Entry loading;
+        synchronized (stripe) {
+            Entry existing = stripe.entries.get(key);
+            if (existing != null && !existing.isExpired(now)) {
+                hits.increment();
+                return existing.creditModifier;
+            }
+            if (existing != null) {
+                evictions.increment();
+            }
+            loading = new Entry(new CompletableFuture<>(), now + timeToLiveNanos);
+            stripe.entries.put(key, loading);
+            if (stripe.entries.size() > maximumStripeSize) {
+                evictions.add(stripe.evictDownTo(stripeLowWaterMark));
+            }
+        }
+
+        misses.increment();
+        load(key, stripe, parsedPersonalCode, loading);
+        return loading.creditModifier;
+    }
+
+    /**
+     * Removes the cached credit modifier of the code, so the next lookup loads it again.
+     *
+     * @param country      ISO 3166-1 alpha-2 code of the country that issued the ID code, or null to tell it
+     *                     from the shape of the code, see {@link PersonalCodeSchemes}
+     * @param personalCode ID code of the customer, in any of its forms
+     * @return True if the code was cached
+     */
+    public boolean invalidate(String country, String personalCode) {
+        ParsedPersonalCode parsedPersonalCode = PersonalCodeSchemes.parse(country, personalCode);
+        if (!parsedPersonalCode.isValid()) {
+            return false;
+        }
+        PersonalCodeScheme scheme = parsedPersonalCode.getScheme();
+        Key key = new Key(scheme.getCountry(), scheme.normalize(personalCode));
+        Stripe stripe = stripe(key);
+        synchronized (stripe) {
+            return stripe.entries.remove(key) != null;
+        }
+    }
+
+    /**
+     * Removes all cached credit modifiers when a new scoring policy is published,
+     * because the mock provider derives them from the segment credit modifiers of the policy.
+     */
+    @EventListener(ScoringPolicyChangedEvent.class)
+    public void invalidateAll() {
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                stripe.entries.clear();
+            }
+        }
+    }
+
+    public CreditModifierCacheStats stats() {
+        int size = 0;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                size += stripe.entries.size();
+            }
+        }
+        return new CreditModifierCacheStats(hits.sum(), misses.sum(), evictions.sum(), size);
+    }
+
+    /**
+     * Removes the expired entries of all stripes, one stripe at a time.
+     */
+    void sweep() {
+        long now = nanoTime.getAsLong();
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                evictions.add(stripe.removeExpired(now));
+            }
+        }
+    }
+
+    /**
+     * Starts sweeping expired entries at the sweep interval.
+     */
+    @PostConstruct
+    public synchronized void start() {
+        if (sweeper != null || timeToLiveNanos <= 0 || sweepIntervalNanos <= 0) {
+            return;
+        }
+        sweeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "credit-modifier-cache-sweeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        sweeper.scheduleWithFixedDelay(this::sweep, sweepIntervalNanos, sweepIntervalNanos, TimeUnit.NANOSECONDS);
+    }
+
+    @PreDestroy
+    public synchronized void close() {
+        if (sweeper != null) {
+            sweeper.shutdownNow();
+        }
+    }
+
+    private Stripe stripe(Key key) {
+        int hash = key.hashCode();
+        return stripes[(hash ^ (hash >>> 16)) & (stripes.length - 1)];
+    }
+
+    private void load(Key key, Stripe stripe, ParsedPersonalCode parsedPersonalCode, Entry loading) {
+        CompletableFuture<Integer> lookup;
+        try {
+            lookup = creditInfoProvider.lookupCreditModifier(key.personalCode(), parsedPersonalCode);
+        } catch (RuntimeException e) {
+            lookup = CompletableFuture.failedFuture(e);
+        }
+        lookup.whenComplete((creditModifier, failure) -> {
+            if (failure == null) {
+                loading.creditModifier.complete(creditModifier);
+                return;
+            }
+            synchronized (stripe) {
+                stripe.entries.remove(key, loading);
+            }
+            try {
+                loading.creditModifier.complete(creditInfoProvider.fallbackCreditModifier(parsedPersonalCode, failure));
+            } catch (RuntimeException e) {
+                loading.creditModifier.completeExceptionally(e);
+            }
+        });
+    }
+
+    private static final class Stripe {
+
+        private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+        /**
+         * @return Number of least recently used entries removed, skipping loads in flight
+         */
+        int evictDownTo(int size) {
+            int evicted = 0;
+            Iterator<Entry> iterator = entries.values().iterator();
+            while (entries.size() > size && iterator.hasNext()) {
+                if (iterator.next().creditModifier.isDone()) {
+                    iterator.remove();
+                    evicted++;
+                }
+            }
+            return evicted;
+        }
+
+        /**
+         * @return Number of expired entries removed
+         */
+        int removeExpired(long now) {
+            int removed = 0;
+            Iterator<Entry> iterator = entries.values().iterator();
+            while (iterator.hasNext()) {
+                if (iterator.next().isExpired(now)) {
+                    iterator.remove();
+                    removed++;
+                }
+            }
+            return removed;
+        }
+    }
+
+    private record Key(String country, String personalCode) {
+    }
+
+    private record Entry(CompletableFuture<Integer> creditModifier, long expiresAtNanos) {
+
+        boolean isExpired(long now) {
+            return creditModifier.isDone() && now - expiresAtNanos >= 0;
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package ee.taltech.inbankbackend.service;
+
+/**
+ * Counters of the credit modifier cache since the application started.
+ *
+ * @param hits      Lookups answered from the cache, including lookups that joined a load in flight
+ * @param misses    Lookups that started a load from the credit info provider
+ * @param evictions Entries removed because they expired or the cache was full
+ * @param size      Current number of entries
+ */
+public record CreditModifierCacheStats(long hits, long misses, long evictions, int size) {
+}
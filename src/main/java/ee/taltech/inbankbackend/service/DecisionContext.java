@@ -0,0 +1,12 @@
+package ee.taltech.inbankbackend.service;
+
+/**
+ * Immutable per-request state of a loan decision.
+ *
+ * @param personalCode        ID code of the customer that made the request
+ * @param loanRequestedAmount Requested loan amount
+ * @param loanRequestedPeriod Requested loan period
+ * @param creditModifier      Credit modifier of the customer
+ */
+public record DecisionContext(String personalCode, Long loanRequestedAmount, int loanRequestedPeriod, int creditModifier) {
+}
@@ -2,95 +2,346 @@ package ee.taltech.inbankbackend.service;
 
 
 import ee.taltech.inbankbackend.config.DecisionEngineConstants;
-import ee.taltech.inbankbackend.exceptions.InvalidLoanAmountException;
-import ee.taltech.inbankbackend.exceptions.InvalidLoanPeriodException;
-import ee.taltech.inbankbackend.exceptions.InvalidPersonalCodeException;
-import ee.taltech.inbankbackend.exceptions.NoValidLoanException;
+import ee.taltech.inbankbackend.config.ScoringPolicy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.time.Clock;
+import java.util.concurrent.CompletableFuture;
 
 
 @Service
 public class DecisionEngine {
 
-    private static final Long HIGHEST_VALID_LOAN_AMOUNT_CALCULATOR_STEP = 100L;
-    private int creditModifier = 0;
+    private final LoanLimitSolver loanLimitSolver;
+    private final OfferTableProvider offerTableProvider;
+    private final CreditInfoProvider creditInfoProvider;
+    private final DecisionMemo decisionMemo;
+    private final DecisionMetrics decisionMetrics;
+    private final DecisionJournal decisionJournal;
+    private final EligibilityCalendar eligibilityCalendar;
+
+    @Autowired
+    public DecisionEngine(LoanLimitSolver loanLimitSolver, OfferTableProvider offerTableProvider,
+                          CreditModifierCache creditModifierCache, DecisionMemo decisionMemo, DecisionMetrics decisionMetrics,
+                          DecisionJournal decisionJournal, EligibilityCalendar eligibilityCalendar) {
+        this(loanLimitSolver, offerTableProvider, creditModifierCache::getCreditModifier, decisionMemo, decisionMetrics,
+                decisionJournal, eligibilityCalendar);
+    }
+
+    private DecisionEngine(LoanLimitSolver loanLimitSolver, OfferTableProvider offerTableProvider,
+                           CreditInfoProvider creditInfoProvider, DecisionMemo decisionMemo, DecisionMetrics decisionMetrics,
+                           DecisionJournal decisionJournal, EligibilityCalendar eligibilityCalendar) {
+        this.loanLimitSolver = loanLimitSolver;
+        this.offerTableProvider = offerTableProvider;
+        this.creditInfoProvider = creditInfoProvider;
+        this.decisionMemo = decisionMemo;
+        this.decisionMetrics = decisionMetrics;
+        this.decisionJournal = decisionJournal;
+        this.eligibilityCalendar = eligibilityCalendar;
+    }
+
+    /**
+     * Builds a decision engine outside the application context, for tests, benchmarks and tools. Collaborators
+     * that are not set default to the mock credit info provider without a cache, a memo of the default size,
+     * no metrics, no journal and an eligibility calendar of the system clock.
+     */
+    public static Builder builder(LoanLimitSolver loanLimitSolver, OfferTableProvider offerTableProvider) {
+        return new Builder(loanLimitSolver, offerTableProvider);
+    }
+
+    /**
+     * Fills the decision memo with the outcomes of every requested amount on the loan amount grid
+     * and every period for all credit segments of the current scoring policy, if warm-up is enabled.
+     */
+    @EventListener(ContextRefreshedEvent.class)
+    public void warmUpDecisionMemo() {
+        if (!decisionMemo.isWarmUpEnabled()) {
+            return;
+        }
+        OfferTable offerTable = offerTableProvider.current();
+        ScoringPolicy policy = offerTable.getPolicy();
+        for (int creditModifier : policy.getSegmentCreditModifiers()) {
+            if (creditModifier == DecisionEngineConstants.DEBT) {
+                continue;
+            }
+            for (long amount = policy.getMinimumLoanAmount(); amount <= policy.getMaximumLoanAmount();
+                 amount += DecisionEngineConstants.LOAN_AMOUNT_STEP) {
+                for (int period = policy.getMinimumLoanPeriod(); period <= policy.getMaximumLoanPeriod(); period++) {
+                    decide(null, null, amount, period, creditModifier, offerTable, DecisionMetrics.disabled().start());
+                }
+            }
+        }
+    }
 
     /**
      * Calculates the maximum loan amount and period for the customer based on their ID code,
      * the requested loan amount and the loan period.
-     * The loan period must be between 12 and 48 months (inclusive).
-     * The loan amount must be between 2000 and 10000€ months (inclusive).
+     * The loan period and amount must be within the bounds of the current scoring policy, by default
+     * between 12 and 48 months and between 2000 and 10000€ (inclusive).
      *
      * @param personalCode        ID code of the customer that made the request.
      * @param loanRequestedAmount Requested loan amount
      * @param loanRequestedPeriod Requested loan period
-     * @return A Decision object containing the approved loan amount and period, and an error message (if any)
-     * @throws InvalidPersonalCodeException If the provided personal ID code is invalid
-     * @throws InvalidLoanAmountException   If the requested loan amount is invalid
-     * @throws InvalidLoanPeriodException   If the requested loan period is invalid
-     * @throws NoValidLoanException         If there is no valid loan found for the given ID code, loan amount and loan period
+     * @return Approved outcome with the loan amount and period, rejected outcome if there is no valid loan for the customer,
+     * or invalid outcome if one of the inputs is invalid. Use {@link DecisionOutcome#orElseThrow()} to get the legacy exceptions.
      */
-    public Decision calculateApprovedLoan(String personalCode, Long loanRequestedAmount, int loanRequestedPeriod)
-            throws InvalidPersonalCodeException, InvalidLoanAmountException, InvalidLoanPeriodException,
-            NoValidLoanException {
+    public DecisionOutcome calculateApprovedLoan(String personalCode, Long loanRequestedAmount, int loanRequestedPeriod) {
+        return calculateApprovedLoan(null, personalCode, loanRequestedAmount, loanRequestedPeriod);
+    }
 
-        ValidationService.verifyInputs(personalCode, loanRequestedAmount, loanRequestedPeriod);
+    /**
+     * Same as {@link #calculateApprovedLoan(String, Long, int)} for a customer of the given country.
+     *
+     * @param country             ISO 3166-1 alpha-2 code of the country that issued the ID code, or null to tell it
+     *                            from the shape of the code, see {@link PersonalCodeSchemes}
+     * @param personalCode        ID code of the customer that made the request.
+     * @param loanRequestedAmount Requested loan amount
+     * @param loanRequestedPeriod Requested loan period
+     * @return Approved, rejected or invalid outcome. An unsupported country is an invalid personal ID code.
+     */
+    public DecisionOutcome calculateApprovedLoan(String country, String personalCode, Long loanRequestedAmount,
+                                                 int loanRequestedPeriod) {
 
-        creditModifier = CreditInfoService.getCreditModifier(personalCode);
+        DecisionMetrics.Sample sample = decisionMetrics.start();
+        OfferTable offerTable = offerTableProvider.current();
+        ParsedPersonalCode parsedPersonalCode = PersonalCodeSchemes.parse(country, personalCode);
+        DecisionOutcome invalidInputs = ValidationService.verifyInputs(parsedPersonalCode, loanRequestedAmount, loanRequestedPeriod,
+                offerTable.getPolicy(), eligibilityCalendar);
+        sample.validated();
+        if (invalidInputs != null) {
+            decisionMetrics.record(sample, -1, -1, loanRequestedPeriod, invalidInputs);
+            decisionJournal.append(journalCountry(country, parsedPersonalCode), personalCode, loanRequestedAmount,
+                    loanRequestedPeriod, -1, -1, offerTable.getPolicy().getVersion(), invalidInputs);
+            return invalidInputs;
+        }
+
+        sample.lookupStarted();
+        int creditModifier = creditModifier(personalCode, parsedPersonalCode).join();
+        return decide(parsedPersonalCode.getScheme().getCountry(), personalCode, loanRequestedAmount, loanRequestedPeriod,
+                creditModifier, offerTable, sample);
+    }
 
+    /**
+     * Same as {@link #calculateApprovedLoan(String, Long, int)}, but does not block the calling thread
+     * while the credit modifier is looked up. The decision is completed on the thread that completes the lookup.
+     *
+     * @param personalCode        ID code of the customer that made the request.
+     * @param loanRequestedAmount Requested loan amount
+     * @param loanRequestedPeriod Requested loan period
+     * @return Future of the decision outcome. It fails if the credit modifier lookup fails without a fallback.
+     */
+    public CompletableFuture<DecisionOutcome> calculateApprovedLoanAsync(String personalCode, Long loanRequestedAmount,
+                                                                         int loanRequestedPeriod) {
+        return calculateApprovedLoanAsync(null, personalCode, loanRequestedAmount, loanRequestedPeriod);
+    }
+
+    /**
+     * Same as {@link #calculateApprovedLoanAsync(String, Long, int)} for a customer of the given country.
+     *
+     * @param country             ISO 3166-1 alpha-2 code of the country that issued the ID code, or null to tell it
+     *                            from the shape of the code, see {@link PersonalCodeSchemes}
+     * @param personalCode        ID code of the customer that made the request.
+     * @param loanRequestedAmount Requested loan amount
+     * @param loanRequestedPeriod Requested loan period
+     * @return Future of the decision outcome. An unsupported country is an invalid personal ID code.
+     */
+    public CompletableFuture<DecisionOutcome> calculateApprovedLoanAsync(String country, String personalCode,
+                                                                         Long loanRequestedAmount, int loanRequestedPeriod) {
+        DecisionMetrics.Sample sample = decisionMetrics.start();
+        OfferTable offerTable = offerTableProvider.current();
+        ParsedPersonalCode parsedPersonalCode = PersonalCodeSchemes.parse(country, personalCode);
+        DecisionOutcome invalidInputs = ValidationService.verifyInputs(parsedPersonalCode, loanRequestedAmount, loanRequestedPeriod,
+                offerTable.getPolicy(), eligibilityCalendar);
+        sample.validated();
+        if (invalidInputs != null) {
+            decisionMetrics.record(sample, -1, -1, loanRequestedPeriod, invalidInputs);
+            decisionJournal.append(journalCountry(country, parsedPersonalCode), personalCode, loanRequestedAmount,
+                    loanRequestedPeriod, -1, -1, offerTable.getPolicy().getVersion(), invalidInputs);
+            return CompletableFuture.completedFuture(invalidInputs);
+        }
+
+        sample.lookupStarted();
+        return creditModifier(personalCode, parsedPersonalCode)
+                .thenApply(creditModifier -> decide(parsedPersonalCode.getScheme().getCountry(), personalCode,
+                        loanRequestedAmount, loanRequestedPeriod, creditModifier, offerTable, sample));
+    }
+
+    /**
+     * Calculates every offer of the customer at once: the highest approvable amount of every loan period and
+     * the shortest approving period of every loan amount of the current scoring policy. The personal ID code is
+     * validated and the credit modifier is looked up once, and the loan limits of all periods are evaluated in a single
+     * pass, instead of deciding every amount and period combination separately.
+     *
+     * @param personalCode ID code of the customer that made the request.
+     * @return Future of the offer matrix, or of the invalid or rejected outcome if the customer cannot get any loan.
+     * It fails if the credit modifier lookup fails without a fallback.
+     */
+    public CompletableFuture<OfferMatrixOutcome> calculateOfferMatrixAsync(String personalCode) {
+        return calculateOfferMatrixAsync(null, personalCode);
+    }
+
+    /**
+     * Same as {@link #calculateOfferMatrixAsync(String)} for a customer of the given country.
+     *
+     * @param country      ISO 3166-1 alpha-2 code of the country that issued the ID code, or null to tell it
+     *                     from the shape of the code, see {@link PersonalCodeSchemes}
+     * @param personalCode ID code of the customer that made the request.
+     * @return Future of the offer matrix or of the outcome without offers. An unsupported country is an invalid
+     * personal ID code.
+     */
+    public CompletableFuture<OfferMatrixOutcome> calculateOfferMatrixAsync(String country, String personalCode) {
+        OfferTable offerTable = offerTableProvider.current();
+        ParsedPersonalCode parsedPersonalCode = PersonalCodeSchemes.parse(country, personalCode);
+        DecisionOutcome invalidCustomer = ValidationService.verifyCustomer(parsedPersonalCode, offerTable.getPolicy(),
+                eligibilityCalendar);
+        if (invalidCustomer != null) {
+            return CompletableFuture.completedFuture(new OfferMatrixOutcome.NotOffered(invalidCustomer));
+        }
+
+        return creditModifier(personalCode, parsedPersonalCode)
+                .thenApply(creditModifier -> offerMatrix(creditModifier, offerTable));
+    }
+
+    /**
+     * @return Country journaled with a decision: the country of the scheme of a valid code, or the requested one
+     */
+    private static String journalCountry(String country, ParsedPersonalCode parsedPersonalCode) {
+        return parsedPersonalCode.isValid() ? parsedPersonalCode.getScheme().getCountry() : country;
+    }
+
+    /**
+     * Looks up the credit modifier of a valid code by its normalized form, see {@link CreditInfoProvider}.
+     */
+    private CompletableFuture<Integer> creditModifier(String personalCode, ParsedPersonalCode parsedPersonalCode) {
+        return creditInfoProvider.getCreditModifier(parsedPersonalCode.getScheme().normalize(personalCode), parsedPersonalCode);
+    }
+
+    private OfferMatrixOutcome offerMatrix(int creditModifier, OfferTable offerTable) {
+        ScoringPolicy policy = offerTable.getPolicy();
+        OfferMatrix matrix = null;
+        if (creditModifier != 0) {
+            int segment = offerTable.segmentIndex(creditModifier);
+            int minimumLoanPeriod = policy.getMinimumLoanPeriod();
+            int[] highestValidLoanAmounts = new int[policy.getMaximumLoanPeriod() - minimumLoanPeriod + 1];
+            for (int i = 0; i < highestValidLoanAmounts.length; i++) {
+                highestValidLoanAmounts[i] = segment >= 0
+                        ? offerTable.highestValidLoanAmount(segment, minimumLoanPeriod + i)
+                        : loanLimitSolver.highestValidLoanAmount(creditModifier, minimumLoanPeriod + i, policy.getMinimumLoanAmount());
+            }
+            matrix = OfferMatrix.of(policy, highestValidLoanAmounts);
+        }
+        if (matrix == null) {
+            return new OfferMatrixOutcome.NotOffered(DecisionOutcome.Rejected.of(RejectionReason.NO_VALID_LOAN));
+        }
+        return new OfferMatrixOutcome.Offered(matrix);
+    }
+
+    /**
+     * Decides the request for the credit modifier with the offer table read when the request was validated, so the
+     * whole decision uses one scoring policy even if a new one is published meanwhile. Outcomes are memoized,
+     * so repeated amount and period combinations of a credit modifier return the same outcome instance.
+     * Decisions are appended to the decision journal, except warm-up decisions, which have no personal ID code.
+     */
+    private DecisionOutcome decide(String country, String personalCode, Long loanRequestedAmount, int loanRequestedPeriod,
+                                   int creditModifier, OfferTable offerTable, DecisionMetrics.Sample sample) {
+        sample.lookupCompleted();
+        DecisionOutcome outcome;
         if (creditModifier == 0) {
-            throw new NoValidLoanException("No valid loan found!");
+            outcome = DecisionOutcome.Rejected.of(RejectionReason.NO_VALID_LOAN);
+        } else {
+            long key = DecisionMemo.key(creditModifier, loanRequestedAmount, loanRequestedPeriod);
+            outcome = decisionMemo.get(key, offerTable);
+            if (outcome == null) {
+                DecisionContext context = new DecisionContext(personalCode, loanRequestedAmount, loanRequestedPeriod, creditModifier);
+                outcome = calculateDecision(context, offerTable, sample);
+                decisionMemo.put(key, offerTable, outcome);
+            }
         }
+        int segmentIndex = offerTable.segmentIndex(creditModifier);
+        decisionMetrics.record(sample, segmentIndex, creditModifier, loanRequestedPeriod, outcome);
+        if (personalCode != null) {
+            decisionJournal.append(country, personalCode, loanRequestedAmount, loanRequestedPeriod, segmentIndex,
+                    creditModifier, offerTable.getPolicy().getVersion(), outcome);
+        }
+        return outcome;
+    }
 
-        Map<String, Integer> suggestedLoanAmountAndPeriod = suggestedLoanAmountAndPeriod(loanRequestedPeriod, loanRequestedAmount);
-        int highestValidLoanAmount = suggestedLoanAmountAndPeriod.get("loanAmount");
-        int suggestedLoanPeriod = suggestedLoanAmountAndPeriod.get("loanPeriod");
+    private DecisionOutcome calculateDecision(DecisionContext context, OfferTable offerTable, DecisionMetrics.Sample sample) {
+        Decision suggestedLoanAmountAndPeriod = suggestedLoanAmountAndPeriod(context, offerTable, sample);
+        int highestValidLoanAmount = suggestedLoanAmountAndPeriod.getLoanAmount();
+        ScoringPolicy policy = offerTable.getPolicy();
 
-        if (highestValidLoanAmount < DecisionEngineConstants.MINIMUM_LOAN_AMOUNT) {
-            throw new NoValidLoanException("No valid loan found!");
+        if (highestValidLoanAmount < policy.getMinimumLoanAmount()) {
+            return DecisionOutcome.Rejected.of(RejectionReason.NO_VALID_LOAN);
+        }
+        if (highestValidLoanAmount > policy.getMaximumLoanAmount()) {
+            return new DecisionOutcome.Approved(new Decision(policy.getMaximumLoanAmount(), suggestedLoanAmountAndPeriod.getLoanPeriod(), null));
         }
 
-        return new Decision(Math.min(DecisionEngineConstants.MAXIMUM_LOAN_AMOUNT, highestValidLoanAmount), suggestedLoanPeriod, null);
+        return new DecisionOutcome.Approved(suggestedLoanAmountAndPeriod);
     }
 
 
 
     /**
-     * Calculates the largest valid loan for the current credit modifier and loan period.
+     * Calculates the largest valid loan for the credit modifier of the request and the given loan period.
      *
      * @return Largest valid loan amount or 0 if there are no valid loans
      */
-    private int highestValidLoanAmount(int loanPeriod) {
-        double creditScoreForMinimumAllowedLoan = CreditInfoService.calculateCreditScore(creditModifier, DecisionEngineConstants.MINIMUM_LOAN_AMOUNT, loanPeriod);
-        if (creditScoreForMinimumAllowedLoan >= 0.1) {
-            int highestValidAmount = DecisionEngineConstants.MINIMUM_LOAN_AMOUNT;
+    private int highestValidLoanAmount(DecisionContext context, int loanPeriod, ScoringPolicy policy, DecisionMetrics.Sample sample) {
+        sample.loanLimitEvaluated();
+        return loanLimitSolver.highestValidLoanAmount(context.creditModifier(), loanPeriod, policy.getMinimumLoanAmount());
+    }
 
-            while (CreditInfoService.calculateCreditScore(creditModifier, highestValidAmount, loanPeriod) > 0.1) {
-                highestValidAmount += HIGHEST_VALID_LOAN_AMOUNT_CALCULATOR_STEP;
-            }
+    /**
+     * Calculates suggested loan amount and loan period in months. Generally tries to suggest the best offer based on credit score.
+     * This method checks if the customer can get a bigger offer for the same period,
+     * or to suggest a suitable period near requested amount and to offer the maximum money possible for this period.
+     * Known credit segments are looked up from the offer table, other credit modifiers are calculated.
+     * @param context    Request being decided
+     * @param offerTable Offer table of the current segment configuration
+     * @param sample     Metrics sample of the request, counts loan limit evaluations and scanned periods
+     * @return Returns acceptable loan amount and period
+     */
+    private Decision suggestedLoanAmountAndPeriod(DecisionContext context, OfferTable offerTable, DecisionMetrics.Sample sample) {
+        int loanRequestedPeriod = context.loanRequestedPeriod();
+        Long loanRequestedAmount = context.loanRequestedAmount();
+        int segment = offerTable.segmentIndex(context.creditModifier());
+        if (segment < 0) {
+            return calculatedLoanAmountAndPeriod(context, offerTable.getPolicy(), sample);
+        }
+
+        sample.loanLimitEvaluated();
+        int highestValidLoanAmountForUserRequestedPeriod = offerTable.highestValidLoanAmount(segment, loanRequestedPeriod);
 
-            return highestValidAmount;
+        //If we are ready to approve higher loan or the same amount for user requested period
+        if (highestValidLoanAmountForUserRequestedPeriod >= loanRequestedAmount) {
+            return new Decision(highestValidLoanAmountForUserRequestedPeriod, loanRequestedPeriod, null);
         }
-        return 0;
+
+        // Else - look up how many months would go to get the same or maximum amount possible
+        int loanPeriod = offerTable.shortestLoanPeriod(segment, loanRequestedAmount);
+        sample.loanLimitEvaluated();
+        return new Decision(offerTable.highestValidLoanAmount(segment, loanPeriod), loanPeriod, null);
     }
 
     /**
-     * Calculates suggested loan amount and loan period in months. Generally tries to suggest the best offer based on credit score.
-     * This method checks if the customer can get a bigger offer for the same period,
-     * or to suggest a suitable period near requested amount and to offer the maximum money possible for this period
-     * @param loanRequestedPeriod
-     * @param loanRequestedAmount
+     * Calculates suggested loan amount and loan period in months without the offer table.
+     * @param context Request being decided
+     * @param policy  Scoring policy with the loan amount and period bounds
+     * @param sample  Metrics sample of the request, counts loan limit evaluations and scanned periods
      * @return Returns acceptable loan amount and period
      */
-    private Map<String, Integer> suggestedLoanAmountAndPeriod(Integer loanRequestedPeriod, Long loanRequestedAmount){
-        Map<String, Integer> suggestedLoanAmountAndPeriod = new HashMap<>();
+    private Decision calculatedLoanAmountAndPeriod(DecisionContext context, ScoringPolicy policy, DecisionMetrics.Sample sample) {
+        int loanRequestedPeriod = context.loanRequestedPeriod();
+        Long loanRequestedAmount = context.loanRequestedAmount();
         int loanAmount = 0;
         int loanPeriod = 0;
 
-        int highestValidLoanAmountForUserRequestedPeriod = highestValidLoanAmount(loanRequestedPeriod);
+        int highestValidLoanAmountForUserRequestedPeriod = highestValidLoanAmount(context, loanRequestedPeriod, policy, sample);
 
         //If we are ready to approve higher loan or the same amount for user requested period
         if (highestValidLoanAmountForUserRequestedPeriod >= loanRequestedAmount) {
@@ -99,10 +350,9 @@ public class DecisionEngine {
         }
         // Else - calculate how many months would go to get the same or maximum amount possible
         else {
-            loanPeriod = DecisionEngineConstants.MINIMUM_LOAN_PERIOD;
-
-            for (int period = DecisionEngineConstants.MINIMUM_LOAN_PERIOD; period <= DecisionEngineConstants.MAXIMUM_LOAN_PERIOD; period++) {
-                loanAmount = highestValidLoanAmount(period);
+            for (int period = policy.getMinimumLoanPeriod(); period <= policy.getMaximumLoanPeriod(); period++) {
+                sample.periodScanned();
+                loanAmount = highestValidLoanAmount(context, period, policy, sample);
                 loanPeriod = period;
                 if (loanAmount >= loanRequestedAmount) {
                     break;
@@ -110,11 +360,55 @@ public class DecisionEngine {
             }
         }
 
-        suggestedLoanAmountAndPeriod.put("loanAmount", loanAmount);
-        suggestedLoanAmountAndPeriod.put("loanPeriod", loanPeriod);
-        return suggestedLoanAmountAndPeriod;
+        return new Decision(loanAmount, loanPeriod, null);
     }
 
+    public static final class Builder {
+
+        private final LoanLimitSolver loanLimitSolver;
+        private final OfferTableProvider offerTableProvider;
+        private CreditInfoProvider creditInfoProvider;
+        private DecisionMemo decisionMemo;
+        private DecisionMetrics decisionMetrics = DecisionMetrics.disabled();
+        private DecisionJournal decisionJournal = DecisionJournal.disabled();
+        private EligibilityCalendar eligibilityCalendar;
 
+        private Builder(LoanLimitSolver loanLimitSolver, OfferTableProvider offerTableProvider) {
+            this.loanLimitSolver = loanLimitSolver;
+            this.offerTableProvider = offerTableProvider;
+        }
+
+        public Builder creditInfoProvider(CreditInfoProvider creditInfoProvider) {
+            this.creditInfoProvider = creditInfoProvider;
+            return this;
+        }
+
+        public Builder decisionMemo(DecisionMemo decisionMemo) {
+            this.decisionMemo = decisionMemo;
+            return this;
+        }
+
+        public Builder decisionMetrics(DecisionMetrics decisionMetrics) {
+            this.decisionMetrics = decisionMetrics;
+            return this;
+        }
 
+        public Builder decisionJournal(DecisionJournal decisionJournal) {
+            this.decisionJournal = decisionJournal;
+            return this;
+        }
+
+        public Builder eligibilityCalendar(EligibilityCalendar eligibilityCalendar) {
+            this.eligibilityCalendar = eligibilityCalendar;
+            return this;
+        }
+
+        public DecisionEngine build() {
+            return new DecisionEngine(loanLimitSolver, offerTableProvider,
+                    creditInfoProvider != null ? creditInfoProvider : new CreditInfoService(offerTableProvider),
+                    decisionMemo != null ? decisionMemo : new DecisionMemo(DecisionMemo.DEFAULT_SIZE),
+                    decisionMetrics, decisionJournal,
+                    eligibilityCalendar != null ? eligibilityCalendar : new EligibilityCalendar(Clock.systemDefaultZone()));
+        }
+    }
 }
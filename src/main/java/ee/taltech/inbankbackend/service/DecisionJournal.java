@@ -0,0 +1,33 @@
+package ee.taltech.inbankbackend.service;
+
+/**
+ * Receives every decision made for a customer, for example to keep an audit trail.
+ * Appending is called on the thread that finishes the decision, so implementations must not block on I/O.
+ */
+public interface DecisionJournal {
+
+    DecisionJournal DISABLED = (country, personalCode, loanRequestedAmount, loanRequestedPeriod, segmentIndex,
+                                creditModifier, policyVersion, outcome) -> {
+    };
+
+    /**
+     * @return Journal that keeps nothing
+     */
+    static DecisionJournal disabled() {
+        return DISABLED;
+    }
+
+    /**
+     * @param country             Country whose scheme the ID code was parsed with, or the requested country, possibly
+     *                            null or unsupported, if the code is invalid
+     * @param personalCode        ID code of the customer, as requested
+     * @param loanRequestedAmount Requested loan amount, null if it was missing
+     * @param loanRequestedPeriod Requested loan period
+     * @param segmentIndex        Offer table segment of the credit modifier, or -1 if it is not a configured segment
+     * @param creditModifier      Credit modifier of the customer, or -1 if the decision ended before the lookup
+     * @param policyVersion       Version of the scoring policy the decision was made with
+     * @param outcome             Outcome of the decision
+     */
+    void append(String country, String personalCode, Long loanRequestedAmount, int loanRequestedPeriod, int segmentIndex,
+                int creditModifier, long policyVersion, DecisionOutcome outcome);
+}
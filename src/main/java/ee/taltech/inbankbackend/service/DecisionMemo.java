@@ -0,0 +1,95 @@
+package ee.taltech.inbankbackend.service;
+
+import ee.taltech.inbankbackend.config.DecisionEngineConstants;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Memo of decision outcomes keyed on the credit modifier, the requested amount and the requested period.
+ * Highest valid loan amounts are always on the loan amount grid, so requested amounts with the same grid ceiling
+ * get the same outcome and share a key. Keys are packed into a long.
+ * <p>
+ * The memo is a direct-mapped table of immutable entries: a slot holds the last outcome stored for any key
+ * mapping to it. Slots are read and written without locks, which is safe because entries only have final fields.
+ * Every entry remembers the offer table it was calculated with and is ignored once that table is replaced.
+ */
+@Component
+public class DecisionMemo {
+
+    public static final int DEFAULT_SIZE = 32768;
+
+    private final Entry[] entries;
+    private final int indexShift;
+    private final boolean warmUp;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    public DecisionMemo(int size) {
+        this(size, false);
+    }
+
+    /**
+     * @param size   Number of slots, rounded up to a power of two. 0 disables the memo.
+     * @param warmUp Whether the decision engine should fill the memo for all known segments at startup
+     */
+    @Autowired
+    public DecisionMemo(@Value("${decision-engine.memo.size:32768}") int size,
+                        @Value("${decision-engine.memo.warm-up:false}") boolean warmUp) {
+        int slots = size <= 0 ? 0 : Math.max(2, Integer.highestOneBit(size - 1) << 1);
+        this.entries = new Entry[slots];
+        this.indexShift = slots == 0 ? 0 : 64 - Integer.numberOfTrailingZeros(slots);
+        this.warmUp = warmUp;
+    }
+
+    /**
+     * @param creditModifier Customer credit modifier
+     * @param loanAmount     Requested loan amount. 2000 <= Amount <= 10000
+     * @param loanPeriod     Requested loan period. 12 <= Period <= 48
+     * @return Key of the decision
+     */
+    public static long key(int creditModifier, long loanAmount, int loanPeriod) {
+        long amountStep = (loanAmount + DecisionEngineConstants.LOAN_AMOUNT_STEP - 1) / DecisionEngineConstants.LOAN_AMOUNT_STEP;
+        return ((long) creditModifier << 32) | (amountStep << 8) | loanPeriod;
+    }
+
+    /**
+     * @return Memoized outcome of the key calculated with the offer table, or null if there is none
+     */
+    public DecisionOutcome get(long key, OfferTable offerTable) {
+        if (entries.length == 0) {
+            return null;
+        }
+        Entry entry = entries[index(key)];
+        if (entry != null && entry.key == key && entry.offerTable == offerTable) {
+            hits.increment();
+            return entry.outcome;
+        }
+        misses.increment();
+        return null;
+    }
+
+    public void put(long key, OfferTable offerTable, DecisionOutcome outcome) {
+        if (entries.length != 0) {
+            entries[index(key)] = new Entry(key, offerTable, outcome);
+        }
+    }
+
+    public boolean isWarmUpEnabled() {
+        return warmUp && entries.length != 0;
+    }
+
+    public DecisionMemoStats stats() {
+        return new DecisionMemoStats(hits.sum(), misses.sum(), entries.length);
+    }
+
+    private int index(long key) {
+        // Fibonacci hashing spreads the packed fields over the high bits, which select the slot.
+        return (int) ((key * 0x9E3779B97F4A7C15L) >>> indexShift);
+    }
+
+    private record Entry(long key, OfferTable offerTable, DecisionOutcome outcome) {
+    }
+}
@@ -0,0 +1,19 @@
+package ee.taltech.inbankbackend.service;
+
+/**
+ * Counters of the decision memo since the application started.
+ *
+ * @param hits   Decisions returned from the memo
+ * @param misses Decisions that had to be calculated
+ * @param size   Number of slots in the memo, 0 if it is disabled
+ */
+public record DecisionMemoStats(long hits, long misses, int size) {
+
+    /**
+     * @return Share of decisions returned from the memo, 0 if there were no decisions
+     */
+    public double hitRate() {
+        long lookups = hits + misses;
+        return lookups == 0 ? 0 : (double) hits / lookups;
+    }
+}
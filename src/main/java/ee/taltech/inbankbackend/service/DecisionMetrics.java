@@ -0,0 +1,210 @@
+package ee.taltech.inbankbackend.service;
+
+import ee.taltech.inbankbackend.config.DecisionEngineConstants;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Micrometer metrics of the decision stages, tagged by credit segment and decision outcome.
+ * <ul>
+ *     <li>decision.stage - timer of the validation, credit_lookup, loan_calculation and total stages</li>
+ *     <li>decision.outcomes - counter of decisions</li>
+ *     <li>decision.loan.limit.evaluations - highest valid loan amounts looked up or calculated per decision</li>
+ *     <li>decision.periods.scanned - loan periods scanned for a counter-offer per decision</li>
+ * </ul>
+ * Stage times are collected in a {@link Sample} during the decision and recorded once its segment and outcome are known.
+ * Meters of a segment and outcome are registered on first use and then reused, so recording does not look them up.
+ */
+@Component
+public class DecisionMetrics {
+
+    private static final String[] SEGMENTS = {"none", "debt", "segment_1", "segment_2", "segment_3", "other"};
+    private static final String[] OUTCOMES = {"approved", "counter_offer", "rejected_debt", "rejected_age", "rejected_no_loan", "invalid"};
+
+    private static final int APPROVED = 0;
+    private static final int COUNTER_OFFER = 1;
+    private static final int REJECTED_DEBT = 2;
+    private static final int REJECTED_AGE = 3;
+    private static final int REJECTED_NO_LOAN = 4;
+    private static final int INVALID = 5;
+
+    private static final DecisionMetrics DISABLED = new DecisionMetrics(null);
+    private static final Sample NOT_RECORDING = new Sample(false);
+
+    private final MeterRegistry meterRegistry;
+    private final AtomicReferenceArray<Meters> meters = new AtomicReferenceArray<>(SEGMENTS.length * OUTCOMES.length);
+
+    @Autowired
+    public DecisionMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * @return Metrics that record nothing and do not allocate samples
+     */
+    public static DecisionMetrics disabled() {
+        return DISABLED;
+    }
+
+    /**
+     * Starts collecting the stage times of a decision.
+     */
+    public Sample start() {
+        return meterRegistry == null ? NOT_RECORDING : new Sample(true);
+    }
+
+    /**
+     * Records the collected stage times and counts of a finished decision.
+     *
+     * @param sample              Sample started for the decision
+     * @param segmentIndex        Offer table segment of the credit modifier, or -1 if it is not a configured segment
+     * @param creditModifier      Credit modifier of the customer, or -1 if the decision ended before the lookup
+     * @param loanRequestedPeriod Requested loan period
+     * @param outcome             Outcome of the decision
+     */
+    public void record(Sample sample, int segmentIndex, int creditModifier, int loanRequestedPeriod, DecisionOutcome outcome) {
+        if (!sample.recording) {
+            return;
+        }
+        long end = System.nanoTime();
+        int segment = segment(segmentIndex, creditModifier);
+        Meters stageMeters = meters(segment, outcome(creditModifier, loanRequestedPeriod, outcome));
+
+        stageMeters.outcomes.increment();
+        stageMeters.total.record(end - sample.start, TimeUnit.NANOSECONDS);
+        stageMeters.validation.record(sample.validated - sample.start, TimeUnit.NANOSECONDS);
+        if (sample.lookupStarted != 0) {
+            stageMeters.creditLookup.record(sample.lookupCompleted - sample.lookupStarted, TimeUnit.NANOSECONDS);
+            stageMeters.loanCalculation.record(end - sample.lookupCompleted, TimeUnit.NANOSECONDS);
+            stageMeters.loanLimitEvaluations.record(sample.loanLimitEvaluations);
+            stageMeters.periodsScanned.record(sample.periodsScanned);
+        }
+    }
+
+    /**
+     * Segments of the scoring policy are tagged by position, so the tags stay stable when their credit modifiers change.
+     */
+    private static int segment(int segmentIndex, int creditModifier) {
+        if (creditModifier < 0) {
+            return 0;
+        } else if (segmentIndex >= 0 && segmentIndex < SEGMENTS.length - 2) {
+            return segmentIndex + 1;
+        }
+        return SEGMENTS.length - 1;
+    }
+
+    private static int outcome(int creditModifier, int loanRequestedPeriod, DecisionOutcome outcome) {
+        if (outcome instanceof DecisionOutcome.Approved approved) {
+            return approved.decision().getLoanPeriod() == loanRequestedPeriod ? APPROVED : COUNTER_OFFER;
+        }
+        if (outcome instanceof DecisionOutcome.Rejected rejected) {
+            if (rejected.reason() == RejectionReason.CUSTOMER_AGE) {
+                return REJECTED_AGE;
+            }
+            return creditModifier == DecisionEngineConstants.DEBT ? REJECTED_DEBT : REJECTED_NO_LOAN;
+        }
+        return INVALID;
+    }
+
+    private Meters meters(int segment, int outcome) {
+        int index = segment * OUTCOMES.length + outcome;
+        Meters existing = meters.get(index);
+        if (existing != null) {
+            return existing;
+        }
+        // Registering the same meters twice returns the already registered ones, so a race here is harmless.
+        Meters created = new Meters(meterRegistry, SEGMENTS[segment], OUTCOMES[outcome]);
+        meters.compareAndSet(index, null, created);
+        return meters.get(index);
+    }
+
+    /**
+     * Stage times and counts of one decision. The sample of disabled metrics ignores everything.
+     */
+    public static final class Sample {
+
+        private final boolean recording;
+        private final long start;
+        private long validated;
+        private long lookupStarted;
+        private long lookupCompleted;
+        private int loanLimitEvaluations;
+        private int periodsScanned;
+
+        private Sample(boolean recording) {
+            this.recording = recording;
+            this.start = recording ? System.nanoTime() : 0;
+        }
+
+        void validated() {
+            if (recording) {
+                validated = System.nanoTime();
+            }
+        }
+
+        void lookupStarted() {
+            if (recording) {
+                lookupStarted = System.nanoTime();
+            }
+        }
+
+        void lookupCompleted() {
+            if (recording) {
+                lookupCompleted = System.nanoTime();
+            }
+        }
+
+        void loanLimitEvaluated() {
+            if (recording) {
+                loanLimitEvaluations++;
+            }
+        }
+
+        void periodScanned() {
+            if (recording) {
+                periodsScanned++;
+            }
+        }
+    }
+
+    private static final class Meters {
+
+        private final Counter outcomes;
+        private final Timer total;
+        private final Timer validation;
+        private final Timer creditLookup;
+        private final Timer loanCalculation;
+        private final DistributionSummary loanLimitEvaluations;
+        private final DistributionSummary periodsScanned;
+
+        private Meters(MeterRegistry meterRegistry, String segment, String outcome) {
+            outcomes = Counter.builder("decision.outcomes")
+                    .tag("segment", segment).tag("outcome", outcome)
+                    .register(meterRegistry);
+            total = stageTimer(meterRegistry, "total", segment, outcome);
+            validation = stageTimer(meterRegistry, "validation", segment, outcome);
+            creditLookup = stageTimer(meterRegistry, "credit_lookup", segment, outcome);
+            loanCalculation = stageTimer(meterRegistry, "loan_calculation", segment, outcome);
+            loanLimitEvaluations = DistributionSummary.builder("decision.loan.limit.evaluations")
+                    .tag("segment", segment).tag("outcome", outcome)
+                    .register(meterRegistry);
+            periodsScanned = DistributionSummary.builder("decision.periods.scanned")
+                    .tag("segment", segment).tag("outcome", outcome)
+                    .register(meterRegistry);
+        }
+
+        private static Timer stageTimer(MeterRegistry meterRegistry, String stage, String segment, String outcome) {
+            return Timer.builder("decision.stage")
+                    .tag("stage", stage).tag("segment", segment).tag("outcome", outcome)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry);
+        }
+    }
+}
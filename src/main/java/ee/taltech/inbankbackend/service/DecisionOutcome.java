@@ -0,0 +1,74 @@
+package ee.taltech.inbankbackend.service;
+
+/**
+ * Result of a loan decision. Rejections and invalid inputs are returned as values instead of being thrown,
+ * and their instances are preallocated, so rejecting an application does not allocate anything.
+ */
+public sealed interface DecisionOutcome permits DecisionOutcome.Approved, DecisionOutcome.Rejected, DecisionOutcome.Invalid {
+
+    /**
+     * Legacy adapter for callers that still expect exceptions.
+     *
+     * @return The approved decision
+     * @throws ee.taltech.inbankbackend.exceptions.InvalidPersonalCodeException If the personal ID code is invalid
+     * @throws ee.taltech.inbankbackend.exceptions.InvalidLoanAmountException   If the loan amount is invalid
+     * @throws ee.taltech.inbankbackend.exceptions.InvalidLoanPeriodException   If the loan period is invalid
+     * @throws ee.taltech.inbankbackend.exceptions.InvalidCustomerAgeException  If the customer age is out of range
+     * @throws ee.taltech.inbankbackend.exceptions.NoValidLoanException         If there is no valid loan
+     */
+    Decision orElseThrow();
+
+    /**
+     * The application was approved, possibly with a different amount or period than requested.
+     */
+    record Approved(Decision decision) implements DecisionOutcome {
+        @Override
+        public Decision orElseThrow() {
+            return decision;
+        }
+    }
+
+    /**
+     * The inputs were valid, but no loan can be given.
+     */
+    record Rejected(RejectionReason reason) implements DecisionOutcome {
+        private static final Rejected[] INSTANCES = new Rejected[RejectionReason.values().length];
+
+        static {
+            for (RejectionReason reason : RejectionReason.values()) {
+                INSTANCES[reason.ordinal()] = new Rejected(reason);
+            }
+        }
+
+        public static Rejected of(RejectionReason reason) {
+            return INSTANCES[reason.ordinal()];
+        }
+
+        @Override
+        public Decision orElseThrow() {
+            throw reason.toException();
+        }
+    }
+
+    /**
+     * One of the request fields failed validation.
+     */
+    record Invalid(InvalidField field) implements DecisionOutcome {
+        private static final Invalid[] INSTANCES = new Invalid[InvalidField.values().length];
+
+        static {
+            for (InvalidField field : InvalidField.values()) {
+                INSTANCES[field.ordinal()] = new Invalid(field);
+            }
+        }
+
+        public static Invalid of(InvalidField field) {
+            return INSTANCES[field.ordinal()];
+        }
+
+        @Override
+        public Decision orElseThrow() {
+            throw field.toException();
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package ee.taltech.inbankbackend.service;
+
+import ee.taltech.inbankbackend.config.ScoringPolicy;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Birth dates of customers who are of an age that can get loans today.
+ * <p>
+ * A customer can get loans from the 18th birthday until the age of the average lifespan less the maximum loan
+ * period in years, both inclusive. Instead of working out the age of every customer, the earliest and latest
+ * eligible birth dates are computed once per day and scoring policy and published together with the date as a
+ * single immutable snapshot, so a check never mixes dates read on both sides of midnight. Dates are packed as
+ * yyyymmdd, and the check is two integer comparisons with {@link ParsedPersonalCode#getBirthDate()}.
+ * <p>
+ * Subtracting whole years from a packed date keeps the month and day, so a customer born on 29 February
+ * is 18 on 1 March in years without one, the same as comparing the month and day of the birthday.
+ * <p>
+ * The snapshot is rolled over at midnight of the clock's time zone by a background thread. A snapshot that is out of
+ * date when it is read, because the thread is late or was not started, is replaced by the reading thread.
+ */
+@Component
+public class EligibilityCalendar {
+
+    private static final int MINIMUM_AGE = 18;
+    private static final int YEAR = 10_000;
+
+    private final Clock clock;
+    private volatile Day day;
+    private ScheduledExecutorService scheduler;
+
+    /**
+     * Uses the Clock bean of the application context, or the system clock in the default time zone if there is none.
+     */
+    @Autowired
+    public EligibilityCalendar(ObjectProvider<Clock> clock) {
+        this(clock.getIfAvailable(Clock::systemDefaultZone));
+    }
+
+    public EligibilityCalendar(Clock clock) {
+        this.clock = clock;
+        this.day = day(ScoringPolicy.DEFAULTS);
+    }
+
+    /**
+     * @param personalCode Valid personal ID code, parsed
+     * @param policy       Scoring policy with the maximum loan period and the average lifespan
+     * @return True if the customer is of an age that can get loans today
+     */
+    public boolean isEligible(ParsedPersonalCode personalCode, ScoringPolicy policy) {
+        Day current = current(policy);
+        int birthDate = personalCode.getBirthDate();
+        return current.earliestBirthDate <= birthDate && birthDate <= current.latestBirthDate;
+    }
+
+    /**
+     * @return Today's date, packed as yyyymmdd
+     */
+    public int today() {
+        return day.today;
+    }
+
+    private Day current(ScoringPolicy policy) {
+        Day current = day;
+        if (current.policy != policy || clock.millis() >= current.nextMidnightMillis) {
+            current = day(policy);
+            day = current;
+        }
+        return current;
+    }
+
+    /**
+     * Publishes the snapshot of the current date, if the previous one was of an earlier date.
+     */
+    void rollOver() {
+        Day current = day;
+        if (clock.millis() >= current.nextMidnightMillis) {
+            day = day(current.policy);
+        }
+    }
+
+    private Day day(ScoringPolicy policy) {
+        LocalDate date = LocalDate.now(clock);
+        int today = date.getYear() * YEAR + date.getMonthValue() * 100 + date.getDayOfMonth();
+        int maximumAge = policy.getAverageLifespan() - policy.getMaximumLoanPeriod() / 12;
+        long nextMidnightMillis = date.plusDays(1).atStartOfDay(clock.getZone()).toInstant().toEpochMilli();
+        // Born after the same day maximumAge + 1 years ago; no valid date falls between that day + 1 and the next one.
+        return new Day(policy, today, today - (maximumAge + 1) * YEAR + 1, today - MINIMUM_AGE * YEAR, nextMidnightMillis);
+    }
+
+    /**
+     * Starts rolling the snapshot over at every midnight.
+     */
+    @PostConstruct
+    public synchronized void start() {
+        if (scheduler != null) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "eligibility-calendar");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduleRollOver();
+    }
+
+    private void scheduleRollOver() {
+        long delayMillis = Math.max(0, day.nextMidnightMillis - clock.millis());
+        scheduler.schedule(() -> {
+            rollOver();
+            scheduleRollOver();
+        }, delayMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public synchronized void close() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    private record Day(ScoringPolicy policy, int today, int earliestBirthDate, int latestBirthDate,
+                       long nextMidnightMillis) {
+    }
+}
@@ -0,0 +1,84 @@
+package ee.taltech.inbankbackend.service;
+
+/**
+ * Estonian personal ID code (isikukood) of the form GYYMMDDSSSC, where G is the century and sex prefix,
+ * YYMMDD the birth date, SSS the serial number and C the checksum.
+ */
+final class EstonianPersonalCodeScheme implements PersonalCodeScheme {
+
+    private static final int LENGTH = 11;
+    private static final int[] FIRST_CHECKSUM_WEIGHTS = {1, 2, 3, 4, 5, 6, 7, 8, 9, 1};
+    private static final int[] SECOND_CHECKSUM_WEIGHTS = {3, 4, 5, 6, 7, 8, 9, 1, 2, 3};
+
+    @Override
+    public String getCountry() {
+        return "EE";
+    }
+
+    @Override
+    public ParsedPersonalCode parse(String personalCode) {
+        return parseCenturyPrefixed(this, personalCode);
+    }
+
+    /**
+     * Parses a code of the form GYYMMDDSSSC, G being 1-6 for the 19th to 21st century (odd for men, even for women),
+     * as a code of the given scheme.
+     */
+    static ParsedPersonalCode parseCenturyPrefixed(PersonalCodeScheme scheme, String personalCode) {
+        if (personalCode == null || personalCode.length() != LENGTH) {
+            return ParsedPersonalCode.invalid();
+        }
+
+        int firstSum = 0;
+        int secondSum = 0;
+        int centuryPrefix = 0;
+        int yearOfCentury = 0;
+        int month = 0;
+        int day = 0;
+        int serial = 0;
+        for (int i = 0; i < LENGTH - 1; i++) {
+            int digit = personalCode.charAt(i) - '0';
+            if (digit < 0 || digit > 9) {
+                return ParsedPersonalCode.invalid();
+            }
+            firstSum += digit * FIRST_CHECKSUM_WEIGHTS[i];
+            secondSum += digit * SECOND_CHECKSUM_WEIGHTS[i];
+            if (i == 0) {
+                centuryPrefix = digit;
+            } else if (i < 3) {
+                yearOfCentury = yearOfCentury * 10 + digit;
+            } else if (i < 5) {
+                month = month * 10 + digit;
+            } else if (i < 7) {
+                day = day * 10 + digit;
+            } else {
+                serial = serial * 10 + digit;
+            }
+        }
+        int checksum = personalCode.charAt(LENGTH - 1) - '0';
+        if (checksum < 0 || checksum > 9 || centuryPrefix < 1 || centuryPrefix > 6) {
+            return ParsedPersonalCode.invalid();
+        }
+
+        int birthYear = 1800 + (centuryPrefix - 1) / 2 * 100 + yearOfCentury;
+        if (month < 1 || month > 12 || day < 1 || day > ParsedPersonalCode.daysInMonth(birthYear, month)) {
+            return ParsedPersonalCode.invalid();
+        }
+        if (checksum != expectedChecksum(firstSum, secondSum)) {
+            return ParsedPersonalCode.invalid();
+        }
+
+        return ParsedPersonalCode.of(scheme, centuryPrefix, birthYear, month, day, serial, checksum);
+    }
+
+    private static int expectedChecksum(int firstSum, int secondSum) {
+        int checksum = firstSum % 11;
+        if (checksum == 10) {
+            checksum = secondSum % 11;
+            if (checksum == 10) {
+                checksum = 0;
+            }
+        }
+        return checksum;
+    }
+}
@@ -0,0 +1,104 @@
+package ee.taltech.inbankbackend.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import ee.taltech.inbankbackend.exceptions.CreditInfoUnavailableException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reads credit modifiers from a remote credit registry with the non-blocking JDK HTTP client.
+ * The registry is called with GET {url}{personalCode}?country={country} and answers with {"creditModifier": 1000}.
+ * The code is normalized and the country is the one of its scheme, as codes are only unique within a country.
+ * Every call has its own timeout; failed, late and malformed answers are handled by the fallback.
+ * When spring.threads.virtual.enabled is set, responses are handled and decisions completed on virtual threads.
+ */
+@Service
+@ConditionalOnProperty(name = "decision-engine.credit-info.provider", havingValue = "http")
+public class HttpCreditInfoProvider implements CreditInfoProvider {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private final HttpClient httpClient;
+    private final String url;
+    private final Duration timeout;
+    private final CreditInfoFallback fallback;
+
+    @Autowired
+    public HttpCreditInfoProvider(@Value("${decision-engine.credit-info.url}") String url,
+                                  @Value("${decision-engine.credit-info.timeout-ms:500}") long timeoutMillis,
+                                  @Value("${decision-engine.credit-info.fallback:DEBT}") CreditInfoFallback fallback,
+                                  @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        this(httpClient(timeoutMillis, virtualThreads), url, Duration.ofMillis(timeoutMillis), fallback);
+    }
+
+    HttpCreditInfoProvider(HttpClient httpClient, String url, Duration timeout, CreditInfoFallback fallback) {
+        this.httpClient = httpClient;
+        this.url = url;
+        this.timeout = timeout;
+        this.fallback = fallback;
+    }
+
+    @Override
+    public CompletableFuture<Integer> getCreditModifier(String personalCode, ParsedPersonalCode parsedPersonalCode) {
+        return lookupCreditModifier(personalCode, parsedPersonalCode)
+                .exceptionally(failure -> fallbackCreditModifier(parsedPersonalCode, failure));
+    }
+
+    @Override
+    public CompletableFuture<Integer> lookupCreditModifier(String personalCode, ParsedPersonalCode parsedPersonalCode) {
+        // The code is validated and normalized before the lookup, so it only contains digits and is safe to append to the URL.
+        String country = parsedPersonalCode.getScheme().getCountry();
+        HttpRequest request = HttpRequest.newBuilder(URI.create(url + personalCode + "?country=" + country))
+                .timeout(timeout)
+                .header("Accept", "application/json")
+                .GET()
+                .build();
+        return httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofByteArray())
+                .thenApply(HttpCreditInfoProvider::creditModifier)
+                .orTimeout(timeout.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public int fallbackCreditModifier(ParsedPersonalCode parsedPersonalCode, Throwable failure) {
+        return fallback.creditModifier(parsedPersonalCode, failure);
+    }
+
+    private static HttpClient httpClient(long timeoutMillis, boolean virtualThreads) {
+        HttpClient.Builder builder = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofMillis(timeoutMillis));
+        if (virtualThreads) {
+            builder.executor(Executors.newVirtualThreadPerTaskExecutor());
+        }
+        return builder.build();
+    }
+
+    private static int creditModifier(HttpResponse<byte[]> response) {
+        if (response.statusCode() != 200) {
+            throw new CreditInfoUnavailableException("Credit registry returned status " + response.statusCode());
+        }
+        JsonNode creditModifier;
+        try {
+            creditModifier = OBJECT_MAPPER.readTree(response.body()).get("creditModifier");
+        } catch (IOException e) {
+            throw new CreditInfoUnavailableException("Malformed credit registry response", e);
+        }
+        if (creditModifier == null || !creditModifier.canConvertToInt() || creditModifier.intValue() < 0) {
+            throw new CreditInfoUnavailableException("Malformed credit registry response");
+        }
+        return creditModifier.intValue();
+    }
+}
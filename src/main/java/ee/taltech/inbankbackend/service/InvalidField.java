@@ -0,0 +1,35 @@
+package ee.taltech.inbankbackend.service;
+
+import ee.taltech.inbankbackend.exceptions.InvalidLoanAmountException;
+import ee.taltech.inbankbackend.exceptions.InvalidLoanPeriodException;
+import ee.taltech.inbankbackend.exceptions.InvalidPersonalCodeException;
+
+/**
+ * Request fields that can fail input validation.
+ */
+public enum InvalidField {
+    PERSONAL_CODE("Invalid personal ID code!"),
+    LOAN_AMOUNT("Invalid loan amount!"),
+    LOAN_PERIOD("Invalid loan period!");
+
+    private final String message;
+
+    InvalidField(String message) {
+        this.message = message;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    /**
+     * @return Legacy exception corresponding to this field
+     */
+    RuntimeException toException() {
+        return switch (this) {
+            case PERSONAL_CODE -> new InvalidPersonalCodeException(message);
+            case LOAN_AMOUNT -> new InvalidLoanAmountException(message);
+            case LOAN_PERIOD -> new InvalidLoanPeriodException(message);
+        };
+    }
+}
@@ -0,0 +1,78 @@
+package ee.taltech.inbankbackend.service;
+
+/**
+ * Latvian personal ID code (personas kods) of the form DDMMYY-CSSSK, where DDMMYY is the birth date, C the century
+ * (0 for the 19th, 1 for the 20th and 2 for the 21st century), SSS the serial number and K the checksum.
+ * The hyphen may be left out. Codes issued since 2017 (starting with 32) carry no birth date, so the age of the
+ * customer cannot be checked and they are not valid here.
+ */
+final class LatvianPersonalCodeScheme implements PersonalCodeScheme {
+
+    private static final int DIGITS = 11;
+    private static final int HYPHEN_INDEX = 6;
+    private static final int[] CHECKSUM_WEIGHTS = {1, 6, 3, 7, 9, 10, 5, 8, 4, 2};
+
+    @Override
+    public String getCountry() {
+        return "LV";
+    }
+
+    @Override
+    public ParsedPersonalCode parse(String personalCode) {
+        if (personalCode == null) {
+            return ParsedPersonalCode.invalid();
+        }
+        int length = personalCode.length();
+        boolean hyphenated = length == DIGITS + 1;
+        if (length != DIGITS && !(hyphenated && personalCode.charAt(HYPHEN_INDEX) == '-')) {
+            return ParsedPersonalCode.invalid();
+        }
+
+        int sum = 0;
+        int day = 0;
+        int month = 0;
+        int yearOfCentury = 0;
+        int century = 0;
+        int serial = 0;
+        for (int i = 0; i < DIGITS - 1; i++) {
+            int digit = personalCode.charAt(hyphenated && i >= HYPHEN_INDEX ? i + 1 : i) - '0';
+            if (digit < 0 || digit > 9) {
+                return ParsedPersonalCode.invalid();
+            }
+            sum += digit * CHECKSUM_WEIGHTS[i];
+            if (i < 2) {
+                day = day * 10 + digit;
+            } else if (i < 4) {
+                month = month * 10 + digit;
+            } else if (i < 6) {
+                yearOfCentury = yearOfCentury * 10 + digit;
+            } else if (i == 6) {
+                century = digit;
+            } else {
+                serial = serial * 10 + digit;
+            }
+        }
+        int checksum = personalCode.charAt(length - 1) - '0';
+        if (checksum < 0 || checksum > 9 || century > 2) {
+            return ParsedPersonalCode.invalid();
+        }
+
+        int birthYear = 1800 + century * 100 + yearOfCentury;
+        if (month < 1 || month > 12 || day < 1 || day > ParsedPersonalCode.daysInMonth(birthYear, month)) {
+            return ParsedPersonalCode.invalid();
+        }
+        if (checksum != (1101 - sum) % 11) {
+            return ParsedPersonalCode.invalid();
+        }
+
+        return ParsedPersonalCode.of(this, century, birthYear, month, day, serial, checksum);
+    }
+
+    @Override
+    public String normalize(String personalCode) {
+        if (personalCode.length() == DIGITS) {
+            return personalCode;
+        }
+        return personalCode.substring(0, HYPHEN_INDEX) + personalCode.substring(HYPHEN_INDEX + 1);
+    }
+}
@@ -0,0 +1,18 @@
+package ee.taltech.inbankbackend.service;
+
+/**
+ * Lithuanian personal ID code (asmens kodas). It has the same GYYMMDDSSSC form, century prefixes and checksum
+ * as the Estonian code, so the codes of both countries are parsed alike.
+ */
+final class LithuanianPersonalCodeScheme implements PersonalCodeScheme {
+
+    @Override
+    public String getCountry() {
+        return "LT";
+    }
+
+    @Override
+    public ParsedPersonalCode parse(String personalCode) {
+        return EstonianPersonalCodeScheme.parseCenturyPrefixed(this, personalCode);
+    }
+}
@@ -0,0 +1,116 @@
+package ee.taltech.inbankbackend.service;
+
+import ee.taltech.inbankbackend.config.DecisionEngineConstants;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Calculates the largest valid loan amount for a credit modifier and loan period.
+ * The credit score ((creditModifier / loanAmount) * loanPeriod) / 10 stays above the minimum score
+ * for as long as loanAmount is below creditModifier * loanPeriod, so the limit can be computed directly
+ * instead of stepping through every amount. The original stepping loop is kept as a reference implementation
+ * and can be switched on with the decision-engine.loan-limit.reference-loop property.
+ */
+@Component
+public class LoanLimitSolver {
+
+    private static final int MINIMUM_LOAN_AMOUNT = DecisionEngineConstants.MINIMUM_LOAN_AMOUNT;
+    private static final int LOAN_AMOUNT_STEP = DecisionEngineConstants.LOAN_AMOUNT_STEP;
+    private static final double MINIMUM_CREDIT_SCORE = DecisionEngineConstants.MINIMUM_CREDIT_SCORE;
+
+    private final boolean referenceLoop;
+
+    public LoanLimitSolver() {
+        this(false);
+    }
+
+    @Autowired
+    public LoanLimitSolver(@Value("${decision-engine.loan-limit.reference-loop:false}") boolean referenceLoop) {
+        this.referenceLoop = referenceLoop;
+    }
+
+    /**
+     * Calculates the largest valid loan for the given credit modifier and loan period.
+     *
+     * @param creditModifier Customer credit modifier
+     * @param loanPeriod     Loan period in months
+     * @return Largest valid loan amount or 0 if there are no valid loans
+     */
+    public int highestValidLoanAmount(int creditModifier, int loanPeriod) {
+        return highestValidLoanAmount(creditModifier, loanPeriod, MINIMUM_LOAN_AMOUNT);
+    }
+
+    /**
+     * Calculates the largest valid loan for the given credit modifier and loan period on a loan amount grid
+     * starting from the given minimum amount.
+     *
+     * @param creditModifier    Customer credit modifier
+     * @param loanPeriod        Loan period in months
+     * @param minimumLoanAmount Smallest loan amount of the scoring policy
+     * @return Largest valid loan amount or 0 if there are no valid loans
+     */
+    public int highestValidLoanAmount(int creditModifier, int loanPeriod, int minimumLoanAmount) {
+        if (referenceLoop) {
+            return referenceHighestValidLoanAmount(creditModifier, loanPeriod, minimumLoanAmount);
+        }
+        return closedFormHighestValidLoanAmount(creditModifier, loanPeriod, minimumLoanAmount);
+    }
+
+    /**
+     * Inverts the credit score formula. The reference loop stops at the first amount on the loan amount grid
+     * whose credit score is not above the minimum, which is the first grid amount >= creditModifier * loanPeriod.
+     * The result is then checked against the same floating point score as the loop, so amounts where the score
+     * lands exactly on the minimum are treated identically.
+     *
+     * @return Largest valid loan amount or 0 if there are no valid loans
+     */
+    protected static int closedFormHighestValidLoanAmount(int creditModifier, int loanPeriod) {
+        return closedFormHighestValidLoanAmount(creditModifier, loanPeriod, MINIMUM_LOAN_AMOUNT);
+    }
+
+    protected static int closedFormHighestValidLoanAmount(int creditModifier, int loanPeriod, int minimumLoanAmount) {
+        if (!(CreditInfoService.calculateCreditScore(creditModifier, minimumLoanAmount, loanPeriod) >= MINIMUM_CREDIT_SCORE)) {
+            return 0;
+        }
+
+        long threshold = (long) creditModifier * loanPeriod;
+        long steps = Math.max(0L, (threshold - minimumLoanAmount + LOAN_AMOUNT_STEP - 1) / LOAN_AMOUNT_STEP);
+        int highestValidAmount = (int) (minimumLoanAmount + steps * LOAN_AMOUNT_STEP);
+
+        // Floating point rounding can move the boundary by at most one step in either direction.
+        while (CreditInfoService.calculateCreditScore(creditModifier, highestValidAmount, loanPeriod) > MINIMUM_CREDIT_SCORE) {
+            highestValidAmount += LOAN_AMOUNT_STEP;
+        }
+        while (highestValidAmount > minimumLoanAmount
+                && !(CreditInfoService.calculateCreditScore(creditModifier, highestValidAmount - LOAN_AMOUNT_STEP, loanPeriod) > MINIMUM_CREDIT_SCORE)) {
+            highestValidAmount -= LOAN_AMOUNT_STEP;
+        }
+
+        return highestValidAmount;
+    }
+
+    /**
+     * Reference implementation. Starts from the minimum loan amount and steps up until the credit score
+     * is no longer above the minimum.
+     *
+     * @return Largest valid loan amount or 0 if there are no valid loans
+     */
+    protected static int referenceHighestValidLoanAmount(int creditModifier, int loanPeriod) {
+        return referenceHighestValidLoanAmount(creditModifier, loanPeriod, MINIMUM_LOAN_AMOUNT);
+    }
+
+    protected static int referenceHighestValidLoanAmount(int creditModifier, int loanPeriod, int minimumLoanAmount) {
+        double creditScoreForMinimumAllowedLoan = CreditInfoService.calculateCreditScore(creditModifier, minimumLoanAmount, loanPeriod);
+        if (creditScoreForMinimumAllowedLoan >= MINIMUM_CREDIT_SCORE) {
+            int highestValidAmount = minimumLoanAmount;
+
+            while (CreditInfoService.calculateCreditScore(creditModifier, highestValidAmount, loanPeriod) > MINIMUM_CREDIT_SCORE) {
+                highestValidAmount += LOAN_AMOUNT_STEP;
+            }
+
+            return highestValidAmount;
+        }
+        return 0;
+    }
+}
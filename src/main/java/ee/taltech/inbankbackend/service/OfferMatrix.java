@@ -0,0 +1,89 @@
+package ee.taltech.inbankbackend.service;
+
+import ee.taltech.inbankbackend.config.DecisionEngineConstants;
+import ee.taltech.inbankbackend.config.ScoringPolicy;
+
+import java.util.Arrays;
+
+/**
+ * All offers of one customer under a scoring policy, meant for drawing an amount against period chart.
+ * Both arrays follow the grids of the policy: {@code highestLoanAmounts[i]} is the highest approvable amount
+ * for the period {@code minimumLoanPeriod + i}, 0 if no amount is approvable for it, and
+ * {@code shortestLoanPeriods[j]} is the shortest period approving the amount {@code minimumLoanAmount + j * loanAmountStep},
+ * 0 if no period approves it. The amounts are the ones the decision endpoint approves for the same inputs.
+ *
+ * @param policyVersion       Version of the scoring policy the offers were calculated with
+ * @param minimumLoanPeriod   Loan period of the first highest loan amount
+ * @param minimumLoanAmount   Loan amount of the first shortest loan period
+ * @param loanAmountStep      Difference of the loan amounts of consecutive shortest loan periods
+ * @param highestLoanAmounts  Highest approvable loan amount of every loan period
+ * @param shortestLoanPeriods Shortest approving loan period of every loan amount
+ */
+public record OfferMatrix(long policyVersion, int minimumLoanPeriod, int minimumLoanAmount, int loanAmountStep,
+                          int[] highestLoanAmounts, int[] shortestLoanPeriods) {
+
+    private static final int LOAN_AMOUNT_STEP = DecisionEngineConstants.LOAN_AMOUNT_STEP;
+
+    /**
+     * Builds the matrix from the highest valid loan amounts of every loan period of the policy.
+     * Highest valid amounts grow with the period, so the shortest periods of all amounts are found in the same pass.
+     *
+     * @param policy                  Scoring policy the amounts were calculated with
+     * @param highestValidLoanAmounts Highest valid loan amount of every loan period, not limited to the maximum loan amount
+     * @return Matrix of the offers, or null if no period has a valid loan
+     */
+    static OfferMatrix of(ScoringPolicy policy, int[] highestValidLoanAmounts) {
+        int minimumLoanAmount = policy.getMinimumLoanAmount();
+        int maximumLoanAmount = policy.getMaximumLoanAmount();
+        int minimumLoanPeriod = policy.getMinimumLoanPeriod();
+        int[] highestLoanAmounts = new int[highestValidLoanAmounts.length];
+        int[] shortestLoanPeriods = new int[(maximumLoanAmount - minimumLoanAmount) / LOAN_AMOUNT_STEP + 1];
+
+        int amountStep = 0;
+        for (int i = 0; i < highestValidLoanAmounts.length; i++) {
+            int loanAmount = highestValidLoanAmounts[i];
+            if (loanAmount < minimumLoanAmount) {
+                continue;
+            }
+            loanAmount = Math.min(loanAmount, maximumLoanAmount);
+            highestLoanAmounts[i] = loanAmount;
+            for (; amountStep < shortestLoanPeriods.length && minimumLoanAmount + amountStep * LOAN_AMOUNT_STEP <= loanAmount; amountStep++) {
+                shortestLoanPeriods[amountStep] = minimumLoanPeriod + i;
+            }
+        }
+        if (amountStep == 0) {
+            return null;
+        }
+        return new OfferMatrix(policy.getVersion(), minimumLoanPeriod, minimumLoanAmount, LOAN_AMOUNT_STEP,
+                highestLoanAmounts, shortestLoanPeriods);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof OfferMatrix other
+                && policyVersion == other.policyVersion
+                && minimumLoanPeriod == other.minimumLoanPeriod
+                && minimumLoanAmount == other.minimumLoanAmount
+                && loanAmountStep == other.loanAmountStep
+                && Arrays.equals(highestLoanAmounts, other.highestLoanAmounts)
+                && Arrays.equals(shortestLoanPeriods, other.shortestLoanPeriods);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = Long.hashCode(policyVersion);
+        result = 31 * result + minimumLoanPeriod;
+        result = 31 * result + minimumLoanAmount;
+        result = 31 * result + loanAmountStep;
+        result = 31 * result + Arrays.hashCode(highestLoanAmounts);
+        return 31 * result + Arrays.hashCode(shortestLoanPeriods);
+    }
+
+    @Override
+    public String toString() {
+        return "OfferMatrix[policyVersion=" + policyVersion + ", minimumLoanPeriod=" + minimumLoanPeriod
+                + ", minimumLoanAmount=" + minimumLoanAmount + ", loanAmountStep=" + loanAmountStep
+                + ", highestLoanAmounts=" + Arrays.toString(highestLoanAmounts)
+                + ", shortestLoanPeriods=" + Arrays.toString(shortestLoanPeriods) + "]";
+    }
+}
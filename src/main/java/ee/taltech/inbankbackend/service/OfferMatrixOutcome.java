@@ -0,0 +1,20 @@
+package ee.taltech.inbankbackend.service;
+
+/**
+ * Result of an offer matrix request. The customer either gets the matrix, or the invalid or rejected
+ * outcome a decision request of the customer gets regardless of the amount and period.
+ */
+public sealed interface OfferMatrixOutcome permits OfferMatrixOutcome.Offered, OfferMatrixOutcome.NotOffered {
+
+    /**
+     * The customer has at least one valid loan.
+     */
+    record Offered(OfferMatrix matrix) implements OfferMatrixOutcome {
+    }
+
+    /**
+     * The personal ID code is invalid or the customer cannot get any loan.
+     */
+    record NotOffered(DecisionOutcome outcome) implements OfferMatrixOutcome {
+    }
+}
@@ -0,0 +1,147 @@
+package ee.taltech.inbankbackend.service;
+
+import ee.taltech.inbankbackend.config.DecisionEngineConstants;
+import ee.taltech.inbankbackend.config.ScoringPolicy;
+
+import java.util.Arrays;
+
+/**
+ * Immutable table of the highest valid loan amounts for every credit segment and loan period of a scoring policy.
+ * Amounts are stored in a flat array indexed by segment and period. For every segment there is also
+ * a lookup of the shortest loan period that reaches a given amount on the loan amount grid.
+ * The table keeps the policy it was built for, so a decision that holds on to the table sees one consistent policy.
+ */
+public final class OfferTable {
+
+    private static final int LOAN_AMOUNT_STEP = DecisionEngineConstants.LOAN_AMOUNT_STEP;
+
+    private final ScoringPolicy policy;
+    private final int[] creditModifiers;
+    private final int minimumLoanPeriod;
+    private final int minimumLoanAmount;
+    private final int periodCount;
+    private final int amountStepCount;
+    private final int[] highestValidLoanAmounts;
+    private final int[] shortestLoanPeriods;
+
+    private OfferTable(ScoringPolicy policy, int[] highestValidLoanAmounts, int[] shortestLoanPeriods) {
+        this.policy = policy;
+        this.creditModifiers = policy.getSegmentCreditModifiers();
+        this.minimumLoanPeriod = policy.getMinimumLoanPeriod();
+        this.minimumLoanAmount = policy.getMinimumLoanAmount();
+        this.periodCount = periodCount(policy);
+        this.amountStepCount = amountStepCount(policy);
+        this.highestValidLoanAmounts = highestValidLoanAmounts;
+        this.shortestLoanPeriods = shortestLoanPeriods;
+    }
+
+    /**
+     * Builds the table for the given credit modifiers and the default loan amount and period bounds.
+     * The position of a modifier in the arguments is its segment index in the table.
+     *
+     * @param loanLimitSolver Solver used to calculate the highest valid loan amounts
+     * @param creditModifiers Credit modifiers of all segments
+     * @return Table with the highest valid loan amounts and shortest loan periods of every segment
+     */
+    public static OfferTable build(LoanLimitSolver loanLimitSolver, int... creditModifiers) {
+        return build(loanLimitSolver, ScoringPolicy.DEFAULTS.withSegmentCreditModifiers(creditModifiers));
+    }
+
+    /**
+     * Builds the table for the segments and loan amount and period bounds of the policy.
+     *
+     * @param loanLimitSolver Solver used to calculate the highest valid loan amounts
+     * @param policy          Scoring policy
+     * @return Table with the highest valid loan amounts and shortest loan periods of every segment
+     */
+    public static OfferTable build(LoanLimitSolver loanLimitSolver, ScoringPolicy policy) {
+        int segmentCount = policy.getSegmentCount();
+        int periodCount = periodCount(policy);
+        int amountStepCount = amountStepCount(policy);
+        int minimumLoanPeriod = policy.getMinimumLoanPeriod();
+        int maximumLoanPeriod = policy.getMaximumLoanPeriod();
+        int minimumLoanAmount = policy.getMinimumLoanAmount();
+        int[] highestValidLoanAmounts = new int[segmentCount * periodCount];
+        int[] shortestLoanPeriods = new int[segmentCount * amountStepCount];
+
+        for (int segment = 0; segment < segmentCount; segment++) {
+            int creditModifier = policy.getSegmentCreditModifier(segment);
+            for (int period = minimumLoanPeriod; period <= maximumLoanPeriod; period++) {
+                highestValidLoanAmounts[segment * periodCount + period - minimumLoanPeriod] =
+                        loanLimitSolver.highestValidLoanAmount(creditModifier, period, minimumLoanAmount);
+            }
+
+            // Highest valid amounts grow with the period, so a single pass finds the shortest period for every amount.
+            int period = minimumLoanPeriod;
+            for (int amountStep = 0; amountStep < amountStepCount; amountStep++) {
+                int loanAmount = minimumLoanAmount + amountStep * LOAN_AMOUNT_STEP;
+                while (period < maximumLoanPeriod
+                        && highestValidLoanAmounts[segment * periodCount + period - minimumLoanPeriod] < loanAmount) {
+                    period++;
+                }
+                shortestLoanPeriods[segment * amountStepCount + amountStep] = period;
+            }
+        }
+
+        return new OfferTable(policy, highestValidLoanAmounts, shortestLoanPeriods);
+    }
+
+    private static int periodCount(ScoringPolicy policy) {
+        return policy.getMaximumLoanPeriod() - policy.getMinimumLoanPeriod() + 1;
+    }
+
+    private static int amountStepCount(ScoringPolicy policy) {
+        return (policy.getMaximumLoanAmount() - policy.getMinimumLoanAmount()) / LOAN_AMOUNT_STEP + 1;
+    }
+
+    /**
+     * @return Scoring policy the table was built for
+     */
+    public ScoringPolicy getPolicy() {
+        return policy;
+    }
+
+    /**
+     * @param creditModifier Customer credit modifier
+     * @return Segment index of the credit modifier or -1 if the table has no such segment
+     */
+    public int segmentIndex(int creditModifier) {
+        for (int segment = 0; segment < creditModifiers.length; segment++) {
+            if (creditModifiers[segment] == creditModifier) {
+                return segment;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @param segment    Segment index
+     * @param loanPeriod Loan period within the bounds of the policy
+     * @return Largest valid loan amount or 0 if there are no valid loans
+     */
+    public int highestValidLoanAmount(int segment, int loanPeriod) {
+        return highestValidLoanAmounts[segment * periodCount + loanPeriod - minimumLoanPeriod];
+    }
+
+    /**
+     * Finds the shortest loan period with a highest valid loan amount of at least the given amount.
+     * If no period reaches the amount, the maximum loan period is returned.
+     *
+     * @param segment    Segment index
+     * @param loanAmount Loan amount within the bounds of the policy
+     * @return Shortest loan period reaching the amount
+     */
+    public int shortestLoanPeriod(int segment, long loanAmount) {
+        // Highest valid amounts are always on the loan amount grid, so the amount can be rounded up to it.
+        long amountStep = (loanAmount - minimumLoanAmount + LOAN_AMOUNT_STEP - 1) / LOAN_AMOUNT_STEP;
+        int index = (int) Math.max(0, Math.min(amountStepCount - 1, amountStep));
+        return shortestLoanPeriods[segment * amountStepCount + index];
+    }
+
+    /**
+     * @return True if the table was built for exactly these credit modifiers
+     */
+    public boolean isBuiltFor(int... creditModifiers) {
+        return Arrays.equals(this.creditModifiers, creditModifiers);
+    }
+}
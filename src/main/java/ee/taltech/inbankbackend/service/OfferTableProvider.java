@@ -0,0 +1,60 @@
+package ee.taltech.inbankbackend.service;
+
+import ee.taltech.inbankbackend.config.ScoringPolicy;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Publishes the offer table of the current scoring policy.
+ * The table starts with the built-in policy defaults. When a new policy is published, its table is built
+ * by the publishing thread and only then swapped in, so readers never wait for a rebuild or take a lock.
+ * A decision reads the table once and uses it, and the policy it carries, until the decision is made.
+ */
+@Component
+public class OfferTableProvider {
+
+    private final LoanLimitSolver loanLimitSolver;
+    private final AtomicReference<OfferTable> offerTable;
+
+    public OfferTableProvider(LoanLimitSolver loanLimitSolver) {
+        this.loanLimitSolver = loanLimitSolver;
+        this.offerTable = new AtomicReference<>(OfferTable.build(loanLimitSolver, ScoringPolicy.DEFAULTS));
+    }
+
+    /**
+     * @return Offer table of the current scoring policy
+     */
+    public OfferTable current() {
+        return offerTable.get();
+    }
+
+    /**
+     * Builds the offer table of the policy and replaces the current one, unless it was built for an equal policy.
+     * Publishers are serialized, readers keep using the previous table until the swap.
+     *
+     * @param policy New scoring policy
+     * @return Replaced offer table, or null if the policy did not change
+     */
+    public synchronized OfferTable publish(ScoringPolicy policy) {
+        OfferTable previous = offerTable.get();
+        if (previous.getPolicy().equals(policy)) {
+            return null;
+        }
+        offerTable.set(OfferTable.build(loanLimitSolver, policy));
+        return previous;
+    }
+
+    /**
+     * Replaces the offer table if it was built for different credit modifiers.
+     * The loan amount and period bounds of the current policy are kept.
+     *
+     * @param creditModifiers Credit modifiers of all segments
+     */
+    public synchronized void rebuildIfChanged(int... creditModifiers) {
+        OfferTable current = offerTable.get();
+        if (!current.isBuiltFor(creditModifiers)) {
+            publish(current.getPolicy().withSegmentCreditModifiers(creditModifiers));
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package ee.taltech.inbankbackend.service;
+
+/**
+ * Personal ID code parsed in a single pass over its characters by the {@link PersonalCodeScheme} of its country.
+ * Every scheme yields the birth date, the serial number and the checksum digit, and the parsed code keeps its scheme. The serial number and the checksum are
+ * the last four digits of the code, which are also used as the credit segment digits.
+ * Parsing creates no intermediate Strings, and every invalid code is represented by the same shared instance.
+ */
+public final class ParsedPersonalCode {
+
+    private static final ParsedPersonalCode INVALID = new ParsedPersonalCode(false, null, 0, 0, 0, 0, 0, 0);
+
+    private final boolean valid;
+    private final PersonalCodeScheme scheme;
+    private final int centuryPrefix;
+    private final int birthYear;
+    private final int birthMonth;
+    private final int birthDay;
+    private final int serial;
+    private final int checksum;
+
+    private ParsedPersonalCode(boolean valid, PersonalCodeScheme scheme, int centuryPrefix, int birthYear, int birthMonth,
+                               int birthDay, int serial, int checksum) {
+        this.valid = valid;
+        this.scheme = scheme;
+        this.centuryPrefix = centuryPrefix;
+        this.birthYear = birthYear;
+        this.birthMonth = birthMonth;
+        this.birthDay = birthDay;
+        this.serial = serial;
+        this.checksum = checksum;
+    }
+
+    /**
+     * Parses and validates the personal ID code with the scheme its shape belongs to, see {@link PersonalCodeSchemes#forCode(String)}.
+     *
+     * @param personalCode Personal ID code
+     * @return Parsed personal ID code, or an instance whose isValid() is false if the code is invalid
+     */
+    public static ParsedPersonalCode parse(String personalCode) {
+        return PersonalCodeSchemes.forCode(personalCode).parse(personalCode);
+    }
+
+    /**
+     * @return Valid personal ID code of the scheme with the given fields, the birth date must exist
+     */
+    static ParsedPersonalCode of(PersonalCodeScheme scheme, int centuryPrefix, int birthYear, int birthMonth, int birthDay,
+                                 int serial, int checksum) {
+        return new ParsedPersonalCode(true, scheme, centuryPrefix, birthYear, birthMonth, birthDay, serial, checksum);
+    }
+
+    /**
+     * @return Shared instance of every invalid personal ID code
+     */
+    static ParsedPersonalCode invalid() {
+        return INVALID;
+    }
+
+    static int daysInMonth(int year, int month) {
+        return switch (month) {
+            case 2 -> (year % 4 == 0 && year % 100 != 0) || year % 400 == 0 ? 29 : 28;
+            case 4, 6, 9, 11 -> 30;
+            default -> 31;
+        };
+    }
+
+    public boolean isValid() {
+        return valid;
+    }
+
+    /**
+     * @return Scheme the code was parsed with, null if the code is invalid
+     */
+    public PersonalCodeScheme getScheme() {
+        return scheme;
+    }
+
+    /**
+     * @return Century digit of the code, its meaning depends on the scheme
+     */
+    public int getCenturyPrefix() {
+        return centuryPrefix;
+    }
+
+    public int getBirthYear() {
+        return birthYear;
+    }
+
+    public int getBirthMonth() {
+        return birthMonth;
+    }
+
+    public int getBirthDay() {
+        return birthDay;
+    }
+
+    public int getSerial() {
+        return serial;
+    }
+
+    public int getChecksum() {
+        return checksum;
+    }
+
+    /**
+     * @return Birth date packed as yyyymmdd, so that birth dates compare as integers
+     */
+    public int getBirthDate() {
+        return birthYear * 10_000 + birthMonth * 100 + birthDay;
+    }
+
+    /**
+     * @return Last four digits of the code, which determine the credit segment
+     */
+    public int getSegmentDigits() {
+        return serial * 10 + checksum;
+    }
+}
@@ -0,0 +1,30 @@
+package ee.taltech.inbankbackend.service;
+
+/**
+ * Format of the personal ID codes of a country. Schemes are looked up by country or by the shape of the code
+ * in {@link PersonalCodeSchemes}.
+ */
+public interface PersonalCodeScheme {
+
+    /**
+     * @return ISO 3166-1 alpha-2 code of the country, in upper case
+     */
+    String getCountry();
+
+    /**
+     * Parses and validates the personal ID code in a single pass: format, birth date and checksum.
+     * Implementations create no intermediate objects, the parsed code is the only allocation.
+     *
+     * @param personalCode Personal ID code
+     * @return Parsed personal ID code, or an instance whose isValid() is false if the code is invalid
+     */
+    ParsedPersonalCode parse(String personalCode);
+
+    /**
+     * @param personalCode Valid personal ID code of this scheme
+     * @return The same code without separators, so that every way of writing a code identifies the same customer
+     */
+    default String normalize(String personalCode) {
+        return personalCode;
+    }
+}
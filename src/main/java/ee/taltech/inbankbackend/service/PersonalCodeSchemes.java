@@ -0,0 +1,77 @@
+package ee.taltech.inbankbackend.service;
+
+/**
+ * Registry of the supported personal ID code schemes: Estonian, Latvian and Lithuanian.
+ * <p>
+ * A scheme is picked without trying the schemes in turn: by country from a table indexed by the two letters of the
+ * country code, or by the shape of the code. Only Latvian codes contain a hyphen, after the birth date. Estonian and
+ * Lithuanian codes share one format, so an 11 digit code without a country is parsed as Estonian, which gives the
+ * same birth date and segment digits as parsing it as Lithuanian. Latvian codes without the hyphen need the country.
+ */
+public final class PersonalCodeSchemes {
+
+    public static final PersonalCodeScheme ESTONIAN = new EstonianPersonalCodeScheme();
+    public static final PersonalCodeScheme LATVIAN = new LatvianPersonalCodeScheme();
+    public static final PersonalCodeScheme LITHUANIAN = new LithuanianPersonalCodeScheme();
+
+    private static final int LETTERS = 26;
+    private static final PersonalCodeScheme[] BY_COUNTRY = new PersonalCodeScheme[LETTERS * LETTERS];
+
+    static {
+        for (PersonalCodeScheme scheme : new PersonalCodeScheme[]{ESTONIAN, LATVIAN, LITHUANIAN}) {
+            BY_COUNTRY[countryIndex(scheme.getCountry())] = scheme;
+        }
+    }
+
+    private PersonalCodeSchemes() {
+    }
+
+    /**
+     * @param country ISO 3166-1 alpha-2 country code, in either case
+     * @return Scheme of the country, or null if the country is not supported
+     */
+    public static PersonalCodeScheme forCountry(String country) {
+        int index = countryIndex(country);
+        return index < 0 ? null : BY_COUNTRY[index];
+    }
+
+    /**
+     * @param personalCode Personal ID code, may be null
+     * @return Latvian scheme for codes with a hyphen after the birth date, Estonian scheme otherwise
+     */
+    public static PersonalCodeScheme forCode(String personalCode) {
+        if (personalCode != null && personalCode.length() == 12 && personalCode.charAt(6) == '-') {
+            return LATVIAN;
+        }
+        return ESTONIAN;
+    }
+
+    /**
+     * Parses the personal ID code with the scheme of the country, or with the scheme its shape belongs to if the
+     * country is not given.
+     *
+     * @param country      ISO 3166-1 alpha-2 country code, or null
+     * @param personalCode Personal ID code
+     * @return Parsed personal ID code, or an instance whose isValid() is false if the code or the country is invalid
+     */
+    public static ParsedPersonalCode parse(String country, String personalCode) {
+        if (country == null) {
+            return forCode(personalCode).parse(personalCode);
+        }
+        PersonalCodeScheme scheme = forCountry(country);
+        return scheme == null ? ParsedPersonalCode.invalid() : scheme.parse(personalCode);
+    }
+
+    private static int countryIndex(String country) {
+        if (country == null || country.length() != 2) {
+            return -1;
+        }
+        // Clearing bit 5 maps ASCII lower case letters to upper case, other characters fall out of range
+        int first = (country.charAt(0) & ~0x20) - 'A';
+        int second = (country.charAt(1) & ~0x20) - 'A';
+        if (first < 0 || first >= LETTERS || second < 0 || second >= LETTERS) {
+            return -1;
+        }
+        return first * LETTERS + second;
+    }
+}
@@ -0,0 +1,32 @@
+package ee.taltech.inbankbackend.service;
+
+import ee.taltech.inbankbackend.exceptions.InvalidCustomerAgeException;
+import ee.taltech.inbankbackend.exceptions.NoValidLoanException;
+
+/**
+ * Reasons for rejecting a loan application with valid inputs.
+ */
+public enum RejectionReason {
+    NO_VALID_LOAN("No valid loan found!"),
+    CUSTOMER_AGE("Invalid loan amount!");
+
+    private final String message;
+
+    RejectionReason(String message) {
+        this.message = message;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    /**
+     * @return Legacy exception corresponding to this reason
+     */
+    RuntimeException toException() {
+        return switch (this) {
+            case NO_VALID_LOAN -> new NoValidLoanException(message);
+            case CUSTOMER_AGE -> new InvalidCustomerAgeException(message);
+        };
+    }
+}
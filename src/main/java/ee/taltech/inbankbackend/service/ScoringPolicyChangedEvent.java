@@ -0,0 +1,9 @@
+package ee.taltech.inbankbackend.service;
+
+import ee.taltech.inbankbackend.config.ScoringPolicy;
+
+/**
+ * Published after a new scoring policy and its offer table have replaced the previous ones.
+ */
+public record ScoringPolicyChangedEvent(ScoringPolicy previous, ScoringPolicy current) {
+}
@@ -0,0 +1,130 @@
+package ee.taltech.inbankbackend.service;
+
+import ee.taltech.inbankbackend.config.ScoringPolicy;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Loads the scoring policy from the file in decision-engine.scoring-policy.file and publishes it again whenever
+ * the file changes. Without a file the built-in defaults are used.
+ * <p>
+ * The file is read once at startup, and a policy that cannot be read stops the application. Later changes are
+ * picked up by a background thread watching the directory of the file. It waits until the directory has been quiet
+ * for a moment, reads the file and builds the new offer table before swapping it in. A change that cannot be read
+ * is logged and the current policy stays in place.
+ */
+@Component
+public class ScoringPolicyWatcher {
+
+    private static final Logger log = LoggerFactory.getLogger(ScoringPolicyWatcher.class);
+    private static final long QUIET_PERIOD_MILLIS = 200;
+
+    private final Path file;
+    private final OfferTableProvider offerTableProvider;
+    private final ApplicationEventPublisher eventPublisher;
+    private WatchService watchService;
+
+    @Autowired
+    public ScoringPolicyWatcher(@Value("${decision-engine.scoring-policy.file:}") String file,
+                                OfferTableProvider offerTableProvider, ApplicationEventPublisher eventPublisher) {
+        this(file.isBlank() ? null : Path.of(file), offerTableProvider, eventPublisher);
+    }
+
+    /**
+     * @param file Policy file, or null to keep the built-in defaults
+     */
+    ScoringPolicyWatcher(Path file, OfferTableProvider offerTableProvider, ApplicationEventPublisher eventPublisher) {
+        this.file = file == null ? null : file.toAbsolutePath();
+        this.offerTableProvider = offerTableProvider;
+        this.eventPublisher = eventPublisher;
+    }
+
+    /**
+     * Publishes the policy of the file and starts watching it.
+     *
+     * @throws IllegalStateException If the policy cannot be read
+     */
+    @PostConstruct
+    public synchronized void start() throws IOException {
+        if (file == null || watchService != null) {
+            return;
+        }
+
+        try {
+            reload();
+        } catch (IOException | IllegalArgumentException e) {
+            throw new IllegalStateException("Cannot load scoring policy " + file, e);
+        }
+        watchService = file.getFileSystem().newWatchService();
+        file.getParent().register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+        WatchService watching = watchService;
+        Thread watcher = new Thread(() -> watch(watching), "scoring-policy-watcher");
+        watcher.setDaemon(true);
+        watcher.start();
+    }
+
+    /**
+     * Reads the policy file and publishes the policy if it differs from the current one.
+     *
+     * @return True if a new policy was published
+     * @throws IOException              If the file cannot be read
+     * @throws IllegalArgumentException If the file does not contain a valid policy
+     */
+    public boolean reload() throws IOException {
+        ScoringPolicy policy = ScoringPolicy.load(file);
+        OfferTable previous = offerTableProvider.publish(policy);
+        if (previous == null) {
+            return false;
+        }
+        eventPublisher.publishEvent(new ScoringPolicyChangedEvent(previous.getPolicy(), policy));
+        log.info("Published {} from {}", policy, file);
+        return true;
+    }
+
+    private void watch(WatchService watchService) {
+        try {
+            while (true) {
+                // Editors and config map updates replace the file in several steps, so any change in the directory
+                // is followed by a quiet period and a reload. Reloading an unchanged policy does nothing.
+                WatchKey key = watchService.take();
+                while (key != null) {
+                    key.pollEvents();
+                    if (!key.reset()) {
+                        log.warn("Scoring policy directory {} is no longer watched", file.getParent());
+                        return;
+                    }
+                    key = watchService.poll(QUIET_PERIOD_MILLIS, TimeUnit.MILLISECONDS);
+                }
+                try {
+                    reload();
+                } catch (IOException | RuntimeException e) {
+                    log.warn("Scoring policy {} was not reloaded, keeping version {}", file,
+                            offerTableProvider.current().getPolicy().getVersion(), e);
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // Stopped by close()
+        }
+    }
+
+    @PreDestroy
+    public synchronized void close() throws IOException {
+        if (watchService != null) {
+            watchService.close();
+        }
+    }
+}
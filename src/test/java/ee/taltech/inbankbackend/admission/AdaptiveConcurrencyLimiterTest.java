@@ -0,0 +1,90 @@
+package ee.taltech.inbankbackend.admission;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AdaptiveConcurrencyLimiterTest {
+
+    private static final long THRESHOLD = 100_000_000L;
+
+    private final AtomicLong now = new AtomicLong();
+
+    @Test
+    void testRequestsOverLimitAreRejected() {
+        AdaptiveConcurrencyLimiter limiter = limiter(2);
+
+        assertTrue(limiter.tryAcquire());
+        assertTrue(limiter.tryAcquire());
+        assertFalse(limiter.tryAcquire());
+        assertEquals(2, limiter.getInFlight());
+
+        limiter.release(THRESHOLD);
+
+        assertTrue(limiter.tryAcquire());
+    }
+
+    @Test
+    void testFastRequestsRaiseLimitWhenBusy() {
+        AdaptiveConcurrencyLimiter limiter = limiter(4);
+        for (int i = 0; i < 4; i++) {
+            limiter.tryAcquire();
+        }
+
+        limiter.release(THRESHOLD / 2);
+        limiter.release(THRESHOLD / 2);
+        // Two requests or fewer are left in flight, less than half of the raised limit is in use.
+        limiter.release(THRESHOLD / 2);
+        limiter.release(THRESHOLD / 2);
+
+        assertEquals(6, limiter.getLimit());
+        assertEquals(0, limiter.getInFlight());
+    }
+
+    @Test
+    void testSlowRequestsLowerLimitOncePerInterval() {
+        AdaptiveConcurrencyLimiter limiter = limiter(100);
+        for (int i = 0; i < 3; i++) {
+            limiter.tryAcquire();
+        }
+
+        limiter.release(THRESHOLD * 2);
+        limiter.release(THRESHOLD * 2);
+        assertEquals(90, limiter.getLimit());
+
+        now.addAndGet(THRESHOLD);
+        limiter.release(THRESHOLD * 2);
+        assertEquals(81, limiter.getLimit());
+    }
+
+    @Test
+    void testLimitStaysWithinBounds() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(10, 10, 11, THRESHOLD, 0.5, now::get);
+        for (int i = 0; i < 10; i++) {
+            limiter.tryAcquire();
+        }
+        for (int i = 0; i < 10; i++) {
+            limiter.release(1);
+        }
+        assertEquals(11, limiter.getLimit());
+
+        limiter.tryAcquire();
+        limiter.release(THRESHOLD * 2);
+        assertEquals(10, limiter.getLimit());
+    }
+
+    @Test
+    void testInvalidConfigurationIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new AdaptiveConcurrencyLimiter(10, 0, 100, THRESHOLD, 0.9));
+        assertThrows(IllegalArgumentException.class, () -> new AdaptiveConcurrencyLimiter(10, 10, 100, THRESHOLD, 1.0));
+    }
+
+    private AdaptiveConcurrencyLimiter limiter(int initialLimit) {
+        return new AdaptiveConcurrencyLimiter(initialLimit, 1, 1000, THRESHOLD, 0.9, now::get);
+    }
+}
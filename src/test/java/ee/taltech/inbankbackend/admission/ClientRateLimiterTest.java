@@ -0,0 +1,90 @@
+package ee.taltech.inbankbackend.admission;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ClientRateLimiterTest {
+
+    private final AtomicLong now = new AtomicLong(-5_000_000_000L);
+
+    @Test
+    void testBurstIsAdmittedThenRateApplies() {
+        ClientRateLimiter limiter = new ClientRateLimiter(10, 3, 16, now::get);
+
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, limiter.tryAcquire("partner"));
+        }
+        assertEquals(100_000_000L, limiter.tryAcquire("partner"));
+
+        now.addAndGet(40_000_000L);
+        assertEquals(60_000_000L, limiter.tryAcquire("partner"));
+
+        now.addAndGet(60_000_000L);
+        assertEquals(0, limiter.tryAcquire("partner"));
+        assertEquals(100_000_000L, limiter.tryAcquire("partner"));
+    }
+
+    @Test
+    void testIdleClientRefillsUpToBurst() {
+        ClientRateLimiter limiter = new ClientRateLimiter(10, 2, 16, now::get);
+        limiter.tryAcquire("partner");
+        limiter.tryAcquire("partner");
+
+        now.addAndGet(TimeUnit.SECONDS.toNanos(60));
+
+        assertEquals(0, limiter.tryAcquire("partner"));
+        assertEquals(0, limiter.tryAcquire("partner"));
+        assertEquals(100_000_000L, limiter.tryAcquire("partner"));
+    }
+
+    @Test
+    void testClientsHaveSeparateBuckets() {
+        ClientRateLimiter limiter = new ClientRateLimiter(1, 1, 1024, now::get);
+
+        assertEquals(0, limiter.tryAcquire("partner-a"));
+        assertEquals(0, limiter.tryAcquire("partner-b"));
+        assertEquals(1_000_000_000L, limiter.tryAcquire("partner-a"));
+    }
+
+    @Test
+    void testConcurrentClientsNeverExceedBurst() throws Exception {
+        ClientRateLimiter limiter = new ClientRateLimiter(1, 500, 16, now::get);
+        AtomicInteger admitted = new AtomicInteger();
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            Future<?>[] futures = new Future<?>[8];
+            for (int thread = 0; thread < futures.length; thread++) {
+                futures[thread] = executor.submit(() -> {
+                    for (int i = 0; i < 1000; i++) {
+                        if (limiter.tryAcquire("partner") == 0) {
+                            admitted.incrementAndGet();
+                        }
+                    }
+                });
+            }
+            for (Future<?> future : futures) {
+                future.get(10, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(500, admitted.get());
+    }
+
+    @Test
+    void testInvalidConfigurationIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new ClientRateLimiter(0, 1, 16));
+        assertThrows(IllegalArgumentException.class, () -> new ClientRateLimiter(1, 0, 16));
+    }
+}
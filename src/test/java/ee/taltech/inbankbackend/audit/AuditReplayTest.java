@@ -0,0 +1,100 @@
+package ee.taltech.inbankbackend.audit;
+
+import ee.taltech.inbankbackend.config.ScoringPolicy;
+import ee.taltech.inbankbackend.service.CreditInfoService;
+import ee.taltech.inbankbackend.service.DecisionEngine;
+import ee.taltech.inbankbackend.service.DecisionMemo;
+import ee.taltech.inbankbackend.service.LoanLimitSolver;
+import ee.taltech.inbankbackend.service.OfferTableProvider;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Properties;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AuditReplayTest {
+
+    private Path directory;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        directory = Files.createTempDirectory("decision-audit");
+        LoanLimitSolver loanLimitSolver = new LoanLimitSolver();
+        OfferTableProvider offerTableProvider = new OfferTableProvider(loanLimitSolver);
+        DecisionAuditLog auditLog = new DecisionAuditLog(directory, 1024 * AuditRecord.LENGTH, 1024, 1000);
+        DecisionEngine decisionEngine = DecisionEngine.builder(loanLimitSolver, offerTableProvider)
+                .creditInfoProvider(new CreditInfoService(offerTableProvider))
+                .decisionMemo(new DecisionMemo(DecisionMemo.DEFAULT_SIZE))
+                .decisionJournal(auditLog)
+                .build();
+
+        for (String personalCode : new String[]{"37605030299", "50307172740", "38411266610", "35006069515", "12345678901"}) {
+            for (long amount = 2000; amount <= 10000; amount += 1000) {
+                decisionEngine.calculateApprovedLoan(personalCode, amount, 12);
+                decisionEngine.calculateApprovedLoan(personalCode, amount, 36);
+            }
+        }
+        decisionEngine.calculateApprovedLoan("50307172740", 20000L, 12);
+        // Unhyphenated Latvian codes and Lithuanian codes only parse with their country.
+        decisionEngine.calculateApprovedLoan("LV", "17070322744", 4000L, 12);
+        decisionEngine.calculateApprovedLoan("LT", "50307172740", 4000L, 12);
+        auditLog.close();
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Test
+    void testReplayUnderSamePolicyChangesNothing() throws IOException {
+        AuditReplay.Result result = new AuditReplay(ScoringPolicy.DEFAULTS).replay(directory, new PrintStream(new ByteArrayOutputStream()), 10);
+
+        assertEquals(93, result.replayed());
+        assertEquals(0, result.changed());
+        assertEquals(0, result.corrupted());
+    }
+
+    @Test
+    void testReplayUnderChangedPolicyReportsChangedDecisions() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        Properties properties = new Properties();
+        properties.setProperty("version", "2");
+        properties.setProperty("loan-amount.maximum", "8000");
+
+        AuditReplay.Result result = new AuditReplay(ScoringPolicy.of(properties)).replay(directory, new PrintStream(out), 1000);
+
+        String changes = out.toString(StandardCharsets.UTF_8);
+        assertTrue(result.changed() > 0);
+        assertTrue(changes.contains("35006069515 country=EE amount=9000 period=12 policy=0: approved 10000 for 12 months -> invalid LOAN_AMOUNT"));
+        assertTrue(changes.contains("35006069515 country=EE amount=2000 period=12 policy=0: approved 10000 for 12 months -> approved 8000 for 12 months"));
+        // Decisions that ended with an invalid personal ID code do not depend on the loan bounds.
+        assertFalse(changes.contains("12345678901"));
+    }
+
+    @Test
+    void testCountryOfCodeIsRecorded() throws IOException {
+        List<String> countries = new ArrayList<>();
+        AuditJournalReader.read(directory, record -> countries.add(record.country() + " " + record.personalCode()));
+
+        assertEquals("EE 37605030299", countries.get(0));
+        assertTrue(countries.contains("null 12345678901"));
+        assertEquals(List.of("LV 17070322744", "LT 50307172740"), countries.subList(91, 93));
+    }
+}
@@ -0,0 +1,107 @@
+package ee.taltech.inbankbackend.audit;
+
+import ee.taltech.inbankbackend.service.DecisionOutcome;
+import ee.taltech.inbankbackend.service.RejectionReason;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32C;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AuditRingBufferTest {
+
+    private static final int PRODUCERS = 4;
+    private static final int RECORDS_PER_PRODUCER = 20_000;
+
+    @Test
+    void testConcurrentProducersAreDrainedInSequenceOrder() throws Exception {
+        AuditRingBuffer ring = new AuditRingBuffer(64, 100);
+        ExecutorService executor = Executors.newFixedThreadPool(PRODUCERS);
+        int[] periodCounts = new int[PRODUCERS];
+        try {
+            List<Future<?>> producers = new ArrayList<>();
+            for (int producer = 0; producer < PRODUCERS; producer++) {
+                int period = producer;
+                producers.add(executor.submit(() -> {
+                    for (int i = 0; i < RECORDS_PER_PRODUCER; i++) {
+                        assertTrue(ring.append(0, 1, "EE", "50307172740", 4000L, period, 1, 100,
+                                DecisionOutcome.Rejected.of(RejectionReason.NO_VALID_LOAN)));
+                    }
+                }));
+            }
+
+            ByteBuffer batch = ByteBuffer.allocate(16 * AuditRecord.LENGTH);
+            CRC32C crc = new CRC32C();
+            long expectedSequence = 100;
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+            while (!(producers.stream().allMatch(Future::isDone) && ring.isEmpty()) && System.nanoTime() < deadline) {
+                batch.clear();
+                int count = ring.drainTo(batch);
+                for (int i = 0; i < count; i++) {
+                    int index = i * AuditRecord.LENGTH;
+                    AuditRecord.seal(batch, index, crc);
+                    assertTrue(AuditRecord.isValid(batch, index, crc));
+                    AuditRecord record = AuditRecord.read(batch, index);
+                    assertEquals(expectedSequence++, record.sequence());
+                    periodCounts[record.loanRequestedPeriod()]++;
+                }
+            }
+            for (Future<?> producer : producers) {
+                producer.get(10, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertTrue(ring.isEmpty());
+        int[] appended = new int[PRODUCERS];
+        Arrays.fill(appended, RECORDS_PER_PRODUCER);
+        assertArrayEquals(appended, periodCounts);
+        assertEquals(0, ring.getOverflowQueued());
+    }
+
+    @Test
+    void testFullRingOverflowsWithoutWaiting() {
+        AuditRingBuffer ring = new AuditRingBuffer(2, 0);
+        DecisionOutcome outcome = DecisionOutcome.Rejected.of(RejectionReason.NO_VALID_LOAN);
+
+        assertTrue(ring.append(0, 1, "EE", "50307172740", 4000L, 12, 1, 100, outcome));
+        assertTrue(ring.append(0, 1, "EE", "50307172740", 4000L, 24, 1, 100, outcome));
+        assertTrue(ring.append(0, 1, "EE", "50307172740", 4000L, 36, 1, 100, outcome));
+        assertEquals(1, ring.getOverflowed());
+        assertEquals(1, ring.getOverflowQueued());
+
+        ByteBuffer batch = ByteBuffer.allocate(4 * AuditRecord.LENGTH);
+        assertEquals(3, ring.drainTo(batch));
+        assertEquals(0, ring.getOverflowQueued());
+        assertTrue(ring.append(0, 1, "EE", "50307172740", 4000L, 48, 1, 100, outcome));
+        assertEquals(1, ring.drainTo(batch));
+        assertTrue(ring.isEmpty());
+
+        for (int i = 0; i < 4; i++) {
+            AuditRecord record = AuditRecord.read(batch, i * AuditRecord.LENGTH);
+            assertEquals(i, record.sequence());
+            assertEquals(12 * (i + 1), record.loanRequestedPeriod());
+        }
+    }
+
+    @Test
+    void testClosedRingDropsRecords() {
+        AuditRingBuffer ring = new AuditRingBuffer(2, 0);
+        ring.close();
+
+        assertFalse(ring.append(0, 1, "EE", "50307172740", 4000L, 12, 1, 100, DecisionOutcome.Rejected.of(RejectionReason.NO_VALID_LOAN)));
+        assertTrue(ring.isEmpty());
+    }
+}
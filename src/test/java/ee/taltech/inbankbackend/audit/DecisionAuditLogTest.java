@@ -0,0 +1,227 @@
+package ee.taltech.inbankbackend.audit;
+
+import ee.taltech.inbankbackend.service.Decision;
+import ee.taltech.inbankbackend.service.DecisionOutcome;
+import ee.taltech.inbankbackend.service.InvalidField;
+import ee.taltech.inbankbackend.service.RejectionReason;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.actuate.health.Status;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DecisionAuditLogTest {
+
+    private static final int SEGMENT_SIZE = 10 * AuditRecord.LENGTH;
+    private static final int RING_SIZE = 64;
+
+    private Path directory;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        directory = Files.createTempDirectory("decision-audit");
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Test
+    void testRecordsAreReadBack() throws Exception {
+        long before = System.currentTimeMillis();
+        DecisionAuditLog auditLog = new DecisionAuditLog(directory, SEGMENT_SIZE, RING_SIZE, 1000);
+        auditLog.append("EE", "50307172740", 4000L, 12, 1, 100, 3, new DecisionOutcome.Approved(new Decision(2000, 20, null)));
+        auditLog.append("LT", "37605030299", 4000L, 12, 0, 0, 3, DecisionOutcome.Rejected.of(RejectionReason.NO_VALID_LOAN));
+        auditLog.append(null, "12345678901234567890", null, 12, -1, -1, 3, DecisionOutcome.Invalid.of(InvalidField.PERSONAL_CODE));
+        auditLog.close();
+
+        List<AuditRecord> records = readAll();
+
+        assertEquals(3, records.size());
+        AuditRecord approved = records.get(0);
+        assertEquals(0, approved.sequence());
+        assertTrue(approved.timestampMillis() >= before);
+        assertEquals(3, approved.policyVersion());
+        assertEquals("EE", approved.country());
+        assertEquals("50307172740", approved.personalCode());
+        assertEquals(Long.valueOf(4000), approved.loanRequestedAmount());
+        assertEquals(12, approved.loanRequestedPeriod());
+        assertEquals(1, approved.segmentIndex());
+        assertEquals(100, approved.creditModifier());
+        Decision decision = assertInstanceOf(DecisionOutcome.Approved.class, approved.outcome()).decision();
+        assertEquals(2000, decision.getLoanAmount());
+        assertEquals(20, decision.getLoanPeriod());
+
+        assertEquals(DecisionOutcome.Rejected.of(RejectionReason.NO_VALID_LOAN), records.get(1).outcome());
+        assertEquals(0, records.get(1).creditModifier());
+        assertEquals("LT", records.get(1).country());
+
+        AuditRecord invalid = records.get(2);
+        assertEquals(DecisionOutcome.Invalid.of(InvalidField.PERSONAL_CODE), invalid.outcome());
+        assertNull(invalid.country());
+        assertEquals("1234567890123", invalid.personalCode());
+        assertNull(invalid.loanRequestedAmount());
+        assertEquals(-1, invalid.segmentIndex());
+        assertEquals(Status.UP, new DecisionAuditHealthIndicator(auditLog).health().getStatus());
+    }
+
+    @Test
+    void testMissingPersonalCodeIsRecordedAndLaterRecordsAreWritten() throws Exception {
+        DecisionAuditLog auditLog = new DecisionAuditLog(directory, SEGMENT_SIZE, RING_SIZE, 1000);
+        auditLog.append("EE", null, 4000L, 12, -1, -1, 0, DecisionOutcome.Invalid.of(InvalidField.PERSONAL_CODE));
+        for (int i = 0; i < 8; i++) {
+            auditLog.append("EE", "50307172740", 4000L, 12 + i, 1, 100, 0, DecisionOutcome.Rejected.of(RejectionReason.NO_VALID_LOAN));
+        }
+        auditLog.close();
+
+        List<AuditRecord> records = readAll();
+
+        assertEquals(9, records.size());
+        assertEquals("", records.get(0).personalCode());
+        assertEquals(DecisionOutcome.Invalid.of(InvalidField.PERSONAL_CODE), records.get(0).outcome());
+        assertEquals(19, records.get(8).loanRequestedPeriod());
+        assertEquals(0, auditLog.getDropped());
+    }
+
+    @Test
+    void testRecordThatCannotBeWrittenIsLostAndLaterRecordsAreWritten() throws Exception {
+        DecisionAuditLog auditLog = new DecisionAuditLog(directory, SEGMENT_SIZE, RING_SIZE, 1000);
+        auditLog.append("EE", "50307172740", 4000L, 12, 1, 100, 0, null);
+        for (int i = 0; i < 8; i++) {
+            auditLog.append("EE", "50307172740", 4000L, 12 + i, 1, 100, 0, DecisionOutcome.Rejected.of(RejectionReason.NO_VALID_LOAN));
+        }
+        auditLog.close();
+
+        List<AuditRecord> records = new ArrayList<>();
+        AuditJournalReader.Result result = AuditJournalReader.read(directory, records::add);
+
+        assertEquals(8, result.records());
+        assertEquals(1, result.lost());
+        assertEquals(0, result.corrupted());
+        assertEquals(1, records.get(0).sequence());
+        assertEquals(1, auditLog.getDropped());
+        assertEquals(Status.DOWN, new DecisionAuditHealthIndicator(auditLog).health().getStatus());
+    }
+
+    @Test
+    void testRecordsThatDoNotFitTheRingAreWritten() throws Exception {
+        DecisionAuditLog auditLog = new DecisionAuditLog(directory, SEGMENT_SIZE, 2, 1000);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> producers = new ArrayList<>();
+            for (int producer = 0; producer < 4; producer++) {
+                producers.add(executor.submit(() -> {
+                    for (int i = 0; i < 500; i++) {
+                        auditLog.append("EE", "50307172740", 4000L, 12, 1, 100, 0, DecisionOutcome.Rejected.of(RejectionReason.NO_VALID_LOAN));
+                    }
+                }));
+            }
+            for (Future<?> producer : producers) {
+                producer.get(10, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        auditLog.close();
+
+        List<AuditRecord> records = readAll();
+        assertEquals(2000, records.size());
+        for (int i = 0; i < records.size(); i++) {
+            assertEquals(i, records.get(i).sequence());
+        }
+        assertEquals(0, auditLog.getDropped());
+        assertEquals(0, auditLog.getOverflowQueued());
+    }
+
+    @Test
+    void testRecordAppendedAfterCloseIsCountedAsDropped() throws Exception {
+        DecisionAuditLog auditLog = new DecisionAuditLog(directory, SEGMENT_SIZE, RING_SIZE, 1000);
+        auditLog.append("EE", "50307172740", 4000L, 12, 1, 100, 0, DecisionOutcome.Rejected.of(RejectionReason.NO_VALID_LOAN));
+        auditLog.close();
+        auditLog.append("EE", "50307172740", 4000L, 24, 1, 100, 0, DecisionOutcome.Rejected.of(RejectionReason.NO_VALID_LOAN));
+
+        assertEquals(1, readAll().size());
+        assertEquals(1, auditLog.getDropped());
+        assertEquals(Status.DOWN, new DecisionAuditHealthIndicator(auditLog).health().getStatus());
+    }
+
+    @Test
+    void testSegmentsRotateAndSequenceContinuesAfterReopening() throws Exception {
+        DecisionAuditLog auditLog = new DecisionAuditLog(directory, SEGMENT_SIZE, RING_SIZE, 1000);
+        for (int i = 0; i < 25; i++) {
+            auditLog.append("EE", "50307172740", 2000L + i * 100, 12, 1, 100, 0, DecisionOutcome.Rejected.of(RejectionReason.NO_VALID_LOAN));
+        }
+        auditLog.close();
+
+        auditLog = new DecisionAuditLog(directory, SEGMENT_SIZE, RING_SIZE, 1000);
+        for (int i = 0; i < 10; i++) {
+            auditLog.append("EE", "50307172740", 5000L, 12, 1, 100, 0, DecisionOutcome.Rejected.of(RejectionReason.NO_VALID_LOAN));
+        }
+        auditLog.close();
+
+        List<AuditRecord> records = readAll();
+        assertEquals(35, records.size());
+        for (int i = 0; i < records.size(); i++) {
+            assertEquals(i, records.get(i).sequence());
+        }
+        assertEquals(List.of(AuditJournalReader.segmentName(0), AuditJournalReader.segmentName(10),
+                        AuditJournalReader.segmentName(20), AuditJournalReader.segmentName(30)),
+                AuditJournalReader.segments(directory).stream().map(path -> path.getFileName().toString()).toList());
+    }
+
+    @Test
+    void testCorruptedRecordIsSkipped() throws Exception {
+        DecisionAuditLog auditLog = new DecisionAuditLog(directory, SEGMENT_SIZE, RING_SIZE, 1000);
+        for (int i = 0; i < 3; i++) {
+            auditLog.append("EE", "50307172740", 4000L, 12 + i, 1, 100, 0, DecisionOutcome.Rejected.of(RejectionReason.NO_VALID_LOAN));
+        }
+        auditLog.close();
+
+        try (RandomAccessFile file = new RandomAccessFile(directory.resolve(AuditJournalReader.segmentName(0)).toFile(), "rw")) {
+            file.seek(AuditRecord.LENGTH + 40);
+            file.writeInt(48);
+        }
+
+        List<AuditRecord> records = new ArrayList<>();
+        AuditJournalReader.Result result = AuditJournalReader.read(directory, records::add);
+
+        assertEquals(2, result.records());
+        assertEquals(1, result.corrupted());
+        assertEquals(12, records.get(0).loanRequestedPeriod());
+        assertEquals(14, records.get(1).loanRequestedPeriod());
+    }
+
+    @Test
+    void testWithoutDirectoryNothingIsKept() throws Exception {
+        DecisionAuditLog auditLog = new DecisionAuditLog((Path) null, SEGMENT_SIZE, RING_SIZE, 1000);
+        auditLog.append("EE", "50307172740", 4000L, 12, 1, 100, 0, DecisionOutcome.Rejected.of(RejectionReason.NO_VALID_LOAN));
+        auditLog.close();
+
+        assertEquals(0, auditLog.getDropped());
+        assertTrue(AuditJournalReader.segments(directory).isEmpty());
+    }
+
+    private List<AuditRecord> readAll() throws IOException {
+        List<AuditRecord> records = new ArrayList<>();
+        AuditJournalReader.Result result = AuditJournalReader.read(directory, records::add);
+        assertEquals(0, result.corrupted());
+        return records;
+    }
+}
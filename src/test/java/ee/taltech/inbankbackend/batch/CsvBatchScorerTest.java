@@ -0,0 +1,93 @@
+package ee.taltech.inbankbackend.batch;
+
+import ee.taltech.inbankbackend.service.DecisionEngine;
+import ee.taltech.inbankbackend.service.LoanLimitSolver;
+import ee.taltech.inbankbackend.service.OfferTableProvider;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class CsvBatchScorerTest {
+
+    private DecisionEngine decisionEngine;
+    private Path directory;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        LoanLimitSolver loanLimitSolver = new LoanLimitSolver();
+        decisionEngine = DecisionEngine.builder(loanLimitSolver, new OfferTableProvider(loanLimitSolver)).build();
+        directory = Files.createTempDirectory("csv-batch-scorer");
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Test
+    void testScoresEveryRowInOrder() throws Exception {
+        Path input = write("input.csv", """
+                personalCode,loanAmount,loanPeriod
+                50307172740,4000,12
+                12345678901,4000,12\r
+                37605030299,4000,12
+
+                35006069515,4000,not-a-number
+                """);
+        Path output = directory.resolve("output.csv");
+
+        CsvBatchScorer.Result result = new CsvBatchScorer(decisionEngine, 2).score(input, output);
+
+        assertEquals(4, result.rows());
+        assertEquals("""
+                personalCode,loanAmount,loanPeriod,approvedLoanAmount,approvedLoanPeriod,errorMessage
+                50307172740,4000,12,4000,40,
+                12345678901,4000,12,,,Invalid personal ID code!
+                37605030299,4000,12,,,No valid loan found!
+                35006069515,4000,not-a-number,,,Invalid decision request!
+                """, Files.readString(output));
+    }
+
+    @Test
+    void testOutputDoesNotDependOnWorkerCount() throws Exception {
+        String[] personalCodes = {"50307172740", "38411266610", "35006069515", "37605030299", "12345678901"};
+        StringBuilder csv = new StringBuilder();
+        for (int i = 0; i < 5000; i++) {
+            csv.append(personalCodes[i % personalCodes.length]).append(',')
+                    .append(2000 + (i * 37) % 8001).append(',')
+                    .append(12 + i % 37).append('\n');
+        }
+        Path input = write("input.csv", csv.toString());
+
+        Path singleWorker = directory.resolve("single.csv");
+        Path manyWorkers = directory.resolve("many.csv");
+        new CsvBatchScorer(decisionEngine, 1, 4096).score(input, singleWorker);
+        new CsvBatchScorer(decisionEngine, 8, 1000).score(input, manyWorkers);
+
+        assertArrayEquals(Files.readAllBytes(singleWorker), Files.readAllBytes(manyWorkers));
+    }
+
+    @Test
+    void testChunksInFlightAreBoundedByHeap() {
+        long chunkHeap = (long) CsvBatchScorer.DEFAULT_CHUNK_SIZE * CsvBatchScorer.CHUNK_HEAP_PER_INPUT_BYTE;
+
+        assertEquals(16, CsvBatchScorer.maximumInFlight(8, CsvBatchScorer.DEFAULT_CHUNK_SIZE, 4096L * 1024 * 1024));
+        assertEquals(3, CsvBatchScorer.maximumInFlight(8, CsvBatchScorer.DEFAULT_CHUNK_SIZE, 4 * 3 * chunkHeap));
+        assertEquals(1, CsvBatchScorer.maximumInFlight(8, CsvBatchScorer.DEFAULT_CHUNK_SIZE, chunkHeap));
+    }
+
+    private Path write(String name, String content) throws IOException {
+        return Files.writeString(directory.resolve(name), content);
+    }
+}
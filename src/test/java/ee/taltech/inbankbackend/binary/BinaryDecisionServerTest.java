@@ -0,0 +1,173 @@
+package ee.taltech.inbankbackend.binary;
+
+import ee.taltech.inbankbackend.exceptions.CreditInfoUnavailableException;
+import ee.taltech.inbankbackend.service.CreditInfoProvider;
+import ee.taltech.inbankbackend.service.DecisionEngine;
+import ee.taltech.inbankbackend.service.LoanLimitSolver;
+import ee.taltech.inbankbackend.service.OfferTableProvider;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BinaryDecisionServerTest {
+
+    private static final String[] PERSONAL_CODES = {
+            "37605030299", "50307172740", "38411266610", "35006069515", "12345678901", "62302155730", "5030717274012345"
+    };
+
+    private final LoanLimitSolver loanLimitSolver = new LoanLimitSolver();
+    private final ScheduledExecutorService registry = Executors.newSingleThreadScheduledExecutor();
+    private BinaryDecisionServer server;
+
+    @AfterEach
+    void tearDown() throws IOException {
+        if (server != null) {
+            server.close();
+        }
+        registry.shutdownNow();
+    }
+
+    @Test
+    void testPipelinedRequestsMatchEngineOutcomes() throws Exception {
+        DecisionEngine decisionEngine = DecisionEngine.builder(loanLimitSolver, new OfferTableProvider(loanLimitSolver)).build();
+        server = new BinaryDecisionServer(decisionEngine, 0, 2, 64);
+
+        Random random = new Random(7);
+        int count = 5000;
+        ByteBuffer requests = ByteBuffer.allocate(count * BinaryDecisionProtocol.REQUEST_FRAME_LENGTH);
+        Map<Integer, BinaryDecisionProtocol.Response> expected = new HashMap<>();
+        for (int requestId = 0; requestId < count; requestId++) {
+            String personalCode = PERSONAL_CODES[random.nextInt(PERSONAL_CODES.length)];
+            int loanAmount = 1500 + random.nextInt(9000);
+            int loanPeriod = 10 + random.nextInt(42);
+            BinaryDecisionProtocol.writeRequest(requests, requestId, personalCode, loanAmount, loanPeriod);
+            ByteBuffer response = ByteBuffer.allocate(BinaryDecisionProtocol.RESPONSE_FRAME_LENGTH);
+            BinaryDecisionProtocol.writeResponse(response, requestId,
+                    decisionEngine.calculateApprovedLoan(personalCode, (long) loanAmount, loanPeriod));
+            expected.put(requestId, BinaryDecisionProtocol.readResponse(response.flip()));
+        }
+
+        assertEquals(expected, exchange(requests.flip(), count));
+    }
+
+    @Test
+    void testDelayedLookupsAreAnsweredWhenTheyComplete() throws Exception {
+        CreditInfoProvider slowRegistry = (personalCode, parsedPersonalCode) -> {
+            CompletableFuture<Integer> creditModifier = new CompletableFuture<>();
+            registry.schedule(() -> creditModifier.complete(1000), 1, TimeUnit.MILLISECONDS);
+            return creditModifier;
+        };
+        server = new BinaryDecisionServer(DecisionEngine.builder(loanLimitSolver, new OfferTableProvider(loanLimitSolver))
+                .creditInfoProvider(slowRegistry)
+                .build(), 0, 1, 16);
+
+        int count = 300;
+        ByteBuffer requests = ByteBuffer.allocate(count * BinaryDecisionProtocol.REQUEST_FRAME_LENGTH);
+        for (int requestId = 0; requestId < count; requestId++) {
+            BinaryDecisionProtocol.writeRequest(requests, requestId, "50307172740", 4000, 12);
+        }
+
+        Map<Integer, BinaryDecisionProtocol.Response> responses = exchange(requests.flip(), count);
+
+        assertEquals(count, responses.size());
+        for (BinaryDecisionProtocol.Response response : responses.values()) {
+            assertEquals(new BinaryDecisionProtocol.Response(response.requestId(), BinaryDecisionProtocol.STATUS_APPROVED,
+                    (byte) 0, 10000, 12), response);
+        }
+    }
+
+    @Test
+    void testFailedLookupIsAnsweredWithError() throws Exception {
+        CreditInfoProvider unavailable = (personalCode, parsedPersonalCode) ->
+                CompletableFuture.failedFuture(new CreditInfoUnavailableException("Credit registry unavailable"));
+        server = new BinaryDecisionServer(DecisionEngine.builder(loanLimitSolver, new OfferTableProvider(loanLimitSolver))
+                .creditInfoProvider(unavailable)
+                .build(), 0, 1, 16);
+
+        ByteBuffer requests = ByteBuffer.allocate(2 * BinaryDecisionProtocol.REQUEST_FRAME_LENGTH);
+        BinaryDecisionProtocol.writeRequest(requests, 1, "50307172740", 4000, 12);
+        BinaryDecisionProtocol.writeRequest(requests, 2, "12345678901", 4000, 12);
+
+        Map<Integer, BinaryDecisionProtocol.Response> responses = exchange(requests.flip(), 2);
+
+        assertEquals(BinaryDecisionProtocol.STATUS_ERROR, responses.get(1).status());
+        assertEquals(BinaryDecisionProtocol.STATUS_INVALID, responses.get(2).status());
+        assertEquals(1, responses.get(2).detail());
+    }
+
+    @Test
+    void testCountryOfRequestSelectsPersonalCodeScheme() throws Exception {
+        server = new BinaryDecisionServer(DecisionEngine.builder(loanLimitSolver, new OfferTableProvider(loanLimitSolver)).build(),
+                0, 1, 16);
+
+        ByteBuffer requests = ByteBuffer.allocate(3 * BinaryDecisionProtocol.REQUEST_FRAME_LENGTH);
+        BinaryDecisionProtocol.writeRequest(requests, 1, "17070322744", 4000, 12);
+        BinaryDecisionProtocol.writeRequest(requests, 2, "LV", "17070322744", 4000, 12);
+        BinaryDecisionProtocol.writeRequest(requests, 3, "LT", "50307172740", 4000, 12);
+
+        Map<Integer, BinaryDecisionProtocol.Response> responses = exchange(requests.flip(), 3);
+
+        // Unhyphenated Latvian codes are only told apart from Estonian ones by the country.
+        assertEquals(BinaryDecisionProtocol.STATUS_INVALID, responses.get(1).status());
+        assertEquals(new BinaryDecisionProtocol.Response(2, BinaryDecisionProtocol.STATUS_APPROVED, (byte) 0, 4000, 40),
+                responses.get(2));
+        assertEquals(BinaryDecisionProtocol.STATUS_APPROVED, responses.get(3).status());
+    }
+
+    @Test
+    void testInvalidFrameLengthClosesConnection() throws Exception {
+        server = new BinaryDecisionServer(DecisionEngine.builder(loanLimitSolver, new OfferTableProvider(loanLimitSolver)).build(),
+                0, 1, 16);
+
+        try (SocketChannel channel = SocketChannel.open(new InetSocketAddress("localhost", server.getPort()))) {
+            channel.write(ByteBuffer.allocate(8).putInt(5).putInt(0).flip());
+
+            assertEquals(-1, channel.read(ByteBuffer.allocate(BinaryDecisionProtocol.RESPONSE_FRAME_LENGTH)));
+        }
+    }
+
+    /**
+     * Writes all requests from another thread while the responses are read, like a pipelining client.
+     */
+    private Map<Integer, BinaryDecisionProtocol.Response> exchange(ByteBuffer requests, int count) throws Exception {
+        try (SocketChannel channel = SocketChannel.open(new InetSocketAddress("localhost", server.getPort()))) {
+            CompletableFuture<Void> written = CompletableFuture.runAsync(() -> {
+                try {
+                    while (requests.hasRemaining()) {
+                        channel.write(requests);
+                    }
+                } catch (IOException e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+
+            ByteBuffer responses = ByteBuffer.allocate(count * BinaryDecisionProtocol.RESPONSE_FRAME_LENGTH);
+            while (responses.hasRemaining()) {
+                assertTrue(channel.read(responses) >= 0, "connection closed early");
+            }
+            written.get(10, TimeUnit.SECONDS);
+
+            Map<Integer, BinaryDecisionProtocol.Response> byRequestId = new HashMap<>();
+            responses.flip();
+            for (int i = 0; i < count; i++) {
+                BinaryDecisionProtocol.Response response = BinaryDecisionProtocol.readResponse(responses);
+                assertNull(byRequestId.put(response.requestId(), response), "duplicate response " + response.requestId());
+            }
+            return byRequestId;
+        }
+    }
+}
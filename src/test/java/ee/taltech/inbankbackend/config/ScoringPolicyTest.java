@@ -0,0 +1,70 @@
+package ee.taltech.inbankbackend.config;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.Properties;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ScoringPolicyTest {
+
+    @Test
+    void testDefaultsAreTheEngineConstants() {
+        ScoringPolicy defaults = ScoringPolicy.DEFAULTS;
+
+        assertEquals(DecisionEngineConstants.MINIMUM_LOAN_AMOUNT, defaults.getMinimumLoanAmount());
+        assertEquals(DecisionEngineConstants.MAXIMUM_LOAN_AMOUNT, defaults.getMaximumLoanAmount());
+        assertEquals(DecisionEngineConstants.MINIMUM_LOAN_PERIOD, defaults.getMinimumLoanPeriod());
+        assertEquals(DecisionEngineConstants.MAXIMUM_LOAN_PERIOD, defaults.getMaximumLoanPeriod());
+        assertEquals(DecisionEngineConstants.CURRENT_AVERAGE_LIFESPAN_IN_EUROPE, defaults.getAverageLifespan());
+        assertArrayEquals(new int[] {0, 100, 300, 1000}, defaults.getSegmentCreditModifiers());
+    }
+
+    @Test
+    void testMissingKeysUseDefaults() throws IOException {
+        ScoringPolicy policy = ScoringPolicy.of(properties("""
+                version=7
+                loan-period.maximum=60
+                segment.credit-modifiers=0, 150 ,400
+                """));
+
+        assertEquals(7, policy.getVersion());
+        assertEquals(60, policy.getMaximumLoanPeriod());
+        assertEquals(DecisionEngineConstants.MINIMUM_LOAN_PERIOD, policy.getMinimumLoanPeriod());
+        assertEquals(DecisionEngineConstants.MAXIMUM_LOAN_AMOUNT, policy.getMaximumLoanAmount());
+        assertEquals(3, policy.getSegmentCount());
+        assertEquals(150, policy.getSegmentCreditModifier(1));
+    }
+
+    @Test
+    void testInvalidPoliciesAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> ScoringPolicy.of(properties("loan-amount.maximum=8000")));
+        assertThrows(IllegalArgumentException.class, () -> ScoringPolicy.of(properties("version=1\nloan-amount.maximum=8050")));
+        assertThrows(IllegalArgumentException.class, () -> ScoringPolicy.of(properties("version=1\nloan-period.maximum=300")));
+        assertThrows(IllegalArgumentException.class, () -> ScoringPolicy.of(properties("version=1\nloan-period.minimum=50")));
+        assertThrows(IllegalArgumentException.class, () -> ScoringPolicy.of(properties("version=1\nsegment.credit-modifiers=0,-100")));
+        assertThrows(IllegalArgumentException.class, () -> ScoringPolicy.of(properties("version=1\naverage-lifespan=many")));
+    }
+
+    @Test
+    void testPoliciesWithTheSameValuesAreEqual() throws IOException {
+        ScoringPolicy first = ScoringPolicy.of(properties("version=3\nsegment.credit-modifiers=0,200"));
+        ScoringPolicy second = ScoringPolicy.DEFAULTS.withSegmentCreditModifiers(0, 200);
+
+        assertNotEquals(first, second);
+        assertEquals(first, ScoringPolicy.of(properties("version=3\nsegment.credit-modifiers=0,200")));
+        assertEquals(ScoringPolicy.DEFAULTS, second.withSegmentCreditModifiers(0, 100, 300, 1000));
+    }
+
+    private static Properties properties(String content) {
+        Properties properties = new Properties();
+        try {
+            properties.load(new StringReader(content));
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        return properties;
+    }
+}
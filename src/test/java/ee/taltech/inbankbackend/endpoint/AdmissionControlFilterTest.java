@@ -0,0 +1,90 @@
+package ee.taltech.inbankbackend.endpoint;
+
+import ee.taltech.inbankbackend.service.Decision;
+import ee.taltech.inbankbackend.service.DecisionEngine;
+import ee.taltech.inbankbackend.service.DecisionOutcome;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * This class holds integration tests for admission control of the /loan endpoints.
+ * Every client may send a single request per minute, so the second request of a client is rate limited.
+ * Clients are told apart by their address or user, the X-Client-Id header they send is ignored.
+ */
+@SpringBootTest(properties = {
+        "decision-engine.admission.enabled=true",
+        "decision-engine.admission.client-rate=0.0166",
+        "decision-engine.admission.client-burst=1"
+})
+@AutoConfigureMockMvc
+public class AdmissionControlFilterTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @MockBean
+    private DecisionEngine decisionEngine;
+
+    @Test
+    public void givenClientOverRate_whenRequestDecision_thenReturnsTooManyRequests() throws Exception {
+        when(decisionEngine.calculateApprovedLoanAsync(anyString(), anyLong(), anyInt()))
+                .thenReturn(CompletableFuture.completedFuture(new DecisionOutcome.Approved(new Decision(4000, 12, null))));
+
+        MvcResult admitted = mockMvc.perform(decision("10.0.0.1", "partner-a")).andReturn();
+        mockMvc.perform(asyncDispatch(admitted))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(decision("10.0.0.1", "partner-a"))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().exists("Retry-After"))
+                .andExpect(jsonPath("$.errorMessage").value(ErrorResponses.RATE_LIMITED_MESSAGE));
+        // A new client ID does not get a new bucket
+        mockMvc.perform(decision("10.0.0.1", "partner-b"))
+                .andExpect(status().isTooManyRequests());
+
+        MvcResult otherClient = mockMvc.perform(decision("10.0.0.2", "partner-a")).andReturn();
+        mockMvc.perform(asyncDispatch(otherClient))
+                .andExpect(status().isOk());
+
+        MvcResult user = mockMvc.perform(decision("10.0.0.1", "partner-a").principal(() -> "partner-user")).andReturn();
+        mockMvc.perform(asyncDispatch(user))
+                .andExpect(status().isOk());
+        mockMvc.perform(decision("10.0.0.3", "partner-c").principal(() -> "partner-user"))
+                .andExpect(status().isTooManyRequests());
+
+        assertEquals(3.0, meterRegistry.get("admission.rejections").tag("reason", "rate_limited").counter().count());
+    }
+
+    private static MockHttpServletRequestBuilder decision(String remoteAddress, String clientId) {
+        return post("/loan/decision")
+                .with(request -> {
+                    request.setRemoteAddr(remoteAddress);
+                    return request;
+                })
+                .header("X-Client-Id", clientId)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"personalCode\":\"50307172740\",\"loanAmount\":4000,\"loanPeriod\":12}");
+    }
+}
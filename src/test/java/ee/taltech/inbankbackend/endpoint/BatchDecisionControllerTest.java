@@ -0,0 +1,87 @@
+package ee.taltech.inbankbackend.endpoint;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * This class holds integration tests for the /loan/decisions batch endpoint.
+ */
+@SpringBootTest(properties = "decision-engine.batch.max-size=3")
+@AutoConfigureMockMvc
+public class BatchDecisionControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    private ObjectMapper objectMapper;
+
+    @BeforeEach
+    public void setup() {
+        objectMapper = new ObjectMapper();
+    }
+
+    /**
+     * This test ensures that every request in a batch gets its own result, in the order of the requests,
+     * and that an invalid request does not fail the rest of the batch.
+     */
+    @Test
+    public void givenMixedBatch_whenRequestDecisions_thenReturnsResultsInOrder() throws Exception {
+        List<DecisionRequest> requests = List.of(
+                new DecisionRequest("50307172740", 4000L, 12),
+                new DecisionRequest("12345678901", 4000L, 12),
+                new DecisionRequest("37605030299", 4000L, 12));
+
+        mockMvc.perform(post("/loan/decisions")
+                        .content(objectMapper.writeValueAsString(requests))
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(3))
+                .andExpect(jsonPath("$[0].status").value(200))
+                .andExpect(jsonPath("$[0].loanAmount").value(4000))
+                .andExpect(jsonPath("$[0].loanPeriod").value(40))
+                .andExpect(jsonPath("$[0].errorMessage").isEmpty())
+                .andExpect(jsonPath("$[1].status").value(400))
+                .andExpect(jsonPath("$[1].errorMessage").value("Invalid personal ID code!"))
+                .andExpect(jsonPath("$[2].status").value(200))
+                .andExpect(jsonPath("$[2].loanAmount").isEmpty())
+                .andExpect(jsonPath("$[2].errorMessage").value("No valid loan found!"));
+    }
+
+    /**
+     * This test ensures that a batch over the configured maximum size is rejected as a whole.
+     */
+    @Test
+    public void givenTooLargeBatch_whenRequestDecisions_thenReturnsPayloadTooLarge() throws Exception {
+        DecisionRequest request = new DecisionRequest("50307172740", 4000L, 12);
+        List<DecisionRequest> requests = List.of(request, request, request, request);
+
+        mockMvc.perform(post("/loan/decisions")
+                        .content(objectMapper.writeValueAsString(requests))
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isPayloadTooLarge())
+                .andExpect(jsonPath("$.errorMessage").value("Too many decision requests!"));
+    }
+
+    /**
+     * This test ensures that a body that is not a JSON array of requests returns an HTTP Bad Request (400) response.
+     */
+    @Test
+    public void givenMalformedBatch_whenRequestDecisions_thenReturnsBadRequest() throws Exception {
+        mockMvc.perform(post("/loan/decisions")
+                        .content("{\"personalCode\": \"50307172740\"}")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.errorMessage").value("Invalid decision request!"));
+    }
+}
@@ -0,0 +1,100 @@
+package ee.taltech.inbankbackend.endpoint;
+
+import ee.taltech.inbankbackend.service.CreditModifierCache;
+import ee.taltech.inbankbackend.service.CreditModifierCacheStats;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.test.web.server.LocalManagementPort;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+/**
+ * This class holds integration tests for the credit modifier cache administration endpoint.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = "management.server.port=0")
+public class CreditModifierCacheEndpointTest {
+
+    @LocalServerPort
+    private int serverPort;
+
+    @LocalManagementPort
+    private int managementPort;
+
+    @MockBean
+    private CreditModifierCache creditModifierCache;
+
+    private WebTestClient management;
+
+    @BeforeEach
+    public void setUp() {
+        management = WebTestClient.bindToServer().baseUrl("http://localhost:" + managementPort).build();
+    }
+
+    @Test
+    public void givenCachedCode_whenInvalidate_thenReturnsNoContent() {
+        when(creditModifierCache.invalidate(null, "50307172740")).thenReturn(true);
+
+        invalidate(Map.of("personalCode", "50307172740"))
+                .expectStatus().isNoContent();
+    }
+
+    @Test
+    public void givenUncachedCode_whenInvalidate_thenReturnsNotFound() {
+        when(creditModifierCache.invalidate(null, "50307172740")).thenReturn(false);
+
+        invalidate(Map.of("personalCode", "50307172740"))
+                .expectStatus().isNotFound();
+    }
+
+    @Test
+    public void givenCountry_whenInvalidate_thenInvalidatesCodeOfCountry() {
+        when(creditModifierCache.invalidate("LT", "50307172740")).thenReturn(true);
+
+        invalidate(Map.of("personalCode", "50307172740", "country", "LT"))
+                .expectStatus().isNoContent();
+    }
+
+    @Test
+    public void whenStats_thenReturnsCounters() {
+        when(creditModifierCache.stats()).thenReturn(new CreditModifierCacheStats(5, 2, 1, 1));
+
+        management.get().uri("/actuator/creditmodifiers").exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.hits").isEqualTo(5)
+                .jsonPath("$.misses").isEqualTo(2)
+                .jsonPath("$.evictions").isEqualTo(1)
+                .jsonPath("$.size").isEqualTo(1);
+    }
+
+    @Test
+    public void whenServerPort_thenCacheIsNotAdministered() {
+        WebTestClient server = WebTestClient.bindToServer().baseUrl("http://localhost:" + serverPort).build();
+
+        server.post().uri("/actuator/creditmodifiers")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(Map.of("personalCode", "50307172740"))
+                .exchange()
+                .expectStatus().value(status -> assertFalse(HttpStatusCode.valueOf(status).is2xxSuccessful()));
+        server.delete().uri("/admin/credit-modifiers/50307172740").exchange()
+                .expectStatus().value(status -> assertFalse(HttpStatusCode.valueOf(status).is2xxSuccessful()));
+        verifyNoInteractions(creditModifierCache);
+    }
+
+    private WebTestClient.ResponseSpec invalidate(Map<String, String> body) {
+        return management.post().uri("/actuator/creditmodifiers")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(body)
+                .exchange();
+    }
+}
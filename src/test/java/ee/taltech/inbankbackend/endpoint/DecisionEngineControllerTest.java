@@ -1,43 +1,50 @@
 package ee.taltech.inbankbackend.endpoint;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import ee.taltech.inbankbackend.exceptions.InvalidCustomerAgeException;
 import ee.taltech.inbankbackend.exceptions.InvalidLoanAmountException;
 import ee.taltech.inbankbackend.exceptions.InvalidLoanPeriodException;
 import ee.taltech.inbankbackend.exceptions.InvalidPersonalCodeException;
 import ee.taltech.inbankbackend.exceptions.NoValidLoanException;
 import ee.taltech.inbankbackend.service.Decision;
 import ee.taltech.inbankbackend.service.DecisionEngine;
+import ee.taltech.inbankbackend.service.DecisionOutcome;
+import ee.taltech.inbankbackend.service.InvalidField;
+import ee.taltech.inbankbackend.service.RejectionReason;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
-import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
-import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
-import org.springframework.test.context.junit.jupiter.SpringExtension;
-import org.springframework.test.web.servlet.MockMvc;
-import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
-import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
-import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 /**
- * This class holds integration tests for the DecisionEngineController endpoint.
+ * This class holds the integration tests of the /loan/decision endpoint contract.
+ * They run against both the servlet and the reactive web stack, see the subclasses.
  */
-@SpringBootTest
-@AutoConfigureMockMvc
-@ExtendWith(SpringExtension.class)
-@ExtendWith(MockitoExtension.class)
-public class DecisionEngineControllerTest {
+public abstract class DecisionEngineControllerTest {
 
     @Autowired
-    private MockMvc mockMvc;
+    private WebTestClient webTestClient;
 
     @MockBean
     private DecisionEngine decisionEngine;
@@ -54,24 +61,23 @@ public class DecisionEngineControllerTest {
      */
     @Test
     public void givenValidRequest_whenRequestDecision_thenReturnsExpectedResponse()
-            throws Exception, InvalidLoanPeriodException, NoValidLoanException, InvalidPersonalCodeException,
-            InvalidLoanAmountException {
+            throws Exception {
         Decision decision = new Decision(1000, 12, null);
-        when(decisionEngine.calculateApprovedLoan(anyString(), anyLong(), anyInt())).thenReturn(decision);
+        when(decisionEngine.calculateApprovedLoanAsync(anyString(), anyLong(), anyInt())).thenReturn(CompletableFuture.completedFuture(new DecisionOutcome.Approved(decision)));
 
         DecisionRequest request = new DecisionRequest("1234", 10L, 10);
 
-        MvcResult result = mockMvc.perform(post("/loan/decision")
-                        .content(objectMapper.writeValueAsString(request))
-                        .contentType(MediaType.APPLICATION_JSON))
-                .andExpect(status().isOk())
-                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
-                .andExpect(jsonPath("$.loanAmount").value(1000))
-                .andExpect(jsonPath("$.loanPeriod").value(12))
-                .andExpect(jsonPath("$.errorMessage").isEmpty())
-                .andReturn();
-
-        DecisionResponse response = objectMapper.readValue(result.getResponse().getContentAsString(), DecisionResponse.class);
+        byte[] body = performDecision(request)
+                .expectStatus().isOk()
+                .expectHeader().contentType(MediaType.APPLICATION_JSON)
+                .expectBody()
+                .jsonPath("$.loanAmount").isEqualTo(1000)
+                .jsonPath("$.loanPeriod").isEqualTo(12)
+                .jsonPath("$.errorMessage").isEmpty()
+                .returnResult()
+                .getResponseBody();
+
+        DecisionResponse response = objectMapper.readValue(body, DecisionResponse.class);
         assert response.getLoanAmount() == 1000;
         assert response.getLoanPeriod() == 12;
         assert response.getErrorMessage() == null;
@@ -83,27 +89,26 @@ public class DecisionEngineControllerTest {
      */
     @Test
     public void givenInvalidPersonalCode_whenRequestDecision_thenReturnsBadRequest()
-            throws Exception, InvalidLoanPeriodException, NoValidLoanException, InvalidPersonalCodeException,
-            InvalidLoanAmountException {
-        when(decisionEngine.calculateApprovedLoan(anyString(), anyLong(), anyInt()))
-                .thenThrow(new InvalidPersonalCodeException("Invalid personal code"));
+            throws Exception {
+        when(decisionEngine.calculateApprovedLoanAsync(anyString(), anyLong(), anyInt()))
+                .thenReturn(CompletableFuture.completedFuture(DecisionOutcome.Invalid.of(InvalidField.PERSONAL_CODE)));
 
         DecisionRequest request = new DecisionRequest("1234", 10L, 10);
 
-        MvcResult result = mockMvc.perform(post("/loan/decision")
-                        .content(objectMapper.writeValueAsString(request))
-                        .contentType(MediaType.APPLICATION_JSON))
-                .andExpect(status().isBadRequest())
-                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
-                .andExpect(jsonPath("$.loanAmount").isEmpty())
-                .andExpect(jsonPath("$.loanPeriod").isEmpty())
-                .andExpect(jsonPath("$.errorMessage").value("Invalid personal code"))
-                .andReturn();
-
-        DecisionResponse response = objectMapper.readValue(result.getResponse().getContentAsString(), DecisionResponse.class);
+        byte[] body = performDecision(request)
+                .expectStatus().isBadRequest()
+                .expectHeader().contentType(MediaType.APPLICATION_JSON)
+                .expectBody()
+                .jsonPath("$.loanAmount").isEmpty()
+                .jsonPath("$.loanPeriod").isEmpty()
+                .jsonPath("$.errorMessage").isEqualTo("Invalid personal ID code!")
+                .returnResult()
+                .getResponseBody();
+
+        DecisionResponse response = objectMapper.readValue(body, DecisionResponse.class);
         assert response.getLoanAmount() == null;
         assert response.getLoanPeriod() == null;
-        assert response.getErrorMessage().equals("Invalid personal code");
+        assert response.getErrorMessage().equals("Invalid personal ID code!");
     }
 
     /**
@@ -112,27 +117,26 @@ public class DecisionEngineControllerTest {
      */
     @Test
     public void givenInvalidLoanAmount_whenRequestDecision_thenReturnsBadRequest()
-            throws Exception, InvalidLoanPeriodException, NoValidLoanException, InvalidPersonalCodeException,
-            InvalidLoanAmountException {
-        when(decisionEngine.calculateApprovedLoan(anyString(), anyLong(), anyInt()))
-                .thenThrow(new InvalidLoanAmountException("Invalid loan amount"));
+            throws Exception {
+        when(decisionEngine.calculateApprovedLoanAsync(anyString(), anyLong(), anyInt()))
+                .thenReturn(CompletableFuture.completedFuture(DecisionOutcome.Invalid.of(InvalidField.LOAN_AMOUNT)));
 
         DecisionRequest request = new DecisionRequest("1234", 10L, 10);
 
-        MvcResult result = mockMvc.perform(post("/loan/decision")
-                        .content(objectMapper.writeValueAsString(request))
-                        .contentType(MediaType.APPLICATION_JSON))
-                .andExpect(status().isBadRequest())
-                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
-                .andExpect(jsonPath("$.loanAmount").isEmpty())
-                .andExpect(jsonPath("$.loanPeriod").isEmpty())
-                .andExpect(jsonPath("$.errorMessage").value("Invalid loan amount"))
-                .andReturn();
-
-        DecisionResponse response = objectMapper.readValue(result.getResponse().getContentAsString(), DecisionResponse.class);
+        byte[] body = performDecision(request)
+                .expectStatus().isBadRequest()
+                .expectHeader().contentType(MediaType.APPLICATION_JSON)
+                .expectBody()
+                .jsonPath("$.loanAmount").isEmpty()
+                .jsonPath("$.loanPeriod").isEmpty()
+                .jsonPath("$.errorMessage").isEqualTo("Invalid loan amount!")
+                .returnResult()
+                .getResponseBody();
+
+        DecisionResponse response = objectMapper.readValue(body, DecisionResponse.class);
         assert response.getLoanAmount() == null;
         assert response.getLoanPeriod() == null;
-        assert response.getErrorMessage().equals("Invalid loan amount");
+        assert response.getErrorMessage().equals("Invalid loan amount!");
     }
 
     /**
@@ -141,27 +145,26 @@ public class DecisionEngineControllerTest {
      */
     @Test
     public void givenInvalidLoanPeriod_whenRequestDecision_thenReturnsBadRequest()
-            throws Exception, InvalidLoanPeriodException, NoValidLoanException, InvalidPersonalCodeException,
-            InvalidLoanAmountException {
-        when(decisionEngine.calculateApprovedLoan(anyString(), anyLong(), anyInt()))
-                .thenThrow(new InvalidLoanPeriodException("Invalid loan period"));
+            throws Exception {
+        when(decisionEngine.calculateApprovedLoanAsync(anyString(), anyLong(), anyInt()))
+                .thenReturn(CompletableFuture.completedFuture(DecisionOutcome.Invalid.of(InvalidField.LOAN_PERIOD)));
 
         DecisionRequest request = new DecisionRequest("1234", 10L, 10);
 
-        MvcResult result = mockMvc.perform(post("/loan/decision")
-                        .content(objectMapper.writeValueAsString(request))
-                        .contentType(MediaType.APPLICATION_JSON))
-                .andExpect(status().isBadRequest())
-                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
-                .andExpect(jsonPath("$.loanAmount").isEmpty())
-                .andExpect(jsonPath("$.loanPeriod").isEmpty())
-                .andExpect(jsonPath("$.errorMessage").value("Invalid loan period"))
-                .andReturn();
-
-        DecisionResponse response = objectMapper.readValue(result.getResponse().getContentAsString(), DecisionResponse.class);
+        byte[] body = performDecision(request)
+                .expectStatus().isBadRequest()
+                .expectHeader().contentType(MediaType.APPLICATION_JSON)
+                .expectBody()
+                .jsonPath("$.loanAmount").isEmpty()
+                .jsonPath("$.loanPeriod").isEmpty()
+                .jsonPath("$.errorMessage").isEqualTo("Invalid loan period!")
+                .returnResult()
+                .getResponseBody();
+
+        DecisionResponse response = objectMapper.readValue(body, DecisionResponse.class);
         assert response.getLoanAmount() == null;
         assert response.getLoanPeriod() == null;
-        assert response.getErrorMessage().equals("Invalid loan period");
+        assert response.getErrorMessage().equals("Invalid loan period!");
     }
 
     /**
@@ -170,27 +173,26 @@ public class DecisionEngineControllerTest {
      */
     @Test
     public void givenNoValidLoan_whenRequestDecision_thenReturnsOK()
-            throws Exception, InvalidLoanPeriodException, NoValidLoanException, InvalidPersonalCodeException,
-            InvalidLoanAmountException {
-        when(decisionEngine.calculateApprovedLoan(anyString(), anyLong(), anyInt()))
-                .thenThrow(new NoValidLoanException("No valid loan available"));
+            throws Exception {
+        when(decisionEngine.calculateApprovedLoanAsync(anyString(), anyLong(), anyInt()))
+                .thenReturn(CompletableFuture.completedFuture(DecisionOutcome.Rejected.of(RejectionReason.NO_VALID_LOAN)));
 
         DecisionRequest request = new DecisionRequest("1234", 1000L, 12);
 
-        MvcResult result = mockMvc.perform(post("/loan/decision")
-                        .content(objectMapper.writeValueAsString(request))
-                        .contentType(MediaType.APPLICATION_JSON))
-                .andExpect(status().isOk())
-                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
-                .andExpect(jsonPath("$.loanAmount").isEmpty())
-                .andExpect(jsonPath("$.loanPeriod").isEmpty())
-                .andExpect(jsonPath("$.errorMessage").value("No valid loan available"))
-                .andReturn();
-
-        DecisionResponse response = objectMapper.readValue(result.getResponse().getContentAsString(), DecisionResponse.class);
+        byte[] body = performDecision(request)
+                .expectStatus().isOk()
+                .expectHeader().contentType(MediaType.APPLICATION_JSON)
+                .expectBody()
+                .jsonPath("$.loanAmount").isEmpty()
+                .jsonPath("$.loanPeriod").isEmpty()
+                .jsonPath("$.errorMessage").isEqualTo("No valid loan found!")
+                .returnResult()
+                .getResponseBody();
+
+        DecisionResponse response = objectMapper.readValue(body, DecisionResponse.class);
         assert response.getLoanAmount() == null;
         assert response.getLoanPeriod() == null;
-        assert response.getErrorMessage().equals("No valid loan available");
+        assert response.getErrorMessage().equals("No valid loan found!");
     }
 
     /**
@@ -199,25 +201,188 @@ public class DecisionEngineControllerTest {
      */
     @Test
     public void givenUnexpectedError_whenRequestDecision_thenReturnsInternalServerError()
-            throws Exception, InvalidLoanPeriodException, NoValidLoanException, InvalidPersonalCodeException,
-            InvalidLoanAmountException {
-        when(decisionEngine.calculateApprovedLoan(anyString(), anyLong(), anyInt())).thenThrow(new RuntimeException());
+            throws Exception {
+        when(decisionEngine.calculateApprovedLoanAsync(anyString(), anyLong(), anyInt()))
+                .thenReturn(CompletableFuture.failedFuture(new RuntimeException()));
 
         DecisionRequest request = new DecisionRequest("1234", 10L, 10);
 
-        MvcResult result = mockMvc.perform(post("/loan/decision")
-                        .content(objectMapper.writeValueAsString(request))
-                        .contentType(MediaType.APPLICATION_JSON))
-                .andExpect(status().isInternalServerError())
-                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
-                .andExpect(jsonPath("$.loanAmount").isEmpty())
-                .andExpect(jsonPath("$.loanPeriod").isEmpty())
-                .andExpect(jsonPath("$.errorMessage").value("An unexpected error occurred"))
-                .andReturn();
-
-        DecisionResponse response = objectMapper.readValue(result.getResponse().getContentAsString(), DecisionResponse.class);
+        byte[] body = performDecision(request)
+                .expectStatus().isEqualTo(HttpStatus.INTERNAL_SERVER_ERROR)
+                .expectHeader().contentType(MediaType.APPLICATION_JSON)
+                .expectBody()
+                .jsonPath("$.loanAmount").isEmpty()
+                .jsonPath("$.loanPeriod").isEmpty()
+                .jsonPath("$.errorMessage").isEqualTo("An unexpected error occurred")
+                .returnResult()
+                .getResponseBody();
+
+        DecisionResponse response = objectMapper.readValue(body, DecisionResponse.class);
         assert response.getLoanAmount() == null;
         assert response.getLoanPeriod() == null;
         assert response.getErrorMessage().equals("An unexpected error occurred");
     }
+
+    /**
+     * This test sends different kinds of error requests concurrently and ensures that
+     * every response carries the error message of its own request.
+     */
+    @Test
+    public void givenConcurrentErrorRequests_whenRequestDecision_thenErrorMessagesDoNotCross() throws Exception {
+        Map<String, String> expectedMessages = Map.of(
+                "code", "Invalid personal ID code!",
+                "amount", "Invalid loan amount!",
+                "period", "Invalid loan period!",
+                "debt", "No valid loan found!");
+        when(decisionEngine.calculateApprovedLoanAsync(anyString(), anyLong(), anyInt())).thenAnswer(invocation ->
+                CompletableFuture.completedFuture(switch ((String) invocation.getArgument(0)) {
+                    case "code" -> DecisionOutcome.Invalid.of(InvalidField.PERSONAL_CODE);
+                    case "amount" -> DecisionOutcome.Invalid.of(InvalidField.LOAN_AMOUNT);
+                    case "period" -> DecisionOutcome.Invalid.of(InvalidField.LOAN_PERIOD);
+                    default -> DecisionOutcome.Rejected.of(RejectionReason.NO_VALID_LOAN);
+                }));
+
+        List<String> personalCodes = List.copyOf(expectedMessages.keySet());
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> results = new ArrayList<>();
+            for (int i = 0; i < 2000; i++) {
+                String personalCode = personalCodes.get(i % personalCodes.size());
+                results.add(executor.submit(() -> performDecision(new DecisionRequest(personalCode, 10L, 10))
+                        .expectBody()
+                        .jsonPath("$.loanAmount").isEmpty()
+                        .jsonPath("$.errorMessage").isEqualTo(expectedMessages.get(personalCode))));
+            }
+            for (Future<?> result : results) {
+                result.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * This test has the decision engine throw the decision exceptions concurrently and ensures that
+     * every response carries the error of its own exception, so the exception handlers share nothing.
+     */
+    @Test
+    public void givenConcurrentExceptions_whenRequestDecision_thenHandledResponsesDoNotCross() throws Exception {
+        Map<String, String> expectedMessages = Map.of(
+                "code", "Invalid personal ID code!",
+                "amount", "Invalid loan amount!",
+                "period", "Invalid loan period!",
+                "debt", "No valid loan found!",
+                "age", "Invalid loan amount!",
+                "other", "An unexpected error occurred");
+        // The age rejection has the message of the invalid amount, the status tells them apart.
+        Map<String, HttpStatus> expectedStatuses = Map.of(
+                "code", HttpStatus.BAD_REQUEST,
+                "amount", HttpStatus.BAD_REQUEST,
+                "period", HttpStatus.BAD_REQUEST,
+                "debt", HttpStatus.OK,
+                "age", HttpStatus.OK,
+                "other", HttpStatus.INTERNAL_SERVER_ERROR);
+        when(decisionEngine.calculateApprovedLoanAsync(anyString(), anyLong(), anyInt())).thenAnswer(invocation -> {
+            throw switch ((String) invocation.getArgument(0)) {
+                case "code" -> new InvalidPersonalCodeException("Invalid personal ID code!");
+                case "amount" -> new InvalidLoanAmountException("Invalid loan amount!");
+                case "period" -> new InvalidLoanPeriodException("Invalid loan period!");
+                case "debt" -> new NoValidLoanException("No valid loan found!");
+                case "age" -> new InvalidCustomerAgeException("Invalid loan amount!");
+                default -> new IllegalStateException("Credit registry answered garbage");
+            };
+        });
+
+        List<String> personalCodes = List.copyOf(expectedMessages.keySet());
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> results = new ArrayList<>();
+            for (int i = 0; i < 2000; i++) {
+                String personalCode = personalCodes.get(i % personalCodes.size());
+                results.add(executor.submit(() -> performDecision(new DecisionRequest(personalCode, 10L, 10))
+                        .expectStatus().isEqualTo(expectedStatuses.get(personalCode))
+                        .expectBody()
+                        .jsonPath("$.loanAmount").isEmpty()
+                        .jsonPath("$.errorMessage").isEqualTo(expectedMessages.get(personalCode))));
+            }
+            for (Future<?> result : results) {
+                result.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * This test ensures that the country of the request is passed to the decision engine.
+     */
+    @Test
+    public void givenCountry_whenRequestDecision_thenDecidesForCountry() throws Exception {
+        when(decisionEngine.calculateApprovedLoanAsync(eq("LV"), anyString(), anyLong(), anyInt()))
+                .thenReturn(CompletableFuture.completedFuture(new DecisionOutcome.Approved(new Decision(4000, 40, null))));
+
+        performDecision(new DecisionRequest("17070322744", 4000L, 12, "LV"))
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.loanAmount").isEqualTo(4000)
+                .jsonPath("$.loanPeriod").isEqualTo(40);
+    }
+
+    /**
+     * This test ensures that a request sent again with the same Idempotency-Key is decided only once
+     * and gets the response of the first request back.
+     */
+    @Test
+    public void givenSameIdempotencyKey_whenRequestDecisionTwice_thenDecidesOnce() throws Exception {
+        when(decisionEngine.calculateApprovedLoanAsync(anyString(), anyLong(), anyInt()))
+                .thenReturn(CompletableFuture.completedFuture(new DecisionOutcome.Approved(new Decision(4000, 12, null))));
+        String idempotencyKey = UUID.randomUUID().toString();
+        DecisionRequest request = new DecisionRequest("50307172740", 4000L, 12);
+
+        for (int i = 0; i < 2; i++) {
+            performDecision(request, idempotencyKey)
+                    .expectStatus().isOk()
+                    .expectBody()
+                    .jsonPath("$.loanAmount").isEqualTo(4000)
+                    .jsonPath("$.loanPeriod").isEqualTo(12);
+        }
+
+        verify(decisionEngine, times(1)).calculateApprovedLoanAsync("50307172740", 4000L, 12);
+    }
+
+    /**
+     * This test ensures that an Idempotency-Key sent again with a different request
+     * gets an HTTP Unprocessable Entity (422) response.
+     */
+    @Test
+    public void givenIdempotencyKeyReusedForDifferentRequest_whenRequestDecision_thenReturnsUnprocessableEntity() throws Exception {
+        when(decisionEngine.calculateApprovedLoanAsync(anyString(), anyLong(), anyInt()))
+                .thenReturn(CompletableFuture.completedFuture(new DecisionOutcome.Approved(new Decision(4000, 12, null))));
+        String idempotencyKey = UUID.randomUUID().toString();
+
+        performDecision(new DecisionRequest("50307172740", 4000L, 12), idempotencyKey)
+                .expectStatus().isOk();
+        performDecision(new DecisionRequest("50307172740", 5000L, 12), idempotencyKey)
+                .expectStatus().isEqualTo(HttpStatus.UNPROCESSABLE_ENTITY)
+                .expectBody()
+                .jsonPath("$.loanAmount").isEmpty()
+                .jsonPath("$.errorMessage").isEqualTo("Idempotency key was used for a different request!");
+    }
+
+    private WebTestClient.ResponseSpec performDecision(DecisionRequest request) throws Exception {
+        return webTestClient.post()
+                .uri("/loan/decision")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(objectMapper.writeValueAsBytes(request))
+                .exchange();
+    }
+
+    private WebTestClient.ResponseSpec performDecision(DecisionRequest request, String idempotencyKey) throws Exception {
+        return webTestClient.post()
+                .uri("/loan/decision")
+                .header("Idempotency-Key", idempotencyKey)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(objectMapper.writeValueAsBytes(request))
+                .exchange();
+    }
 }
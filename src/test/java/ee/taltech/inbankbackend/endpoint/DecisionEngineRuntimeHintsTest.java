@@ -0,0 +1,26 @@
+package ee.taltech.inbankbackend.endpoint;
+
+import ee.taltech.inbankbackend.service.OfferMatrix;
+import org.junit.jupiter.api.Test;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.predicate.RuntimeHintsPredicates;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DecisionEngineRuntimeHintsTest {
+
+    @Test
+    void testRequestAndResponseBodiesAreRegisteredForBinding() throws Exception {
+        RuntimeHints hints = new RuntimeHints();
+        new DecisionEngineRuntimeHints().registerHints(hints, getClass().getClassLoader());
+
+        assertTrue(RuntimeHintsPredicates.reflection().onType(DecisionRequest.class)
+                .withMemberCategory(MemberCategory.INVOKE_DECLARED_CONSTRUCTORS).test(hints));
+        assertTrue(RuntimeHintsPredicates.reflection().onMethod(DecisionRequest.class.getMethod("getCountry")).test(hints));
+        assertTrue(RuntimeHintsPredicates.reflection().onMethod(DecisionResponse.class.getMethod("setLoanAmount", Integer.class))
+                .test(hints));
+        assertTrue(RuntimeHintsPredicates.reflection().onType(BatchDecisionResult.class).test(hints));
+        assertTrue(RuntimeHintsPredicates.reflection().onType(OfferMatrix.class).test(hints));
+    }
+}
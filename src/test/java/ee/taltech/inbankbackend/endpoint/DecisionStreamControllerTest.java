@@ -0,0 +1,71 @@
+package ee.taltech.inbankbackend.endpoint;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * This class holds integration tests for the /loan/decisions/stream NDJSON endpoint.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+public class DecisionStreamControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    /**
+     * This test ensures that every request line gets a response line, in the order of the requests.
+     */
+    @Test
+    public void givenNdjsonRequests_whenStreamDecisions_thenReturnsOneLinePerRequest() throws Exception {
+        String body = """
+                {"personalCode": "50307172740", "loanAmount": 4000, "loanPeriod": 12}
+                {"personalCode": "12345678901", "loanAmount": 4000, "loanPeriod": 12}
+                {"personalCode": "37605030299", "loanAmount": 4000, "loanPeriod": 12}
+                """;
+
+        MvcResult result = mockMvc.perform(post("/loan/decisions/stream")
+                        .content(body)
+                        .contentType(MediaType.APPLICATION_NDJSON))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+                .andReturn();
+
+        assertArrayEquals(new String[] {
+                "{\"loanAmount\":4000,\"loanPeriod\":40,\"errorMessage\":null}",
+                "{\"loanAmount\":null,\"loanPeriod\":null,\"errorMessage\":\"Invalid personal ID code!\"}",
+                "{\"loanAmount\":null,\"loanPeriod\":null,\"errorMessage\":\"No valid loan found!\"}"
+        }, result.getResponse().getContentAsString().split("\n"));
+    }
+
+    /**
+     * This test ensures that the stream ends with an error line when a request line cannot be parsed.
+     */
+    @Test
+    public void givenMalformedLine_whenStreamDecisions_thenEndsWithErrorLine() throws Exception {
+        String body = """
+                {"personalCode": "50307172740", "loanAmount": 4000, "loanPeriod": 12}
+                {"personalCode": "50307172740",
+                """;
+
+        MvcResult result = mockMvc.perform(post("/loan/decisions/stream")
+                        .content(body)
+                        .contentType(MediaType.APPLICATION_NDJSON))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        assertArrayEquals(new String[] {
+                "{\"loanAmount\":4000,\"loanPeriod\":40,\"errorMessage\":null}",
+                "{\"loanAmount\":null,\"loanPeriod\":null,\"errorMessage\":\"Invalid decision request!\"}"
+        }, result.getResponse().getContentAsString().split("\n"));
+    }
+}
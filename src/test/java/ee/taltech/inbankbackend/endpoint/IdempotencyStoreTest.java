@@ -0,0 +1,156 @@
+package ee.taltech.inbankbackend.endpoint;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.ResponseEntity;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class IdempotencyStoreTest {
+
+    private static final long TIME_TO_LIVE = TimeUnit.SECONDS.toNanos(600);
+    private static final String CLIENT = "address:127.0.0.1";
+
+    private final AtomicLong now = new AtomicLong(-5_000_000_000L);
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AtomicInteger decisions = new AtomicInteger();
+    private final DecisionRequest request = new DecisionRequest("50307172740", 4000L, 12);
+
+    @Test
+    void testConcurrentDuplicateWaitsForFirstDecision() {
+        IdempotencyStore store = new IdempotencyStore(meterRegistry, TIME_TO_LIVE, 100, now::get);
+        CompletableFuture<ResponseEntity<?>> decision = new CompletableFuture<>();
+
+        CompletableFuture<ResponseEntity<?>> first = store.execute(CLIENT, "key", request, () -> decide(decision));
+        CompletableFuture<ResponseEntity<?>> duplicate = store.execute(CLIENT, "key", request, () -> decide(decision));
+        assertFalse(duplicate.isDone());
+
+        ResponseEntity<?> response = ResponseEntity.ok("approved");
+        decision.complete(response);
+
+        assertSame(response, first.join());
+        assertSame(response, duplicate.join());
+        assertEquals(1, decisions.get());
+        assertEquals(1.0, requests("first"));
+        assertEquals(1.0, requests("collapsed"));
+    }
+
+    @Test
+    void testCompletedDuplicateGetsStoredResponse() {
+        IdempotencyStore store = new IdempotencyStore(meterRegistry, TIME_TO_LIVE, 100, now::get);
+        ResponseEntity<?> response = ResponseEntity.ok("approved");
+
+        store.execute(CLIENT, "key", request, () -> decide(CompletableFuture.completedFuture(response)));
+        now.addAndGet(TIME_TO_LIVE - 1);
+        CompletableFuture<ResponseEntity<?>> duplicate =
+                store.execute(CLIENT, "key", request, () -> decide(CompletableFuture.completedFuture(ResponseEntity.ok("other"))));
+
+        assertSame(response, duplicate.join());
+        assertEquals(1, decisions.get());
+        assertEquals(1.0, requests("replayed"));
+    }
+
+    @Test
+    void testKeyReusedForDifferentRequestIsRefused() {
+        IdempotencyStore store = new IdempotencyStore(meterRegistry, TIME_TO_LIVE, 100, now::get);
+        store.execute(CLIENT, "key", request, () -> decide(CompletableFuture.completedFuture(ResponseEntity.ok("approved"))));
+
+        assertNull(store.execute(CLIENT, "key", new DecisionRequest("50307172740", 5000L, 12),
+                () -> decide(CompletableFuture.completedFuture(ResponseEntity.ok("other")))));
+        assertNull(store.execute(CLIENT, "key", new DecisionRequest("50307172740", 4000L, 24),
+                () -> decide(CompletableFuture.completedFuture(ResponseEntity.ok("other")))));
+        assertEquals(1, decisions.get());
+        assertEquals(2.0, requests("conflict"));
+    }
+
+    @Test
+    void testExpiredKeyIsDecidedAgain() {
+        IdempotencyStore store = new IdempotencyStore(meterRegistry, TIME_TO_LIVE, 100, now::get);
+        store.execute(CLIENT, "key", request, () -> decide(CompletableFuture.completedFuture(ResponseEntity.ok("approved"))));
+
+        now.addAndGet(TIME_TO_LIVE);
+        ResponseEntity<?> response = ResponseEntity.ok("approved again");
+        CompletableFuture<ResponseEntity<?>> again =
+                store.execute(CLIENT, "key", new DecisionRequest("50307172740", 5000L, 12),
+                        () -> decide(CompletableFuture.completedFuture(response)));
+
+        assertSame(response, again.join());
+        assertEquals(2, decisions.get());
+    }
+
+    @Test
+    void testFailedDecisionIsNotStored() {
+        IdempotencyStore store = new IdempotencyStore(meterRegistry, TIME_TO_LIVE, 100, now::get);
+        CompletableFuture<ResponseEntity<?>> failed =
+                store.execute(CLIENT, "key", request, () -> decide(CompletableFuture.failedFuture(new IllegalStateException())));
+        assertTrue(failed.isCompletedExceptionally());
+
+        ResponseEntity<?> response = ResponseEntity.ok("approved");
+        CompletableFuture<ResponseEntity<?>> retry =
+                store.execute(CLIENT, "key", request, () -> decide(CompletableFuture.completedFuture(response)));
+
+        assertSame(response, retry.join());
+        assertEquals(2, decisions.get());
+    }
+
+    @Test
+    void testKeysAreScopedByClient() {
+        IdempotencyStore store = new IdempotencyStore(meterRegistry, TIME_TO_LIVE, 100, now::get);
+        ResponseEntity<?> response = ResponseEntity.ok("approved");
+        store.execute(CLIENT, "key", request, () -> decide(CompletableFuture.completedFuture(response)));
+
+        CompletableFuture<ResponseEntity<?>> otherAddress = store.execute("address:10.0.0.1", "key", request,
+                () -> decide(CompletableFuture.completedFuture(ResponseEntity.ok("other"))));
+        CompletableFuture<ResponseEntity<?>> otherRequest = store.execute("user:alice", "key",
+                new DecisionRequest("50307172740", 5000L, 12),
+                () -> decide(CompletableFuture.completedFuture(ResponseEntity.ok("other"))));
+
+        assertEquals("other", otherAddress.join().getBody());
+        assertEquals("other", otherRequest.join().getBody());
+        assertEquals(3, decisions.get());
+        assertSame(response, store.execute(CLIENT, "key", request,
+                () -> decide(CompletableFuture.completedFuture(ResponseEntity.ok("other")))).join());
+    }
+
+    @Test
+    void testFullStoreDropsOldestKeys() {
+        IdempotencyStore store = new IdempotencyStore(meterRegistry, TIME_TO_LIVE, 64, now::get);
+        for (int i = 0; i < 64 * 10; i++) {
+            store.execute(CLIENT, "key-" + i, request, () -> decide(CompletableFuture.completedFuture(ResponseEntity.ok("approved"))));
+        }
+        int decided = decisions.get();
+
+        store.execute(CLIENT, "key-" + (64 * 10 - 1), request, () -> decide(CompletableFuture.completedFuture(ResponseEntity.ok("other"))));
+        assertEquals(decided, decisions.get());
+        store.execute(CLIENT, "key-0", request, () -> decide(CompletableFuture.completedFuture(ResponseEntity.ok("other"))));
+        assertEquals(decided + 1, decisions.get());
+    }
+
+    @Test
+    void testZeroTimeToLiveDisablesStore() {
+        IdempotencyStore store = new IdempotencyStore(meterRegistry, 0, 100, now::get);
+        store.execute(CLIENT, "key", request, () -> decide(CompletableFuture.completedFuture(ResponseEntity.ok("approved"))));
+        store.execute(CLIENT, "key", request, () -> decide(CompletableFuture.completedFuture(ResponseEntity.ok("approved"))));
+
+        assertEquals(2, decisions.get());
+    }
+
+    private CompletableFuture<ResponseEntity<?>> decide(CompletableFuture<ResponseEntity<?>> response) {
+        decisions.incrementAndGet();
+        return response;
+    }
+
+    private double requests(String result) {
+        return meterRegistry.get("idempotency.requests").tag("result", result).counter().count();
+    }
+}
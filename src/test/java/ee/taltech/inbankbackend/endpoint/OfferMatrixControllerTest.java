@@ -0,0 +1,125 @@
+package ee.taltech.inbankbackend.endpoint;
+
+import ee.taltech.inbankbackend.service.DecisionEngine;
+import ee.taltech.inbankbackend.service.DecisionOutcome;
+import ee.taltech.inbankbackend.service.InvalidField;
+import ee.taltech.inbankbackend.service.OfferMatrix;
+import ee.taltech.inbankbackend.service.OfferMatrixOutcome;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.concurrent.CompletableFuture;
+
+import static org.hamcrest.Matchers.hasItem;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * This class holds integration tests for the /loan/offers endpoint.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+public class OfferMatrixControllerTest {
+
+    private static final OfferMatrix MATRIX = new OfferMatrix(1, 12, 2000, 100,
+            new int[]{0, 2000, 2100}, new int[]{13, 14, 0});
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private DecisionEngine decisionEngine;
+
+    @Test
+    public void givenOffers_whenOfferMatrix_thenReturnsArraysWithETag() throws Exception {
+        when(decisionEngine.calculateOfferMatrixAsync("50307172740"))
+                .thenReturn(CompletableFuture.completedFuture(new OfferMatrixOutcome.Offered(MATRIX)));
+
+        MvcResult result = mockMvc.perform(get("/loan/offers").header("Personal-Code", "50307172740")).andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", OfferMatrixController.eTag(MATRIX)))
+                .andExpect(header().string("Cache-Control", "no-cache, private"))
+                .andExpect(header().stringValues("Vary", hasItem("Personal-Code, Personal-Code-Country")))
+                .andExpect(jsonPath("$.policyVersion").value(1))
+                .andExpect(jsonPath("$.minimumLoanPeriod").value(12))
+                .andExpect(jsonPath("$.highestLoanAmounts[1]").value(2000))
+                .andExpect(jsonPath("$.shortestLoanPeriods[2]").value(0));
+    }
+
+    @Test
+    public void givenMatchingETag_whenOfferMatrix_thenReturnsNotModified() throws Exception {
+        when(decisionEngine.calculateOfferMatrixAsync("50307172740"))
+                .thenReturn(CompletableFuture.completedFuture(new OfferMatrixOutcome.Offered(MATRIX)));
+
+        MvcResult result = mockMvc.perform(get("/loan/offers")
+                .header("Personal-Code", "50307172740")
+                .header("If-None-Match", OfferMatrixController.eTag(MATRIX))).andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isNotModified())
+                .andExpect(content().bytes(new byte[0]));
+    }
+
+    @Test
+    public void givenCountry_whenOfferMatrix_thenOffersForCountry() throws Exception {
+        when(decisionEngine.calculateOfferMatrixAsync("LV", "17070322744"))
+                .thenReturn(CompletableFuture.completedFuture(new OfferMatrixOutcome.Offered(MATRIX)));
+
+        MvcResult result = mockMvc.perform(get("/loan/offers")
+                .header("Personal-Code", "17070322744")
+                .header("Personal-Code-Country", "LV")).andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.highestLoanAmounts[1]").value(2000));
+    }
+
+    @Test
+    public void givenInvalidCode_whenOfferMatrix_thenReturnsBadRequest() throws Exception {
+        when(decisionEngine.calculateOfferMatrixAsync("12345678901"))
+                .thenReturn(CompletableFuture.completedFuture(
+                        new OfferMatrixOutcome.NotOffered(DecisionOutcome.Invalid.of(InvalidField.PERSONAL_CODE))));
+
+        MvcResult result = mockMvc.perform(get("/loan/offers").header("Personal-Code", "12345678901")).andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.errorMessage").value("Invalid personal ID code!"));
+    }
+
+    @Test
+    public void givenNoCode_whenOfferMatrix_thenReturnsBadRequest() throws Exception {
+        when(decisionEngine.calculateOfferMatrixAsync(null))
+                .thenReturn(CompletableFuture.completedFuture(
+                        new OfferMatrixOutcome.NotOffered(DecisionOutcome.Invalid.of(InvalidField.PERSONAL_CODE))));
+
+        MvcResult result = mockMvc.perform(get("/loan/offers")).andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.errorMessage").value("Invalid personal ID code!"));
+    }
+
+    @Test
+    public void givenMatricesWithSameHashCode_whenETag_thenETagsDiffer() {
+        // {1, 0} and {0, 31} have the same Arrays.hashCode
+        OfferMatrix first = new OfferMatrix(1, 12, 2000, 100, new int[]{1, 0}, new int[]{13});
+        OfferMatrix second = new OfferMatrix(1, 12, 2000, 100, new int[]{0, 31}, new int[]{13});
+
+        assertEquals(first.hashCode(), second.hashCode());
+        assertNotEquals(OfferMatrixController.eTag(first), OfferMatrixController.eTag(second));
+        assertEquals(OfferMatrixController.eTag(first),
+                OfferMatrixController.eTag(new OfferMatrix(1, 12, 2000, 100, new int[]{1, 0}, new int[]{13})));
+    }
+}
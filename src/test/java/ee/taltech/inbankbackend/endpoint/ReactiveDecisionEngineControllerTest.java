@@ -0,0 +1,17 @@
+package ee.taltech.inbankbackend.endpoint;
+
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+/**
+ * Runs the /loan/decision endpoint tests against the reactive stack.
+ */
+@SpringBootTest(properties = "spring.main.web-application-type=reactive")
+@AutoConfigureWebTestClient
+@ExtendWith(SpringExtension.class)
+@ExtendWith(MockitoExtension.class)
+public class ReactiveDecisionEngineControllerTest extends DecisionEngineControllerTest {
+}
@@ -0,0 +1,17 @@
+package ee.taltech.inbankbackend.endpoint;
+
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+/**
+ * Runs the /loan/decision endpoint tests against the servlet stack through MockMvc.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ExtendWith(SpringExtension.class)
+@ExtendWith(MockitoExtension.class)
+public class ServletDecisionEngineControllerTest extends DecisionEngineControllerTest {
+}
@@ -0,0 +1,249 @@
+package ee.taltech.inbankbackend.service;
+
+import ee.taltech.inbankbackend.exceptions.CreditInfoUnavailableException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CreditModifierCacheTest {
+
+    private static final long TIME_TO_LIVE_NANOS = TimeUnit.MINUTES.toNanos(5);
+
+    private final String personalCode = "50307172740";
+    private final ParsedPersonalCode parsedPersonalCode = ParsedPersonalCode.parse(personalCode);
+
+    private AtomicLong now;
+    private AtomicInteger lookups;
+    private CompletableFuture<Integer> nextLookup;
+    private CreditInfoProvider creditInfoProvider;
+
+    @BeforeEach
+    void setUp() {
+        now = new AtomicLong();
+        lookups = new AtomicInteger();
+        nextLookup = CompletableFuture.completedFuture(1000);
+        creditInfoProvider = new CreditInfoProvider() {
+            @Override
+            public CompletableFuture<Integer> getCreditModifier(String personalCode, ParsedPersonalCode parsedPersonalCode) {
+                lookups.incrementAndGet();
+                return nextLookup;
+            }
+
+            @Override
+            public int fallbackCreditModifier(ParsedPersonalCode parsedPersonalCode, Throwable failure) {
+                return 0;
+            }
+        };
+    }
+
+    @Test
+    void testRepeatedLookupsAreAnsweredFromCache() {
+        CreditModifierCache cache = cache(10);
+
+        assertEquals(1000, cache.getCreditModifier(personalCode, parsedPersonalCode).join());
+        assertEquals(1000, cache.getCreditModifier(personalCode, parsedPersonalCode).join());
+
+        assertEquals(1, lookups.get());
+        assertEquals(new CreditModifierCacheStats(1, 1, 0, 1), cache.stats());
+    }
+
+    @Test
+    void testExpiredEntryIsLoadedAgain() {
+        CreditModifierCache cache = cache(10);
+        cache.getCreditModifier(personalCode, parsedPersonalCode).join();
+
+        now.addAndGet(TIME_TO_LIVE_NANOS);
+        nextLookup = CompletableFuture.completedFuture(300);
+
+        assertEquals(300, cache.getCreditModifier(personalCode, parsedPersonalCode).join());
+        assertEquals(2, lookups.get());
+        assertEquals(1, cache.stats().evictions());
+    }
+
+    @Test
+    void testSizeIsBounded() {
+        CreditModifierCache cache = cache(100);
+        for (int serial = 0; serial < 1000; serial++) {
+            cache.getCreditModifier(code(serial), parsedPersonalCode).join();
+        }
+
+        CreditModifierCacheStats stats = cache.stats();
+        assertTrue(stats.size() <= 100, "size " + stats.size());
+        assertEquals(1000 - stats.size(), stats.evictions());
+    }
+
+    @Test
+    void testLeastRecentlyUsedEntriesAreEvictedInBatches() {
+        CreditModifierCache cache = cache(10);
+        for (int serial = 0; serial < 10; serial++) {
+            cache.getCreditModifier(code(serial), parsedPersonalCode).join();
+        }
+        cache.getCreditModifier(code(0), parsedPersonalCode).join();
+
+        cache.getCreditModifier(code(10), parsedPersonalCode).join();
+        assertEquals(new CreditModifierCacheStats(1, 11, 2, 9), cache.stats());
+
+        cache.getCreditModifier(code(0), parsedPersonalCode).join();
+        assertEquals(11, lookups.get());
+        cache.getCreditModifier(code(1), parsedPersonalCode).join();
+        assertEquals(12, lookups.get());
+    }
+
+    @Test
+    void testLoadInFlightIsNotEvicted() {
+        CreditModifierCache cache = cache(10);
+        CompletableFuture<Integer> pending = new CompletableFuture<>();
+        nextLookup = pending;
+        CompletableFuture<Integer> first = cache.getCreditModifier(personalCode, parsedPersonalCode);
+
+        nextLookup = CompletableFuture.completedFuture(1000);
+        for (int serial = 0; serial < 100; serial++) {
+            cache.getCreditModifier(code(serial), parsedPersonalCode).join();
+        }
+        now.addAndGet(TIME_TO_LIVE_NANOS);
+        cache.sweep();
+
+        CompletableFuture<Integer> second = cache.getCreditModifier(personalCode, parsedPersonalCode);
+        assertEquals(101, lookups.get());
+        pending.complete(300);
+        assertEquals(300, first.join());
+        assertEquals(300, second.join());
+    }
+
+    @Test
+    void testSweepRemovesExpiredEntries() {
+        CreditModifierCache cache = cache(10);
+        for (int serial = 0; serial < 3; serial++) {
+            cache.getCreditModifier(code(serial), parsedPersonalCode).join();
+        }
+
+        cache.sweep();
+        assertEquals(3, cache.stats().size());
+
+        now.addAndGet(TIME_TO_LIVE_NANOS);
+        cache.sweep();
+        assertEquals(new CreditModifierCacheStats(0, 3, 3, 0), cache.stats());
+    }
+
+    @Test
+    void testConcurrentMissesShareOneLookup() throws Exception {
+        CreditModifierCache cache = cache(10);
+        nextLookup = new CompletableFuture<>();
+
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<CompletableFuture<Integer>>> results = new ArrayList<>();
+            for (int i = 0; i < 64; i++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    return cache.getCreditModifier(personalCode, parsedPersonalCode);
+                }));
+            }
+            start.countDown();
+            List<CompletableFuture<Integer>> creditModifiers = new ArrayList<>();
+            for (Future<CompletableFuture<Integer>> result : results) {
+                creditModifiers.add(result.get(10, TimeUnit.SECONDS));
+            }
+
+            nextLookup.complete(300);
+            for (CompletableFuture<Integer> creditModifier : creditModifiers) {
+                assertEquals(300, creditModifier.join());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(1, lookups.get());
+        assertEquals(new CreditModifierCacheStats(63, 1, 0, 1), cache.stats());
+    }
+
+    @Test
+    void testFailedLookupIsNotCached() {
+        CreditModifierCache cache = cache(10);
+        nextLookup = CompletableFuture.failedFuture(new CreditInfoUnavailableException("Registry down"));
+
+        assertEquals(0, cache.getCreditModifier(personalCode, parsedPersonalCode).join());
+        assertEquals(0, cache.stats().size());
+
+        nextLookup = CompletableFuture.completedFuture(1000);
+        assertEquals(1000, cache.getCreditModifier(personalCode, parsedPersonalCode).join());
+        assertEquals(2, lookups.get());
+    }
+
+    @Test
+    void testFailureWithoutFallbackFailsLookup() {
+        CreditInfoProvider failing = (code, parsed) -> CompletableFuture.failedFuture(new CreditInfoUnavailableException("Registry down"));
+        CreditModifierCache cache = new CreditModifierCache(failing, TIME_TO_LIVE_NANOS, 10, 0, now::get);
+
+        CompletionException exception = assertThrows(CompletionException.class,
+                () -> cache.getCreditModifier(personalCode, parsedPersonalCode).join());
+        assertInstanceOf(CreditInfoUnavailableException.class, exception.getCause());
+    }
+
+    @Test
+    void testInvalidate() {
+        CreditModifierCache cache = cache(10);
+        cache.getCreditModifier(personalCode, parsedPersonalCode).join();
+
+        assertTrue(cache.invalidate(null, personalCode));
+        assertFalse(cache.invalidate(null, personalCode));
+
+        cache.getCreditModifier(personalCode, parsedPersonalCode).join();
+        assertEquals(2, lookups.get());
+    }
+
+    @Test
+    void testCodesAreKeyedByCountry() {
+        CreditModifierCache cache = cache(10);
+        cache.getCreditModifier(personalCode, parsedPersonalCode).join();
+        cache.getCreditModifier(personalCode, PersonalCodeSchemes.parse("LT", personalCode)).join();
+
+        assertEquals(2, lookups.get());
+        assertTrue(cache.invalidate("LT", personalCode));
+        assertFalse(cache.invalidate("LT", personalCode));
+        assertTrue(cache.invalidate("EE", personalCode));
+    }
+
+    @Test
+    void testCodesAreInvalidatedInAnyForm() {
+        CreditModifierCache cache = cache(10);
+        String latvianCode = "17070322744";
+        cache.getCreditModifier(latvianCode, PersonalCodeSchemes.parse("LV", latvianCode)).join();
+
+        assertTrue(cache.invalidate(null, "170703-22744"));
+        assertFalse(cache.invalidate("LV", latvianCode));
+        assertFalse(cache.invalidate(null, "12345678901"));
+    }
+
+    @Test
+    void testZeroTimeToLiveDisablesCache() {
+        CreditModifierCache cache = new CreditModifierCache(creditInfoProvider, 0, 10, 0, now::get);
+        cache.getCreditModifier(personalCode, parsedPersonalCode).join();
+        cache.getCreditModifier(personalCode, parsedPersonalCode).join();
+
+        assertEquals(2, lookups.get());
+        assertEquals(0, cache.stats().size());
+    }
+
+    private static String code(int serial) {
+        return "3850101" + String.format("%03d", serial) + "0";
+    }
+
+    private CreditModifierCache cache(int maximumSize) {
+        return new CreditModifierCache(creditInfoProvider, TIME_TO_LIVE_NANOS, maximumSize, 0, now::get);
+    }
+}
@@ -0,0 +1,116 @@
+package ee.taltech.inbankbackend.service;
+
+import ee.taltech.inbankbackend.config.DecisionEngineConstants;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs mixed-segment requests through a single DecisionEngine from many threads at once
+ * and checks every result against the single-threaded result of the same request.
+ */
+class DecisionEngineConcurrencyTest {
+
+    private static final int REQUEST_COUNT = 20_000;
+    private static final int THREAD_COUNT = 16;
+
+    private DecisionEngine decisionEngine;
+    private List<String> personalCodes;
+
+    @BeforeEach
+    void setUp() {
+        LoanLimitSolver loanLimitSolver = new LoanLimitSolver();
+        decisionEngine = DecisionEngine.builder(loanLimitSolver, new OfferTableProvider(loanLimitSolver)).build();
+
+        // Serial numbers across the whole range give personal codes in every segment, including debt.
+        personalCodes = new ArrayList<>();
+        for (int serial = 0; serial < 1000; serial += 7) {
+            personalCodes.add(estonianPersonalCode("3850101", serial));
+        }
+    }
+
+    @Test
+    void testConcurrentDecisionsMatchSingleThreadedDecisions() throws Exception {
+        Random random = new Random(42);
+        List<String> codes = new ArrayList<>(REQUEST_COUNT);
+        List<Long> amounts = new ArrayList<>(REQUEST_COUNT);
+        List<Integer> periods = new ArrayList<>(REQUEST_COUNT);
+        List<String> expected = new ArrayList<>(REQUEST_COUNT);
+
+        for (int i = 0; i < REQUEST_COUNT; i++) {
+            String personalCode = personalCodes.get(random.nextInt(personalCodes.size()));
+            long amount = DecisionEngineConstants.MINIMUM_LOAN_AMOUNT
+                    + random.nextInt(DecisionEngineConstants.MAXIMUM_LOAN_AMOUNT - DecisionEngineConstants.MINIMUM_LOAN_AMOUNT + 1);
+            int period = DecisionEngineConstants.MINIMUM_LOAN_PERIOD
+                    + random.nextInt(DecisionEngineConstants.MAXIMUM_LOAN_PERIOD - DecisionEngineConstants.MINIMUM_LOAN_PERIOD + 1);
+            codes.add(personalCode);
+            amounts.add(amount);
+            periods.add(period);
+            expected.add(decide(personalCode, amount, period));
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREAD_COUNT);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<String>> results = new ArrayList<>(REQUEST_COUNT);
+            for (int i = 0; i < REQUEST_COUNT; i++) {
+                int index = i;
+                Callable<String> task = () -> {
+                    start.await();
+                    return decide(codes.get(index), amounts.get(index), periods.get(index));
+                };
+                results.add(executor.submit(task));
+            }
+            start.countDown();
+
+            for (int i = 0; i < REQUEST_COUNT; i++) {
+                assertEquals(expected.get(i), results.get(i).get(30, TimeUnit.SECONDS), "request " + i);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+    }
+
+    private String decide(String personalCode, long amount, int period) {
+        DecisionOutcome outcome = decisionEngine.calculateApprovedLoan(personalCode, amount, period);
+        if (outcome instanceof DecisionOutcome.Approved approved) {
+            return approved.decision().getLoanAmount() + "/" + approved.decision().getLoanPeriod();
+        }
+        return outcome.toString();
+    }
+
+    private static String estonianPersonalCode(String prefixAndBirthDate, int serial) {
+        String code = prefixAndBirthDate + String.format("%03d", serial);
+        int[] firstWeights = {1, 2, 3, 4, 5, 6, 7, 8, 9, 1};
+        int[] secondWeights = {3, 4, 5, 6, 7, 8, 9, 1, 2, 3};
+        int checksum = weightedSum(code, firstWeights) % 11;
+        if (checksum == 10) {
+            checksum = weightedSum(code, secondWeights) % 11;
+            if (checksum == 10) {
+                checksum = 0;
+            }
+        }
+        return code + checksum;
+    }
+
+    private static int weightedSum(String code, int[] weights) {
+        int sum = 0;
+        for (int i = 0; i < weights.length; i++) {
+            sum += (code.charAt(i) - '0') * weights[i];
+        }
+        return sum;
+    }
+}
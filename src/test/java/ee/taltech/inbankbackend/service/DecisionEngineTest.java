@@ -1,20 +1,27 @@
 package ee.taltech.inbankbackend.service;
 
 import ee.taltech.inbankbackend.config.DecisionEngineConstants;
+import ee.taltech.inbankbackend.config.ScoringPolicy;
 import ee.taltech.inbankbackend.exceptions.*;
+import ee.taltech.inbankbackend.service.DecisionOutcome.Invalid;
+import ee.taltech.inbankbackend.service.DecisionOutcome.Rejected;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
 @ExtendWith(MockitoExtension.class)
 class DecisionEngineTest {
 
-    @InjectMocks
     private DecisionEngine decisionEngine;
 
     private String debtorPersonalCode;
@@ -25,6 +32,8 @@ class DecisionEngineTest {
     private String tooOldPersonalCode;
     @BeforeEach
     void setUp() {
+        LoanLimitSolver loanLimitSolver = new LoanLimitSolver();
+        decisionEngine = DecisionEngine.builder(loanLimitSolver, new OfferTableProvider(loanLimitSolver)).build();
         debtorPersonalCode = "37605030299";
         segment1PersonalCode = "50307172740";
         segment2PersonalCode = "38411266610";
@@ -35,39 +44,89 @@ class DecisionEngineTest {
 
     @Test
     void testDebtorPersonalCode() {
-        assertThrows(NoValidLoanException.class,
-                () -> decisionEngine.calculateApprovedLoan(debtorPersonalCode, 4000L, 12));
+        assertSame(Rejected.of(RejectionReason.NO_VALID_LOAN),
+                decisionEngine.calculateApprovedLoan(debtorPersonalCode, 4000L, 12));
     }
 
     @Test
-    void testSegment1PersonalCode() throws InvalidLoanPeriodException, NoValidLoanException,
-            InvalidPersonalCodeException, InvalidLoanAmountException {
-        Decision decision = decisionEngine.calculateApprovedLoan(segment1PersonalCode, 4000L, 12);
+    void testSegment1PersonalCode() {
+        Decision decision = approvedDecision(segment1PersonalCode, 4000L, 12);
         assertEquals(4000, decision.getLoanAmount());
         assertEquals(40, decision.getLoanPeriod());
     }
 
     @Test
-    void testSegment2PersonalCode() throws InvalidLoanPeriodException, NoValidLoanException,
-            InvalidPersonalCodeException, InvalidLoanAmountException {
-        Decision decision = decisionEngine.calculateApprovedLoan(segment2PersonalCode, 4000L, 12);
+    void testSegment2PersonalCode() {
+        Decision decision = approvedDecision(segment2PersonalCode, 4000L, 12);
         assertEquals(4200, decision.getLoanAmount());
         assertEquals(14, decision.getLoanPeriod());
     }
 
     @Test
-    void testSegment3PersonalCode() throws InvalidLoanPeriodException, NoValidLoanException,
-            InvalidPersonalCodeException, InvalidLoanAmountException {
-        Decision decision = decisionEngine.calculateApprovedLoan(segment3PersonalCode, 4000L, 12);
+    void testSegment3PersonalCode() {
+        Decision decision = approvedDecision(segment3PersonalCode, 4000L, 12);
         assertEquals(10000, decision.getLoanAmount());
         assertEquals(12, decision.getLoanPeriod());
     }
 
+    @Test
+    void testLatvianAndLithuanianPersonalCodes() {
+        Decision latvian = approvedDecision("170703-22744", 4000L, 12);
+        assertEquals(4000, latvian.getLoanAmount());
+        assertEquals(40, latvian.getLoanPeriod());
+
+        Decision unhyphenated = approvedDecision("LV", "17070322744", 4000L, 12);
+        assertEquals(4000, unhyphenated.getLoanAmount());
+        assertEquals(40, unhyphenated.getLoanPeriod());
+
+        Decision lithuanian = approvedDecision("LT", segment1PersonalCode, 4000L, 12);
+        assertEquals(4000, lithuanian.getLoanAmount());
+        assertEquals(40, lithuanian.getLoanPeriod());
+    }
+
+    @Test
+    void testCreditModifierIsLookedUpByCountryAndNormalizedCode() {
+        LoanLimitSolver loanLimitSolver = new LoanLimitSolver();
+        List<String> lookups = new ArrayList<>();
+        DecisionEngine engine = DecisionEngine.builder(loanLimitSolver, new OfferTableProvider(loanLimitSolver))
+                .creditInfoProvider((personalCode, parsedPersonalCode) -> {
+                    lookups.add(parsedPersonalCode.getScheme().getCountry() + " " + personalCode);
+                    return CompletableFuture.completedFuture(1000);
+                })
+                .build();
+
+        engine.calculateApprovedLoan("170703-22744", 4000L, 12);
+        engine.calculateApprovedLoan("LV", "17070322744", 4000L, 12);
+        engine.calculateApprovedLoan(segment1PersonalCode, 4000L, 12);
+        engine.calculateApprovedLoan("LT", segment1PersonalCode, 4000L, 12);
+
+        assertEquals(List.of("LV 17070322744", "LV 17070322744", "EE 50307172740", "LT 50307172740"), lookups);
+    }
+
+    @Test
+    void testDefaultCreditInfoProviderScoresWithPublishedPolicy() {
+        LoanLimitSolver loanLimitSolver = new LoanLimitSolver();
+        OfferTableProvider offerTableProvider = new OfferTableProvider(loanLimitSolver);
+        DecisionEngine engine = DecisionEngine.builder(loanLimitSolver, offerTableProvider).build();
+        offerTableProvider.publish(ScoringPolicy.DEFAULTS.withSegmentCreditModifiers(0, 100, 300, 100));
+
+        DecisionOutcome outcome = engine.calculateApprovedLoan(segment3PersonalCode, 4000L, 12);
+        Decision decision = assertInstanceOf(DecisionOutcome.Approved.class, outcome).decision();
+        assertEquals(4000, decision.getLoanAmount());
+        assertEquals(40, decision.getLoanPeriod());
+    }
+
+    @Test
+    void testUnsupportedCountry() {
+        assertSame(Invalid.of(InvalidField.PERSONAL_CODE),
+                decisionEngine.calculateApprovedLoan("FI", segment1PersonalCode, 4000L, 12));
+    }
+
     @Test
     void testInvalidPersonalCode() {
         String invalidPersonalCode = "12345678901";
-        assertThrows(InvalidPersonalCodeException.class,
-                () -> decisionEngine.calculateApprovedLoan(invalidPersonalCode, 4000L, 12));
+        assertSame(Invalid.of(InvalidField.PERSONAL_CODE),
+                decisionEngine.calculateApprovedLoan(invalidPersonalCode, 4000L, 12));
     }
 
     @Test
@@ -75,11 +134,11 @@ class DecisionEngineTest {
         Long tooLowLoanAmount = DecisionEngineConstants.MINIMUM_LOAN_AMOUNT - 1L;
         Long tooHighLoanAmount = DecisionEngineConstants.MAXIMUM_LOAN_AMOUNT + 1L;
 
-        assertThrows(InvalidLoanAmountException.class,
-                () -> decisionEngine.calculateApprovedLoan(segment1PersonalCode, tooLowLoanAmount, 12));
+        assertSame(Invalid.of(InvalidField.LOAN_AMOUNT),
+                decisionEngine.calculateApprovedLoan(segment1PersonalCode, tooLowLoanAmount, 12));
 
-        assertThrows(InvalidLoanAmountException.class,
-                () -> decisionEngine.calculateApprovedLoan(segment1PersonalCode, tooHighLoanAmount, 12));
+        assertSame(Invalid.of(InvalidField.LOAN_AMOUNT),
+                decisionEngine.calculateApprovedLoan(segment1PersonalCode, tooHighLoanAmount, 12));
     }
 
     @Test
@@ -87,38 +146,56 @@ class DecisionEngineTest {
         int tooShortLoanPeriod = DecisionEngineConstants.MINIMUM_LOAN_PERIOD - 1;
         int tooLongLoanPeriod = DecisionEngineConstants.MAXIMUM_LOAN_PERIOD + 1;
 
-        assertThrows(InvalidLoanPeriodException.class,
-                () -> decisionEngine.calculateApprovedLoan(segment1PersonalCode, 4000L, tooShortLoanPeriod));
+        assertSame(Invalid.of(InvalidField.LOAN_PERIOD),
+                decisionEngine.calculateApprovedLoan(segment1PersonalCode, 4000L, tooShortLoanPeriod));
 
-        assertThrows(InvalidLoanPeriodException.class,
-                () -> decisionEngine.calculateApprovedLoan(segment1PersonalCode, 4000L, tooLongLoanPeriod));
+        assertSame(Invalid.of(InvalidField.LOAN_PERIOD),
+                decisionEngine.calculateApprovedLoan(segment1PersonalCode, 4000L, tooLongLoanPeriod));
     }
 
     @Test
-    void testFindSuitableLoanPeriod() throws InvalidLoanPeriodException, NoValidLoanException,
-            InvalidPersonalCodeException, InvalidLoanAmountException {
-        Decision decision = decisionEngine.calculateApprovedLoan(segment2PersonalCode, 2000L, 12);
+    void testFindSuitableLoanPeriod() {
+        Decision decision = approvedDecision(segment2PersonalCode, 2000L, 12);
         assertEquals(3600, decision.getLoanAmount());
         assertEquals(12, decision.getLoanPeriod());
     }
 
     @Test
     void testInvalidLoanPeriodExceptionFound() {
-        assertThrows(InvalidLoanPeriodException.class,
-                () -> decisionEngine.calculateApprovedLoan(debtorPersonalCode, 10000L, 60));
+        assertSame(Invalid.of(InvalidField.LOAN_PERIOD),
+                decisionEngine.calculateApprovedLoan(debtorPersonalCode, 10000L, 60));
     }
 
     @Test
     void testInvalidCustomerAgeExceptionFoundForSomeoneTooYoung(){
-        assertThrows(InvalidCustomerAgeException.class,
-                () -> decisionEngine.calculateApprovedLoan(tooYoungPersonalCode, 2000L, 48));
+        assertSame(Rejected.of(RejectionReason.CUSTOMER_AGE),
+                decisionEngine.calculateApprovedLoan(tooYoungPersonalCode, 2000L, 48));
     }
 
     @Test
     void testInvalidCustomerAgeExceptionFoundForSomeoneTooOld(){
+        assertSame(Rejected.of(RejectionReason.CUSTOMER_AGE),
+                decisionEngine.calculateApprovedLoan(tooOldPersonalCode, 2000L, 48));
+    }
+
+    @Test
+    void testLegacyAdapterThrowsDecisionExceptions() {
+        assertThrows(NoValidLoanException.class,
+                () -> decisionEngine.calculateApprovedLoan(debtorPersonalCode, 4000L, 12).orElseThrow());
+        assertThrows(InvalidPersonalCodeException.class,
+                () -> decisionEngine.calculateApprovedLoan("12345678901", 4000L, 12).orElseThrow());
         assertThrows(InvalidCustomerAgeException.class,
-                () -> decisionEngine.calculateApprovedLoan(tooOldPersonalCode, 2000L, 48));
+                () -> decisionEngine.calculateApprovedLoan(tooYoungPersonalCode, 2000L, 48).orElseThrow());
     }
 
-}
+    private Decision approvedDecision(String personalCode, Long loanAmount, int loanPeriod) {
+        return approvedDecision(null, personalCode, loanAmount, loanPeriod);
+    }
 
+    private Decision approvedDecision(String country, String personalCode, Long loanAmount, int loanPeriod) {
+        DecisionOutcome outcome = decisionEngine.calculateApprovedLoan(country, personalCode, loanAmount, loanPeriod);
+        assertInstanceOf(DecisionOutcome.Approved.class, outcome);
+        return ((DecisionOutcome.Approved) outcome).decision();
+    }
+
+}
@@ -0,0 +1,113 @@
+package ee.taltech.inbankbackend.service;
+
+import ee.taltech.inbankbackend.config.DecisionEngineConstants;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DecisionMemoTest {
+
+    private static final int[] CREDIT_MODIFIERS = {
+            DecisionEngineConstants.SEGMENT_1_CREDIT_MODIFIER,
+            DecisionEngineConstants.SEGMENT_2_CREDIT_MODIFIER,
+            DecisionEngineConstants.SEGMENT_3_CREDIT_MODIFIER,
+            // Not a configured segment, so it is calculated instead of looked up from the offer table.
+            250
+    };
+
+    private static final String PERSONAL_CODE = "50307172740";
+
+    private final LoanLimitSolver loanLimitSolver = new LoanLimitSolver();
+    private final OfferTableProvider offerTableProvider = new OfferTableProvider(loanLimitSolver);
+
+    @Test
+    void testMemoizedOutcomesMatchCalculatedOutcomes() {
+        DecisionMemo decisionMemo = new DecisionMemo(1024);
+
+        // Every amount is decided twice, so the second round is answered from the memo where the slot was kept.
+        for (int round = 0; round < 2; round++) {
+            for (int creditModifier : CREDIT_MODIFIERS) {
+                DecisionEngine memoized = engine(decisionMemo, creditModifier);
+                DecisionEngine calculated = engine(new DecisionMemo(0), creditModifier);
+                for (long amount = DecisionEngineConstants.MINIMUM_LOAN_AMOUNT; amount <= DecisionEngineConstants.MAXIMUM_LOAN_AMOUNT; amount += 7) {
+                    for (int period = DecisionEngineConstants.MINIMUM_LOAN_PERIOD; period <= DecisionEngineConstants.MAXIMUM_LOAN_PERIOD; period += 3) {
+                        assertEquals(describe(calculated.calculateApprovedLoan(PERSONAL_CODE, amount, period)),
+                                describe(memoized.calculateApprovedLoan(PERSONAL_CODE, amount, period)),
+                                "modifier=" + creditModifier + ", amount=" + amount + ", period=" + period);
+                    }
+                }
+            }
+        }
+        assertTrue(decisionMemo.stats().hits() > 0);
+    }
+
+    @Test
+    void testRepeatedShapeReturnsSameOutcome() {
+        DecisionMemo decisionMemo = new DecisionMemo(1024);
+        DecisionEngine decisionEngine = engine(decisionMemo, DecisionEngineConstants.SEGMENT_1_CREDIT_MODIFIER);
+
+        DecisionOutcome first = decisionEngine.calculateApprovedLoan(PERSONAL_CODE, 4000L, 12);
+        DecisionOutcome second = decisionEngine.calculateApprovedLoan(PERSONAL_CODE, 3901L, 12);
+
+        assertInstanceOf(DecisionOutcome.Approved.class, first);
+        assertSame(first, second);
+        assertEquals(new DecisionMemoStats(1, 1, 1024), decisionMemo.stats());
+        assertEquals(0.5, decisionMemo.stats().hitRate());
+    }
+
+    @Test
+    void testOfferTableRebuildInvalidatesMemo() {
+        DecisionEngine decisionEngine = engine(new DecisionMemo(1024), DecisionEngineConstants.SEGMENT_1_CREDIT_MODIFIER);
+        DecisionOutcome before = decisionEngine.calculateApprovedLoan(PERSONAL_CODE, 4000L, 12);
+
+        offerTableProvider.rebuildIfChanged(0, 200, 400);
+        DecisionOutcome after = decisionEngine.calculateApprovedLoan(PERSONAL_CODE, 4000L, 12);
+
+        assertNotSame(before, after);
+        assertEquals(describe(before), describe(after));
+    }
+
+    @Test
+    void testKeysOfDifferentShapesDiffer() {
+        assertEquals(DecisionMemo.key(100, 2001, 12), DecisionMemo.key(100, 2100, 12));
+        assertNotEquals(DecisionMemo.key(100, 2100, 12), DecisionMemo.key(100, 2101, 12));
+        assertNotEquals(DecisionMemo.key(100, 2100, 12), DecisionMemo.key(100, 2100, 13));
+        assertNotEquals(DecisionMemo.key(100, 2100, 12), DecisionMemo.key(300, 2100, 12));
+    }
+
+    @Test
+    void testDisabledMemo() {
+        DecisionMemo decisionMemo = new DecisionMemo(0);
+        engine(decisionMemo, DecisionEngineConstants.SEGMENT_1_CREDIT_MODIFIER).calculateApprovedLoan(PERSONAL_CODE, 4000L, 12);
+
+        assertEquals(new DecisionMemoStats(0, 0, 0), decisionMemo.stats());
+        assertFalse(new DecisionMemo(0, true).isWarmUpEnabled());
+    }
+
+    @Test
+    void testWarmUpFillsMemo() {
+        DecisionMemo decisionMemo = new DecisionMemo(DecisionMemo.DEFAULT_SIZE, true);
+        DecisionEngine decisionEngine = engine(decisionMemo, DecisionEngineConstants.SEGMENT_1_CREDIT_MODIFIER);
+
+        decisionEngine.warmUpDecisionMemo();
+        decisionEngine.calculateApprovedLoan(PERSONAL_CODE, 4000L, 12);
+
+        assertEquals(1, decisionMemo.stats().hits());
+    }
+
+    private DecisionEngine engine(DecisionMemo decisionMemo, int creditModifier) {
+        return DecisionEngine.builder(loanLimitSolver, offerTableProvider)
+                .creditInfoProvider((personalCode, parsedPersonalCode) -> CompletableFuture.completedFuture(creditModifier))
+                .decisionMemo(decisionMemo)
+                .build();
+    }
+
+    private static String describe(DecisionOutcome outcome) {
+        if (outcome instanceof DecisionOutcome.Approved approved) {
+            return approved.decision().getLoanAmount() + "/" + approved.decision().getLoanPeriod();
+        }
+        return outcome.toString();
+    }
+}
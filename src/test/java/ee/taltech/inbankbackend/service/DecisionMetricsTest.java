@@ -0,0 +1,94 @@
+package ee.taltech.inbankbackend.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DecisionMetricsTest {
+
+    private static final String SEGMENT_1_PERSONAL_CODE = "50307172740";
+    private static final String DEBTOR_PERSONAL_CODE = "37605030299";
+    private static final String TOO_YOUNG_PERSONAL_CODE = "62302155730";
+
+    private final LoanLimitSolver loanLimitSolver = new LoanLimitSolver();
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void testApprovedDecisionRecordsEveryStage() {
+        engine(new CreditInfoService()).calculateApprovedLoan(SEGMENT_1_PERSONAL_CODE, 2000L, 24);
+
+        assertEquals(1.0, outcomes("segment_1", "approved"));
+        for (String stage : new String[] {"total", "validation", "credit_lookup", "loan_calculation"}) {
+            assertEquals(1, meterRegistry.get("decision.stage")
+                    .tags("stage", stage, "segment", "segment_1", "outcome", "approved").timer().count(), stage);
+        }
+        assertEquals(1.0, summaryTotal("decision.loan.limit.evaluations", "segment_1", "approved"));
+    }
+
+    @Test
+    void testCounterOfferIsTaggedSeparately() {
+        DecisionOutcome outcome = engine(new CreditInfoService()).calculateApprovedLoan(SEGMENT_1_PERSONAL_CODE, 4000L, 12);
+
+        assertEquals(40, assertInstanceOf(DecisionOutcome.Approved.class, outcome).decision().getLoanPeriod());
+        assertEquals(1.0, outcomes("segment_1", "counter_offer"));
+        // The requested period and the shortest period reaching the amount are looked up from the offer table.
+        assertEquals(2.0, summaryTotal("decision.loan.limit.evaluations", "segment_1", "counter_offer"));
+        assertEquals(0.0, summaryTotal("decision.periods.scanned", "segment_1", "counter_offer"));
+    }
+
+    @Test
+    void testCalculatedCounterOfferCountsScannedPeriods() {
+        engine((personalCode, parsed) -> CompletableFuture.completedFuture(250))
+                .calculateApprovedLoan(SEGMENT_1_PERSONAL_CODE, 5000L, 12);
+
+        // 250 * 20 = 5000, so periods 12 to 20 are scanned after the requested period was evaluated.
+        assertEquals(1.0, outcomes("other", "counter_offer"));
+        assertEquals(9.0, summaryTotal("decision.periods.scanned", "other", "counter_offer"));
+        assertEquals(10.0, summaryTotal("decision.loan.limit.evaluations", "other", "counter_offer"));
+    }
+
+    @Test
+    void testRejectionsAreTaggedByReason() {
+        DecisionEngine decisionEngine = engine(new CreditInfoService());
+
+        decisionEngine.calculateApprovedLoan(DEBTOR_PERSONAL_CODE, 4000L, 12);
+        decisionEngine.calculateApprovedLoan(TOO_YOUNG_PERSONAL_CODE, 4000L, 12);
+        decisionEngine.calculateApprovedLoanAsync("12345678901", 4000L, 12).join();
+
+        assertEquals(1.0, outcomes("debt", "rejected_debt"));
+        assertEquals(1.0, outcomes("none", "rejected_age"));
+        assertEquals(1.0, outcomes("none", "invalid"));
+        // Decisions that end in validation never reach the credit lookup.
+        assertEquals(0, meterRegistry.get("decision.stage")
+                .tags("stage", "credit_lookup", "segment", "none", "outcome", "invalid").timer().count());
+    }
+
+    @Test
+    void testDisabledMetricsShareOneSample() {
+        DecisionMetrics disabled = DecisionMetrics.disabled();
+
+        assertSame(disabled.start(), disabled.start());
+        assertNotSame(new DecisionMetrics(meterRegistry).start(), new DecisionMetrics(meterRegistry).start());
+    }
+
+    private DecisionEngine engine(CreditInfoProvider creditInfoProvider) {
+        // Without the memo every decision is calculated, so the evaluation counts are deterministic.
+        return DecisionEngine.builder(loanLimitSolver, new OfferTableProvider(loanLimitSolver))
+                .creditInfoProvider(creditInfoProvider)
+                .decisionMemo(new DecisionMemo(0))
+                .decisionMetrics(new DecisionMetrics(meterRegistry))
+                .build();
+    }
+
+    private double outcomes(String segment, String outcome) {
+        return meterRegistry.get("decision.outcomes").tags("segment", segment, "outcome", outcome).counter().count();
+    }
+
+    private double summaryTotal(String name, String segment, String outcome) {
+        return meterRegistry.get(name).tags("segment", segment, "outcome", outcome).summary().totalAmount();
+    }
+}
@@ -0,0 +1,143 @@
+package ee.taltech.inbankbackend.service;
+
+import ee.taltech.inbankbackend.config.ScoringPolicy;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.Period;
+import java.time.ZoneId;
+import java.util.Properties;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EligibilityCalendarTest {
+
+    private static final ZoneId ZONE = ZoneId.of("Europe/Tallinn");
+
+    private final MutableClock clock = new MutableClock(LocalDateTime.of(2026, 10, 17, 12, 0));
+
+    @Test
+    void testMinimumAgeFromEighteenthBirthday() {
+        EligibilityCalendar calendar = new EligibilityCalendar(clock);
+
+        assertTrue(calendar.isEligible(born(2008, 10, 17), ScoringPolicy.DEFAULTS));
+        assertFalse(calendar.isEligible(born(2008, 10, 18), ScoringPolicy.DEFAULTS));
+    }
+
+    @Test
+    void testMaximumAgeFromAverageLifespanLessMaximumLoanPeriod() {
+        EligibilityCalendar calendar = new EligibilityCalendar(clock);
+
+        // 81 - 48 / 12 = 77 years, until the day before the 78th birthday
+        assertTrue(calendar.isEligible(born(1948, 10, 18), ScoringPolicy.DEFAULTS));
+        assertFalse(calendar.isEligible(born(1948, 10, 17), ScoringPolicy.DEFAULTS));
+    }
+
+    @Test
+    void testRollsOverAtMidnight() {
+        EligibilityCalendar calendar = new EligibilityCalendar(clock);
+        ParsedPersonalCode birthdayTomorrow = born(2008, 10, 18);
+        assertFalse(calendar.isEligible(birthdayTomorrow, ScoringPolicy.DEFAULTS));
+
+        clock.set(LocalDateTime.of(2026, 10, 17, 23, 59, 59));
+        calendar.rollOver();
+        assertEquals(20261017, calendar.today());
+
+        clock.set(LocalDateTime.of(2026, 10, 18, 0, 0));
+        calendar.rollOver();
+        assertEquals(20261018, calendar.today());
+        assertTrue(calendar.isEligible(birthdayTomorrow, ScoringPolicy.DEFAULTS));
+    }
+
+    @Test
+    void testOutOfDateSnapshotIsReplacedWhenRead() {
+        EligibilityCalendar calendar = new EligibilityCalendar(clock);
+
+        clock.set(LocalDateTime.of(2026, 10, 18, 0, 0));
+
+        assertTrue(calendar.isEligible(born(2008, 10, 18), ScoringPolicy.DEFAULTS));
+        assertEquals(20261018, calendar.today());
+    }
+
+    @Test
+    void testLeapDayBirthdayIsOnFirstOfMarchInOtherYears() {
+        clock.set(LocalDateTime.of(2026, 2, 28, 12, 0));
+        EligibilityCalendar calendar = new EligibilityCalendar(clock);
+        ParsedPersonalCode leapDay = born(2008, 2, 29);
+        assertFalse(calendar.isEligible(leapDay, ScoringPolicy.DEFAULTS));
+
+        clock.set(LocalDateTime.of(2026, 3, 1, 0, 0));
+        assertTrue(calendar.isEligible(leapDay, ScoringPolicy.DEFAULTS));
+    }
+
+    @Test
+    void testFollowsPolicyChanges() {
+        EligibilityCalendar calendar = new EligibilityCalendar(clock);
+        Properties properties = new Properties();
+        properties.setProperty("version", "2");
+        properties.setProperty("average-lifespan", "70");
+        ScoringPolicy policy = ScoringPolicy.of(properties);
+        ParsedPersonalCode seventy = born(1956, 10, 17);
+
+        assertTrue(calendar.isEligible(seventy, ScoringPolicy.DEFAULTS));
+        assertFalse(calendar.isEligible(seventy, policy));
+        assertTrue(calendar.isEligible(born(1960, 10, 18), policy));
+    }
+
+    @Test
+    void testMatchesAgeInYears() {
+        EligibilityCalendar calendar = new EligibilityCalendar(clock);
+        LocalDate today = LocalDate.of(2026, 10, 17);
+        for (LocalDate birthDate = LocalDate.of(1946, 1, 1); birthDate.getYear() < 2010; birthDate = birthDate.plusDays(1)) {
+            int age = Period.between(birthDate, today).getYears();
+            assertEquals(age >= 18 && age <= 77, calendar.isEligible(born(birthDate), ScoringPolicy.DEFAULTS),
+                    birthDate.toString());
+        }
+    }
+
+    private static ParsedPersonalCode born(int year, int month, int day) {
+        return born(LocalDate.of(year, month, day));
+    }
+
+    private static ParsedPersonalCode born(LocalDate birthDate) {
+        int centuryPrefix = (birthDate.getYear() - 1800) / 100 * 2 + 1;
+        String code = String.format("%d%02d%02d%02d123",
+                centuryPrefix, birthDate.getYear() % 100, birthDate.getMonthValue(), birthDate.getDayOfMonth());
+        ParsedPersonalCode personalCode = ParsedPersonalCode.parse(ParsedPersonalCodeTest.withChecksum(code));
+        assertTrue(personalCode.isValid());
+        return personalCode;
+    }
+
+    private static final class MutableClock extends Clock {
+
+        private Instant instant;
+
+        MutableClock(LocalDateTime dateTime) {
+            set(dateTime);
+        }
+
+        void set(LocalDateTime dateTime) {
+            instant = dateTime.atZone(ZONE).toInstant();
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZONE;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package ee.taltech.inbankbackend.service;
+
+import com.sun.net.httpserver.HttpServer;
+import ee.taltech.inbankbackend.config.DecisionEngineConstants;
+import ee.taltech.inbankbackend.exceptions.CreditInfoUnavailableException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.http.HttpClient;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests the HTTP credit info provider against a local stub credit registry.
+ * The stub answers depending on the serial digits of the requested personal ID code:
+ * 001 is slow, 002 fails with status 500 and 003 returns a malformed body, all others return modifier 300.
+ * The stub keeps the last requested path and query.
+ */
+class HttpCreditInfoProviderTest {
+
+    private static final Duration TIMEOUT = Duration.ofMillis(300);
+
+    private final String registryCode = "50307172740";
+    private final String slowCode = "38501010013";
+    private final String failingCode = "38501010024";
+    private final String malformedCode = "38501010035";
+
+    private HttpServer registry;
+    private ExecutorService registryExecutor;
+    private HttpClient httpClient;
+    private CountDownLatch releaseSlowResponses;
+    private volatile String lastRequest;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        releaseSlowResponses = new CountDownLatch(1);
+        registryExecutor = Executors.newCachedThreadPool();
+        registry = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        registry.setExecutor(registryExecutor);
+        registry.createContext("/credit-modifier/", exchange -> {
+            lastRequest = exchange.getRequestURI().getPath() + "?" + exchange.getRequestURI().getQuery();
+            String personalCode = exchange.getRequestURI().getPath().substring("/credit-modifier/".length());
+            int status = 200;
+            String body = "{\"creditModifier\":300}";
+            switch (personalCode.substring(7, 10)) {
+                case "001" -> awaitRelease();
+                case "002" -> status = 500;
+                case "003" -> body = "not json";
+                default -> {
+                }
+            }
+            byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(status, bytes.length);
+            try (OutputStream responseBody = exchange.getResponseBody()) {
+                responseBody.write(bytes);
+            }
+        });
+        registry.start();
+        httpClient = HttpClient.newHttpClient();
+    }
+
+    @AfterEach
+    void tearDown() {
+        releaseSlowResponses.countDown();
+        registry.stop(0);
+        registryExecutor.shutdownNow();
+    }
+
+    @Test
+    void testCreditModifierFromRegistry() {
+        assertEquals(300, provider(CreditInfoFallback.FAIL).getCreditModifier(registryCode, parse(registryCode)).join());
+    }
+
+    @Test
+    void testRegistryIsAskedForCodeOfCountry() {
+        provider(CreditInfoFallback.FAIL).getCreditModifier(registryCode, parse(registryCode)).join();
+        assertEquals("/credit-modifier/50307172740?country=EE", lastRequest);
+
+        provider(CreditInfoFallback.FAIL).getCreditModifier(registryCode, PersonalCodeSchemes.parse("LT", registryCode)).join();
+        assertEquals("/credit-modifier/50307172740?country=LT", lastRequest);
+    }
+
+    @Test
+    void testSlowRegistryUsesFallbackAfterTimeout() {
+        long start = System.nanoTime();
+        int creditModifier = provider(CreditInfoFallback.DEBT).getCreditModifier(slowCode, parse(slowCode)).join();
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertEquals(DecisionEngineConstants.DEBT, creditModifier);
+        assertTrue(elapsedMillis < 5_000, "elapsed " + elapsedMillis + " ms");
+    }
+
+    @Test
+    void testFailingRegistryUsesMockFallback() {
+        assertEquals(CreditInfoService.getCreditModifier(parse(failingCode)),
+                provider(CreditInfoFallback.MOCK).getCreditModifier(failingCode, parse(failingCode)).join());
+        assertEquals(CreditInfoService.getCreditModifier(parse(malformedCode)),
+                provider(CreditInfoFallback.MOCK).getCreditModifier(malformedCode, parse(malformedCode)).join());
+    }
+
+    @Test
+    void testFailFallbackCompletesExceptionally() {
+        CompletionException exception = assertThrows(CompletionException.class,
+                () -> provider(CreditInfoFallback.FAIL).getCreditModifier(failingCode, parse(failingCode)).join());
+        assertInstanceOf(CreditInfoUnavailableException.class, exception.getCause());
+    }
+
+    @Test
+    void testAsyncDecisionDoesNotWaitForRegistry() {
+        LoanLimitSolver loanLimitSolver = new LoanLimitSolver();
+        DecisionEngine decisionEngine = DecisionEngine.builder(loanLimitSolver, new OfferTableProvider(loanLimitSolver))
+                .creditInfoProvider(new HttpCreditInfoProvider(httpClient, registryUrl(), Duration.ofSeconds(10),
+                        CreditInfoFallback.FAIL))
+                .build();
+
+        CompletableFuture<DecisionOutcome> slowDecision = decisionEngine.calculateApprovedLoanAsync(slowCode, 2000L, 12);
+        assertFalse(slowDecision.isDone());
+
+        releaseSlowResponses.countDown();
+        DecisionOutcome outcome = slowDecision.join();
+        DecisionOutcome.Approved approved = assertInstanceOf(DecisionOutcome.Approved.class, outcome);
+        assertEquals(3600, approved.decision().getLoanAmount());
+        assertEquals(12, approved.decision().getLoanPeriod());
+    }
+
+    private HttpCreditInfoProvider provider(CreditInfoFallback fallback) {
+        return new HttpCreditInfoProvider(httpClient, registryUrl(), TIMEOUT, fallback);
+    }
+
+    private String registryUrl() {
+        return "http://127.0.0.1:" + registry.getAddress().getPort() + "/credit-modifier/";
+    }
+
+    private void awaitRelease() {
+        try {
+            releaseSlowResponses.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static ParsedPersonalCode parse(String personalCode) {
+        return ParsedPersonalCode.parse(personalCode);
+    }
+}
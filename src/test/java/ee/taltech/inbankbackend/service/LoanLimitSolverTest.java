@@ -0,0 +1,45 @@
+package ee.taltech.inbankbackend.service;
+
+import ee.taltech.inbankbackend.config.DecisionEngineConstants;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class LoanLimitSolverTest {
+
+    private static final int MAXIMUM_TESTED_CREDIT_MODIFIER = 1500;
+
+    @Test
+    void testClosedFormMatchesReferenceLoopForEveryModifierAndPeriod() {
+        for (int creditModifier = 0; creditModifier <= MAXIMUM_TESTED_CREDIT_MODIFIER; creditModifier++) {
+            for (int period = DecisionEngineConstants.MINIMUM_LOAN_PERIOD; period <= DecisionEngineConstants.MAXIMUM_LOAN_PERIOD; period++) {
+                assertEquals(LoanLimitSolver.referenceHighestValidLoanAmount(creditModifier, period),
+                        LoanLimitSolver.closedFormHighestValidLoanAmount(creditModifier, period),
+                        "creditModifier=" + creditModifier + ", period=" + period);
+            }
+        }
+    }
+
+    @Test
+    void testScoreExactlyOnMinimumIsTreatedLikeReferenceLoop() {
+        // 100 * 40 = 4000, the credit score for 4000€ is exactly 0.1
+        assertEquals(4000, LoanLimitSolver.closedFormHighestValidLoanAmount(DecisionEngineConstants.SEGMENT_1_CREDIT_MODIFIER, 40));
+        // 100 * 20 = 2000, the credit score for the minimum loan amount is exactly 0.1
+        assertEquals(2000, LoanLimitSolver.closedFormHighestValidLoanAmount(DecisionEngineConstants.SEGMENT_1_CREDIT_MODIFIER, 20));
+        assertEquals(0, LoanLimitSolver.closedFormHighestValidLoanAmount(DecisionEngineConstants.SEGMENT_1_CREDIT_MODIFIER, 19));
+    }
+
+    @Test
+    void testDebtHasNoValidLoan() {
+        assertEquals(0, new LoanLimitSolver().highestValidLoanAmount(DecisionEngineConstants.DEBT, 48));
+        assertEquals(0, new LoanLimitSolver(true).highestValidLoanAmount(DecisionEngineConstants.DEBT, 48));
+    }
+
+    @Test
+    void testReferenceLoopFlag() {
+        LoanLimitSolver closedForm = new LoanLimitSolver(false);
+        LoanLimitSolver referenceLoop = new LoanLimitSolver(true);
+        assertEquals(referenceLoop.highestValidLoanAmount(DecisionEngineConstants.SEGMENT_3_CREDIT_MODIFIER, 48),
+                closedForm.highestValidLoanAmount(DecisionEngineConstants.SEGMENT_3_CREDIT_MODIFIER, 48));
+    }
+}
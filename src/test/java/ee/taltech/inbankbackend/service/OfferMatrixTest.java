@@ -0,0 +1,124 @@
+package ee.taltech.inbankbackend.service;
+
+import ee.taltech.inbankbackend.config.DecisionEngineConstants;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+
+class OfferMatrixTest {
+
+    private static final String SEGMENT_1_PERSONAL_CODE = "50307172740";
+    private static final String SEGMENT_3_PERSONAL_CODE = "35006069515";
+
+    private final LoanLimitSolver loanLimitSolver = new LoanLimitSolver();
+    private final OfferTableProvider offerTableProvider = new OfferTableProvider(loanLimitSolver);
+
+    @Test
+    void testSegmentMatrixMatchesDecisions() {
+        DecisionEngine decisionEngine = DecisionEngine.builder(loanLimitSolver, offerTableProvider).build();
+
+        for (String personalCode : new String[]{SEGMENT_1_PERSONAL_CODE, "38411266610", SEGMENT_3_PERSONAL_CODE}) {
+            assertMatchesDecisions(decisionEngine, personalCode);
+        }
+    }
+
+    @Test
+    void testModifierOutsideSegmentsMatchesDecisions() {
+        DecisionEngine decisionEngine = engine(150);
+
+        assertMatchesDecisions(decisionEngine, SEGMENT_1_PERSONAL_CODE);
+    }
+
+    @Test
+    void testSegment1Matrix() {
+        DecisionEngine decisionEngine = DecisionEngine.builder(loanLimitSolver, offerTableProvider).build();
+
+        OfferMatrix matrix = offered(decisionEngine, SEGMENT_1_PERSONAL_CODE);
+
+        assertEquals(DecisionEngineConstants.MINIMUM_LOAN_PERIOD, matrix.minimumLoanPeriod());
+        assertEquals(DecisionEngineConstants.MAXIMUM_LOAN_PERIOD - DecisionEngineConstants.MINIMUM_LOAN_PERIOD + 1,
+                matrix.highestLoanAmounts().length);
+        // A modifier of 100 gets no loan below 20 months and 100 * period from then on.
+        assertEquals(0, matrix.highestLoanAmounts()[19 - DecisionEngineConstants.MINIMUM_LOAN_PERIOD]);
+        assertEquals(2000, matrix.highestLoanAmounts()[20 - DecisionEngineConstants.MINIMUM_LOAN_PERIOD]);
+        assertEquals(4800, matrix.highestLoanAmounts()[48 - DecisionEngineConstants.MINIMUM_LOAN_PERIOD]);
+        assertEquals(20, matrix.shortestLoanPeriods()[0]);
+        assertEquals(48, matrix.shortestLoanPeriods()[(4800 - 2000) / 100]);
+        assertEquals(0, matrix.shortestLoanPeriods()[(4900 - 2000) / 100]);
+    }
+
+    @Test
+    void testCustomersWithoutLoansAreNotOffered() {
+        DecisionEngine decisionEngine = DecisionEngine.builder(loanLimitSolver, offerTableProvider).build();
+
+        assertEquals(DecisionOutcome.Rejected.of(RejectionReason.NO_VALID_LOAN), notOffered(decisionEngine, "37605030299"));
+        assertEquals(DecisionOutcome.Invalid.of(InvalidField.PERSONAL_CODE), notOffered(decisionEngine, "12345678901"));
+        assertEquals(DecisionOutcome.Rejected.of(RejectionReason.CUSTOMER_AGE), notOffered(decisionEngine, "62302155730"));
+        // A modifier this low has no valid loan for any period.
+        assertEquals(DecisionOutcome.Rejected.of(RejectionReason.NO_VALID_LOAN), notOffered(engine(40), SEGMENT_1_PERSONAL_CODE));
+    }
+
+    @Test
+    void testCodesOfCountry() {
+        DecisionEngine decisionEngine = DecisionEngine.builder(loanLimitSolver, offerTableProvider).build();
+        OfferMatrix estonian = offered(decisionEngine, SEGMENT_1_PERSONAL_CODE);
+
+        assertEquals(estonian, assertInstanceOf(OfferMatrixOutcome.Offered.class,
+                decisionEngine.calculateOfferMatrixAsync("LV", "17070322744").join()).matrix());
+        assertEquals(DecisionOutcome.Invalid.of(InvalidField.PERSONAL_CODE), assertInstanceOf(OfferMatrixOutcome.NotOffered.class,
+                decisionEngine.calculateOfferMatrixAsync("FI", SEGMENT_1_PERSONAL_CODE).join()).outcome());
+    }
+
+    @Test
+    void testMatrixOfSamePolicyAndModifierIsEqual() {
+        DecisionEngine decisionEngine = DecisionEngine.builder(loanLimitSolver, offerTableProvider).build();
+
+        OfferMatrix matrix = offered(decisionEngine, SEGMENT_3_PERSONAL_CODE);
+
+        assertEquals(matrix, offered(decisionEngine, SEGMENT_3_PERSONAL_CODE));
+        assertEquals(matrix.hashCode(), offered(decisionEngine, SEGMENT_3_PERSONAL_CODE).hashCode());
+    }
+
+    /**
+     * The highest amount of a period is what a request of the minimum amount for that period is approved with, and the
+     * shortest period of an amount is the period a request of that amount for the minimum period is approved with.
+     */
+    private static void assertMatchesDecisions(DecisionEngine decisionEngine, String personalCode) {
+        OfferMatrix matrix = offered(decisionEngine, personalCode);
+
+        for (int i = 0; i < matrix.highestLoanAmounts().length; i++) {
+            int period = matrix.minimumLoanPeriod() + i;
+            DecisionOutcome outcome = decisionEngine.calculateApprovedLoan(personalCode,
+                    (long) DecisionEngineConstants.MINIMUM_LOAN_AMOUNT, period);
+            int expected = outcome instanceof DecisionOutcome.Approved approved
+                    && approved.decision().getLoanPeriod() == period ? approved.decision().getLoanAmount() : 0;
+            assertEquals(expected, matrix.highestLoanAmounts()[i], "period=" + period);
+        }
+        for (int j = 0; j < matrix.shortestLoanPeriods().length; j++) {
+            long amount = matrix.minimumLoanAmount() + (long) j * matrix.loanAmountStep();
+            DecisionOutcome outcome = decisionEngine.calculateApprovedLoan(personalCode, amount, DecisionEngineConstants.MINIMUM_LOAN_PERIOD);
+            int expected = outcome instanceof DecisionOutcome.Approved approved
+                    && approved.decision().getLoanAmount() >= amount ? approved.decision().getLoanPeriod() : 0;
+            assertEquals(expected, matrix.shortestLoanPeriods()[j], "amount=" + amount);
+        }
+    }
+
+    private DecisionEngine engine(int creditModifier) {
+        return DecisionEngine.builder(loanLimitSolver, offerTableProvider)
+                .creditInfoProvider((personalCode, parsedPersonalCode) -> CompletableFuture.completedFuture(creditModifier))
+                .build();
+    }
+
+    private static OfferMatrix offered(DecisionEngine decisionEngine, String personalCode) {
+        return assertInstanceOf(OfferMatrixOutcome.Offered.class,
+                decisionEngine.calculateOfferMatrixAsync(personalCode).join()).matrix();
+    }
+
+    private static DecisionOutcome notOffered(DecisionEngine decisionEngine, String personalCode) {
+        return assertInstanceOf(OfferMatrixOutcome.NotOffered.class,
+                decisionEngine.calculateOfferMatrixAsync(personalCode).join()).outcome();
+    }
+}
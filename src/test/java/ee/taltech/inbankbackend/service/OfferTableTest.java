@@ -0,0 +1,65 @@
+package ee.taltech.inbankbackend.service;
+
+import ee.taltech.inbankbackend.config.DecisionEngineConstants;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class OfferTableTest {
+
+    private static final int[] CREDIT_MODIFIERS = {
+            DecisionEngineConstants.DEBT,
+            DecisionEngineConstants.SEGMENT_1_CREDIT_MODIFIER,
+            DecisionEngineConstants.SEGMENT_2_CREDIT_MODIFIER,
+            DecisionEngineConstants.SEGMENT_3_CREDIT_MODIFIER
+    };
+
+    private final LoanLimitSolver loanLimitSolver = new LoanLimitSolver();
+    private final OfferTable offerTable = OfferTable.build(loanLimitSolver, CREDIT_MODIFIERS);
+
+    @Test
+    void testHighestValidLoanAmountsMatchSolver() {
+        for (int segment = 0; segment < CREDIT_MODIFIERS.length; segment++) {
+            for (int period = DecisionEngineConstants.MINIMUM_LOAN_PERIOD; period <= DecisionEngineConstants.MAXIMUM_LOAN_PERIOD; period++) {
+                assertEquals(loanLimitSolver.highestValidLoanAmount(CREDIT_MODIFIERS[segment], period),
+                        offerTable.highestValidLoanAmount(segment, period));
+            }
+        }
+    }
+
+    @Test
+    void testShortestLoanPeriodMatchesPeriodScan() {
+        for (int segment = 0; segment < CREDIT_MODIFIERS.length; segment++) {
+            for (long amount = DecisionEngineConstants.MINIMUM_LOAN_AMOUNT; amount <= DecisionEngineConstants.MAXIMUM_LOAN_AMOUNT; amount++) {
+                int expectedPeriod = DecisionEngineConstants.MINIMUM_LOAN_PERIOD;
+                while (expectedPeriod < DecisionEngineConstants.MAXIMUM_LOAN_PERIOD
+                        && loanLimitSolver.highestValidLoanAmount(CREDIT_MODIFIERS[segment], expectedPeriod) < amount) {
+                    expectedPeriod++;
+                }
+                assertEquals(expectedPeriod, offerTable.shortestLoanPeriod(segment, amount),
+                        "segment=" + segment + ", amount=" + amount);
+            }
+        }
+    }
+
+    @Test
+    void testSegmentIndex() {
+        assertEquals(2, offerTable.segmentIndex(DecisionEngineConstants.SEGMENT_2_CREDIT_MODIFIER));
+        assertEquals(-1, offerTable.segmentIndex(123));
+    }
+
+    @Test
+    void testProviderRebuildsWhenSegmentsChange() {
+        OfferTableProvider offerTableProvider = new OfferTableProvider(loanLimitSolver);
+        OfferTable initial = offerTableProvider.current();
+
+        offerTableProvider.rebuildIfChanged(CREDIT_MODIFIERS);
+        assertSame(initial, offerTableProvider.current());
+
+        offerTableProvider.rebuildIfChanged(0, 200, 400);
+        assertNotSame(initial, offerTableProvider.current());
+        assertEquals(1, offerTableProvider.current().segmentIndex(200));
+    }
+}
@@ -0,0 +1,66 @@
+package ee.taltech.inbankbackend.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ParsedPersonalCodeTest {
+
+    @Test
+    void testParsesAllFields() {
+        ParsedPersonalCode personalCode = ParsedPersonalCode.parse("50307172740");
+        assertTrue(personalCode.isValid());
+        assertEquals(5, personalCode.getCenturyPrefix());
+        assertEquals(2003, personalCode.getBirthYear());
+        assertEquals(7, personalCode.getBirthMonth());
+        assertEquals(17, personalCode.getBirthDay());
+        assertEquals(20030717, personalCode.getBirthDate());
+        assertEquals(274, personalCode.getSerial());
+        assertEquals(0, personalCode.getChecksum());
+        assertEquals(2740, personalCode.getSegmentDigits());
+    }
+
+    @Test
+    void testCenturyPrefixes() {
+        assertEquals(1876, ParsedPersonalCode.parse(withChecksum("1760503029")).getBirthYear());
+        assertEquals(1976, ParsedPersonalCode.parse("37605030299").getBirthYear());
+    }
+
+    @Test
+    void testInvalidCodes() {
+        assertFalse(ParsedPersonalCode.parse(null).isValid());
+        assertFalse(ParsedPersonalCode.parse("").isValid());
+        assertFalse(ParsedPersonalCode.parse("5030717274").isValid());
+        assertFalse(ParsedPersonalCode.parse("5030717274a").isValid());
+        // Wrong checksum
+        assertFalse(ParsedPersonalCode.parse("50307172741").isValid());
+        assertFalse(ParsedPersonalCode.parse("12345678901").isValid());
+        // Century prefix out of range
+        assertFalse(ParsedPersonalCode.parse("70307172740").isValid());
+    }
+
+    @Test
+    void testInvalidBirthDates() {
+        // 30 February and 29 February of non-leap years (1900 included), all with correct checksums
+        assertFalse(ParsedPersonalCode.parse(withChecksum("3900230123")).isValid());
+        assertFalse(ParsedPersonalCode.parse(withChecksum("3010229123")).isValid());
+        assertFalse(ParsedPersonalCode.parse(withChecksum("3000229123")).isValid());
+        assertTrue(ParsedPersonalCode.parse(withChecksum("5000229123")).isValid());
+        assertFalse(ParsedPersonalCode.parse(withChecksum("3901301123")).isValid());
+    }
+
+    static String withChecksum(String firstTenDigits) {
+        int[] firstWeights = {1, 2, 3, 4, 5, 6, 7, 8, 9, 1};
+        int[] secondWeights = {3, 4, 5, 6, 7, 8, 9, 1, 2, 3};
+        int firstSum = 0;
+        int secondSum = 0;
+        for (int i = 0; i < 10; i++) {
+            firstSum += (firstTenDigits.charAt(i) - '0') * firstWeights[i];
+            secondSum += (firstTenDigits.charAt(i) - '0') * secondWeights[i];
+        }
+        int checksum = firstSum % 11 == 10 ? (secondSum % 11 == 10 ? 0 : secondSum % 11) : firstSum % 11;
+        return firstTenDigits + checksum;
+    }
+}
@@ -0,0 +1,97 @@
+package ee.taltech.inbankbackend.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PersonalCodeSchemesTest {
+
+    @Test
+    void testSchemeByCountry() {
+        assertSame(PersonalCodeSchemes.ESTONIAN, PersonalCodeSchemes.forCountry("EE"));
+        assertSame(PersonalCodeSchemes.LATVIAN, PersonalCodeSchemes.forCountry("LV"));
+        assertSame(PersonalCodeSchemes.LITHUANIAN, PersonalCodeSchemes.forCountry("lt"));
+        assertNull(PersonalCodeSchemes.forCountry("FI"));
+        assertNull(PersonalCodeSchemes.forCountry("E"));
+        assertNull(PersonalCodeSchemes.forCountry("E1"));
+        assertNull(PersonalCodeSchemes.forCountry("EST"));
+        assertNull(PersonalCodeSchemes.forCountry(null));
+    }
+
+    @Test
+    void testSchemeByShape() {
+        assertSame(PersonalCodeSchemes.LATVIAN, PersonalCodeSchemes.forCode("170703-22744"));
+        assertSame(PersonalCodeSchemes.ESTONIAN, PersonalCodeSchemes.forCode("50307172740"));
+        assertSame(PersonalCodeSchemes.ESTONIAN, PersonalCodeSchemes.forCode("17070322744"));
+        assertSame(PersonalCodeSchemes.ESTONIAN, PersonalCodeSchemes.forCode(null));
+    }
+
+    @Test
+    void testParsesLatvianCode() {
+        ParsedPersonalCode personalCode = PersonalCodeSchemes.LATVIAN.parse("170703-22744");
+        assertTrue(personalCode.isValid());
+        assertEquals(2, personalCode.getCenturyPrefix());
+        assertEquals(20030717, personalCode.getBirthDate());
+        assertEquals(274, personalCode.getSerial());
+        assertEquals(4, personalCode.getChecksum());
+        assertEquals(2744, personalCode.getSegmentDigits());
+
+        assertEquals(20030717, PersonalCodeSchemes.LATVIAN.parse("17070322744").getBirthDate());
+        assertEquals(19400101, PersonalCodeSchemes.LATVIAN.parse(withLatvianChecksum("010140-1227")).getBirthDate());
+    }
+
+    @Test
+    void testInvalidLatvianCodes() {
+        PersonalCodeScheme latvian = PersonalCodeSchemes.LATVIAN;
+        assertFalse(latvian.parse(null).isValid());
+        assertFalse(latvian.parse("170703-2274").isValid());
+        // Wrong checksum, misplaced hyphen, letters
+        assertFalse(latvian.parse("170703-22745").isValid());
+        assertFalse(latvian.parse("17070-322744").isValid());
+        assertFalse(latvian.parse("17070a-22744").isValid());
+        // 29 February 2001, century 3 and a code without a birth date, all with correct checksums
+        assertFalse(latvian.parse(withLatvianChecksum("290201-2227")).isValid());
+        assertTrue(latvian.parse(withLatvianChecksum("290200-2227")).isValid());
+        assertFalse(latvian.parse(withLatvianChecksum("010100-3227")).isValid());
+        assertFalse(latvian.parse(withLatvianChecksum("321234-5678")).isValid());
+    }
+
+    @Test
+    void testLithuanianCodesParseLikeEstonian() {
+        ParsedPersonalCode lithuanian = PersonalCodeSchemes.LITHUANIAN.parse("38411266610");
+        assertTrue(lithuanian.isValid());
+        assertEquals(19841126, lithuanian.getBirthDate());
+        assertEquals(6610, lithuanian.getSegmentDigits());
+        assertFalse(PersonalCodeSchemes.LITHUANIAN.parse("38411266611").isValid());
+    }
+
+    @Test
+    void testParseWithCountry() {
+        assertTrue(PersonalCodeSchemes.parse("LV", "17070322744").isValid());
+        assertFalse(PersonalCodeSchemes.parse(null, "17070322744").isValid());
+        assertTrue(PersonalCodeSchemes.parse(null, "170703-22744").isValid());
+        assertTrue(PersonalCodeSchemes.parse("EE", "50307172740").isValid());
+        assertFalse(PersonalCodeSchemes.parse("EE", "170703-22744").isValid());
+        assertFalse(PersonalCodeSchemes.parse("FI", "50307172740").isValid());
+    }
+
+    /**
+     * @param code Latvian code without the checksum digit
+     * @return The code followed by its checksum digit
+     */
+    private static String withLatvianChecksum(String code) {
+        int[] weights = {1, 6, 3, 7, 9, 10, 5, 8, 4, 2};
+        String digits = code.replace("-", "");
+        int sum = 0;
+        for (int i = 0; i < 10; i++) {
+            sum += (digits.charAt(i) - '0') * weights[i];
+        }
+        int checksum = (1101 - sum) % 11;
+        assertTrue(checksum < 10, "no code has checksum 10: " + code);
+        return code + checksum;
+    }
+}
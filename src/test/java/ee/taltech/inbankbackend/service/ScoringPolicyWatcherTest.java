@@ -0,0 +1,141 @@
+package ee.taltech.inbankbackend.service;
+
+import ee.taltech.inbankbackend.config.ScoringPolicy;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ScoringPolicyWatcherTest {
+
+    private static final String SEGMENT_1_PERSONAL_CODE = "50307172740";
+    private static final String SEGMENT_3_PERSONAL_CODE = "35006069515";
+
+    private final LoanLimitSolver loanLimitSolver = new LoanLimitSolver();
+    private final OfferTableProvider offerTableProvider = new OfferTableProvider(loanLimitSolver);
+    private final List<Object> events = new ArrayList<>();
+    private Path directory;
+    private Path policyFile;
+    private ScoringPolicyWatcher watcher;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        directory = Files.createTempDirectory("scoring-policy");
+        policyFile = directory.resolve("scoring-policy.properties");
+        write("""
+                version=1
+                loan-amount.maximum=8000
+                """);
+        watcher = new ScoringPolicyWatcher(policyFile, offerTableProvider, events::add);
+        watcher.start();
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        watcher.close();
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Test
+    void testPolicyIsPublishedAtStartup() {
+        ScoringPolicy policy = offerTableProvider.current().getPolicy();
+
+        assertEquals(1, policy.getVersion());
+        assertEquals(8000, policy.getMaximumLoanAmount());
+        assertEquals(1, events.size());
+
+        DecisionEngine decisionEngine = engine();
+        assertEquals(new DecisionOutcome.Invalid(InvalidField.LOAN_AMOUNT),
+                decisionEngine.calculateApprovedLoan(SEGMENT_3_PERSONAL_CODE, 9000L, 12));
+        Decision decision = assertInstanceOf(DecisionOutcome.Approved.class,
+                decisionEngine.calculateApprovedLoan(SEGMENT_3_PERSONAL_CODE, 8000L, 12)).decision();
+        assertEquals(8000, decision.getLoanAmount());
+    }
+
+    @Test
+    void testChangedFileIsPublished() throws Exception {
+        DecisionEngine decisionEngine = engine();
+        OfferTable before = offerTableProvider.current();
+        assertEquals(40, approvedPeriod(decisionEngine.calculateApprovedLoan(SEGMENT_1_PERSONAL_CODE, 4000L, 12)));
+
+        write("""
+                version=2
+                loan-amount.maximum=8000
+                segment.credit-modifiers=0,200,300,1000
+                """);
+        long deadline = System.nanoTime() + 10_000_000_000L;
+        while (offerTableProvider.current().getPolicy().getVersion() != 2 && System.nanoTime() < deadline) {
+            Thread.sleep(20);
+        }
+
+        assertEquals(2, offerTableProvider.current().getPolicy().getVersion());
+        assertNotSame(before, offerTableProvider.current());
+        // The memoized outcome belongs to the previous offer table, so the new modifier is used right away.
+        assertEquals(20, approvedPeriod(decisionEngine.calculateApprovedLoan(SEGMENT_1_PERSONAL_CODE, 4000L, 12)));
+        ScoringPolicyChangedEvent event = assertInstanceOf(ScoringPolicyChangedEvent.class, events.get(events.size() - 1));
+        assertEquals(1, event.previous().getVersion());
+    }
+
+    @Test
+    void testInvalidChangeKeepsCurrentPolicy() throws IOException {
+        OfferTable before = offerTableProvider.current();
+
+        write("""
+                version=3
+                loan-period.minimum=60
+                loan-period.maximum=48
+                """);
+
+        assertThrows(IllegalArgumentException.class, watcher::reload);
+        assertSame(before, offerTableProvider.current());
+        assertEquals(1, events.size());
+    }
+
+    @Test
+    void testUnchangedFileIsNotPublishedAgain() throws IOException {
+        OfferTable before = offerTableProvider.current();
+
+        assertFalse(watcher.reload());
+        assertSame(before, offerTableProvider.current());
+    }
+
+    @Test
+    void testUnreadablePolicyFailsStartup() throws IOException {
+        Path missing = directory.resolve("missing.properties");
+
+        ScoringPolicyWatcher unreadable = new ScoringPolicyWatcher(missing, offerTableProvider, events::add);
+
+        assertThrows(IllegalStateException.class, unreadable::start);
+    }
+
+    private DecisionEngine engine() {
+        return DecisionEngine.builder(loanLimitSolver, offerTableProvider)
+                .creditInfoProvider(new CreditInfoService(offerTableProvider))
+                .decisionMemo(new DecisionMemo(1024))
+                .build();
+    }
+
+    private static int approvedPeriod(DecisionOutcome outcome) {
+        return assertInstanceOf(DecisionOutcome.Approved.class, outcome).decision().getLoanPeriod();
+    }
+
+    /**
+     * Replaces the policy file in one step, the way the file should be updated in production.
+     */
+    private void write(String content) throws IOException {
+        Path temporary = Files.writeString(directory.resolve("scoring-policy.tmp"), content);
+        Files.move(temporary, policyFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+}